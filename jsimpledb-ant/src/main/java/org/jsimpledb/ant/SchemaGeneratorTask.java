@@ -16,6 +16,7 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.Map;
 
 import org.apache.tools.ant.AntClassLoader;
 import org.apache.tools.ant.BuildException;
@@ -24,6 +25,7 @@ import org.apache.tools.ant.types.Path;
 import org.apache.tools.ant.types.Reference;
 import org.apache.tools.ant.types.Resource;
 import org.jsimpledb.DefaultStorageIdGenerator;
+import org.jsimpledb.JSimpleDB;
 import org.jsimpledb.JSimpleDBFactory;
 import org.jsimpledb.StorageIdGenerator;
 import org.jsimpledb.annotation.JFieldType;
@@ -184,6 +186,22 @@ import org.jsimpledb.spring.JSimpleDBFieldTypeScanner;
  *      </p>
  * </td>
  * </tr>
+ * <tr>
+ *  <td>{@code generatedClassesDir}</td>
+ *  <td>No</td>
+ *  <td>
+ *      <p>
+ *      Specifies a directory (typically the directory containing the compiled model classes) into which to write
+ *      pre-generated JSimpleDB subclasses of the model classes. When found on the classpath at runtime, these
+ *      class files are loaded directly instead of being generated. They must be regenerated whenever the model
+ *      classes change. See {@link org.jsimpledb.JSimpleDB#generateClassFiles JSimpleDB.generateClassFiles()}.
+ *      </p>
+ *
+ *      <p>
+ *      By default, no classes are pre-generated.
+ *      </p>
+ * </td>
+ * </tr>
  * </table>
  * </div>
  *
@@ -242,6 +260,7 @@ public class SchemaGeneratorTask extends Task {
     private boolean failOnError = true;
     private String verifiedProperty;
     private File file;
+    private File generatedClassesDir;
     private Path classPath;
     private String storageIdGeneratorClassName = DefaultStorageIdGenerator.class.getName();
     private final ArrayList<OldSchemas> oldSchemasList = new ArrayList<>();
@@ -276,6 +295,10 @@ public class SchemaGeneratorTask extends Task {
         this.file = file;
     }
 
+    public void setGeneratedClassesDir(File generatedClassesDir) {
+        this.generatedClassesDir = generatedClassesDir;
+    }
+
     public Path createClasspath() {
         this.classPath = new Path(this.getProject());
         return this.classPath;
@@ -439,12 +462,28 @@ public class SchemaGeneratorTask extends Task {
 
             // Build schema model
             this.log("generating JSimpleDB schema from schema classes");
-            final SchemaModel schemaModel;
+            final JSimpleDB jdb;
             try {
-                schemaModel = factory.newJSimpleDB().getSchemaModel();
+                jdb = factory.newJSimpleDB();
             } catch (Exception e) {
                 throw new BuildException("schema generation failed: " + e, e);
             }
+            final SchemaModel schemaModel = jdb.getSchemaModel();
+
+            // Pre-generate model subclasses
+            if (this.generatedClassesDir != null) {
+                for (Map.Entry<String, byte[]> entry : jdb.generateClassFiles().entrySet()) {
+                    final File classFile = new File(this.generatedClassesDir, entry.getKey().replace('.', '/') + ".class");
+                    this.log("writing JSimpleDB generated class " + entry.getKey() + " to `" + classFile + "'");
+                    if (!classFile.getParentFile().exists() && !classFile.getParentFile().mkdirs())
+                        throw new BuildException("error creating directory `" + classFile.getParentFile() + "'");
+                    try (FileOutputStream output = new FileOutputStream(classFile)) {
+                        output.write(entry.getValue());
+                    } catch (IOException e) {
+                        throw new BuildException("error writing generated class to `" + classFile + "': " + e, e);
+                    }
+                }
+            }
 
             // Record schema model in database
             db.createTransaction(schemaModel, 1, true).commit();
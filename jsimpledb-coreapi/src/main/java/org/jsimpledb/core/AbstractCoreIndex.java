@@ -43,6 +43,19 @@ abstract class AbstractCoreIndex {
         return Arrays.asList(this.indexView.fieldTypes.clone());
     }
 
+    /**
+     * Get the approximate number of entries in this index, as recorded by the index statistics.
+     *
+     * <p>
+     * This does not iterate the index. Any filtering applied to this instance is ignored.
+     *
+     * @return approximate number of index entries, or -1 if no statistics are available
+     * @see Database#setIndexStatistics
+     */
+    public long estimateSize() {
+        return this.tx.estimateIndexSize(this.indexView.prefix);
+    }
+
     /**
      * Apply key filtering to field values at the specified index. This method works cummulatively: the new instance
      * filters to the intersection of the given key filter and any existing key filter on that field.
@@ -110,7 +110,7 @@ public abstract class ComplexField<T> extends Field<T> {
      * @param contentValue the value associated with the content key, or null if not needed
      */
     void addIndexEntry(Transaction tx, ObjId id, SimpleField<?> subField, byte[] contentKey, byte[] contentValue) {
-        tx.kvt.put(this.buildIndexEntry(id, subField, contentKey, contentValue), ByteUtil.EMPTY);
+        tx.addIndexEntry(this.buildIndexEntry(id, subField, contentKey, contentValue));
     }
 
     /**
@@ -123,7 +123,7 @@ public abstract class ComplexField<T> extends Field<T> {
      * @param contentValue the value associated with the content key, or null if not needed
      */
     void removeIndexEntry(Transaction tx, ObjId id, SimpleField<?> subField, byte[] contentKey, byte[] contentValue) {
-        tx.kvt.remove(this.buildIndexEntry(id, subField, contentKey, contentValue));
+        tx.removeIndexEntry(this.buildIndexEntry(id, subField, contentKey, contentValue));
     }
 
     private byte[] buildIndexEntry(ObjId id, SimpleField<?> subField, byte[] contentKey, byte[] contentValue) {
@@ -8,6 +8,15 @@ package org.jsimpledb.core;
 import com.google.common.base.Preconditions;
 import com.google.common.reflect.TypeToken;
 
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.jsimpledb.kv.KVPair;
+import org.jsimpledb.kv.KVStore;
+import org.jsimpledb.util.ByteUtil;
+import org.jsimpledb.util.ByteWriter;
+import org.jsimpledb.util.UnsignedIntEncoder;
+
 /**
  * Counter fields.
  *
@@ -17,22 +26,40 @@ import com.google.common.reflect.TypeToken;
  * Counter fields do not support indexing or change listeners.
  *
  * <p>
+ * Counter fields may optionally be {@linkplain #getShards sharded}, i.e., have their value spread across multiple
+ * key/value pairs. Each adjustment modifies only one shard, chosen at random, while reading
+ * the counter sums all of the shards. This reduces contention among concurrent writers for key/value stores that
+ * implement {@link KVStore#adjustCounter KVStore.adjustCounter()} as a read-modify-write of a single key,
+ * at the cost of a slightly more expensive read.
+ *
+ * <p>
  * Note: during schema version change notification, counter field values appear as plain {@code long} values.
  */
 public class CounterField extends Field<Long> {
 
+    /**
+     * Maximum number of counter shards ({@value #MAX_SHARDS}).
+     */
+    public static final int MAX_SHARDS = 256;
+
+    final int shards;
+
     /**
      * Constructor.
      *
      * @param name the name of the field
      * @param storageId field storage ID
      * @param schema schema version
+     * @param shards number of counter shards
      * @throws IllegalArgumentException if any parameter is null
      * @throws IllegalArgumentException if {@code name} is invalid
      * @throws IllegalArgumentException if {@code storageId} is zero or less
+     * @throws IllegalArgumentException if {@code shards} is not between 1 and {@link #MAX_SHARDS}
      */
-    CounterField(String name, int storageId, Schema schema) {
+    CounterField(String name, int storageId, Schema schema, int shards) {
         super(name, storageId, schema, TypeToken.of(Long.class));
+        Preconditions.checkArgument(shards >= 1 && shards <= MAX_SHARDS, "invalid shards");
+        this.shards = shards;
     }
 
     @Override
@@ -42,6 +69,19 @@ public class CounterField extends Field<Long> {
 
 // Public methods
 
+    /**
+     * Get the number of shards across which this counter's value is spread.
+     *
+     * <p>
+     * The first shard is stored under the field's normal key, and additional shards (if any) under that key
+     * followed by the shard number.
+     *
+     * @return number of counter shards, or one if this counter is not sharded
+     */
+    public int getShards() {
+        return this.shards;
+    }
+
     @Override
     public Long getValue(Transaction tx, ObjId id) {
         Preconditions.checkArgument(tx != null, "null tx");
@@ -60,11 +100,89 @@ public class CounterField extends Field<Long> {
 
     @Override
     public String toString() {
-        return "counter field `" + this.name + "'";
+        return (this.shards > 1 ? "sharded " : "") + "counter field `" + this.name + "'";
     }
 
 // Non-public methods
 
+    /**
+     * Initialize this counter to zero in the given object.
+     *
+     * @param kv key/value store
+     * @param id object ID
+     */
+    void initialize(KVStore kv, ObjId id) {
+        final byte[] zero = kv.encodeCounter(0);
+        for (int shard = 0; shard < this.shards; shard++)
+            kv.put(this.buildShardKey(id, shard), zero);
+    }
+
+    /**
+     * Read this counter's value in the given object by summing its shards.
+     *
+     * @param kv key/value store
+     * @param id object ID
+     * @return counter value
+     */
+    long read(KVStore kv, ObjId id) {
+        final byte[] key = this.buildKey(id);
+        if (this.shards == 1) {
+            final byte[] value = kv.get(key);
+            return value != null ? kv.decodeCounter(value) : 0;
+        }
+        long sum = 0;
+        final Iterator<KVPair> i = kv.getRange(key, ByteUtil.getKeyAfterPrefix(key), false);
+        while (i.hasNext())
+            sum += kv.decodeCounter(i.next().getValue());
+        Database.closeIfPossible(i);
+        return sum;
+    }
+
+    /**
+     * Set this counter's value in the given object. The value is stored in the first shard and the others are reset to zero.
+     *
+     * @param kv key/value store
+     * @param id object ID
+     * @param value new counter value
+     */
+    void write(KVStore kv, ObjId id, long value) {
+        kv.put(this.buildKey(id), kv.encodeCounter(value));
+        if (this.shards > 1) {
+            final byte[] zero = kv.encodeCounter(0);
+            for (int shard = 1; shard < this.shards; shard++)
+                kv.put(this.buildShardKey(id, shard), zero);
+        }
+    }
+
+    /**
+     * Adjust this counter's value in the given object by adjusting a randomly chosen shard.
+     *
+     * @param kv key/value store
+     * @param id object ID
+     * @param offset amount to adjust by
+     */
+    void adjust(KVStore kv, ObjId id, long offset) {
+        final int shard = this.shards > 1 ? ThreadLocalRandom.current().nextInt(this.shards) : 0;
+        kv.adjustCounter(this.buildShardKey(id, shard), offset);
+    }
+
+    /**
+     * Build the key for the given shard of this counter.
+     *
+     * @param id object ID
+     * @param shard shard number
+     * @return shard key
+     */
+    byte[] buildShardKey(ObjId id, int shard) {
+        if (shard == 0)
+            return this.buildKey(id);
+        final ByteWriter writer = new ByteWriter();
+        id.writeTo(writer);
+        writer.write(this.encodedStorageId);
+        UnsignedIntEncoder.write(writer, shard);
+        return writer.getBytes();
+    }
+
     @Override
     void copy(ObjId srcId, ObjId dstId, Transaction srcTx, Transaction dstTx) {
         dstTx.writeCounterField(dstId, this.storageId, srcTx.readCounterField(srcId, this.storageId, false), false);
@@ -7,13 +7,33 @@ package org.jsimpledb.core;
 
 class CounterFieldStorageInfo extends FieldStorageInfo {
 
+    final int shards;
+
     CounterFieldStorageInfo(CounterField field) {
         super(field);
+        this.shards = field.shards;
     }
 
     @Override
     public String toString() {
-        return "counter field";
+        return (this.shards > 1 ? "counter field with " + this.shards + " shards" : "counter field");
+    }
+
+// Object
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this)
+            return true;
+        if (!super.equals(obj))
+            return false;
+        final CounterFieldStorageInfo that = (CounterFieldStorageInfo)obj;
+        return this.shards == that.shards;
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ this.shards;
     }
 }
 
@@ -12,6 +12,8 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Map;
@@ -93,9 +95,15 @@ public class Database {
     private static final byte[] SCHEMA_KEY_PREFIX = new byte[] {
       METADATA_PREFIX_BYTE, (byte)0x01
     };
+    private static final byte[] SCHEMA_FINGERPRINT_KEY = new byte[] {
+      METADATA_PREFIX_BYTE, (byte)0x02
+    };
     private static final byte[] VERSION_INDEX_PREFIX = new byte[] {
       METADATA_PREFIX_BYTE, (byte)0x80
     };
+    private static final byte[] INDEX_STATISTICS_PREFIX = new byte[] {
+      METADATA_PREFIX_BYTE, (byte)0x90
+    };
 
     // Key ranges
     private static final KeyRange METADATA_KEY_RANGE = KeyRange.forPrefix(METADATA_PREFIX);
@@ -104,7 +112,11 @@ public class Database {
     // JSimpleDB format version numbers
     private static final int FORMAT_VERSION_1 = 1;                                      // original format
     private static final int FORMAT_VERSION_2 = 2;                                      // added compressed schema XML
-    private static final int CURRENT_FORMAT_VERSION = FORMAT_VERSION_2;
+    private static final int FORMAT_VERSION_3 = 3;                                      // added schema fingerprint
+    private static final int CURRENT_FORMAT_VERSION = FORMAT_VERSION_3;
+
+    // Digest algorithm for schema fingerprints
+    private static final String SCHEMA_FINGERPRINT_ALGORITHM = "SHA-1";
 
     /* Note: this string must not ever change */
     private static final byte[] SCHEMA_XML_COMPRESSION_DICTIONARY = (""
@@ -155,6 +167,9 @@ public class Database {
     private final KVDatabase kvdb;
 
     private volatile Schemas lastSchemas;
+    private volatile boolean indexStatistics;
+    private volatile boolean indexHistograms;
+    private volatile boolean fieldValueCaching;
 
     /**
      * Constructor.
@@ -185,6 +200,97 @@ public class Database {
         return this.kvdb;
     }
 
+    /**
+     * Determine whether transactions maintain per-index entry count statistics.
+     *
+     * @return true if index statistics are maintained
+     * @see #setIndexStatistics setIndexStatistics()
+     */
+    public boolean isIndexStatistics() {
+        return this.indexStatistics;
+    }
+
+    /**
+     * Configure whether transactions maintain per-index entry count statistics.
+     *
+     * <p>
+     * When enabled, every index entry addition and removal also {@linkplain KVStore#adjustCounter adjusts} a counter
+     * recorded under the index's storage ID, allowing {@link Transaction#estimateIndexSize Transaction.estimateIndexSize()}
+     * and {@link CoreIndex} views to report approximate index sizes without iterating the index.
+     *
+     * <p>
+     * Counters are created by {@link Transaction#rebuildIndexStatistics Transaction.rebuildIndexStatistics()}, which
+     * should be invoked once after enabling statistics on an existing database, and again whenever new indexes are added.
+     * Statistics are not kept exact: they drift if some transactions run without statistics enabled, and with key/value
+     * stores that do not support lock-free counter adjustment they introduce a point of contention between transactions.
+     *
+     * <p>
+     * Default is false.
+     *
+     * @param indexStatistics true to maintain index statistics
+     */
+    public void setIndexStatistics(boolean indexStatistics) {
+        this.indexStatistics = indexStatistics;
+    }
+
+    /**
+     * Determine whether transactions maintain per-value-prefix index histograms.
+     *
+     * @return true if index histograms are maintained
+     * @see #setIndexHistograms setIndexHistograms()
+     */
+    public boolean isIndexHistograms() {
+        return this.indexHistograms;
+    }
+
+    /**
+     * Configure whether transactions maintain per-value-prefix index histograms.
+     *
+     * <p>
+     * When enabled in addition to {@linkplain #setIndexStatistics index statistics}, each index also has a counter
+     * for every possible first byte of the encoded (first) indexed value. These allow the sizes of index views
+     * restricted to a specific value to be estimated more precisely, at the cost of a second counter adjustment
+     * per index entry change.
+     *
+     * <p>
+     * This setting has no effect unless index statistics are also enabled. Default is false.
+     *
+     * @param indexHistograms true to maintain index histograms
+     */
+    public void setIndexHistograms(boolean indexHistograms) {
+        this.indexHistograms = indexHistograms;
+    }
+
+    /**
+     * Determine whether transactions cache decoded simple field values.
+     *
+     * @return true if simple field values are cached
+     * @see #setFieldValueCaching setFieldValueCaching()
+     */
+    public boolean isFieldValueCaching() {
+        return this.fieldValueCaching;
+    }
+
+    /**
+     * Configure whether transactions cache decoded simple field values.
+     *
+     * <p>
+     * When enabled, each transaction remembers the values returned by {@link Transaction#readSimpleField
+     * Transaction.readSimpleField()}, so that repeated reads of the same field in the same transaction avoid both
+     * the key/value lookup and the decoding step. Cached values are discarded when the field is written, when the
+     * containing object is deleted or has its schema version changed, and when a snapshot transaction is reset.
+     * Values whose Java representation is mutable (arrays and {@link java.util.Date}s) are never cached.
+     *
+     * <p>
+     * Caching assumes that all changes go through the {@link Transaction} API; changes made directly to the underlying
+     * {@link Transaction#getKVTransaction key/value transaction} will not be noticed. Default is false.
+     *
+     * @param fieldValueCaching true to cache simple field values
+     */
+    public void setFieldValueCaching(boolean fieldValueCaching) {
+        this.fieldValueCaching = fieldValueCaching;
+    }
+
     /**
      * Create a new transaction.
      *
@@ -505,10 +611,13 @@ public class Database {
             }
         }
         final boolean compressedSchemaXML;
+        final boolean schemaFingerprint;
         switch (formatVersion) {
         case FORMAT_VERSION_1:
         case FORMAT_VERSION_2:
+        case FORMAT_VERSION_3:
             compressedSchemaXML = formatVersion >= FORMAT_VERSION_2;
+            schemaFingerprint = formatVersion >= FORMAT_VERSION_3;
             break;
         default:
             throw new InconsistentDatabaseException("database contains unrecognized format version "
@@ -530,49 +639,51 @@ public class Database {
         boolean firstAttempt = true;
         while (true) {
 
-            // Read recorded database schema versions
-            final TreeMap<Integer, byte[]> bytesMap = new TreeMap<>();
-            final Iterator<KVPair> schemaIterator = kvstore.getRange(SCHEMA_KEY_RANGE.getMin(), SCHEMA_KEY_RANGE.getMax(), false);
-            while (schemaIterator.hasNext()) {
-                final KVPair pair = schemaIterator.next();
-                assert SCHEMA_KEY_RANGE.contains(pair.getKey());
-
-                // Decode schema version and get XML
-                final int vers = UnsignedIntEncoder.read(new ByteReader(pair.getKey(), SCHEMA_KEY_PREFIX.length));
-                if (vers == 0)
-                    throw new InconsistentDatabaseException("database contains an invalid schema version zero");
-                bytesMap.put(vers, pair.getValue());
-            }
-            Database.closeIfPossible(schemaIterator);
-
-            // Read and decode database schemas, avoiding rebuild if possible
+            // If the recorded schema fingerprint matches the schemas we last used, we can skip reading all schema versions
+            final SortedMap<Integer, ?> versionMap;
             schemas = this.lastSchemas;
-            if (schemas != null && !schemas.isSameVersions(bytesMap))
-                schemas = null;
-            if (schemas == null) {
-                try {
-                    schemas = this.buildSchemas(bytesMap, compressedSchemaXML);
-                } catch (IllegalArgumentException e) {
-                    if (firstAttempt)
-                        throw new InconsistentDatabaseException("database contains invalid schema information", e);
-                    else
-                        throw new InvalidSchemaException("schema is not valid: " + e.getMessage(), e);
+            final byte[] lastFingerprint = schemas != null ? schemas.fingerprint : null;
+            if (schemaFingerprint && lastFingerprint != null
+              && Arrays.equals(kvstore.get(SCHEMA_FINGERPRINT_KEY.clone()), lastFingerprint))
+                versionMap = schemas.getVersions();
+            else {
+
+                // Read recorded database schema versions
+                final TreeMap<Integer, byte[]> bytesMap = this.readSchemas(kvstore);
+
+                // Read and decode database schemas, avoiding rebuild if possible
+                if (schemas != null && !schemas.isSameVersions(bytesMap))
+                    schemas = null;
+                if (schemas == null) {
+                    try {
+                        schemas = this.buildSchemas(bytesMap, compressedSchemaXML);
+                    } catch (IllegalArgumentException e) {
+                        if (firstAttempt)
+                            throw new InconsistentDatabaseException("database contains invalid schema information", e);
+                        else
+                            throw new InvalidSchemaException("schema is not valid: " + e.getMessage(), e);
+                    }
                 }
+                if (schemas.fingerprint == null)
+                    schemas.fingerprint = Database.encodeSchemaFingerprint(bytesMap);
+                versionMap = bytesMap;
             }
 
             // If no version specified, assume the highest recorded version
-            if (version == 0 && !bytesMap.isEmpty())
-                version = bytesMap.lastKey();
+            if (version == 0 && !versionMap.isEmpty())
+                version = versionMap.lastKey();
 
             // If transaction schema was not found in the database, add it and retry
-            if (!bytesMap.containsKey(version)) {
+            if (!versionMap.containsKey(version)) {
 
                 // Log it
-                if (bytesMap.isEmpty()) {
+                if (versionMap.isEmpty()) {
                     if (!uninitialized)
                         throw new InconsistentDatabaseException("database is initialized but contains zero schema versions");
-                } else
-                    this.log.debug("schema version " + version + " not found in database; known versions are " + bytesMap.keySet());
+                } else {
+                    this.log.debug("schema version " + version + " not found in database; known versions are "
+                      + versionMap.keySet());
+                }
 
                 // Check whether we can add a new schema version
                 this.checkAddNewSchema(schemaModel, version, allowNewSchema);
@@ -580,6 +691,8 @@ public class Database {
                 // Record new schema in database
                 this.log.debug("recording new schema version " + version + " into database");
                 this.writeSchema(kvstore, version, schemaModel, compressedSchemaXML);
+                if (schemaFingerprint)
+                    this.updateSchemaFingerprint(kvstore);
 
                 // Try again
                 schemas = null;
@@ -589,7 +702,7 @@ public class Database {
 
             // Compare transaction schema with the schema of the same version found in the database
             if (this.log.isTraceEnabled())
-                this.log.trace("found schema version " + version + " in database; known versions are " + bytesMap.keySet());
+                this.log.trace("found schema version " + version + " in database; known versions are " + versionMap.keySet());
             final SchemaModel dbSchemaModel = schemas.getVersion(version).getSchemaModel();
             if (schemaModel != null) {
                 if (!schemaModel.isCompatibleWith(dbSchemaModel)) {
@@ -677,6 +790,26 @@ public class Database {
         return writer.getBytes();
     }
 
+    /**
+     * Build the index statistics key for the index entry count of an index.
+     *
+     * @param storageId index storage ID
+     * @param bucket histogram bucket (first byte of the encoded index value), or -1 for the index total
+     * @return statistics counter key
+     */
+    static byte[] buildIndexStatisticsKey(int storageId, int bucket) {
+        final ByteWriter writer = new ByteWriter(INDEX_STATISTICS_PREFIX.length + UnsignedIntEncoder.MAX_ENCODED_LENGTH + 1);
+        writer.write(INDEX_STATISTICS_PREFIX);
+        UnsignedIntEncoder.write(writer, storageId);
+        if (bucket != -1)
+            writer.writeByte(bucket);
+        return writer.getBytes();
+    }
+
+    static KeyRange getIndexStatisticsKeyRange(int storageId) {
+        return KeyRange.forPrefix(Database.buildIndexStatisticsKey(storageId, -1));
+    }
+
     CoreIndex<Integer, ObjId> getVersionIndex(Transaction tx) {
         return new CoreIndex<Integer, ObjId>(tx,
           new IndexView<Integer, ObjId>(VERSION_INDEX_PREFIX, false, FieldTypeRegistry.UNSIGNED_INT, FieldTypeRegistry.OBJ_ID));
@@ -780,6 +913,61 @@ public class Database {
      */
     void deleteSchema(KVStore kvt, int version) {
         kvt.remove(this.getSchemaKey(version));
+        final byte[] formatVersionBytes = kvt.get(FORMAT_VERSION_KEY.clone());
+        if (formatVersionBytes != null && UnsignedIntEncoder.decode(formatVersionBytes) >= FORMAT_VERSION_3)
+            this.updateSchemaFingerprint(kvt);
+    }
+
+    /**
+     * Read all recorded schema versions.
+     */
+    private TreeMap<Integer, byte[]> readSchemas(KVStore kvstore) {
+        final TreeMap<Integer, byte[]> bytesMap = new TreeMap<>();
+        final Iterator<KVPair> schemaIterator = kvstore.getRange(SCHEMA_KEY_RANGE.getMin(), SCHEMA_KEY_RANGE.getMax(), false);
+        while (schemaIterator.hasNext()) {
+            final KVPair pair = schemaIterator.next();
+            assert SCHEMA_KEY_RANGE.contains(pair.getKey());
+
+            // Decode schema version and get XML
+            final int vers = UnsignedIntEncoder.read(new ByteReader(pair.getKey(), SCHEMA_KEY_PREFIX.length));
+            if (vers == 0)
+                throw new InconsistentDatabaseException("database contains an invalid schema version zero");
+            bytesMap.put(vers, pair.getValue());
+        }
+        Database.closeIfPossible(schemaIterator);
+        return bytesMap;
+    }
+
+    /**
+     * Re-compute and record the schema fingerprint after the recorded schema versions have changed.
+     */
+    private void updateSchemaFingerprint(KVStore kvstore) {
+        kvstore.put(SCHEMA_FINGERPRINT_KEY.clone(), Database.encodeSchemaFingerprint(this.readSchemas(kvstore)));
+    }
+
+    /**
+     * Encode the schema fingerprint, which consists of the recorded schema version numbers
+     * followed by a digest of all the recorded schema versions and their encoded XML.
+     */
+    static byte[] encodeSchemaFingerprint(SortedMap<Integer, byte[]> bytesMap) {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(SCHEMA_FINGERPRINT_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("unexpected exception", e);
+        }
+        final ByteWriter writer = new ByteWriter();
+        UnsignedIntEncoder.write(writer, bytesMap.size());
+        for (Map.Entry<Integer, byte[]> entry : bytesMap.entrySet()) {
+            final ByteWriter entryWriter = new ByteWriter();
+            UnsignedIntEncoder.write(entryWriter, entry.getKey());
+            UnsignedIntEncoder.write(entryWriter, entry.getValue().length);
+            digest.update(entryWriter.getBytes());
+            digest.update(entry.getValue());
+            UnsignedIntEncoder.write(writer, entry.getKey());
+        }
+        writer.write(digest.digest());
+        return writer.getBytes();
     }
 
     private byte[] getSchemaKey(int version) {
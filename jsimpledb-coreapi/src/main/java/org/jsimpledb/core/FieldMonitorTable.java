@@ -0,0 +1,88 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.core;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.jcip.annotations.ThreadSafe;
+
+/**
+ * Dispatch table mapping each (object type, field) pair to the {@link FieldMonitor}s that can observe changes
+ * to that field in objects of that type.
+ *
+ * <p>
+ * Because a {@link FieldMonitor}'s type restriction depends only on the changed object's type, the set of monitors
+ * that can observe a change can be determined once per (object type, field) pair, instead of once per change.
+ * Entries for the object types in the given schema are computed up front; entries for any other object types
+ * (e.g., from other schema versions) are computed on demand and cached.
+ *
+ * <p>
+ * Instances capture the state of the monitor map at the time of construction and must be discarded whenever
+ * the set of registered monitors changes.
+ */
+@ThreadSafe
+class FieldMonitorTable {
+
+    private static final FieldMonitor[] NO_MONITORS = new FieldMonitor[0];
+
+    private final NavigableMap<Integer, HashSet<FieldMonitor>> monitorMap;
+    private final ConcurrentHashMap<Long, FieldMonitor[]> table = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param monitorMap registered monitors keyed by field storage ID
+     * @param schema schema whose object types should be pre-computed, or null for none
+     * @throws IllegalArgumentException if {@code monitorMap} is null
+     */
+    FieldMonitorTable(NavigableMap<Integer, HashSet<FieldMonitor>> monitorMap, Schema schema) {
+        Preconditions.checkArgument(monitorMap != null, "null monitorMap");
+        this.monitorMap = monitorMap;
+        if (schema != null) {
+            for (ObjType objType : schema.objTypeMap.values()) {
+                for (int storageId : objType.fields.keySet()) {
+                    if (monitorMap.containsKey(storageId))
+                        this.getMonitors(objType.storageId, storageId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the monitors that can observe changes to the specified field in objects of the specified type.
+     *
+     * @param objTypeStorageId object type storage ID
+     * @param fieldStorageId field storage ID
+     * @return matching monitors, possibly empty
+     */
+    FieldMonitor[] getMonitors(int objTypeStorageId, int fieldStorageId) {
+        final Long key = ((long)objTypeStorageId << 32) | (fieldStorageId & 0xffffffffL);
+        FieldMonitor[] monitors = this.table.get(key);
+        if (monitors == null) {
+            monitors = this.buildMonitors(objTypeStorageId, fieldStorageId);
+            this.table.put(key, monitors);
+        }
+        return monitors;
+    }
+
+    private FieldMonitor[] buildMonitors(int objTypeStorageId, int fieldStorageId) {
+        final HashSet<FieldMonitor> candidates = this.monitorMap.get(fieldStorageId);
+        if (candidates == null)
+            return NO_MONITORS;
+        final byte[] minId = ObjId.getMin(objTypeStorageId).getBytes();
+        final ArrayList<FieldMonitor> monitors = new ArrayList<>(candidates.size());
+        for (FieldMonitor monitor : candidates) {
+            if (monitor.types == null || monitor.types.contains(minId))
+                monitors.add(monitor);
+        }
+        return !monitors.isEmpty() ? monitors.toArray(new FieldMonitor[monitors.size()]) : NO_MONITORS;
+    }
+}
@@ -11,13 +11,14 @@ import org.jsimpledb.kv.KeyFilter;
 import org.jsimpledb.kv.KeyRange;
 import org.jsimpledb.util.Bounds;
 import org.jsimpledb.util.ByteUtil;
+import org.jsimpledb.util.CardinalityEstimating;
 
 /**
  * Implements the {@link NavigableSet} view of an index.
  *
  * @param <E> type of the values being indexed
  */
-class IndexSet<E> extends FieldTypeSet<E> {
+class IndexSet<E> extends FieldTypeSet<E> implements CardinalityEstimating {
 
     // Primary constructor
     IndexSet(Transaction tx, FieldType<E> entryType, boolean prefixMode, byte[] prefix) {
@@ -41,6 +42,22 @@ class IndexSet<E> extends FieldTypeSet<E> {
           + "]";
     }
 
+// CardinalityEstimating
+
+    /**
+     * Estimate the size of this set from the index statistics, if enabled.
+     *
+     * <p>
+     * The estimate is based on the index (or, with histograms, the index value prefix) as a whole and ignores
+     * any range restrictions or filtering applied to this set, so it is effectively an upper bound.
+     *
+     * @return approximate upper bound on the number of elements, or -1 if unknown
+     */
+    @Override
+    public long estimateCardinality() {
+        return this.tx.estimateIndexSize(this.prefix);
+    }
+
 // AbstractKVNavigableSet
 
     @Override
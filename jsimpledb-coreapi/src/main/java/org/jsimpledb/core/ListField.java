@@ -20,12 +20,23 @@ import org.jsimpledb.util.ByteWriter;
  * List field.
  *
  * <p>
- * JSimpleDB list fields have performance characteristics similar to {@link ArrayList}.
+ * JSimpleDB list fields have performance characteristics similar to {@link ArrayList}: elements are stored under
+ * their list index, so random access is fast, but inserting or removing elements anywhere other than the end of the
+ * list requires rewriting all of the following elements (and their index entries, if any).
+ *
+ * <p>
+ * Alternately, list fields may be configured as {@linkplain #isSparse sparse}. Sparse list elements are stored under
+ * gapped positions, so inserting or removing elements anywhere in the list only writes the affected elements,
+ * apart from an occasional local rebalancing when the gap between two neighboring elements is exhausted. The tradeoff
+ * is that accessing an element by list index, or determining the size of the list, requires a linear scan. Sparse lists
+ * are well suited to long lists that are mostly iterated but frequently reordered or modified in the middle.
  *
  * @param <E> Java type for the list elements
  */
 public class ListField<E> extends CollectionField<List<E>, E> {
 
+    final boolean sparse;
+
     /**
      * Constructor.
      *
@@ -33,17 +44,33 @@ public class ListField<E> extends CollectionField<List<E>, E> {
      * @param storageId field content storage ID
      * @param schema schema version
      * @param elementField this field's element sub-field
+     * @param sparse whether list elements are stored sparsely
      * @throws IllegalArgumentException if any parameter is null
      * @throws IllegalArgumentException if {@code storageId} is non-positive
      */
     @SuppressWarnings("serial")
-    ListField(String name, int storageId, Schema schema, SimpleField<E> elementField) {
+    ListField(String name, int storageId, Schema schema, SimpleField<E> elementField, boolean sparse) {
         super(name, storageId, schema, new TypeToken<List<E>>() { }
           .where(new TypeParameter<E>() { }, elementField.typeToken.wrap()), elementField);
+        this.sparse = sparse;
     }
 
 // Public methods
 
+    /**
+     * Determine whether this list field uses sparse element storage.
+     *
+     * <p>
+     * In a sparse list, the integer value associated with each entry in the {@linkplain Transaction#queryListElementIndex
+     * list element index} is the element's internal storage position, not its list index. Positions are ordered the same
+     * way as list indexes, but are not consecutive, and may change when elements are inserted nearby.
+     *
+     * @return whether list elements are stored sparsely
+     */
+    public boolean isSparse() {
+        return this.sparse;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public List<E> getValue(Transaction tx, ObjId id) {
@@ -58,14 +85,14 @@ public class ListField<E> extends CollectionField<List<E>, E> {
 
     @Override
     public String toString() {
-        return "list field `" + this.name + "' containing " + this.elementField;
+        return (this.sparse ? "sparse " : "") + "list field `" + this.name + "' containing " + this.elementField;
     }
 
 // Non-public methods
 
     @Override
     List<E> getValueInternal(Transaction tx, ObjId id) {
-        return new JSList<E>(tx, this, id);
+        return this.sparse ? new SparseJSList<E>(tx, this, id) : new JSList<E>(tx, this, id);
     }
 
     @Override
@@ -82,6 +109,13 @@ public class ListField<E> extends CollectionField<List<E>, E> {
     void copy(ObjId srcId, ObjId dstId, Transaction srcTx, Transaction dstTx) {
         final List<E> srcList = this.getValue(srcTx, srcId);
         final List<E> dstList = this.getValue(dstTx, dstId);
+        if (this.sparse) {                                          // avoid positional access, which is linear time
+            if (!dstList.equals(srcList)) {
+                dstList.clear();
+                dstList.addAll(srcList);
+            }
+            return;
+        }
         final int ssize = srcList.size();
         final int dsize = dstList.size();
         final int min = Math.min(ssize, dsize);
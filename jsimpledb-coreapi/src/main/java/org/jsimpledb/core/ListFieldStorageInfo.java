@@ -13,8 +13,11 @@ import org.jsimpledb.util.UnsignedIntEncoder;
 
 class ListFieldStorageInfo<E> extends CollectionFieldStorageInfo<List<E>, E> {
 
+    final boolean sparse;
+
     ListFieldStorageInfo(ListField<E> field) {
         super(field);
+        this.sparse = field.sparse;
     }
 
     @Override
@@ -32,6 +35,7 @@ class ListFieldStorageInfo<E> extends CollectionFieldStorageInfo<List<E>, E> {
 
     // Note: as we delete list elements, the index of remaining elements will decrease by one each time.
     // However, the KVPairIterator always reflects the current state so we'll see updated indexes.
+    // For sparse lists, the index entry contains the element's position, which does not change.
     @Override
     void unreference(Transaction tx, int storageId, ObjId target, ObjId referrer, byte[] prefix) {
         assert storageId == this.elementField.storageId;
@@ -39,13 +43,34 @@ class ListFieldStorageInfo<E> extends CollectionFieldStorageInfo<List<E>, E> {
         for (KVPairIterator i = new KVPairIterator(tx.kvt, prefix); i.hasNext(); ) {
             final ByteReader reader = new ByteReader(i.next().getKey());
             reader.skip(prefix.length);
-            list.remove(UnsignedIntEncoder.read(reader));
+            final int index = UnsignedIntEncoder.read(reader);
+            if (this.sparse)
+                ((SparseJSList<?>)list).removePosition(index);
+            else
+                list.remove(index);
         }
     }
 
     @Override
     public String toString() {
-        return "list field with element " + this.elementField;
+        return (this.sparse ? "sparse " : "") + "list field with element " + this.elementField;
+    }
+
+// Object
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this)
+            return true;
+        if (!super.equals(obj))
+            return false;
+        final ListFieldStorageInfo<?> that = (ListFieldStorageInfo<?>)obj;
+        return this.sparse == that.sparse;
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ (this.sparse ? 1 : 0);
     }
 }
 
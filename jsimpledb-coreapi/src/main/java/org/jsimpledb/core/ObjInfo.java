@@ -28,11 +28,15 @@ class ObjInfo {
 
     // Constructor that reads from key/value store
     ObjInfo(Transaction tx, ObjId id) {
+        this(tx, id, tx.kvt.get(id.getBytes()));
+    }
+
+    // Constructor that decodes meta-data already read from key/value store
+    ObjInfo(Transaction tx, ObjId id, byte[] value) {
         assert tx != null;
         assert id != null;
         this.tx = tx;
         this.id = id;
-        final byte[] value = tx.kvt.get(this.id.getBytes());
         if (value == null)
             throw new DeletedObjectException(tx, this.id);
         final ByteReader reader = new ByteReader(value);
@@ -92,11 +96,15 @@ class ObjInfo {
     }
 
     public static void write(Transaction tx, ObjId id, int version, boolean deleteNotified) {
+        tx.kvt.put(id.getBytes(), ObjInfo.encode(version, deleteNotified));
+    }
+
+    static byte[] encode(int version, boolean deleteNotified) {
         final ByteWriter writer = new ByteWriter();
         UnsignedIntEncoder.write(writer, META_DATA_VERSION);
         UnsignedIntEncoder.write(writer, version);
         FieldTypeRegistry.BOOLEAN.write(writer, deleteNotified);
-        tx.kvt.put(id.getBytes(), writer.getBytes());
+        return writer.getBytes();
     }
 
     @Override
@@ -37,6 +37,7 @@ public class Schemas {
     final TreeMap<Integer, TreeSet<Integer>> indexedFieldToContainingTypesMap = new TreeMap<>();
     final TreeSet<Integer> objTypeStorageIds = new TreeSet<>();
     KeyRanges objTypesKeyRanges;
+    volatile byte[] fingerprint;                                        // recorded schema fingerprint, or null if unknown
 
     Schemas(SortedMap<Integer, Schema> versions) {
         this.initialize(versions);
@@ -146,6 +147,7 @@ public class Schemas {
         final TreeMap<Integer, Schema> newVersions = new TreeMap<>(this.versions);
         if (newVersions.remove(version) == null)
             return false;
+        this.fingerprint = null;
         this.initialize(newVersions);
         return true;
     }
@@ -5,6 +5,9 @@
 
 package org.jsimpledb.core;
 
+import java.io.Closeable;
+
+import org.jsimpledb.kv.CloseableKVStore;
 import org.jsimpledb.kv.KVStore;
 
 /**
@@ -15,10 +18,15 @@ import org.jsimpledb.kv.KVStore;
  * for later use. Each {@link SnapshotTransaction} contains its own set of "snapshot" objects.
  *
  * <p>
- * {@link SnapshotTransaction}s can never be closed (i.e., committed or rolled-back); they persist in memory until
+ * {@link SnapshotTransaction}s can never be committed or rolled-back; they persist in memory until
  * no longer referenced. {@link Transaction.Callback}s may be registered but they will never be invoked.
  *
  * <p>
+ * {@link SnapshotTransaction}s created via {@link Transaction#createMutableSnapshotTransaction
+ * Transaction.createMutableSnapshotTransaction()} are based on a key/value store snapshot that should be released
+ * by invoking {@link #close} when the snapshot transaction is no longer needed.
+ *
+ * <p>
  * {@link SnapshotTransaction}s can be based on an arbitrary {@link KVStore};
  * see {@link Database#createSnapshotTransaction Database.createSnapshotTransaction()}.
  *
@@ -26,20 +34,31 @@ import org.jsimpledb.kv.KVStore;
  * @see Database#createSnapshotTransaction Database.createSnapshotTransaction()
  * @see org.jsimpledb.SnapshotJTransaction
  */
-public class SnapshotTransaction extends Transaction {
+public class SnapshotTransaction extends Transaction implements Closeable {
+
+    private final CloseableKVStore snapshot;
 
 // Constructors
 
     SnapshotTransaction(Database db, KVStore kvstore, Schemas schemas) {
         super(db, new SnapshotKVTransaction(kvstore), schemas);
+        this.snapshot = null;
     }
 
     SnapshotTransaction(Database db, KVStore kvstore, Schemas schemas, int versionNumber) {
         super(db, new SnapshotKVTransaction(kvstore), schemas, versionNumber);
+        this.snapshot = null;
     }
 
     SnapshotTransaction(Database db, KVStore kvstore, Schemas schemas, Schema schema) {
         super(db, new SnapshotKVTransaction(kvstore), schemas, schema);
+        this.snapshot = null;
+    }
+
+    // Based on a key/value snapshot that we own and close in close()
+    SnapshotTransaction(Database db, CloseableKVStore snapshot, Schemas schemas, Schema schema) {
+        super(db, new SnapshotKVTransaction(snapshot), schemas, schema);
+        this.snapshot = snapshot;
     }
 
 // Methods
@@ -72,6 +91,30 @@ public class SnapshotTransaction extends Transaction {
 
         // Delete all object and index keys
         this.db.reset(this);
+        this.invalidateFieldValues();
+    }
+
+    /**
+     * Close this snapshot transaction.
+     *
+     * <p>
+     * If this instance was created via {@link Transaction#createMutableSnapshotTransaction
+     * Transaction.createMutableSnapshotTransaction()}, the underlying key/value store snapshot is closed
+     * and this instance becomes unusable. Otherwise, this method does nothing.
+     *
+     * <p>
+     * Invoking this method more than once has no effect.
+     */
+    @Override
+    public void close() {
+        if (this.snapshot == null)
+            return;
+        synchronized (this) {
+            if (this.stale)
+                return;
+            this.stale = true;
+        }
+        this.snapshot.close();
     }
 
     /**
@@ -115,9 +158,9 @@ public class SnapshotTransaction extends Transaction {
      * Determine whether this transaction is still valid.
      *
      * <p>
-     * {@link SnapshotTransaction}s are always valid.
+     * {@link SnapshotTransaction}s are always valid unless {@linkplain #close closed}.
      *
-     * @return true always
+     * @return true unless this instance has been closed
      */
     @Override
     public boolean isValid() {
@@ -0,0 +1,753 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.core;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import org.jsimpledb.kv.KVPair;
+import org.jsimpledb.util.ByteReader;
+import org.jsimpledb.util.ByteUtil;
+import org.jsimpledb.util.ByteWriter;
+import org.jsimpledb.util.UnsignedIntEncoder;
+
+/**
+ * {@link List} implementation for sparse {@link ListField}s.
+ *
+ * <p>
+ * List elements are stored under non-consecutive, increasing positions. New elements are assigned positions
+ * between their neighbors; when there is no room left, the positions of a small window of surrounding elements
+ * are rebalanced, doubling the window until the available spacing is adequate. As a result, inserting and removing
+ * elements writes only the affected elements (amortized), but positional access requires a linear scan.
+ */
+class SparseJSList<E> extends AbstractList<E> {
+
+    // Spacing between elements appended to the end of the list
+    static final int GAP = 1 << 10;
+
+    // Minimum spacing between elements after rebalancing, if possible
+    static final int MIN_SPACING = 16;
+
+    private static final long MAX_POSITION = Integer.MAX_VALUE;
+
+    private final Transaction tx;
+    private final ObjId id;
+    private final ListField<E> field;
+    private final FieldType<E> elementType;
+    private final byte[] contentPrefix;
+
+// Constructors
+
+    SparseJSList(Transaction tx, ListField<E> field, ObjId id) {
+        Preconditions.checkArgument(tx != null, "null tx");
+        Preconditions.checkArgument(field != null, "null field");
+        Preconditions.checkArgument(id != null, "null id");
+        Preconditions.checkArgument(field.sparse, "non-sparse field");
+        this.tx = tx;
+        this.field = field;
+        this.id = id;
+        this.elementType = this.field.elementField.fieldType;
+        this.contentPrefix = field.buildKey(id);
+    }
+
+// List API
+
+    @Override
+    public E get(int index) {
+        final KVPair pair = this.findEntry(index);
+        if (pair == null)
+            throw new IndexOutOfBoundsException("index = " + index);
+        return this.elementType.read(new ByteReader(pair.getValue()));
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        final Iterator<KVPair> i = this.tx.kvt.getRange(this.contentPrefix, ByteUtil.getKeyAfterPrefix(this.contentPrefix), false);
+        while (i.hasNext()) {
+            i.next();
+            size++;
+        }
+        Database.closeIfPossible(i);
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        final KVPair pair = this.tx.kvt.getAtLeast(this.contentPrefix);
+        return pair == null || !ByteUtil.isPrefixOf(this.contentPrefix, pair.getKey());
+    }
+
+    @Override
+    public boolean contains(Object obj) {
+        return this.indexOf(obj) != -1;
+    }
+
+    @Override
+    public int indexOf(Object obj) {
+        int index = 0;
+        for (E elem : this) {
+            if (Objects.equals(elem, obj))
+                return index;
+            index++;
+        }
+        return -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object obj) {
+        int index = 0;
+        int lastIndex = -1;
+        for (E elem : this) {
+            if (Objects.equals(elem, obj))
+                lastIndex = index;
+            index++;
+        }
+        return lastIndex;
+    }
+
+    @Override
+    public E set(final int index, final E elem) {
+        return this.tx.mutateAndNotify(this.id, new Transaction.Mutation<E>() {
+            @Override
+            public E mutate() {
+                return SparseJSList.this.doSet(index, elem);
+            }
+        });
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iter();
+    }
+
+    private E doSet(final int index, final E newElem) {
+
+        // Build new value
+        final byte[] newValue = this.buildValue(newElem);
+
+        // Get existing list entry at that index, if any
+        final KVPair pair = this.findEntry(index);
+        if (pair == null)
+            throw new IndexOutOfBoundsException("index = " + index);
+        final byte[] key = pair.getKey();
+        final byte[] oldValue = pair.getValue();
+
+        // Check for deleted assignement
+        if (this.field.elementField instanceof ReferenceField)
+            this.tx.checkDeletedAssignment(this.id, (ReferenceField)this.field.elementField, (ObjId)newElem);
+
+        // Optimize if no change
+        if (Arrays.equals(newValue, oldValue))
+            return newElem;
+
+        // Decode previous entry
+        final E oldElem = this.elementType.read(new ByteReader(oldValue));
+
+        // Update list content and index
+        this.tx.kvt.put(key, newValue);
+        if (this.field.elementField.indexed) {
+            this.field.removeIndexEntry(this.tx, this.id, this.field.elementField, key, oldValue);
+            this.field.addIndexEntry(this.tx, this.id, this.field.elementField, key, newValue);
+        }
+
+        // Notify field monitors
+        if (!this.tx.disableListenerNotifications) {
+            this.tx.addFieldChangeNotification(new ListFieldChangeNotifier() {
+                @Override
+                void notify(Transaction tx, ListFieldChangeListener listener, int[] path, NavigableSet<ObjId> referrers) {
+                    listener.onListFieldReplace(tx, this.getId(),
+                      SparseJSList.this.field, path, referrers, index, oldElem, newElem);
+                }
+            });
+        }
+
+        // Return previous entry
+        return oldElem;
+    }
+
+    @Override
+    public boolean add(E elem) {
+        return this.addAll(Collections.singleton(elem));
+    }
+
+    @Override
+    public boolean addAll(final Collection<? extends E> elems) {
+        return this.tx.mutateAndNotify(this.id, new Transaction.Mutation<Boolean>() {
+            @Override
+            public Boolean mutate() {
+                return SparseJSList.this.doAddAll(-1, elems);
+            }
+        });
+    }
+
+    @Override
+    public void add(final int index, final E elem) {
+        if (index < 0)
+            throw new IndexOutOfBoundsException("index = " + index);
+        this.tx.mutateAndNotify(this.id, new Transaction.Mutation<Boolean>() {
+            @Override
+            public Boolean mutate() {
+                return SparseJSList.this.doAddAll(index, Collections.singleton(elem));
+            }
+        });
+    }
+
+    @Override
+    public boolean addAll(final int index, final Collection<? extends E> elems) {
+        if (index < 0)
+            throw new IndexOutOfBoundsException("index = " + index);
+        return this.tx.mutateAndNotify(this.id, new Transaction.Mutation<Boolean>() {
+            @Override
+            public Boolean mutate() {
+                return SparseJSList.this.doAddAll(index, elems);
+            }
+        });
+    }
+
+    // An index of -1 means append to the end of the list
+    private boolean doAddAll(int index, Collection<? extends E> elems0) {
+
+        // Copy array
+        final ArrayList<E> elems = new ArrayList<>(elems0);
+        final int numElems = elems.size();
+
+        // Check for deleted assignement
+        if (this.field.elementField instanceof ReferenceField) {
+            for (E elem : elems)
+                this.tx.checkDeletedAssignment(this.id, (ReferenceField)this.field.elementField, (ObjId)elem);
+        }
+
+        // Encode elements
+        final ArrayList<byte[]> values = new ArrayList<>(numElems);
+        for (E elem : elems)
+            values.add(this.buildValue(elem));
+
+        // Optimize for appending nothing
+        if (index == -1 && numElems == 0)
+            return false;
+
+        // Field monitors need to know the list index, which requires a scan when appending
+        final boolean notify = !this.tx.disableListenerNotifications && this.tx.hasFieldMonitor(this.id, this.field);
+
+        // When appending, we only need the last position, if there's room after it
+        int[] newPositions = null;
+        if (index == -1 && !notify)
+            newPositions = this.allocateAppendPositions(this.lastPosition(), numElems);
+        if (newPositions == null) {
+
+            // Read positions up through the element at index, or all positions if appending
+            final int[] positions = this.readPositions(index == -1 ? Integer.MAX_VALUE : index + 1);
+            final boolean complete = index == -1 || positions.length <= index;
+
+            // Check bounds
+            final int size = positions.length;                      // actual size only if complete
+            if (index == -1)
+                index = size;
+            if (index < 0 || (complete && (index > size || size + numElems == Integer.MAX_VALUE || size + numElems < 0)))
+                throw new IndexOutOfBoundsException("index = " + index + ", size = " + size);
+            if (numElems == 0)
+                return false;
+
+            // Find positions for the new elements, rebalancing nearby elements if necessary
+            newPositions = this.allocatePositions(positions, index, numElems);
+            if (newPositions == null)
+                newPositions = this.rebalance(complete ? positions : this.readPositions(Integer.MAX_VALUE), index, numElems);
+        }
+
+        // Add entries
+        for (int i = 0; i < numElems; i++) {
+            final byte[] key = this.buildKey(newPositions[i]);
+            final byte[] value = values.get(i);
+            final E elem = elems.get(i);
+
+            // Update list content and index
+            this.tx.kvt.put(key, value);
+            if (this.field.elementField.indexed)
+                this.field.addIndexEntry(this.tx, this.id, this.field.elementField, key, value);
+
+            // Notify field monitors
+            if (notify) {
+                final int index2 = index;
+                this.tx.addFieldChangeNotification(new ListFieldChangeNotifier() {
+                    @Override
+                    void notify(Transaction tx, ListFieldChangeListener listener, int[] path, NavigableSet<ObjId> referrers) {
+                        listener.onListFieldAdd(tx, this.getId(), SparseJSList.this.field, path, referrers, index2, elem);
+                    }
+                });
+            }
+
+            // Advance index
+            index++;
+        }
+
+        // Done
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        this.tx.mutateAndNotify(this.id, new Transaction.Mutation<Void>() {
+            @Override
+            public Void mutate() {
+                SparseJSList.this.doClear();
+                return null;
+            }
+        });
+    }
+
+    private void doClear() {
+
+        // Check size
+        if (this.isEmpty())
+            return;
+
+        // Bump modification counter (structural modification)
+        this.modCount++;
+
+        // Delete index entries
+        if (this.field.elementField.indexed)
+            this.field.removeIndexEntries(this.tx, this.id, this.field.elementField);
+
+        // Delete content
+        this.field.deleteContent(this.tx, this.id);
+
+        // Notify field monitors
+        if (!this.tx.disableListenerNotifications) {
+            this.tx.addFieldChangeNotification(new ListFieldChangeNotifier() {
+                @Override
+                void notify(Transaction tx, ListFieldChangeListener listener, int[] path, NavigableSet<ObjId> referrers) {
+                    listener.onListFieldClear(tx, this.getId(), SparseJSList.this.field, path, referrers);
+                }
+            });
+        }
+    }
+
+    @Override
+    public E remove(final int index) {
+        return this.tx.mutateAndNotify(this.id, new Transaction.Mutation<E>() {
+            @Override
+            public E mutate() {
+                final int[] positions = SparseJSList.this.readPositionsForRemove(index + 1);
+                if (index < 0 || index >= positions.length)
+                    throw new IndexOutOfBoundsException("index = " + index);
+                final byte[] value = SparseJSList.this.tx.kvt.get(SparseJSList.this.buildKey(positions[index]));
+                if (value == null)
+                    throw new InconsistentDatabaseException("list entry at position " + positions[index] + " not found");
+                final E elem = SparseJSList.this.elementType.read(new ByteReader(value));
+                SparseJSList.this.doRemoveRange(positions, index, index + 1);
+                return elem;
+            }
+        });
+    }
+
+    @Override
+    protected void removeRange(final int min, final int max) {
+        this.tx.mutateAndNotify(this.id, new Transaction.Mutation<Void>() {
+            @Override
+            public Void mutate() {
+                SparseJSList.this.doRemoveRange(SparseJSList.this.readPositionsForRemove(max), min, max);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Remove the element stored at the given position, if any.
+     *
+     * @param position element position
+     */
+    void removePosition(final int position) {
+        this.tx.mutateAndNotify(this.id, new Transaction.Mutation<Void>() {
+            @Override
+            public Void mutate() {
+                SparseJSList.this.doRemovePosition(position);
+                return null;
+            }
+        });
+    }
+
+    // Read enough positions to remove elements up to (but not including) index max, i.e., one more than max if possible
+    private int[] readPositionsForRemove(int max) {
+        return this.readPositions(max >= 0 && max < Integer.MAX_VALUE ? max + 1 : max);
+    }
+
+    // Positions may contain only a prefix of the list, provided it includes the element at index max, if any
+    private void doRemoveRange(int[] positions, int min, int max) {
+
+        // Optimize for clear()
+        final int size = positions.length;                          // actual size only if max >= size
+        if (min == 0 && max == size) {
+            this.doClear();
+            return;
+        }
+
+        // Check bounds
+        if (min < 0 || max < min || max > size)
+            throw new IndexOutOfBoundsException("min = " + min + ", max = " + max + ", size = " + size);
+        if (min == max)
+            return;
+
+        // Bump modification counter (structural modification)
+        this.modCount++;
+
+        // Delete index entries and notify field monitors
+        if (this.field.elementField.indexed || !this.tx.disableListenerNotifications) {
+            for (int i = min; i < max; i++) {
+                final byte[] key = this.buildKey(positions[i]);
+                final byte[] value = this.tx.kvt.get(key);
+                if (value == null)
+                    throw new InconsistentDatabaseException("list entry at position " + positions[i] + " not found");
+                if (this.field.elementField.indexed)
+                    this.field.removeIndexEntry(this.tx, this.id, this.field.elementField, key, value);
+                if (!this.tx.disableListenerNotifications) {
+                    final int i2 = i;
+                    this.tx.addFieldChangeNotification(new ListFieldChangeNotifier() {
+
+                        private boolean decoded;
+                        private E elem;
+
+                        @Override
+                        void notify(Transaction tx, ListFieldChangeListener listener, int[] path, NavigableSet<ObjId> referrers) {
+                            if (!this.decoded) {
+                                this.elem = SparseJSList.this.elementType.read(new ByteReader(value));
+                                this.decoded = true;
+                            }
+                            listener.onListFieldRemove(tx, this.getId(), SparseJSList.this.field, path, referrers, i2, elem);
+                        }
+                    });
+                }
+            }
+        }
+
+        // Delete content; no other elements need to move
+        this.tx.kvt.removeRange(this.buildKey(positions[min]), ByteUtil.getNextKey(this.buildKey(positions[max - 1])));
+    }
+
+    // Remove the element at the given position, if any, without reading the positions of all elements
+    private void doRemovePosition(int position) {
+
+        // Find element
+        final byte[] key = this.buildKey(position);
+        final byte[] value = this.tx.kvt.get(key);
+        if (value == null)
+            return;
+
+        // If this is the only element, this is equivalent to clear()
+        final KVPair prev = this.tx.kvt.getAtMost(key);
+        final KVPair next = this.tx.kvt.getAtLeast(ByteUtil.getNextKey(key));
+        if ((prev == null || !ByteUtil.isPrefixOf(this.contentPrefix, prev.getKey()))
+          && (next == null || !ByteUtil.isPrefixOf(this.contentPrefix, next.getKey()))) {
+            this.doClear();
+            return;
+        }
+
+        // Bump modification counter (structural modification)
+        this.modCount++;
+
+        // Delete index entry
+        if (this.field.elementField.indexed)
+            this.field.removeIndexEntry(this.tx, this.id, this.field.elementField, key, value);
+
+        // Notify field monitors; only they need the element's list index, which requires a scan
+        if (!this.tx.disableListenerNotifications && this.tx.hasFieldMonitor(this.id, this.field)) {
+            final int index = this.countPositionsBefore(key);
+            this.tx.addFieldChangeNotification(new ListFieldChangeNotifier() {
+                @Override
+                void notify(Transaction tx, ListFieldChangeListener listener, int[] path, NavigableSet<ObjId> referrers) {
+                    listener.onListFieldRemove(tx, this.getId(), SparseJSList.this.field, path, referrers,
+                      index, SparseJSList.this.elementType.read(new ByteReader(value)));
+                }
+            });
+        }
+
+        // Delete content
+        this.tx.kvt.remove(key);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this)
+            return true;
+        if (!(obj instanceof List))
+            return false;
+        return Iterables.elementsEqual(this, (List<?>)obj);                 // avoid positional access via listIterator()
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+// Positions
+
+    /**
+     * Choose positions for {@code count} new elements to be inserted at {@code index}, rebalancing the positions
+     * of nearby existing elements if necessary.
+     *
+     * <p>
+     * The {@code positions} array may contain only a prefix of the list, provided it includes the element
+     * at {@code index}, if any. If no positions are available without rebalancing, null is returned; then
+     * the caller must {@linkplain #rebalance rebalance} using the positions of all elements.
+     *
+     * @param positions positions of existing elements
+     * @param index insertion index
+     * @param count number of new elements
+     * @return positions for the new elements, or null if rebalancing is required
+     */
+    private int[] allocatePositions(int[] positions, int index, int count) {
+        final int size = positions.length;
+
+        // Append to the end of the list using the standard gap if there's room
+        if (index == size) {
+            final int[] newPositions = this.allocateAppendPositions(size > 0 ? positions[size - 1] : 0, count);
+            if (newPositions != null)
+                return newPositions;
+        }
+        final int[] newPositions = new int[count];
+
+        // Prepend to the front of the list using the standard gap if there's room
+        if (index == 0 && size > 0) {
+            final long next = positions[0];
+            if (next - (long)GAP * count >= 0) {
+                for (int i = 0; i < count; i++)
+                    newPositions[i] = (int)(next - (long)GAP * (count - i));
+                return newPositions;
+            }
+        }
+
+        // Insert between neighbors, spreading the new elements evenly, if there's room
+        final long lo = index > 0 ? positions[index - 1] : -1;
+        final long hi = index < size ? positions[index] : MAX_POSITION + 1;
+        final long spacing = (hi - lo) / (count + 1);
+        if (spacing >= 1) {
+            for (int i = 0; i < count; i++)
+                newPositions[i] = (int)(lo + spacing * (i + 1));
+            return newPositions;
+        }
+
+        // Rebalancing is required
+        return null;
+    }
+
+    // Choose positions for count new elements appended after position prev using the standard gap, or null if no room
+    private int[] allocateAppendPositions(long prev, int count) {
+        if (prev + (long)GAP * count > MAX_POSITION)
+            return null;
+        final int[] newPositions = new int[count];
+        for (int i = 0; i < count; i++)
+            newPositions[i] = (int)(prev + (long)GAP * (i + 1));
+        return newPositions;
+    }
+
+    // Reassign positions to a window of existing elements surrounding index, making room for count new elements
+    private int[] rebalance(int[] positions, int index, int count) {
+        final int size = positions.length;
+
+        // Find a window with adequate spacing, doubling its size each time
+        int min = index;
+        int max = index;
+        long lo;
+        long spacing;
+        for (int width = 1; true; width <<= 1) {
+            min = Math.max(0, min - width);
+            max = Math.min(size, max + width);
+            lo = min > 0 ? positions[min - 1] : -1;
+            final long hi = max < size ? positions[max] : MAX_POSITION + 1;
+            spacing = (hi - lo) / ((max - min) + count + 1);
+            if (max == size)
+                spacing = Math.min(spacing, GAP);                   // leave room for future appends
+            if (spacing >= MIN_SPACING || (min == 0 && max == size))
+                break;
+        }
+        if (spacing < 1)
+            throw new IndexOutOfBoundsException("sparse list is full, size = " + size);
+
+        // Compute new positions for the window, with the new elements inserted at index
+        final int total = (max - min) + count;
+        final int[] windowPositions = new int[total];
+        for (int i = 0; i < total; i++)
+            windowPositions[i] = (int)(lo + spacing * (i + 1));
+
+        // Move existing elements: first remove all old entries, then add new entries, to avoid overwrites
+        final ArrayList<byte[]> values = new ArrayList<>(max - min);
+        for (int i = min; i < max; i++) {
+            final byte[] key = this.buildKey(positions[i]);
+            final byte[] value = this.tx.kvt.get(key);
+            if (value == null)
+                throw new InconsistentDatabaseException("list entry at position " + positions[i] + " not found");
+            values.add(value);
+            if (this.field.elementField.indexed)
+                this.field.removeIndexEntry(this.tx, this.id, this.field.elementField, key, value);
+            this.tx.kvt.remove(key);
+        }
+        for (int i = min; i < max; i++) {
+            final int newPosition = windowPositions[i < index ? i - min : i - min + count];
+            final byte[] key = this.buildKey(newPosition);
+            final byte[] value = values.get(i - min);
+            this.tx.kvt.put(key, value);
+            if (this.field.elementField.indexed)
+                this.field.addIndexEntry(this.tx, this.id, this.field.elementField, key, value);
+        }
+
+        // Return positions for the new elements
+        return Arrays.copyOfRange(windowPositions, index - min, index - min + count);
+    }
+
+    // Read the positions of the first limit elements (or all elements, if there are fewer), in order
+    private int[] readPositions(int limit) {
+        int[] positions = new int[16];
+        int size = 0;
+        final Iterator<KVPair> i = this.tx.kvt.getRange(this.contentPrefix, ByteUtil.getKeyAfterPrefix(this.contentPrefix), false);
+        try {
+            while (size < limit && i.hasNext()) {
+                if (size == positions.length)
+                    positions = Arrays.copyOf(positions, size * 2);
+                positions[size++] = this.decodePosition(i.next().getKey());
+            }
+        } finally {
+            Database.closeIfPossible(i);
+        }
+        return Arrays.copyOf(positions, size);
+    }
+
+    // Get the position of the last element, or zero if the list is empty
+    private int lastPosition() {
+        final KVPair pair = this.tx.kvt.getAtMost(ByteUtil.getKeyAfterPrefix(this.contentPrefix));
+        return pair != null && ByteUtil.isPrefixOf(this.contentPrefix, pair.getKey()) ? this.decodePosition(pair.getKey()) : 0;
+    }
+
+    // Count the elements whose keys are less than the given key
+    private int countPositionsBefore(byte[] key) {
+        int count = 0;
+        final Iterator<KVPair> i = this.tx.kvt.getRange(this.contentPrefix, key, false);
+        try {
+            while (i.hasNext()) {
+                i.next();
+                count++;
+            }
+        } finally {
+            Database.closeIfPossible(i);
+        }
+        return count;
+    }
+
+    // Find the list entry at the given index, or null if not found
+    private KVPair findEntry(int index) {
+        if (index < 0)
+            return null;
+        final Iterator<KVPair> i = this.tx.kvt.getRange(this.contentPrefix, ByteUtil.getKeyAfterPrefix(this.contentPrefix), false);
+        try {
+            while (i.hasNext()) {
+                final KVPair pair = i.next();
+                if (index-- == 0)
+                    return pair;
+            }
+            return null;
+        } finally {
+            Database.closeIfPossible(i);
+        }
+    }
+
+    private int decodePosition(byte[] key) {
+        final ByteReader keyReader = new ByteReader(key);
+        keyReader.skip(this.contentPrefix.length);
+        return UnsignedIntEncoder.read(keyReader);
+    }
+
+    private byte[] buildKey(int position) {
+        final ByteWriter writer = new ByteWriter();
+        writer.write(this.contentPrefix);
+        UnsignedIntEncoder.write(writer, position);
+        return writer.getBytes();
+    }
+
+    private byte[] buildValue(E elem) {
+        final ByteWriter writer = new ByteWriter();
+        try {
+            this.elementType.validateAndWrite(writer, elem);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("list containing " + this.elementType
+              + " can't hold values of type " + (elem != null ? elem.getClass().getName() : "null"), e);
+        }
+        return writer.getBytes();
+    }
+
+// Iter
+
+    private class Iter implements Iterator<E> {
+
+        private Iterator<KVPair> i;
+        private boolean finished;
+        private Integer removePosition;
+
+        Iter() {
+            this.i = SparseJSList.this.tx.kvt.getRange(SparseJSList.this.contentPrefix,
+              ByteUtil.getKeyAfterPrefix(SparseJSList.this.contentPrefix), false);
+        }
+
+        @Override
+        public synchronized boolean hasNext() {
+            if (this.finished)
+                return false;
+            if (!this.i.hasNext()) {
+                this.finished = true;
+                Database.closeIfPossible(this.i);
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public synchronized E next() {
+            if (this.finished)
+                throw new NoSuchElementException();
+            final KVPair pair = this.i.next();
+            this.removePosition = SparseJSList.this.decodePosition(pair.getKey());
+            return SparseJSList.this.elementType.read(new ByteReader(pair.getValue()));
+        }
+
+        @Override
+        public synchronized void remove() {
+            Preconditions.checkState(this.removePosition != null);
+            SparseJSList.this.removePosition(this.removePosition);
+            this.removePosition = null;
+        }
+    }
+
+// ListFieldChangeNotifier
+
+    private abstract class ListFieldChangeNotifier implements FieldChangeNotifier {
+
+        @Override
+        public int getStorageId() {
+            return SparseJSList.this.field.storageId;
+        }
+
+        @Override
+        public ObjId getId() {
+            return SparseJSList.this.id;
+        }
+
+        @Override
+        public void notify(Transaction tx, Object listener, int[] path, NavigableSet<ObjId> referrers) {
+            this.notify(tx, (ListFieldChangeListener)listener, path, referrers);
+        }
+
+        abstract void notify(Transaction tx, ListFieldChangeListener listener, int[] path, NavigableSet<ObjId> referrers);
+    }
+}
@@ -13,6 +13,7 @@ import com.google.common.collect.Maps;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -31,7 +32,9 @@ import net.jcip.annotations.ThreadSafe;
 
 import org.jsimpledb.core.util.ObjIdMap;
 import org.jsimpledb.core.util.ObjIdSet;
+import org.jsimpledb.kv.CloseableKVStore;
 import org.jsimpledb.kv.KVPair;
+import org.jsimpledb.kv.KVStore;
 import org.jsimpledb.kv.KVTransaction;
 import org.jsimpledb.kv.KVTransactionException;
 import org.jsimpledb.kv.KeyRange;
@@ -41,6 +44,7 @@ import org.jsimpledb.util.ByteReader;
 import org.jsimpledb.util.ByteUtil;
 import org.jsimpledb.util.ByteWriter;
 import org.jsimpledb.util.NavigableSets;
+import org.jsimpledb.util.SeekableIterator;
 import org.jsimpledb.util.UnsignedIntEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -75,9 +79,12 @@ import org.slf4j.LoggerFactory;
  *  <li>{@link #isValid isValid()} - Test transaction validity</li>
  *  <li>{@link #setTimeout setTimeout()} - Set transaction timeout</li>
  *  <li>{@link #setReadOnly setReadOnly()} - Set transaction to read-only</li>
+ *  <li>{@link #setConcurrentReads setConcurrentReads()} - Allow multiple threads to read without synchronizing</li>
  *  <li>{@link #setRollbackOnly setRollbackOnly()} - Set transaction for rollack only</li>
  *  <li>{@link #addCallback addCallback()} - Register a {@link Callback} on transaction completion</li>
  *  <li>{@link #createSnapshotTransaction createSnapshotTransaction()} - Create a empty, in-memory copy of this transaction</li>
+ *  <li>{@link #createMutableSnapshotTransaction createMutableSnapshotTransaction()} - Create a copy-on-write snapshot
+ *      of this transaction's entire content</li>
  *  <li>{@link #isSnapshot} - Determine whether this transaction is a snapshot transaction</li>
  * </ul>
  *
@@ -166,6 +173,8 @@ import org.slf4j.LoggerFactory;
  *  <li>{@link #queryCompositeIndex3 queryCompositeIndex3()} - Query a composite index on three fields</li>
  *  <li>{@link #queryCompositeIndex3 queryCompositeIndex4()} - Query a composite index on four fields</li>
  *  <!-- COMPOSITE-INDEX -->
+ *  <li>{@link #estimateIndexSize estimateIndexSize()} - Get the approximate size of an index from its maintained statistics</li>
+ *  <li>{@link #rebuildIndexStatistics rebuildIndexStatistics()} - Recalculate all index statistics</li>
  * </ul>
  *
  * <p>
@@ -189,6 +198,10 @@ public class Transaction {
       = Integer.parseInt(System.getProperty(Transaction.class.getName() + ".MAX_GENERATED_KEY_ATTEMPTS", "64"));
     private static final int MAX_OBJ_INFO_CACHE_ENTRIES
       = Integer.parseInt(System.getProperty(Transaction.class.getName() + ".MAX_OBJ_INFO_CACHE_ENTRIES", "1000"));
+    private static final int MAX_FIELD_VALUE_CACHE_ENTRIES
+      = Integer.parseInt(System.getProperty(Transaction.class.getName() + ".MAX_FIELD_VALUE_CACHE_ENTRIES", "1000"));
+
+    private static final Object NOT_CACHED = new Object();
 
     protected final Logger log = LoggerFactory.getLogger(this.getClass());
 
@@ -198,9 +211,16 @@ public class Transaction {
     final Schemas schemas;
     final Schema schema;
 
+    // Index statistics maintenance (fixed when transaction is created)
+    final boolean indexStatistics;
+    final boolean indexHistograms;
+
+    // Simple field value caching (fixed when transaction is created)
+    final boolean fieldValueCaching;
+
     // TX state
     @GuardedBy("this")
-    boolean stale;
+    volatile boolean stale;
     @GuardedBy("this")
     boolean ending;
     @GuardedBy("this")
@@ -209,6 +229,8 @@ public class Transaction {
     boolean rollbackOnly;
     @GuardedBy("this")
     boolean disableListenerNotifications;
+    @GuardedBy("this")
+    volatile boolean concurrentReads;
 
     // Listeners
     @GuardedBy("this")
@@ -219,6 +241,8 @@ public class Transaction {
     private Set<DeleteListener> deleteListeners;
     @GuardedBy("this")
     private NavigableMap<Integer, HashSet<FieldMonitor>> monitorMap;                // key is field's storage ID
+    @GuardedBy("this")
+    private FieldMonitorTable monitorTable;                                         // lazily built from monitorMap
 
     // Callbacks
     @GuardedBy("this")
@@ -227,8 +251,10 @@ public class Transaction {
     // Misc
     @GuardedBy("this")
     private final ThreadLocal<TreeMap<Integer, ArrayList<FieldChangeNotifier>>> pendingNotifications = new ThreadLocal<>();
-    @GuardedBy("this")
+    @GuardedBy("objInfoCache")
     private final ObjIdMap<ObjInfo> objInfoCache = new ObjIdMap<>();
+    @GuardedBy("fieldValueCache")
+    private final ObjIdMap<HashMap<Integer, Object>> fieldValueCache = new ObjIdMap<>();    // inner key is field's storage ID
     @GuardedBy("this")
     private Object userObject;
 
@@ -255,6 +281,9 @@ public class Transaction {
         this.kvt = kvt;
         this.schemas = schemas;
         this.schema = schema;
+        this.indexStatistics = db.isIndexStatistics();
+        this.indexHistograms = this.indexStatistics && db.isIndexHistograms();
+        this.fieldValueCaching = db.isFieldValueCaching();
     }
 
 // Transaction Meta-Data
@@ -307,6 +336,7 @@ public class Transaction {
         Preconditions.checkArgument(version != this.schema.getVersionNumber(), "version is this transaction's version");
         if (this.stale)
             throw new StaleTransactionException(this);
+        this.checkWritable();
         if (this.queryVersion().asMap().containsKey(version))
             throw new InvalidSchemaException("one or more version " + version + " objects still exist in database");
 
@@ -527,6 +557,60 @@ public class Transaction {
         this.readOnly = readOnly;
     }
 
+    /**
+     * Determine whether this transaction is in concurrent read mode.
+     *
+     * @return true if this instance is in concurrent read mode
+     * @throws StaleTransactionException if this transaction is no longer usable
+     * @see #setConcurrentReads setConcurrentReads()
+     */
+    public synchronized boolean isConcurrentReads() {
+        if (this.stale)
+            throw new StaleTransactionException(this);
+        return this.concurrentReads;
+    }
+
+    /**
+     * Enable or disable concurrent read mode.
+     *
+     * <p>
+     * Normally, every method of this class synchronizes on this instance, so multiple threads reading from the same
+     * transaction are serialized, even though the underlying {@link KVTransaction} is itself thread safe. In concurrent
+     * read mode, {@link #exists exists()}, {@link #getSchemaVersion getSchemaVersion()}, {@link #readSimpleField
+     * readSimpleField()}, {@link #readCounterField readCounterField()}, {@link #readSetField readSetField()},
+     * {@link #readListField readListField()}, and {@link #readMapField readMapField()} do not synchronize on this instance,
+     * so multiple threads may perform these reads in parallel. The object meta-data and field value caches
+     * are protected by their own locks, which are held only briefly and never while accessing the key/value store.
+     *
+     * <p>
+     * In exchange, the transaction may not be modified while in concurrent read mode: any attempt to create, delete,
+     * or modify an object, including automatic schema version updates requested via an {@code updateVersion}
+     * parameter, results in an {@link IllegalStateException}. This mode is intended for read-only reporting
+     * transactions that fan out work across multiple threads; it should not be disabled while other threads are
+     * still reading.
+     *
+     * <p>
+     * Default is false.
+     *
+     * @param concurrentReads true for concurrent read mode
+     * @throws StaleTransactionException if this transaction is no longer usable
+     */
+    public synchronized void setConcurrentReads(boolean concurrentReads) {
+        if (this.stale)
+            throw new StaleTransactionException(this);
+        this.concurrentReads = concurrentReads;
+    }
+
+    /**
+     * Verify that this transaction may be modified.
+     *
+     * @throws IllegalStateException if this transaction is in concurrent read mode
+     */
+    private void checkWritable() {
+        if (this.concurrentReads)
+            throw new IllegalStateException("transaction is in concurrent read mode");
+    }
+
     /**
      * Determine whether this transaction is marked rollback only.
      *
@@ -593,11 +677,84 @@ public class Transaction {
      * @see Database#createSnapshotTransaction Database.createSnapshotTransaction()
      */
     public SnapshotTransaction createSnapshotTransaction() {
-        final NavigableMapKVStore kvstore = new NavigableMapKVStore();
+        return this.createSnapshotTransaction(new NavigableMapKVStore());
+    }
+
+    /**
+     * Create an empty "snapshot" transaction based on the given key/value store.
+     *
+     * <p>
+     * This method is the same as {@link #createSnapshotTransaction()}, except that the snapshot transaction's data
+     * is stored in {@code kvstore}, which must be empty. For example, large snapshots may be stored more compactly
+     * using an array-based in-memory {@link KVStore} rather than the default {@link NavigableMapKVStore}.
+     *
+     * @param kvstore empty key/value store
+     * @return empty snapshot transaction with compatible schema information based on {@code kvstore}
+     * @throws IllegalArgumentException if {@code kvstore} is null
+     * @see #createSnapshotTransaction()
+     */
+    public SnapshotTransaction createSnapshotTransaction(KVStore kvstore) {
+        Preconditions.checkArgument(kvstore != null, "null kvstore");
         this.db.copyMetaData(this, kvstore);
         return new SnapshotTransaction(this.db, kvstore, this.schemas, this.schema);
     }
 
+    /**
+     * Create a "snapshot" transaction containing a copy-on-write copy of this transaction's entire database content.
+     *
+     * <p>
+     * Unlike {@link #createSnapshotTransaction()}, the returned snapshot transaction is not initially empty; instead, it
+     * is based on the key/value store returned by {@link KVTransaction#mutableSnapshot}, so it contains all of the objects
+     * visible in this transaction (including any uncommitted changes made so far). No data is copied up front;
+     * objects are read lazily from the underlying key/value snapshot, and changes made in the snapshot transaction
+     * are kept privately in memory. This makes it possible to efficiently retain a consistent, detached, mutable view
+     * of any number of objects after this transaction ends.
+     *
+     * <p>
+     * Only some key/value stores support {@link KVTransaction#mutableSnapshot}; if not supported,
+     * an {@link UnsupportedOperationException} is thrown.
+     *
+     * <p>
+     * As with any other information read from a transaction, the content of the returned snapshot transaction should
+     * not be considered valid until this transaction has successfully committed. If this transaction is rolled back,
+     * the returned snapshot transaction is automatically {@linkplain SnapshotTransaction#close closed}. Otherwise,
+     * it should be {@linkplain SnapshotTransaction#close closed} when no longer needed to release the underlying
+     * key/value snapshot.
+     *
+     * @return snapshot transaction containing this transaction's content
+     * @throws UnsupportedOperationException if the underlying key/value store does not support mutable snapshots
+     * @throws StaleTransactionException if this transaction is no longer usable
+     * @see KVTransaction#mutableSnapshot
+     */
+    public SnapshotTransaction createMutableSnapshotTransaction() {
+
+        // Get key/value snapshot
+        final CloseableKVStore kvstore;
+        synchronized (this) {
+            if (this.stale)
+                throw new StaleTransactionException(this);
+            kvstore = this.kvt.mutableSnapshot();
+        }
+
+        // Create snapshot transaction, and close it if this transaction does not commit
+        final SnapshotTransaction snapshot = new SnapshotTransaction(this.db, kvstore, this.schemas, this.schema);
+        boolean success = false;
+        try {
+            this.addCallback(new CallbackAdapter() {
+                @Override
+                public void afterCompletion(boolean committed) {
+                    if (!committed)
+                        snapshot.close();
+                }
+            });
+            success = true;
+        } finally {
+            if (!success)
+                snapshot.close();
+        }
+        return snapshot;
+    }
+
     /**
      * Determine whether this instance is a {@link SnapshotTransaction}.
      *
@@ -754,14 +911,13 @@ public class Transaction {
         // Sanity check
         if (this.stale)
             throw new StaleTransactionException(this);
+        this.checkWritable();
         assert this.kvt.get(id.getBytes()) == null;
-        assert this.objInfoCache.get(id) == null;
+        assert this.getCachedObjInfo(id) == null;
 
         // Write object meta-data and update object info cache
         ObjInfo.write(this, id, versionNumber, false);
-        if (this.objInfoCache.size() >= MAX_OBJ_INFO_CACHE_ENTRIES)
-            this.objInfoCache.removeOne();
-        this.objInfoCache.put(id, new ObjInfo(this, id, versionNumber, false, schema, objType));
+        this.cacheObjInfo(new ObjInfo(this, id, versionNumber, false, schema, objType));
 
         // Write object version index entry
         this.kvt.put(Database.buildVersionIndexKey(id, objType.schema.versionNumber), ByteUtil.EMPTY);
@@ -769,18 +925,18 @@ public class Transaction {
         // Initialize counters to zero
         if (!objType.counterFields.isEmpty()) {
             for (CounterField field : objType.counterFields.values())
-                this.kvt.put(field.buildKey(id), this.kvt.encodeCounter(0));
+                field.initialize(this.kvt, id);
         }
 
         // Write simple field index entries
         for (SimpleField<?> field : objType.simpleFields.values()) {
             if (field.indexed)
-                this.kvt.put(Transaction.buildSimpleIndexEntry(field, id, null), ByteUtil.EMPTY);
+                this.addIndexEntry(Transaction.buildSimpleIndexEntry(field, id, null));
         }
 
         // Write composite index entries
         for (CompositeIndex index : objType.compositeIndexes.values())
-            this.kvt.put(Transaction.buildDefaultCompositeIndexEntry(id, index), ByteUtil.EMPTY);
+            this.addIndexEntry(Transaction.buildDefaultCompositeIndexEntry(id, index));
 
         // Notify listeners
         if (!this.disableListenerNotifications && this.createListeners != null) {
@@ -789,6 +945,155 @@ public class Transaction {
         }
     }
 
+    /**
+     * Create multiple objects with the given object IDs and simple field values in a single bulk operation.
+     *
+     * <p>
+     * This method is intended for importing large numbers of objects. The result is the same as invoking
+     * {@link #create(ObjId)} for each object ID, followed by {@link #writeSimpleField writeSimpleField()} for each
+     * given field value. Objects that already exist are left alone, and their given field values are ignored.
+     * Object IDs may be obtained from {@link #generateId generateId()}. Fields not given a value take their default values.
+     *
+     * <p>
+     * When this transaction has no registered {@link CreateListener}s or field monitors (or listener notifications
+     * are disabled), the per-object and per-field machinery is bypassed: all of the object, field, and index keys are
+     * built up front, then sorted, and then written to the key/value transaction in a single ascending pass.
+     * Index statistics, if enabled, are adjusted once per index rather than once per entry. This yields sequential writes
+     * that key/value stores optimized for ordered ingestion can take advantage of. Otherwise, this method falls back to
+     * creating the objects one at a time, notifying listeners normally.
+     *
+     * <p>
+     * Reference fields may refer to other objects being created by the same invocation. Callers importing very large
+     * data sets should break them up into chunks of a reasonable size, as all of the keys for a chunk are held in memory.
+     *
+     * @param objects mapping from object ID to that object's simple field values, keyed by field storage ID;
+     *  a null field value map is equivalent to an empty map
+     * @return the number of objects actually created
+     * @throws UnknownTypeException if any object ID does not correspond to a known object type in this transaction's schema
+     * @throws UnknownFieldException if any field storage ID does not correspond to a simple field in its object type
+     * @throws DeletedObjectException if a reference field refers to a non-existent object not being created,
+     *  and that field does not allow references to deleted objects
+     * @throws IllegalArgumentException if any field value is not an appropriate value for its field
+     * @throws IllegalArgumentException if {@code objects} or any object ID is null
+     * @throws StaleTransactionException if this transaction is no longer usable
+     */
+    public synchronized int createAll(Map<ObjId, ? extends Map<Integer, ?>> objects) {
+
+        // Sanity check
+        Preconditions.checkArgument(objects != null, "null objects");
+        if (this.stale)
+            throw new StaleTransactionException(this);
+        this.checkWritable();
+        final TreeMap<ObjId, Map<Integer, ?>> sortedObjects = new TreeMap<>();
+        for (Map.Entry<ObjId, ? extends Map<Integer, ?>> entry : objects.entrySet()) {
+            final ObjId id = entry.getKey();
+            Preconditions.checkArgument(id != null, "null id");
+            this.schema.getObjType(id.getStorageId());
+            final Map<Integer, ?> values = entry.getValue();
+            sortedObjects.put(id, values != null ? values : Collections.<Integer, Object>emptyMap());
+        }
+
+        // If anyone is listening, do it the slow way; create all objects first so references among them are valid
+        if (!this.disableListenerNotifications
+          && ((this.createListeners != null && !this.createListeners.isEmpty())
+           || (this.monitorMap != null && !this.monitorMap.isEmpty()))) {
+            final ArrayList<ObjId> created = new ArrayList<>(sortedObjects.size());
+            for (ObjId id : sortedObjects.keySet()) {
+                if (this.create(id))
+                    created.add(id);
+            }
+            for (ObjId id : created) {
+                for (Map.Entry<Integer, ?> entry : sortedObjects.get(id).entrySet())
+                    this.writeSimpleField(id, entry.getKey(), entry.getValue(), false);
+            }
+            return created.size();
+        }
+
+        // Discard objects that already exist
+        final ArrayList<byte[]> idKeys = new ArrayList<>(sortedObjects.size());
+        for (ObjId id : sortedObjects.keySet())
+            idKeys.add(id.getBytes());
+        final Iterator<byte[]> existing = this.kvt.getAll(idKeys).iterator();
+        for (Iterator<ObjId> i = sortedObjects.keySet().iterator(); i.hasNext(); ) {
+            i.next();
+            if (existing.next() != null)
+                i.remove();
+        }
+
+        // Build all keys in sorted order
+        final TreeMap<byte[], byte[]> kvs = new TreeMap<>(ByteUtil.COMPARATOR);
+        final TreeMap<byte[], Long> statistics = this.indexStatistics ? new TreeMap<byte[], Long>(ByteUtil.COMPARATOR) : null;
+        final byte[] metaData = ObjInfo.encode(this.schema.versionNumber, false);
+        final HashMap<Integer, byte[]> encodedValues = new HashMap<>();
+        for (Map.Entry<ObjId, Map<Integer, ?>> entry : sortedObjects.entrySet()) {
+            final ObjId id = entry.getKey();
+            final ObjType objType = this.schema.getObjType(id.getStorageId());
+
+            // Object meta-data and version index entry
+            kvs.put(id.getBytes(), metaData);
+            kvs.put(Database.buildVersionIndexKey(id, this.schema.versionNumber), ByteUtil.EMPTY);
+
+            // Counters
+            for (CounterField field : objType.counterFields.values()) {
+                for (int shard = 0; shard < field.shards; shard++)
+                    kvs.put(field.buildShardKey(id, shard), this.kvt.encodeCounter(0));
+            }
+
+            // Simple field values
+            encodedValues.clear();
+            for (Map.Entry<Integer, ?> valueEntry : entry.getValue().entrySet()) {
+                final int storageId = valueEntry.getKey();
+                final SimpleField<?> field = objType.simpleFields.get(storageId);
+                if (field == null)
+                    throw new UnknownFieldException(objType, storageId, "simple field");
+                final Object value = valueEntry.getValue();
+                final byte[] encodedValue = field.encode(value);
+                if (field instanceof ReferenceField && value != null && !sortedObjects.containsKey(value))
+                    this.checkDeletedAssignment(id, (ReferenceField)field, (ObjId)value);
+                if (encodedValue == null)
+                    continue;
+                encodedValues.put(storageId, encodedValue);
+                kvs.put(field.buildKey(id), encodedValue);
+            }
+
+            // Simple index entries
+            for (SimpleField<?> field : objType.simpleFields.values()) {
+                if (field.indexed) {
+                    final byte[] indexKey = Transaction.buildSimpleIndexEntry(field, id, encodedValues.get(field.storageId));
+                    kvs.put(indexKey, ByteUtil.EMPTY);
+                    if (statistics != null)
+                        this.tallyIndexStatistics(statistics, indexKey);
+                }
+            }
+
+            // Composite index entries
+            for (CompositeIndex index : objType.compositeIndexes.values()) {
+                final ByteWriter writer = new ByteWriter();
+                UnsignedIntEncoder.write(writer, index.storageId);
+                for (SimpleField<?> field : index.fields) {
+                    final byte[] value = encodedValues.get(field.storageId);
+                    writer.write(value != null ? value : field.fieldType.getDefaultValue());
+                }
+                id.writeTo(writer);
+                final byte[] indexKey = writer.getBytes();
+                kvs.put(indexKey, ByteUtil.EMPTY);
+                if (statistics != null)
+                    this.tallyIndexStatistics(statistics, indexKey);
+            }
+        }
+
+        // Write everything in one ascending pass
+        for (Map.Entry<byte[], byte[]> entry : kvs.entrySet())
+            this.kvt.put(entry.getKey(), entry.getValue());
+        if (statistics != null) {
+            for (Map.Entry<byte[], Long> entry : statistics.entrySet())
+                this.kvt.adjustCounter(entry.getKey(), entry.getValue());
+        }
+
+        // Done
+        return sortedObjects.size();
+    }
+
     /**
      * Delete an object. Does nothing if object does not exist (e.g., has already been deleted).
      *
@@ -825,6 +1130,7 @@ public class Transaction {
         Preconditions.checkArgument(id != null, "null id");
         if (this.stale)
             throw new StaleTransactionException(this);
+        this.checkWritable();
 
         // Does object exist?
         if (!this.exists(id))
@@ -872,7 +1178,7 @@ public class Transaction {
 
             // Set "delete notified" flag and update object info cache
             ObjInfo.write(this, id, info.getVersion(), true);
-            this.objInfoCache.put(id, new ObjInfo(this, id, info.getVersion(), true, info.schema, info.objType));
+            this.cacheObjInfo(new ObjInfo(this, id, info.getVersion(), true, info.schema, info.objType));
 
             // Issue delete notifications and retry
             if (!this.disableListenerNotifications && this.deleteListeners != null) {
@@ -919,6 +1225,229 @@ public class Transaction {
         return true;
     }
 
+    /**
+     * Delete multiple objects.
+     *
+     * <p>
+     * The effect is the same as invoking {@link #delete(ObjId)} for each object in {@code ids}, but this method is
+     * more efficient for large numbers of objects. Objects are deleted in batches: the initial batch consists of
+     * {@code ids}, and each subsequent batch consists of the secondary deletions triggered by the previous batch.
+     * For each reference field, the objects in a batch that are referred to through that field are found using a single
+     * ordered pass over the field's index, instead of one index lookup per deleted object.
+     *
+     * <p>
+     * Because all of the objects in a batch are deleted together, a reference configured for {@link DeleteAction#EXCEPTION}
+     * from one object in a batch to another object in the same batch does not cause a {@link ReferencedObjectException}.
+     * If a {@link ReferencedObjectException} is thrown, some batches may have already been deleted.
+     *
+     * @param ids object IDs of the objects to delete; objects that do not exist are ignored
+     * @return the number of objects in {@code ids} that were found and deleted
+     * @throws ReferencedObjectException if an object is referenced by some object outside of its batch
+     *  through a reference field configured for {@link DeleteAction#EXCEPTION}
+     * @throws IllegalArgumentException if {@code ids} is null or contains a null element
+     * @throws StaleTransactionException if this transaction is no longer usable
+     * @see #delete(ObjId)
+     */
+    public synchronized int delete(Iterable<? extends ObjId> ids) {
+
+        // Sanity check
+        Preconditions.checkArgument(ids != null, "null ids");
+        if (this.stale)
+            throw new StaleTransactionException(this);
+        this.checkWritable();
+
+        // Gather the objects that exist
+        ObjIdSet batch = new ObjIdSet();
+        for (ObjId id : ids) {
+            Preconditions.checkArgument(id != null, "null id");
+            if (this.exists(id))
+                batch.add(id);
+        }
+        final ObjIdSet requested = batch.clone();
+
+        // Determine which reference fields are configured with which DeleteAction's in any schema version
+        final TreeSet<Integer> exceptionFields = this.getReferenceFields(DeleteAction.EXCEPTION);
+        final TreeSet<Integer> unreferenceFields = this.getReferenceFields(DeleteAction.UNREFERENCE);
+        final TreeSet<Integer> deleteFields = this.getReferenceFields(DeleteAction.DELETE);
+
+        // Delete batches breadth-first until there are no more secondary deletions
+        while (!batch.isEmpty())
+            batch = this.doDeleteBatch(batch, exceptionFields, unreferenceFields, deleteFields);
+
+        // Count the requested objects that got deleted
+        int count = 0;
+        for (ObjId id : requested) {
+            if (!this.exists(id))
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Delete a batch of objects.
+     *
+     * @param batch objects to delete; some may have already been deleted
+     * @param exceptionFields storage ID's of reference fields configured for {@link DeleteAction#EXCEPTION}
+     * @param unreferenceFields storage ID's of reference fields configured for {@link DeleteAction#UNREFERENCE}
+     * @param deleteFields storage ID's of reference fields configured for {@link DeleteAction#DELETE}
+     * @return secondary deletions
+     */
+    private ObjIdSet doDeleteBatch(ObjIdSet batch,
+      Set<Integer> exceptionFields, Set<Integer> unreferenceFields, Set<Integer> deleteFields) {
+
+        // Loop here to handle any mutations within delete notification listener callbacks
+        TreeMap<ObjId, ObjInfo> infos;
+        while (true) {
+
+            // Get object info, skipping objects already deleted
+            infos = new TreeMap<>();
+            for (ObjId id : batch) {
+                final ObjInfo info;
+                try {
+                    info = this.getObjectInfo(id, false);
+                } catch (DeletedObjectException e) {                    // possibly due to a cycle of DeleteAction.DELETE references
+                    continue;
+                } catch (UnknownTypeException e) {
+                    throw new InconsistentDatabaseException("encountered reference with unknown type during delete cascade: "
+                      + id, e);
+                }
+                infos.put(id, info);
+            }
+
+            // Determine if any EXCEPTION reference fields refer to any object (from outside the batch); if so, throw exception
+            for (int storageId : exceptionFields) {
+                for (ObjId id : this.findReferencedTargets(storageId, infos.navigableKeySet())) {
+                    for (ObjId referrer : this.findReferrers(id, DeleteAction.EXCEPTION, storageId)) {
+                        if (!infos.containsKey(referrer))
+                            throw new ReferencedObjectException(id, referrer, storageId);
+                    }
+                }
+            }
+
+            // Do we need to issue delete notifications for the objects being deleted?
+            if (this.deleteListeners == null || this.deleteListeners.isEmpty())
+                break;
+            boolean notified = false;
+            for (ObjId id : infos.keySet()) {
+
+                // Get object info again, because a previous listener may have deleted the object
+                final ObjInfo info = this.getObjectInfoIfExists(id, false);
+                if (info == null || info.isDeleteNotified())
+                    continue;
+
+                // Set "delete notified" flag and update object info cache
+                ObjInfo.write(this, id, info.getVersion(), true);
+                this.cacheObjInfo(new ObjInfo(this, id, info.getVersion(), true, info.schema, info.objType));
+
+                // Issue delete notifications
+                if (!this.disableListenerNotifications && this.deleteListeners != null) {
+                    for (DeleteListener listener : this.deleteListeners.toArray(new DeleteListener[this.deleteListeners.size()]))
+                        listener.onDelete(this, id);
+                }
+                notified = true;
+            }
+
+            // If any notifications were issued, retry
+            if (!notified)
+                break;
+        }
+
+        // Find all objects referred to by a reference field with cascadeDelete = true
+        final ObjIdSet secondaries = new ObjIdSet();
+        for (ObjInfo info : infos.values()) {
+            final ObjId id = info.getId();
+            for (ReferenceField field : Iterables.filter(
+              Iterables.filter(info.getObjType().referenceFields.values(), ReferenceField.class), new HasCascadeDelete())) {
+                final Iterable<ObjId> refs = field.parent != null ?
+                  field.parent.iterateSubField(this, id, field) : Collections.singleton(field.getValue(this, id));
+                for (ObjId ref : refs) {
+                    if (ref != null)
+                        secondaries.add(ref);
+                }
+            }
+        }
+
+        // Actually delete the objects
+        for (ObjInfo info : infos.values())
+            this.deleteObjectData(info);
+        final NavigableSet<ObjId> deleted = infos.navigableKeySet();
+
+        // Find all UNREFERENCE references and unreference them
+        for (int storageId : unreferenceFields) {
+            final ReferenceFieldStorageInfo fieldInfo = this.schemas.verifyStorageInfo(storageId, ReferenceFieldStorageInfo.class);
+            for (ObjId id : this.findReferencedTargets(storageId, deleted)) {
+                final NavigableSet<ObjId> referrers = this.findReferrers(id, DeleteAction.UNREFERENCE, storageId);
+                if (fieldInfo.isSubField()) {
+                    final ComplexFieldStorageInfo<?> superFieldInfo = this.schemas.verifyStorageInfo(
+                      fieldInfo.superFieldStorageId, ComplexFieldStorageInfo.class);
+                    superFieldInfo.unreferenceAll(this, storageId, id, referrers);
+                } else {
+                    for (ObjId referrer : referrers)
+                        this.writeSimpleField(referrer, storageId, null, false);
+                }
+            }
+        }
+
+        // Find all DELETE references and add the containing objects to the next batch
+        for (int storageId : deleteFields) {
+            for (ObjId id : this.findReferencedTargets(storageId, deleted)) {
+                for (ObjId referrer : this.findReferrers(id, DeleteAction.DELETE, storageId))
+                    secondaries.add(referrer);
+            }
+        }
+
+        // Done
+        return secondaries;
+    }
+
+    /**
+     * Get the storage ID's of all reference fields configured with the given {@link DeleteAction} in any schema version.
+     */
+    private TreeSet<Integer> getReferenceFields(DeleteAction onDelete) {
+        final TreeSet<Integer> storageIds = new TreeSet<>();
+        for (Schema schemaVersion : this.schemas.versions.values()) {
+            for (ObjType objType : schemaVersion.objTypeMap.values()) {
+                for (ReferenceField field : objType.referenceFields.values()) {
+                    if (field.onDelete == onDelete)
+                        storageIds.add(field.storageId);
+                }
+            }
+        }
+        return storageIds;
+    }
+
+    /**
+     * Find those objects in the given set that are referred to through the specified reference field by any object.
+     *
+     * <p>
+     * This performs a single ordered pass over the field's index, seeking ahead to each target in turn.
+     *
+     * @param storageId reference field storage ID
+     * @param targets sorted set of referred-to objects
+     * @return those {@code targets} that have at least one referrer, in sorted order
+     */
+    private List<ObjId> findReferencedTargets(int storageId, NavigableSet<ObjId> targets) {
+        final ArrayList<ObjId> referenced = new ArrayList<>();
+        if (targets.isEmpty())
+            return referenced;
+        final NavigableSet<ObjId> indexTargets = this.queryReferences(storageId).navigableKeySet()
+          .subSet(targets.first(), true, targets.last(), true);
+        final SeekableIterator<ObjId> i = NavigableSets.seekableIterator(indexTargets);
+        ObjId next = null;
+        for (ObjId target : targets) {
+            if (next == null || next.compareTo(target) < 0) {
+                i.seek(target);
+                if (!i.hasNext())
+                    break;
+                next = i.next();
+            }
+            if (next.equals(target))
+                referenced.add(target);
+        }
+        Database.closeIfPossible(i);
+        return referenced;
+    }
+
     /**
      * Delete all of an object's data. The object must exist.
      *
@@ -936,12 +1465,12 @@ public class Transaction {
         final ObjType type = info.getObjType();
         for (SimpleField<?> field : type.simpleFields.values()) {
             if (field.indexed)
-                this.kvt.remove(Transaction.buildSimpleIndexEntry(field, id, this.kvt.get(field.buildKey(id))));
+                this.removeIndexEntry(Transaction.buildSimpleIndexEntry(field, id, this.kvt.get(field.buildKey(id))));
         }
 
         // Delete object's composite index entries
         for (CompositeIndex index : type.compositeIndexes.values())
-            this.kvt.remove(this.buildCompositeIndexEntry(id, index));
+            this.removeIndexEntry(this.buildCompositeIndexEntry(id, index));
 
         // Delete object's complex field index entries
         for (ComplexField<?> field : type.complexFields.values())
@@ -956,7 +1485,8 @@ public class Transaction {
         this.kvt.remove(Database.buildVersionIndexKey(id, info.getVersion()));
 
         // Update ObjInfo cache
-        this.objInfoCache.remove(id);
+        this.uncacheObjInfo(id);
+        this.invalidateFieldValues(id);
     }
 
     /**
@@ -971,8 +1501,12 @@ public class Transaction {
      * @throws StaleTransactionException if this transaction is no longer usable
      * @throws IllegalArgumentException if {@code id} is null
      */
-    public synchronized boolean exists(ObjId id) {
-        return this.getObjectInfoIfExists(id, false) != null;
+    public boolean exists(ObjId id) {
+        if (this.concurrentReads)
+            return this.getObjectInfoIfExists(id, false) != null;
+        synchronized (this) {
+            return this.getObjectInfoIfExists(id, false) != null;
+        }
     }
 
     /**
@@ -1129,12 +1663,163 @@ public class Transaction {
         }
     }
 
+    /**
+     * Bulk variant of {@link #copy(ObjId, ObjId, Transaction, boolean, boolean, ObjIdMap) copy()} that copies
+     * multiple objects at once, each onto the object having the same ID in {@code dest}.
+     *
+     * <p>
+     * This method is equivalent to copying each object individually, except that the objects are copied in sorted
+     * order, in a single operation while both transactions are locked, so that keys are written to {@code dest}
+     * in ascending order and per-object overhead is minimized.
+     *
+     * <p>
+     * Because all of the objects are copied together, references from one copied object to another are never
+     * considered deleted assignments, regardless of the order in which the objects are copied. Any other illegal
+     * deleted assignments are collected in {@code deletedAssignments}, or if that is null, cause a
+     * {@link DeletedObjectException} after all objects have been copied.
+     *
+     * @param ids the IDs of the objects to copy
+     * @param dest destination transaction (possibly same as this transaction)
+     * @param updateVersion true to first automatically update each object's schema version, false to not change it
+     * @param notifyListeners whether to notify {@link CreateListener}s and field change listeners
+     * @param deletedAssignments if not null, collect assignments to deleted objects here instead of throwing
+     *  {@link DeletedObjectException}s, where the map key is the deleted object and the map value is some referring field
+     * @return the number of objects in {@code ids} that did not already exist in {@code dest}
+     * @throws DeletedObjectException if any object in {@code ids} does not exist in this transaction
+     * @throws DeletedObjectException if {@code deletedAssignments} is null, and a non-null reference field in any copied
+     *  object that disallows deleted assignments contains a reference to an object that does not exist in {@code dest}
+     * @throws UnknownTypeException if any object in {@code ids} specifies an unknown object type
+     * @throws IllegalArgumentException if {@code ids} or {@code dest} is null
+     * @throws StaleTransactionException if this transaction or {@code dest} is no longer usable
+     * @throws SchemaMismatchException if the schema version associated with any copied object differs between
+     *  this transaction and {@code dest}
+     * @throws TypeNotInSchemaVersionException {@code updateVersion} is true and an object could not be updated because
+     *   the object's type does not exist in the schema version associated with this transaction
+     * @see #copy(ObjId, ObjId, Transaction, boolean, boolean, ObjIdMap)
+     * @see #copy(ObjIdSet, Transaction, boolean, boolean, ObjIdMap, ObjIdMap)
+     */
+    public int copy(ObjIdSet ids, Transaction dest, boolean updateVersion,
+      boolean notifyListeners, ObjIdMap<ReferenceField> deletedAssignments) {
+        return this.copy(ids, dest, updateVersion, notifyListeners, deletedAssignments, null);
+    }
+
+    /**
+     * Bulk variant of {@link #copy(ObjId, ObjId, Transaction, boolean, boolean, ObjIdMap) copy()} that also reports
+     * the referring object for each collected deleted assignment.
+     *
+     * <p>
+     * This method is equivalent to {@link #copy(ObjIdSet, Transaction, boolean, boolean, ObjIdMap)}, except that for
+     * each entry added to {@code deletedAssignments}, the copied object containing the referring field is added to
+     * {@code deletedAssignmentReferrers} under the same key.
+     *
+     * @param ids the IDs of the objects to copy
+     * @param dest destination transaction (possibly same as this transaction)
+     * @param updateVersion true to first automatically update each object's schema version, false to not change it
+     * @param notifyListeners whether to notify {@link CreateListener}s and field change listeners
+     * @param deletedAssignments if not null, collect assignments to deleted objects here instead of throwing
+     *  {@link DeletedObjectException}s, where the map key is the deleted object and the map value is some referring field
+     * @param deletedAssignmentReferrers if not null, and {@code deletedAssignments} is not null, collect here the referring
+     *  object for each deleted assignment added to {@code deletedAssignments}
+     * @return the number of objects in {@code ids} that did not already exist in {@code dest}
+     * @throws DeletedObjectException if any object in {@code ids} does not exist in this transaction
+     * @throws DeletedObjectException if {@code deletedAssignments} is null, and a non-null reference field in any copied
+     *  object that disallows deleted assignments contains a reference to an object that does not exist in {@code dest}
+     * @throws UnknownTypeException if any object in {@code ids} specifies an unknown object type
+     * @throws IllegalArgumentException if {@code ids} or {@code dest} is null
+     * @throws StaleTransactionException if this transaction or {@code dest} is no longer usable
+     * @throws SchemaMismatchException if the schema version associated with any copied object differs between
+     *  this transaction and {@code dest}
+     * @throws TypeNotInSchemaVersionException {@code updateVersion} is true and an object could not be updated because
+     *   the object's type does not exist in the schema version associated with this transaction
+     */
+    public synchronized int copy(ObjIdSet ids, final Transaction dest, final boolean updateVersion,
+      final boolean notifyListeners, final ObjIdMap<ReferenceField> deletedAssignments,
+      final ObjIdMap<ObjId> deletedAssignmentReferrers) {
+
+        // Sanity check
+        Preconditions.checkArgument(ids != null, "null ids");
+        Preconditions.checkArgument(dest != null, "null dest");
+        if (this.stale)
+            throw new StaleTransactionException(this);
+
+        // Sort object IDs
+        final ObjId[] sortedIds = ids.toArray();
+        Arrays.sort(sortedIds);
+
+        // Do the copy while both transactions are locked
+        synchronized (dest) {
+
+            // Sanity check
+            if (dest.stale)
+                throw new StaleTransactionException(dest);
+
+            // Copy objects
+            return dest.mutateAndNotify(new Mutation<Integer>() {
+                @Override
+                public Integer mutate() {
+                    final ObjIdMap<ReferenceField> previousCopyDeletedAssignments = dest.deletedAssignments;
+                    final boolean previousDisableListenerNotifications = dest.disableListenerNotifications;
+                    final ObjIdMap<ReferenceField> objectDeletedAssignments = new ObjIdMap<>();
+                    final ObjIdMap<ReferenceField> pendingFields = new ObjIdMap<>();
+                    final ObjIdMap<ObjId> pendingReferrers = new ObjIdMap<>();
+                    dest.deletedAssignments = objectDeletedAssignments;
+                    dest.disableListenerNotifications = !notifyListeners;
+                    int created = 0;
+                    try {
+                        for (ObjId id : sortedIds) {
+
+                            // Copy object
+                            final ObjInfo srcInfo = Transaction.this.getObjectInfo(id, updateVersion);
+                            if (Transaction.doCopyFields(srcInfo, id, Transaction.this, dest, updateVersion))
+                                created++;
+
+                            // Remember deleted assignments, along with the referring object
+                            for (Map.Entry<ObjId, ReferenceField> entry : objectDeletedAssignments.entrySet()) {
+                                final ObjId targetId = entry.getKey();
+                                if (!pendingFields.containsKey(targetId)) {
+                                    pendingFields.put(targetId, entry.getValue());
+                                    pendingReferrers.put(targetId, id);
+                                }
+                            }
+                            objectDeletedAssignments.clear();
+                        }
+                    } finally {
+                        dest.deletedAssignments = previousCopyDeletedAssignments;
+                        dest.disableListenerNotifications = previousDisableListenerNotifications;
+                    }
+
+                    // Discard deleted assignments satisfied by objects copied later; report any remaining
+                    for (Map.Entry<ObjId, ReferenceField> entry : pendingFields.entrySet()) {
+                        final ObjId targetId = entry.getKey();
+                        if (dest.exists(targetId))
+                            continue;
+                        final ReferenceField field = entry.getValue();
+                        final ObjId id = pendingReferrers.get(targetId);
+                        if (deletedAssignments != null) {
+                            deletedAssignments.put(targetId, field);
+                            if (deletedAssignmentReferrers != null)
+                                deletedAssignmentReferrers.put(targetId, id);
+                            continue;
+                        }
+                        throw new DeletedObjectException(targetId, "illegal assignment to " + field + " in object " + id
+                          + " (" + dest.getTypeDescription(id) + ") of reference to deleted object " + targetId
+                          + " (" + dest.getTypeDescription(targetId) + ")");
+                    }
+
+                    // Done
+                    return created;
+                }
+            });
+        }
+    }
+
     // This method assumes both transactions are locked
     private static boolean doCopyFields(ObjInfo srcInfo, ObjId dstId, Transaction srcTx, Transaction dstTx, boolean updateVersion) {
 
         // Sanity check
         assert Thread.holdsLock(srcTx);
         assert Thread.holdsLock(dstTx);
+        dstTx.checkWritable();
 
         // Verify objects have the same type
         final ObjId srcId = srcInfo.getId();
@@ -1229,13 +1914,13 @@ public class Transaction {
                 if (field.indexed) {
                     final byte[] fieldValue = dstTx.kvt.get(field.buildKey(dstId));     // can be null (if field has default value)
                     final byte[] indexKey = Transaction.buildSimpleIndexEntry(field, dstId, fieldValue);
-                    dstTx.kvt.put(indexKey, ByteUtil.EMPTY);
+                    dstTx.addIndexEntry(indexKey);
                 }
             }
 
             // Create object's composite index entries
             for (CompositeIndex index : dstType.compositeIndexes.values())
-                dstTx.kvt.put(Transaction.buildCompositeIndexEntry(dstTx, dstId, index), ByteUtil.EMPTY);
+                dstTx.addIndexEntry(Transaction.buildCompositeIndexEntry(dstTx, dstId, index));
 
             // Create object's complex field index entries
             for (ComplexField<?> field : dstType.complexFields.values()) {
@@ -1330,7 +2015,7 @@ public class Transaction {
      * @throws StaleTransactionException if this transaction is no longer usable
      * @throws IllegalArgumentException if {@code id} is null
      */
-    public synchronized int getSchemaVersion(ObjId id) {
+    public int getSchemaVersion(ObjId id) {
 
         // Sanity check
         if (this.stale)
@@ -1338,7 +2023,11 @@ public class Transaction {
         Preconditions.checkArgument(id != null, "null id");
 
         // Get object version
-        return this.getObjectInfo(id, false).getVersion();
+        if (this.concurrentReads)
+            return this.getObjectInfo(id, false).getVersion();
+        synchronized (this) {
+            return this.getObjectInfo(id, false).getVersion();
+        }
     }
 
     /**
@@ -1420,7 +2109,7 @@ public class Transaction {
         // Remove index entries for composite indexes that are going away
         for (CompositeIndex index : oldType.compositeIndexes.values()) {
             if (!newType.compositeIndexes.containsKey(index.storageId))
-                this.kvt.remove(this.buildCompositeIndexEntry(id, index));
+                this.removeIndexEntry(this.buildCompositeIndexEntry(id, index));
         }
 
     //////// Update counter fields
@@ -1438,16 +2127,15 @@ public class Transaction {
             final CounterField newField = newType.counterFields.get(storageId);
 
             // Save old field values for version change notification
-            final byte[] key = Field.buildKey(id, storageId);
-            if (oldField != null && oldValueMap != null) {
-                final byte[] oldValue = this.kvt.get(key);
-                final long value = oldValue != null ? this.kvt.decodeCounter(oldValue) : 0;
-                oldValueMap.put(storageId, value);
-            }
+            if (oldField != null && oldValueMap != null)
+                oldValueMap.put(storageId, oldField.read(this.kvt, id));
 
-            // Remove old value if field has disappeared, otherwise leave alone
-            if (newField == null)
-                this.kvt.remove(key);
+            // Remove old value(s) if field has disappeared, initialize if field is new, otherwise leave alone
+            if (newField == null) {
+                final byte[] key = Field.buildKey(id, storageId);
+                this.kvt.removeRange(key, ByteUtil.getKeyAfterPrefix(key));
+            } else if (oldField == null)
+                newField.initialize(this.kvt, id);
         }
 
     //////// Update simple fields and corresponding index entries
@@ -1479,11 +2167,11 @@ public class Transaction {
 
             // Remove old index entry if index removed in new version
             if (oldField != null && oldField.indexed && (newField == null || !newField.indexed))
-                this.kvt.remove(Transaction.buildSimpleIndexEntry(oldField, id, oldValue));
+                this.removeIndexEntry(Transaction.buildSimpleIndexEntry(oldField, id, oldValue));
 
             // Add new index entry if index added in new version
             if (newField != null && newField.indexed && (oldField == null || !oldField.indexed))
-                this.kvt.put(Transaction.buildSimpleIndexEntry(newField, id, oldValue), ByteUtil.EMPTY);
+                this.addIndexEntry(Transaction.buildSimpleIndexEntry(newField, id, oldValue));
         }
 
     //////// Add composite index entries for newly added composite indexes
@@ -1491,7 +2179,7 @@ public class Transaction {
         // Add index entries for composite indexes that are newly added
         for (CompositeIndex index : newType.compositeIndexes.values()) {
             if (!oldType.compositeIndexes.containsKey(index.storageId))
-                this.kvt.put(this.buildCompositeIndexEntry(id, index), ByteUtil.EMPTY);
+                this.addIndexEntry(this.buildCompositeIndexEntry(id, index));
         }
 
     //////// Update complex fields and corresponding index entries
@@ -1579,7 +2267,8 @@ public class Transaction {
 
         // Change object version and update object info cache
         ObjInfo.write(this, id, newVersion, info.isDeleteNotified());
-        this.objInfoCache.put(id, new ObjInfo(this, id, newVersion, info.isDeleteNotified(), targetVersion, newType));
+        this.cacheObjInfo(new ObjInfo(this, id, newVersion, info.isDeleteNotified(), targetVersion, newType));
+        this.invalidateFieldValues(id);
 
         // Update object version index entry
         this.kvt.remove(Database.buildVersionIndexKey(id, oldVersion));
@@ -1745,7 +2434,15 @@ public class Transaction {
      * @throws TypeNotInSchemaVersionException {@code updateVersion} is true and the object could not be updated because
      *   the object's type does not exist in the schema version associated with this transaction
      */
-    public synchronized Object readSimpleField(ObjId id, int storageId, boolean updateVersion) {
+    public Object readSimpleField(ObjId id, int storageId, boolean updateVersion) {
+        if (this.concurrentReads)
+            return this.doReadSimpleField(id, storageId, updateVersion);
+        synchronized (this) {
+            return this.doReadSimpleField(id, storageId, updateVersion);
+        }
+    }
+
+    private Object doReadSimpleField(ObjId id, int storageId, boolean updateVersion) {
 
         // Sanity check
         if (this.stale)
@@ -1760,12 +2457,229 @@ public class Transaction {
         if (field == null)
             throw new UnknownFieldException(info.getObjType(), storageId, "simple field");
 
+        // Check cache
+        if (this.fieldValueCaching) {
+            final Object cachedValue = this.getCachedFieldValue(id, storageId);
+            if (cachedValue != NOT_CACHED)
+                return cachedValue;
+        }
+
         // Read field
         final byte[] key = field.buildKey(id);
         final byte[] value = this.kvt.get(key);
 
         // Decode value
-        return value != null ? field.fieldType.read(new ByteReader(value)) : field.fieldType.getDefaultValueObject();
+        final Object obj = value != null ? field.fieldType.read(new ByteReader(value)) : field.fieldType.getDefaultValueObject();
+
+        // Update cache
+        if (this.fieldValueCaching && Transaction.isCacheable(obj))
+            this.cacheFieldValues(id, Collections.singletonMap(storageId, obj));
+
+        // Done
+        return obj;
+    }
+
+    /**
+     * Load objects' meta-data and simple field values into this transaction's caches using a small number of range reads.
+     *
+     * <p>
+     * Each object is stored as a meta-data key followed by one key per field, all sharing the object ID as a prefix.
+     * This method reads the meta-data of all the given objects in a single {@link org.jsimpledb.kv.KVStore#getAll getAll()}
+     * batch, and then reads each object's simple field content with one {@link org.jsimpledb.kv.KVStore#getRange getRange()}
+     * per gap between complex fields (the contents of complex fields are skipped). Subsequent calls to
+     * {@link #exists exists()} and {@link #readSimpleField readSimpleField()} for these objects are then answered without
+     * accessing the key/value store, until the object or field is modified, or until the cache entries are evicted
+     * due to the caches' limited size. This avoids a separate round trip per field access with key/value stores that
+     * access data over a network.
+     *
+     * <p>
+     * Simple field values are only loaded if {@linkplain Database#setFieldValueCaching field value caching} is enabled;
+     * otherwise, only the objects' meta-data is loaded. Objects that do not exist, or whose object ID specifies
+     * an unknown object type, are ignored. This method does not change any object's schema version.
+     *
+     * @param ids object IDs
+     * @return the number of objects found and loaded
+     * @throws StaleTransactionException if this transaction is no longer usable
+     * @throws IllegalArgumentException if {@code ids} or any element is null
+     */
+    public synchronized int loadObjects(Iterable<? extends ObjId> ids) {
+
+        // Sanity check
+        Preconditions.checkArgument(ids != null, "null ids");
+        if (this.stale)
+            throw new StaleTransactionException(this);
+
+        // Sort and de-duplicate object IDs, ignoring unknown object types
+        final TreeSet<ObjId> idSet = new TreeSet<>();
+        for (ObjId id : ids) {
+            Preconditions.checkArgument(id != null, "null id");
+            try {
+                this.schemas.verifyStorageInfo(id.getStorageId(), ObjTypeStorageInfo.class);
+            } catch (UnknownTypeException e) {
+                continue;
+            }
+            idSet.add(id);
+        }
+
+        // Read meta-data for objects not already in the object info cache in a single batch
+        final ArrayList<ObjInfo> infos = new ArrayList<>(idSet.size());
+        final ArrayList<ObjId> uncachedIds = new ArrayList<>();
+        final ArrayList<byte[]> uncachedKeys = new ArrayList<>();
+        for (ObjId id : idSet) {
+            final ObjInfo info = this.getCachedObjInfo(id);
+            if (info != null)
+                infos.add(info);
+            else {
+                uncachedIds.add(id);
+                uncachedKeys.add(id.getBytes());
+            }
+        }
+        final List<byte[]> metaData = !uncachedKeys.isEmpty() ? this.kvt.getAll(uncachedKeys) : Collections.<byte[]>emptyList();
+        for (int i = 0; i < uncachedIds.size(); i++) {
+            final byte[] value = metaData.get(i);
+            if (value == null)
+                continue;
+            final ObjInfo info = new ObjInfo(this, uncachedIds.get(i), value);
+            this.cacheObjInfo(info);
+            infos.add(info);
+        }
+
+        // Read simple fields
+        if (this.fieldValueCaching) {
+            for (ObjInfo info : infos)
+                this.loadFieldValues(info);
+        }
+
+        // Done
+        return infos.size();
+    }
+
+    /**
+     * Load a single object's meta-data and simple field values into this transaction's caches.
+     *
+     * <p>
+     * Equivalent to {@code loadObjects(Collections.singleton(id)) == 1}.
+     *
+     * @param id object ID
+     * @return true if the object was found and loaded, false if it does not exist or has an unknown object type
+     * @throws StaleTransactionException if this transaction is no longer usable
+     * @throws IllegalArgumentException if {@code id} is null
+     * @see #loadObjects loadObjects()
+     */
+    public boolean loadObject(ObjId id) {
+        Preconditions.checkArgument(id != null, "null id");
+        return this.loadObjects(Collections.singleton(id)) == 1;
+    }
+
+    // Read all simple field values of the given object into the field value cache
+    private void loadFieldValues(ObjInfo info) {
+        assert Thread.holdsLock(this);
+        assert info != null;
+
+        // Start with default values; fields having default values have no key
+        final ObjId id = info.getId();
+        final ObjType objType = info.getObjType();
+        final HashMap<Integer, Object> values = new HashMap<>(objType.simpleFields.size());
+        for (SimpleField<?> field : objType.simpleFields.values())
+            values.put(field.storageId, field.fieldType.getDefaultValueObject());
+
+        // Read the object's key range, skipping over complex field content
+        final byte[] idKey = id.getBytes();
+        final KeyRanges ranges = KeyRanges.forPrefix(idKey);
+        for (ComplexField<?> field : objType.complexFields.values())
+            ranges.remove(KeyRange.forPrefix(field.buildKey(id)));
+        for (KeyRange range : ranges.asList()) {
+            final Iterator<KVPair> i = this.kvt.getRange(range.getMin(), range.getMax(), false);
+            try {
+                while (i.hasNext()) {
+                    final KVPair pair = i.next();
+                    final ByteReader reader = new ByteReader(pair.getKey());
+                    reader.skip(idKey.length);
+                    if (reader.remain() == 0)                                       // object meta-data
+                        continue;
+                    final SimpleField<?> field = objType.simpleFields.get(UnsignedIntEncoder.read(reader));
+                    if (field == null || reader.remain() != 0)                      // counter field, etc.
+                        continue;
+                    values.put(field.storageId, field.fieldType.read(new ByteReader(pair.getValue())));
+                }
+            } finally {
+                Database.closeIfPossible(i);
+            }
+        }
+
+        // Update cache
+        for (Iterator<Object> i = values.values().iterator(); i.hasNext(); ) {
+            if (!Transaction.isCacheable(i.next()))
+                i.remove();
+        }
+        this.cacheFieldValues(id, values);
+    }
+
+    // Get a cached field value, or NOT_CACHED if not cached
+    private Object getCachedFieldValue(ObjId id, int storageId) {
+        synchronized (this.fieldValueCache) {
+            final HashMap<Integer, Object> cachedValues = this.fieldValueCache.get(id);
+            return cachedValues != null && cachedValues.containsKey(storageId) ? cachedValues.get(storageId) : NOT_CACHED;
+        }
+    }
+
+    // Add field values to the given object's cached field values
+    private void cacheFieldValues(ObjId id, Map<Integer, Object> values) {
+        synchronized (this.fieldValueCache) {
+            HashMap<Integer, Object> cachedValues = this.fieldValueCache.get(id);
+            if (cachedValues == null) {
+                if (this.fieldValueCache.size() >= MAX_FIELD_VALUE_CACHE_ENTRIES)
+                    this.fieldValueCache.removeOne();
+                cachedValues = new HashMap<>();
+                this.fieldValueCache.put(id, cachedValues);
+            }
+            cachedValues.putAll(values);
+        }
+    }
+
+    // Mutable values can't be cached because callers could modify them
+    private static boolean isCacheable(Object obj) {
+        return !(obj instanceof Date) && (obj == null || !obj.getClass().isArray());
+    }
+
+    /**
+     * Discard any cached simple field values for the given object.
+     *
+     * @param id object ID
+     */
+    private void invalidateFieldValues(ObjId id) {
+        if (!this.fieldValueCaching)
+            return;
+        synchronized (this.fieldValueCache) {
+            this.fieldValueCache.remove(id);
+        }
+    }
+
+    /**
+     * Discard any cached value for the given simple field.
+     *
+     * @param id object ID
+     * @param storageId field storage ID
+     */
+    private void invalidateFieldValue(ObjId id, int storageId) {
+        if (!this.fieldValueCaching)
+            return;
+        synchronized (this.fieldValueCache) {
+            final HashMap<Integer, Object> cachedValues = this.fieldValueCache.get(id);
+            if (cachedValues != null)
+                cachedValues.remove(storageId);
+        }
+    }
+
+    /**
+     * Discard all cached simple field values.
+     */
+    void invalidateFieldValues() {
+        if (!this.fieldValueCaching)
+            return;
+        synchronized (this.fieldValueCache) {
+            this.fieldValueCache.clear();
+        }
     }
 
     /**
@@ -1838,11 +2752,12 @@ public class Transaction {
             this.kvt.put(key, newValue);
         else
             this.kvt.remove(key);
+        this.invalidateFieldValue(id, storageId);
 
         // Update simple index, if any
         if (field.indexed) {
-            this.kvt.remove(Transaction.buildSimpleIndexEntry(field, id, oldValue));
-            this.kvt.put(Transaction.buildSimpleIndexEntry(field, id, newValue), ByteUtil.EMPTY);
+            this.replaceIndexEntry(Transaction.buildSimpleIndexEntry(field, id, oldValue),
+              Transaction.buildSimpleIndexEntry(field, id, newValue));
         }
 
         // Update affected composite indexes, if any
@@ -1871,23 +2786,20 @@ public class Transaction {
                 assert fieldEnd != -1;
                 id.writeTo(oldWriter);
 
-                // Remove old composite index entry
-                final byte[] oldIndexEntry = oldWriter.getBytes();
-                this.kvt.remove(oldIndexEntry);
-
                 // Patch in new field value to create new composite index entry
+                final byte[] oldIndexEntry = oldWriter.getBytes();
                 final ByteWriter newWriter = new ByteWriter(oldIndexEntry.length);
                 newWriter.write(oldIndexEntry, 0, fieldStart);
                 newWriter.write(newValue != null ? newValue : field.fieldType.getDefaultValue());
                 newWriter.write(oldIndexEntry, fieldEnd, oldIndexEntry.length - fieldEnd);
 
-                // Add new composite index entry
-                this.kvt.put(newWriter.getBytes(), ByteUtil.EMPTY);
+                // Replace old composite index entry with new
+                this.replaceIndexEntry(oldIndexEntry, newWriter.getBytes());
             }
         }
 
-        // Notify monitors
-        if (!this.disableListenerNotifications) {
+        // Notify monitors, if anybody cares
+        if (!this.disableListenerNotifications && this.hasFieldMonitor(id, field)) {
             final Object oldObj = oldValue != null ?
               field.fieldType.read(new ByteReader(oldValue)) : field.fieldType.getDefaultValueObject();
             this.addFieldChangeNotification(new SimpleFieldChangeNotifier(field, id) {
@@ -1987,7 +2899,15 @@ public class Transaction {
      *   the object's type does not exist in the schema version associated with this transaction
      * @throws IllegalArgumentException if {@code id} is null
      */
-    public synchronized long readCounterField(ObjId id, int storageId, boolean updateVersion) {
+    public long readCounterField(ObjId id, int storageId, boolean updateVersion) {
+        if (this.concurrentReads)
+            return this.doReadCounterField(id, storageId, updateVersion);
+        synchronized (this) {
+            return this.doReadCounterField(id, storageId, updateVersion);
+        }
+    }
+
+    private long doReadCounterField(ObjId id, int storageId, boolean updateVersion) {
 
         // Sanity check
         if (this.stale)
@@ -2003,11 +2923,7 @@ public class Transaction {
             throw new UnknownFieldException(info.getObjType(), storageId, "counter field");
 
         // Read field
-        final byte[] key = field.buildKey(id);
-        final byte[] value = this.kvt.get(key);
-
-        // Decode value
-        return value != null ? this.kvt.decodeCounter(value) : 0;
+        return field.read(this.kvt, id);
     }
 
     /**
@@ -2035,6 +2951,7 @@ public class Transaction {
         // Sanity check
         if (this.stale)
             throw new StaleTransactionException(this);
+        this.checkWritable();
         Preconditions.checkArgument(id != null, "null id");
 
         // Get object info
@@ -2046,8 +2963,7 @@ public class Transaction {
             throw new UnknownFieldException(info.getObjType(), storageId, "counter field");
 
         // Set value
-        final byte[] key = field.buildKey(id);
-        this.kvt.put(key, this.kvt.encodeCounter(value));
+        field.write(this.kvt, id, value);
     }
 
     /**
@@ -2076,6 +2992,7 @@ public class Transaction {
         Preconditions.checkArgument(id != null, "null id");
         if (this.stale)
             throw new StaleTransactionException(this);
+        this.checkWritable();
 
         // Optimize away non-change
         if (offset == 0)
@@ -2090,7 +3007,7 @@ public class Transaction {
             throw new UnknownFieldException(info.getObjType(), storageId, "counter field");
 
         // Adjust counter value
-        this.kvt.adjustCounter(field.buildKey(id), offset);
+        field.adjust(this.kvt, id, offset);
     }
 
     /**
@@ -2236,7 +3153,15 @@ public class Transaction {
         return this.kvt.get(field.buildKey(id)) == null;
     }
 
-    private synchronized <F, V> V readComplexField(ObjId id,
+    private <F, V> V readComplexField(ObjId id, int storageId, boolean updateVersion, Class<F> fieldClass, Class<V> valueType) {
+        if (this.concurrentReads)
+            return this.doReadComplexField(id, storageId, updateVersion, fieldClass, valueType);
+        synchronized (this) {
+            return this.doReadComplexField(id, storageId, updateVersion, fieldClass, valueType);
+        }
+    }
+
+    private <F, V> V doReadComplexField(ObjId id,
       int storageId, boolean updateVersion, Class<F> fieldClass, Class<V> valueType) {
 
         // Sanity check
@@ -2265,7 +3190,7 @@ public class Transaction {
      * @throws IllegalArgumentException if {@code id} is null
      */
     private ObjInfo getObjectInfoIfExists(ObjId id, boolean update) {
-        assert Thread.holdsLock(this);
+        assert this.concurrentReads || Thread.holdsLock(this);
         try {
             return this.getObjectInfo(id, update);
         } catch (DeletedObjectException | UnknownTypeException e) {
@@ -2286,10 +3211,10 @@ public class Transaction {
     private ObjInfo getObjectInfo(ObjId id, boolean update) {
 
         // Sanity check
-        assert Thread.holdsLock(this);
+        assert this.concurrentReads || Thread.holdsLock(this);
 
         // Load object info into cache, if not already there
-        ObjInfo info = this.objInfoCache.get(id);
+        ObjInfo info = this.getCachedObjInfo(id);
         if (info == null) {
 
             // Verify that the object type encoded within the object ID is valid
@@ -2323,20 +3248,40 @@ public class Transaction {
      * @throws DeletedObjectException if object does not exist
      */
     private ObjInfo loadIntoCache(ObjId id) {
-        ObjInfo info = this.objInfoCache.get(id);
+        ObjInfo info = this.getCachedObjInfo(id);
         if (info == null) {
 
             // Create info; we'll get an exception here if object does not exist
             info = new ObjInfo(this, id);
 
             // Add object info to the cache
-            if (this.objInfoCache.size() >= MAX_OBJ_INFO_CACHE_ENTRIES)
-                this.objInfoCache.removeOne();
-            this.objInfoCache.put(id, info);
+            this.cacheObjInfo(info);
         }
         return info;
     }
 
+    // The object info and field value caches have their own locks, so they can be accessed in concurrent read mode
+
+    private ObjInfo getCachedObjInfo(ObjId id) {
+        synchronized (this.objInfoCache) {
+            return this.objInfoCache.get(id);
+        }
+    }
+
+    private void cacheObjInfo(ObjInfo info) {
+        synchronized (this.objInfoCache) {
+            if (this.objInfoCache.size() >= MAX_OBJ_INFO_CACHE_ENTRIES && !this.objInfoCache.containsKey(info.id))
+                this.objInfoCache.removeOne();
+            this.objInfoCache.put(info.id, info);
+        }
+    }
+
+    private void uncacheObjInfo(ObjId id) {
+        synchronized (this.objInfoCache) {
+            this.objInfoCache.remove(id);
+        }
+    }
+
 // Field Change Notifications
 
     /**
@@ -2571,7 +3516,9 @@ public class Transaction {
             this.schemas.verifyStorageInfo(pathStorageId, ReferenceFieldStorageInfo.class);
     }
 
+    // Note: the caller is assumed to be about to modify the returned set, so this discards the current monitor table
     private synchronized HashSet<FieldMonitor> getMonitorsForField(int storageId, boolean create) {
+        this.monitorTable = null;
         HashSet<FieldMonitor> monitors;
         if (this.monitorMap == null) {
             if (!create)
@@ -2589,6 +3536,18 @@ public class Transaction {
         return monitors;
     }
 
+    /**
+     * Get the dispatch table for the currently registered monitors, if any.
+     */
+    private FieldMonitorTable getMonitorTable() {
+        assert Thread.holdsLock(this);
+        if (this.monitorMap == null)
+            return null;
+        if (this.monitorTable == null)
+            this.monitorTable = new FieldMonitorTable(this.monitorMap, this.schema);
+        return this.monitorTable;
+    }
+
     /**
      * Add a pending notification for any {@link FieldMonitor}s watching the specified field in the specified object.
      * This method assumes only the appropriate type of monitor is registered as a listener on the field
@@ -2603,8 +3562,7 @@ public class Transaction {
 
         // Does anybody care?
         final int storageId = notifier.getStorageId();
-        HashSet<FieldMonitor> monitors = this.monitorMap != null ? this.monitorMap.get(storageId) : null;
-        if (monitors == null || !Iterables.any(monitors, new MonitoredPredicate(notifier.getId(), storageId)))
+        if (!this.hasFieldMonitor(notifier.getId(), storageId))
             return;
 
         // Add a pending field monitor notification for the specified field
@@ -2621,11 +3579,13 @@ public class Transaction {
      * Determine if there are any monitors watching the specified field.
      */
     boolean hasFieldMonitor(ObjId id, Field<?> field) {
+        return this.hasFieldMonitor(id, field.storageId);
+    }
+
+    private boolean hasFieldMonitor(ObjId id, int storageId) {
         assert Thread.holdsLock(this);
-        if (this.monitorMap == null)
-            return false;
-        final HashSet<FieldMonitor> monitors = this.monitorMap.get(field.storageId);
-        return monitors != null && Iterables.any(monitors, new MonitoredPredicate(id, field.storageId));
+        final FieldMonitorTable table = this.getMonitorTable();
+        return table != null && table.getMonitors(id.getStorageId(), storageId).length > 0;
     }
 
     /**
@@ -2633,10 +3593,11 @@ public class Transaction {
      */
     boolean hasFieldMonitor(ObjType objType) {
         assert Thread.holdsLock(this);
-        if (this.monitorMap == null)
+        final FieldMonitorTable table = this.getMonitorTable();
+        if (table == null)
             return false;
         for (int storageId : NavigableSets.intersection(objType.fields.navigableKeySet(), this.monitorMap.navigableKeySet())) {
-            if (Iterables.any(this.monitorMap.get(storageId), new MonitoredPredicate(ObjId.getMin(objType.storageId), storageId)))
+            if (table.getMonitors(objType.storageId, storageId).length > 0)
                 return true;
         }
         return false;
@@ -2675,6 +3636,7 @@ public class Transaction {
         // Validate transaction
         if (this.stale)
             throw new StaleTransactionException(this);
+        this.checkWritable();
 
         // If re-entrant invocation, we're already set up
         if (this.pendingNotifications.get() != null)
@@ -2696,10 +3658,13 @@ public class Transaction {
                     // For all pending notifications, back-track references and notify all field monitors for the field
                     for (FieldChangeNotifier notifier : entry.getValue()) {
                         assert notifier.getStorageId() == storageId;
-                        final HashSet<FieldMonitor> monitors = this.getMonitorsForField(storageId, false);
-                        if (monitors == null || monitors.isEmpty())
+                        final FieldMonitorTable table = this.getMonitorTable();
+                        if (table == null)
+                            continue;
+                        final FieldMonitor[] monitors = table.getMonitors(notifier.getId().getStorageId(), storageId);
+                        if (monitors.length == 0)
                             continue;
-                        this.notifyFieldMonitors(notifier, NavigableSets.singleton(notifier.getId()), new ArrayList<>(monitors), 0);
+                        this.notifyFieldMonitors(notifier, NavigableSets.singleton(notifier.getId()), Arrays.asList(monitors), 0);
                     }
                 }
             } finally {
@@ -2709,18 +3674,15 @@ public class Transaction {
     }
 
     // Recursively back-track references along monitor paths and notify monitors when we reach the end (i.e., beginning)
+    // Note: the monitors' type filters have already been applied by the FieldMonitorTable
     private void notifyFieldMonitors(FieldChangeNotifier notifier,
-      NavigableSet<ObjId> objects, ArrayList<FieldMonitor> monitorList, int step) {
+      NavigableSet<ObjId> objects, List<FieldMonitor> monitorList, int step) {
 
         // Find the monitors for whom we have completed all the steps in their (inverse) path,
         // and group the remaining monitors by their next inverted reference path step.
         final HashMap<Integer, ArrayList<FieldMonitor>> remainingMonitorsMap = new HashMap<>();
         for (FieldMonitor monitor : monitorList) {
 
-            // On the first step, apply the monitor's type filter, if any
-            if (step == 0 && monitor.types != null && !monitor.types.contains(notifier.getId().getBytes()))
-                continue;
-
             // Issue notification callback if we have back-tracked through the whole path
             if (monitor.path.length == step) {
                 notifier.notify(this, monitor.listener, monitor.path, objects);
@@ -2843,6 +3805,10 @@ public class Transaction {
      * The returned index contains objects from all recorded schema versions for which the list element field is indexed;
      * this method does not check whether any such schema versions exist.
      *
+     * <p>
+     * If the list field is {@linkplain ListField#isSparse sparse}, the list index values are element positions,
+     * which have the same ordering as list indicies but are not consecutive.
+     *
      * @param storageId {@link ListField}'s storage ID
      * @return read-only, real-time view of list element values, objects with the value in the list, and corresponding indicies
      * @throws UnknownFieldException if no {@link ListField} corresponding to {@code storageId} exists
@@ -2957,6 +3923,115 @@ public class Transaction {
         return indexInfo.getIndex(this);
     }
 
+    /**
+     * Get the approximate number of entries in the specified index, as recorded by the index statistics.
+     *
+     * <p>
+     * This method does not iterate the index; instead, it reads the entry counter maintained when
+     * {@linkplain Database#setIndexStatistics index statistics} are enabled. The result is approximate: counters
+     * are only updated by transactions having index statistics enabled.
+     *
+     * <p>
+     * If this transaction does not have index statistics enabled, -1 is returned, even if previously recorded
+     * statistics exist, because they may be out of date.
+     *
+     * @param storageId storage ID of an indexed {@link SimpleField} or a composite index
+     * @return approximate number of index entries, or -1 if no statistics are recorded for the index
+     *  or index statistics are not enabled
+     * @throws StaleTransactionException if this transaction is no longer usable
+     * @see #rebuildIndexStatistics
+     */
+    public synchronized long estimateIndexSize(int storageId) {
+        if (this.stale)
+            throw new StaleTransactionException(this);
+        if (!this.indexStatistics)
+            return -1;
+        return this.readIndexStatistics(storageId, -1);
+    }
+
+    /**
+     * Recalculate the statistics for all indexes in all recorded schema versions by iterating their entries.
+     *
+     * <p>
+     * This creates (or resets) the counters read by {@link #estimateIndexSize estimateIndexSize()}, including
+     * histogram buckets if {@linkplain Database#setIndexHistograms index histograms} are enabled.
+     * It should be invoked once after enabling index statistics on a database that already contains data,
+     * and whenever a new schema version adds an index. This is an expensive operation.
+     *
+     * @throws StaleTransactionException if this transaction is no longer usable
+     */
+    public synchronized void rebuildIndexStatistics() {
+
+        // Sanity check
+        if (this.stale)
+            throw new StaleTransactionException(this);
+        this.checkWritable();
+
+        // Gather the storage ID's of all indexes
+        final TreeSet<Integer> storageIds = new TreeSet<>(this.schemas.indexedFieldToContainingTypesMap.keySet());
+        for (StorageInfo storageInfo : this.schemas.storageInfos.values()) {
+            if (storageInfo instanceof CompositeIndexStorageInfo)
+                storageIds.add(storageInfo.storageId);
+        }
+
+        // Count entries in each index
+        for (int storageId : storageIds) {
+            final byte[] minKey = UnsignedIntEncoder.encode(storageId);
+            final byte[] maxKey = ByteUtil.getKeyAfterPrefix(minKey);
+            final long[] buckets = new long[256];
+            long total = 0;
+            final Iterator<KVPair> i = this.kvt.getRange(minKey, maxKey, false);
+            while (i.hasNext()) {
+                final byte[] key = i.next().getKey();
+                if (key.length > minKey.length)
+                    buckets[key[minKey.length] & 0xff]++;
+                total++;
+            }
+            Database.closeIfPossible(i);
+
+            // Record counters
+            final KeyRange statsRange = Database.getIndexStatisticsKeyRange(storageId);
+            this.kvt.removeRange(statsRange.getMin(), statsRange.getMax());
+            this.kvt.put(Database.buildIndexStatisticsKey(storageId, -1), this.kvt.encodeCounter(total));
+            if (this.indexHistograms) {
+                for (int bucket = 0; bucket < buckets.length; bucket++)
+                    this.kvt.put(Database.buildIndexStatisticsKey(storageId, bucket), this.kvt.encodeCounter(buckets[bucket]));
+            }
+        }
+    }
+
+    /**
+     * Estimate the number of index entries having the given key prefix, using the index statistics.
+     *
+     * @param prefix index key prefix, starting with the index storage ID
+     * @return approximate upper bound on the number of entries, or -1 if unknown
+     */
+    long estimateIndexSize(byte[] prefix) {
+        if (!this.indexStatistics || prefix.length == 0)
+            return -1;
+        final ByteReader reader = new ByteReader(prefix);
+        final int storageId = UnsignedIntEncoder.read(reader);
+        if (storageId == 0)                                                 // not an index (e.g., object version index)
+            return -1;
+        if (this.indexHistograms && reader.remain() > 0) {
+            final long estimate = this.readIndexStatistics(storageId, reader.peek());
+            if (estimate != -1)
+                return estimate;
+        }
+        return this.readIndexStatistics(storageId, -1);
+    }
+
+    private long readIndexStatistics(int storageId, int bucket) {
+        final byte[] value = this.kvt.get(Database.buildIndexStatisticsKey(storageId, bucket));
+        if (value == null)
+            return -1;
+        try {
+            return Math.max(this.kvt.decodeCounter(value), 0);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
     // Query an index on a reference field for referring objects
     @SuppressWarnings("unchecked")
     private NavigableMap<ObjId, NavigableSet<ObjId>> queryReferences(int storageId) {
@@ -3008,6 +4083,70 @@ public class Transaction {
         return !refSets.isEmpty() ? NavigableSets.union(refSets) : NavigableSets.empty(FieldTypeRegistry.OBJ_ID);
     }
 
+    /**
+     * Add an index entry, updating index statistics if enabled.
+     *
+     * @param indexKey index entry key
+     */
+    void addIndexEntry(byte[] indexKey) {
+        this.kvt.put(indexKey, ByteUtil.EMPTY);
+        if (this.indexStatistics)
+            this.adjustIndexStatistics(indexKey, 1, true);
+    }
+
+    /**
+     * Remove an index entry, updating index statistics if enabled.
+     *
+     * @param indexKey index entry key
+     */
+    void removeIndexEntry(byte[] indexKey) {
+        this.kvt.remove(indexKey);
+        if (this.indexStatistics)
+            this.adjustIndexStatistics(indexKey, -1, true);
+    }
+
+    /**
+     * Replace an index entry with another in the same index, updating index histograms if enabled.
+     * The index total does not change.
+     *
+     * @param oldIndexKey index entry key to remove
+     * @param newIndexKey index entry key to add
+     */
+    void replaceIndexEntry(byte[] oldIndexKey, byte[] newIndexKey) {
+        this.kvt.remove(oldIndexKey);
+        this.kvt.put(newIndexKey, ByteUtil.EMPTY);
+        if (this.indexHistograms) {
+            final int offset = UnsignedIntEncoder.decodeLength(oldIndexKey[0]);
+            if (oldIndexKey[offset] != newIndexKey[offset]) {
+                this.adjustIndexStatistics(oldIndexKey, -1, false);
+                this.adjustIndexStatistics(newIndexKey, 1, false);
+            }
+        }
+    }
+
+    private void adjustIndexStatistics(byte[] indexKey, long amount, boolean total) {
+        final ByteReader reader = new ByteReader(indexKey);
+        final int storageId = UnsignedIntEncoder.read(reader);
+        if (total)
+            this.kvt.adjustCounter(Database.buildIndexStatisticsKey(storageId, -1), amount);
+        if (this.indexHistograms && reader.remain() > 0)
+            this.kvt.adjustCounter(Database.buildIndexStatisticsKey(storageId, reader.peek()), amount);
+    }
+
+    // Accumulate index statistics adjustments for a new index entry
+    private void tallyIndexStatistics(Map<byte[], Long> statistics, byte[] indexKey) {
+        final ByteReader reader = new ByteReader(indexKey);
+        final int storageId = UnsignedIntEncoder.read(reader);
+        final ArrayList<byte[]> keys = new ArrayList<>(2);
+        keys.add(Database.buildIndexStatisticsKey(storageId, -1));
+        if (this.indexHistograms && reader.remain() > 0)
+            keys.add(Database.buildIndexStatisticsKey(storageId, reader.peek()));
+        for (byte[] key : keys) {
+            final Long count = statistics.get(key);
+            statistics.put(key, count != null ? count + 1 : 1);
+        }
+    }
+
     private byte[] buildCompositeIndexEntry(ObjId id, CompositeIndex index) {
         return Transaction.buildCompositeIndexEntry(this, id, index);
     }
@@ -3078,6 +4217,7 @@ public class Transaction {
         this.createListeners = listeners.createListeners;
         this.deleteListeners = listeners.deleteListeners;
         this.monitorMap = listeners.monitorMap;
+        this.monitorTable = listeners.monitorTable;
     }
 
 // User Object
@@ -3237,6 +4377,7 @@ public class Transaction {
         final Set<CreateListener> createListeners;
         final Set<DeleteListener> deleteListeners;
         final NavigableMap<Integer, HashSet<FieldMonitor>> monitorMap;
+        final FieldMonitorTable monitorTable;
 
         final Schema schema;
 
@@ -3250,31 +4391,13 @@ public class Transaction {
               Collections.unmodifiableSet(new HashSet<>(tx.deleteListeners)) : null;
             this.monitorMap = tx.monitorMap != null ?                           // JAVA8: Collections.unmodifiableNavigableMap
               Maps.unmodifiableNavigableMap(new TreeMap<>(tx.monitorMap)) : null;
+            this.monitorTable = this.monitorMap != null ? new FieldMonitorTable(this.monitorMap, tx.schema) : null;
             this.schema = tx.schema;
         }
     }
 
 // Predicates & Functions
 
-    // Matches FieldMonitors who monitor the specified field in the specified object type
-    private static final class MonitoredPredicate implements Predicate<FieldMonitor> {
-
-        private final byte[] idBytes;
-        private final int storageId;
-
-        MonitoredPredicate(ObjId id, int storageId) {
-            assert id != null;
-            this.idBytes = id.getBytes();
-            this.storageId = storageId;
-        }
-
-        @Override
-        public boolean apply(FieldMonitor monitor) {
-            assert monitor != null;
-            return monitor.storageId == this.storageId && (monitor.types == null || monitor.types.contains(this.idBytes));
-        }
-    }
-
     // Matches ReferenceFields that have cascadeDelete = true
     private static final class HasCascadeDelete implements Predicate<ReferenceField> {
 
@@ -6,34 +6,107 @@
 package org.jsimpledb.schema;
 
 import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import javax.xml.stream.XMLStreamWriter;
 
+import org.jsimpledb.core.CounterField;
+import org.jsimpledb.core.InvalidSchemaException;
+import org.jsimpledb.util.DiffGenerating;
+import org.jsimpledb.util.Diffs;
+
 /**
  * A counter field in a {@link SchemaObjectType}.
  */
-public class CounterSchemaField extends SchemaField {
+public class CounterSchemaField extends SchemaField implements DiffGenerating<CounterSchemaField> {
+
+    private int shards = 1;
+
+    /**
+     * Get the number of shards across which this counter's value is spread.
+     *
+     * <p>
+     * A value of one (the default) means the counter is stored in a single key/value pair.
+     * See {@link CounterField#getShards}.
+     *
+     * @return number of counter shards
+     */
+    public int getShards() {
+        return this.shards;
+    }
+    public void setShards(int shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    void validate() {
+        super.validate();
+        if (this.shards < 1 || this.shards > CounterField.MAX_SHARDS) {
+            throw new InvalidSchemaException("invalid " + this + ": number of shards " + this.shards
+              + " is not in the range 1.." + CounterField.MAX_SHARDS);
+        }
+    }
 
     @Override
     public <R> R visit(SchemaFieldSwitch<R> target) {
         return target.caseCounterSchemaField(this);
     }
 
+    @Override
+    boolean isCompatibleWithInternal(AbstractSchemaItem that0) {
+        final CounterSchemaField that = (CounterSchemaField)that0;
+        return this.shards == that.shards;
+    }
+
+// DiffGenerating
+
+    @Override
+    public Diffs differencesFrom(CounterSchemaField that) {
+        final Diffs diffs = new Diffs(super.differencesFrom(that));
+        if (this.shards != that.shards)
+            diffs.add("changed number of shards from " + that.shards + " to " + this.shards);
+        return diffs;
+    }
+
+// XML Reading
+
+    @Override
+    void readAttributes(XMLStreamReader reader, int formatVersion) throws XMLStreamException {
+        super.readAttributes(reader, formatVersion);
+        final Integer shardsAttr = this.getIntAttr(reader, SHARDS_ATTRIBUTE, false);
+        if (shardsAttr != null)
+            this.setShards(shardsAttr);
+    }
+
+// XML Writing
+
     @Override
     void writeXML(XMLStreamWriter writer) throws XMLStreamException {
         writer.writeEmptyElement(COUNTER_FIELD_TAG.getNamespaceURI(), COUNTER_FIELD_TAG.getLocalPart());
         this.writeAttributes(writer);
+        if (this.shards != 1)
+            writer.writeAttribute(SHARDS_ATTRIBUTE.getNamespaceURI(), SHARDS_ATTRIBUTE.getLocalPart(), "" + this.shards);
     }
 
+// Object
+
     @Override
-    boolean isCompatibleWithInternal(AbstractSchemaItem that) {
-        return true;
+    public String toString() {
+        return (this.shards != 1 ? "sharded " : "") + "counter " + super.toString();
     }
 
-// Object
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this)
+            return true;
+        if (!super.equals(obj))
+            return false;
+        final CounterSchemaField that = (CounterSchemaField)obj;
+        return this.shards == that.shards;
+    }
 
     @Override
-    public String toString() {
-        return "counter " + super.toString();
+    public int hashCode() {
+        return super.hashCode() ^ this.shards;
     }
 
 // Cloneable
@@ -43,4 +116,3 @@ public class CounterSchemaField extends SchemaField {
         return (CounterSchemaField)super.clone();
     }
 }
-
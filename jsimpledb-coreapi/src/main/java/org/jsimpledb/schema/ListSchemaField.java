@@ -6,6 +6,9 @@
 package org.jsimpledb.schema;
 
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.jsimpledb.util.DiffGenerating;
 import org.jsimpledb.util.Diffs;
@@ -15,6 +18,25 @@ import org.jsimpledb.util.Diffs;
  */
 public class ListSchemaField extends CollectionSchemaField implements DiffGenerating<ListSchemaField> {
 
+    private boolean sparse;
+
+    /**
+     * Determine whether this list field uses sparse element storage.
+     *
+     * <p>
+     * Sparse lists store elements under gapped positions rather than under consecutive list indexes,
+     * so that inserting or removing elements in the middle of the list does not require rewriting all
+     * of the following elements. See {@link org.jsimpledb.core.ListField#isSparse}.
+     *
+     * @return whether list elements are stored sparsely
+     */
+    public boolean isSparse() {
+        return this.sparse;
+    }
+    public void setSparse(boolean sparse) {
+        this.sparse = sparse;
+    }
+
     @Override
     public <R> R visit(SchemaFieldSwitch<R> target) {
         return target.caseListSchemaField(this);
@@ -25,18 +47,65 @@ public class ListSchemaField extends CollectionSchemaField implements DiffGenera
         return LIST_FIELD_TAG;
     }
 
+    @Override
+    boolean isCompatibleWithInternal(AbstractSchemaItem that0) {
+        final ListSchemaField that = (ListSchemaField)that0;
+        if (!super.isCompatibleWithInternal(that))
+            return false;
+        if (this.sparse != that.sparse)
+            return false;
+        return true;
+    }
+
 // DiffGenerating
 
     @Override
     public Diffs differencesFrom(ListSchemaField that) {
-        return super.differencesFrom(that);
+        final Diffs diffs = new Diffs(super.differencesFrom(that));
+        if (this.sparse != that.sparse)
+            diffs.add("changed sparse storage from " + that.sparse + " to " + this.sparse);
+        return diffs;
+    }
+
+// XML Reading
+
+    @Override
+    void readAttributes(XMLStreamReader reader, int formatVersion) throws XMLStreamException {
+        super.readAttributes(reader, formatVersion);
+        final Boolean sparseAttr = this.getBooleanAttr(reader, SPARSE_ATTRIBUTE, false);
+        if (sparseAttr != null)
+            this.setSparse(sparseAttr);
+    }
+
+// XML Writing
+
+    @Override
+    void writeAttributes(XMLStreamWriter writer, boolean includeName) throws XMLStreamException {
+        super.writeAttributes(writer, includeName);
+        if (this.sparse)
+            writer.writeAttribute(SPARSE_ATTRIBUTE.getNamespaceURI(), SPARSE_ATTRIBUTE.getLocalPart(), "" + this.sparse);
     }
 
 // Object
 
     @Override
     public String toString() {
-        return "list " + super.toString();
+        return (this.sparse ? "sparse " : "") + "list " + super.toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this)
+            return true;
+        if (!super.equals(obj))
+            return false;
+        final ListSchemaField that = (ListSchemaField)obj;
+        return this.sparse == that.sparse;
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() ^ (this.sparse ? 1 : 0);
     }
 
 // Cloneable
@@ -46,4 +115,3 @@ public class ListSchemaField extends CollectionSchemaField implements DiffGenera
         return (ListSchemaField)super.clone();
     }
 }
-
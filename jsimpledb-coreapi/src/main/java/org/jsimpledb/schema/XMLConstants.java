@@ -36,6 +36,8 @@ public interface XMLConstants {
     QName INDEXED_ATTRIBUTE = new QName("indexed");
     QName NAME_ATTRIBUTE = new QName("name");
     QName ON_DELETE_ATTRIBUTE = new QName("onDelete");
+    QName SHARDS_ATTRIBUTE = new QName("shards");
+    QName SPARSE_ATTRIBUTE = new QName("sparse");
     QName STORAGE_ID_ATTRIBUTE = new QName("storageId");
     QName TYPE_ATTRIBUTE = new QName("type");
 }
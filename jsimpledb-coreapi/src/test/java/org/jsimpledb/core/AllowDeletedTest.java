@@ -11,6 +11,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.jsimpledb.core.util.ObjIdMap;
+import org.jsimpledb.core.util.ObjIdSet;
 import org.jsimpledb.kv.simple.SimpleKVDatabase;
 import org.jsimpledb.kv.util.NavigableMapKVStore;
 import org.jsimpledb.schema.SchemaModel;
@@ -281,6 +282,69 @@ public class AllowDeletedTest extends CoreAPITestSupport {
 
     }
 
+    @Test
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void testAllowDeletedBulkCopy() throws Exception {
+
+        Transaction tx = this.createTx();
+        SnapshotTransaction stx = tx.createSnapshotTransaction();
+
+        final ObjId id1 = stx.create(1);
+        final ObjId id2 = stx.create(1);
+        final ObjId id3 = stx.create(1);
+        final ObjId deleted1 = stx.create(1);
+        stx.delete(deleted1);
+
+        // Cyclic references among copied objects should be OK regardless of order
+        stx.writeSimpleField(id1, 10, id2, true);
+        stx.writeSimpleField(id2, 10, id3, true);
+        stx.writeSimpleField(id3, 10, id1, true);
+        ((List)stx.readListField(id2, 30, true)).add(id1);
+        Assert.assertEquals(stx.copy(new ObjIdSet(buildSet(id1, id2, id3)), tx, true, false, null), 3);
+        checkSet(tx.getAll(1), buildSet(id1, id2, id3));
+        Assert.assertEquals(tx.readSimpleField(id1, 10, true), id2);
+        Assert.assertEquals(tx.readSimpleField(id2, 10, true), id3);
+        Assert.assertEquals(tx.readSimpleField(id3, 10, true), id1);
+        Assert.assertEquals(tx.readListField(id2, 30, true), buildList(id1));
+        checkMap(tx.queryIndex(10).asMap(), buildMap(id2, buildSet(id1), id3, buildSet(id2), id1, buildSet(id3)));
+
+        // Existing objects are replaced
+        stx.writeSimpleField(id1, 10, id3, true);
+        Assert.assertEquals(stx.copy(new ObjIdSet(buildSet(id1, id2)), tx, true, false, null), 0);
+        Assert.assertEquals(tx.readSimpleField(id1, 10, true), id3);
+
+        tx.commit();
+
+        // Reference to deleted object
+        stx.writeSimpleField(id3, 10, deleted1, true);
+        tx = this.createTx();
+        try {
+            stx.copy(new ObjIdSet(buildSet(id1, id3)), tx, true, false, null);
+            assert false;
+        } catch (DeletedObjectException e) {
+            this.log.info("got expected exception:\n  " + e);
+        }
+        tx.rollback();
+        tx = this.createTx();
+        final ObjIdMap<ReferenceField> deletedAssignments = new ObjIdMap<>();
+        Assert.assertEquals(stx.copy(new ObjIdSet(buildSet(id1, id3)), tx, true, false, deletedAssignments), 2);
+        checkMap(deletedAssignments, buildMap(deleted1, tx.getSchema().getObjType(1).getField(10, true)));
+        tx.rollback();
+
+        // Referring object is reported, even if some other object in dest already refers to the deleted object
+        final ObjId other = stx.create(1);
+        stx.writeSimpleField(other, 10, deleted1, true);
+        tx = this.createTx();
+        stx.copy(other, other, tx, true, false, deletedAssignments);
+        Assert.assertEquals(tx.readSimpleField(other, 10, true), deleted1);
+        deletedAssignments.clear();
+        final ObjIdMap<ObjId> referrers = new ObjIdMap<>();
+        Assert.assertEquals(stx.copy(new ObjIdSet(buildSet(id1, id3)), tx, true, false, deletedAssignments, referrers), 2);
+        checkMap(deletedAssignments, buildMap(deleted1, tx.getSchema().getObjType(1).getField(10, true)));
+        checkMap(referrers, buildMap(deleted1, id3));
+        tx.rollback();
+    }
+
     private Transaction createTx() {
         final NavigableMapKVStore kvstore = new NavigableMapKVStore();
         final SimpleKVDatabase kv = new SimpleKVDatabase(kvstore, 100, 500);
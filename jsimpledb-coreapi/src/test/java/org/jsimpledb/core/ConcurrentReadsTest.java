@@ -0,0 +1,106 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.core;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jsimpledb.kv.simple.SimpleKVDatabase;
+import org.jsimpledb.schema.SchemaModel;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ConcurrentReadsTest extends CoreAPITestSupport {
+
+    @Test
+    public void testConcurrentReads() throws Exception {
+
+        final SimpleKVDatabase kvstore = new SimpleKVDatabase();
+        final Database db = new Database(kvstore);
+        db.setFieldValueCaching(true);
+
+        final SchemaModel schema1 = SchemaModel.fromXML(new ByteArrayInputStream((
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+          + "<Schema formatVersion=\"1\">\n"
+          + "  <ObjectType name=\"Foo\" storageId=\"10\">\n"
+          + "    <SimpleField name=\"i\" type=\"int\" storageId=\"11\"/>\n"
+          + "    <CounterField name=\"c\" storageId=\"12\"/>\n"
+          + "  </ObjectType>\n"
+          + "</Schema>\n"
+          ).getBytes("UTF-8")));
+
+        final Transaction tx = db.createTransaction(schema1, 1, true);
+        final List<ObjId> ids = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final ObjId id = tx.create(10);
+            tx.writeSimpleField(id, 11, i, false);
+            tx.adjustCounterField(id, 12, i, false);
+            ids.add(id);
+        }
+
+        // Read in parallel
+        tx.setConcurrentReads(true);
+        Assert.assertTrue(tx.isConcurrentReads());
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final int offset = t;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int pass = 0; pass < 3; pass++) {
+                            for (int i = offset; i < ids.size(); i += 3) {
+                                final ObjId id = ids.get(i);
+                                Assert.assertTrue(tx.exists(id));
+                                Assert.assertEquals(tx.readSimpleField(id, 11, false), i);
+                                Assert.assertEquals(tx.readCounterField(id, 12, false), (long)i);
+                                Assert.assertEquals(tx.getSchemaVersion(id), 1);
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures)
+                future.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        // Writes are disallowed
+        try {
+            tx.writeSimpleField(ids.get(0), 11, -1, false);
+            assert false;
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            tx.create(10);
+            assert false;
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            tx.delete(ids.get(0));
+            assert false;
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        Assert.assertEquals(tx.readSimpleField(ids.get(0), 11, false), 0);
+
+        // Writes are allowed again after concurrent read mode is disabled
+        tx.setConcurrentReads(false);
+        tx.writeSimpleField(ids.get(0), 11, -1, false);
+        Assert.assertEquals(tx.readSimpleField(ids.get(0), 11, false), -1);
+        tx.rollback();
+    }
+}
@@ -0,0 +1,134 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.core;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jsimpledb.kv.KVPair;
+import org.jsimpledb.kv.KVTransaction;
+import org.jsimpledb.kv.simple.SimpleKVDatabase;
+import org.jsimpledb.schema.SchemaModel;
+import org.jsimpledb.util.ByteUtil;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class CreateAllTest extends CoreAPITestSupport {
+
+    @Test
+    public void testCreateAll() throws Exception {
+
+        final SchemaModel schema1 = SchemaModel.fromXML(new ByteArrayInputStream((
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+          + "<Schema formatVersion=\"1\">\n"
+          + "  <ObjectType name=\"Foo\" storageId=\"10\">\n"
+          + "    <SimpleField name=\"i\" type=\"int\" storageId=\"11\" indexed=\"true\"/>\n"
+          + "    <ReferenceField name=\"r\" storageId=\"12\"/>\n"
+          + "    <SimpleField name=\"s\" type=\"java.lang.String\" storageId=\"13\"/>\n"
+          + "    <CounterField name=\"c\" storageId=\"14\"/>\n"
+          + "    <CompositeIndex storageId=\"20\" name=\"ir\">\n"
+          + "      <IndexedField storageId=\"11\"/>\n"
+          + "      <IndexedField storageId=\"12\"/>\n"
+          + "    </CompositeIndex>\n"
+          + "  </ObjectType>\n"
+          + "</Schema>\n"
+          ).getBytes("UTF-8")));
+
+        // Build objects, some referring to each other
+        final LinkedHashMap<ObjId, Map<Integer, Object>> objects = new LinkedHashMap<>();
+        final List<ObjId> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++)
+            ids.add(new ObjId(10));
+        for (int i = 0; i < ids.size(); i++) {
+            final HashMap<Integer, Object> values = new HashMap<>();
+            if (i % 3 != 0)
+                values.put(11, i % 7);
+            if (i % 2 == 0)
+                values.put(12, ids.get((i + 1) % ids.size()));
+            if (i % 5 == 0)
+                values.put(13, "object #" + i);
+            objects.put(ids.get(i), i % 11 != 0 ? values : null);
+        }
+
+        // Bulk create
+        final SimpleKVDatabase kv1 = new SimpleKVDatabase();
+        final Database db1 = new Database(kv1);
+        db1.setIndexStatistics(true);
+        db1.setIndexHistograms(true);
+        Transaction tx = db1.createTransaction(schema1, 1, true);
+        tx.rebuildIndexStatistics();
+        Assert.assertEquals(tx.createAll(objects), ids.size());
+        Assert.assertEquals(tx.createAll(objects), 0);
+        Assert.assertEquals(tx.estimateIndexSize(11), ids.size());
+        Assert.assertEquals(tx.estimateIndexSize(20), ids.size());
+        Assert.assertEquals(tx.readSimpleField(ids.get(4), 12, false), ids.get(5));
+        Assert.assertEquals(tx.readSimpleField(ids.get(10), 13, false), "object #10");
+        Assert.assertEquals(tx.readCounterField(ids.get(3), 14, false), 0L);
+        tx.commit();
+
+        // Create one at a time with notifications
+        final SimpleKVDatabase kv2 = new SimpleKVDatabase();
+        final Database db2 = new Database(kv2);
+        db2.setIndexStatistics(true);
+        db2.setIndexHistograms(true);
+        tx = db2.createTransaction(schema1, 1, true);
+        tx.rebuildIndexStatistics();
+        final int[] notifications = new int[1];
+        tx.addCreateListener(new CreateListener() {
+            @Override
+            public void onCreate(Transaction tx, ObjId id) {
+                notifications[0]++;
+            }
+        });
+        Assert.assertEquals(tx.createAll(objects), ids.size());
+        Assert.assertEquals(notifications[0], ids.size());
+        tx.commit();
+
+        // Compare results
+        final KVTransaction kvt1 = kv1.createTransaction();
+        final KVTransaction kvt2 = kv2.createTransaction();
+        final Iterator<KVPair> i1 = kvt1.getRange(null, null, false);
+        final Iterator<KVPair> i2 = kvt2.getRange(null, null, false);
+        while (i1.hasNext()) {
+            Assert.assertTrue(i2.hasNext());
+            final KVPair pair1 = i1.next();
+            final KVPair pair2 = i2.next();
+            Assert.assertEquals(ByteUtil.toString(pair1.getKey()), ByteUtil.toString(pair2.getKey()));
+            Assert.assertEquals(ByteUtil.toString(pair1.getValue()), ByteUtil.toString(pair2.getValue()));
+        }
+        Assert.assertFalse(i2.hasNext());
+        kvt1.rollback();
+        kvt2.rollback();
+
+        // Check invalid assignments
+        tx = db1.createTransaction(schema1, 1, true);
+        final HashMap<Integer, Object> values = new HashMap<>();
+        values.put(12, new ObjId(10));
+        final ObjId id = new ObjId(10);
+        try {
+            tx.createAll(Collections.singletonMap(id, values));
+            assert false;
+        } catch (DeletedObjectException e) {
+            // expected
+        }
+        values.clear();
+        values.put(99, 1);
+        try {
+            tx.createAll(Collections.singletonMap(id, values));
+            assert false;
+        } catch (UnknownFieldException e) {
+            // expected
+        }
+        Assert.assertFalse(tx.exists(id));
+        tx.rollback();
+    }
+}
@@ -297,6 +297,18 @@ public class FieldMonitorTest extends CoreAPITestSupport {
         tx.writeSimpleField(bar, 105, 5005, true);
         listener.verify(new Notify("SimpleChange", bar, 105, new int[] { 109 }, Arrays.asList(id1), 5002, 5005));
         tx.removeSimpleFieldChangeListener(105, new int[] { 109 }, Arrays.asList(100), listener);
+        tx.removeSimpleFieldChangeListener(105, new int[] { 109 }, Arrays.asList(200), listener);
+        tx.writeSimpleField(bar, 105, 5006, true);
+        listener.verify();
+
+    // Verify type restrictions still apply after applying a listener set
+
+        tx.addSimpleFieldChangeListener(105, new int[0], Arrays.asList(200), listener);
+        tx.setListeners(tx.snapshotListeners());
+        tx.writeSimpleField(id1, 105, 5007, true);
+        listener.verify();
+        tx.writeSimpleField(bar, 105, 5008, true);
+        listener.verify(new Notify("SimpleChange", bar, 105, new int[0], Arrays.asList(bar), 5006, 5008));
 
         tx.rollback();
     }
@@ -0,0 +1,158 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.core;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.NavigableSet;
+
+import org.jsimpledb.kv.simple.SimpleKVDatabase;
+import org.jsimpledb.schema.SchemaModel;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class FieldValueCacheTest extends CoreAPITestSupport {
+
+    @Test
+    public void testFieldValueCache() throws Exception {
+
+        final SimpleKVDatabase kvstore = new SimpleKVDatabase();
+        final Database db = new Database(kvstore);
+        db.setFieldValueCaching(true);
+
+        final SchemaModel schema1 = SchemaModel.fromXML(new ByteArrayInputStream((
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+          + "<Schema formatVersion=\"1\">\n"
+          + "  <ObjectType name=\"Foo\" storageId=\"10\">\n"
+          + "    <SimpleField name=\"s\" type=\"java.lang.String\" storageId=\"11\" indexed=\"true\"/>\n"
+          + "    <SimpleField name=\"d\" type=\"java.util.Date\" storageId=\"12\"/>\n"
+          + "    <SimpleField name=\"a\" type=\"int[]\" storageId=\"13\"/>\n"
+          + "  </ObjectType>\n"
+          + "</Schema>\n"
+          ).getBytes("UTF-8")));
+
+        final Transaction tx = db.createTransaction(schema1, 1, true);
+
+        final ObjId id1 = tx.create(10);
+        Assert.assertNull(tx.readSimpleField(id1, 11, false));
+
+        // Writes are seen
+        tx.writeSimpleField(id1, 11, "foo", false);
+        final Object value = tx.readSimpleField(id1, 11, false);
+        Assert.assertEquals(value, "foo");
+        Assert.assertSame(tx.readSimpleField(id1, 11, false), value);
+        tx.writeSimpleField(id1, 11, "bar", false);
+        Assert.assertEquals(tx.readSimpleField(id1, 11, false), "bar");
+
+        // Mutable values are not cached
+        tx.writeSimpleField(id1, 12, new Date(1234), false);
+        ((Date)tx.readSimpleField(id1, 12, false)).setTime(5678);
+        Assert.assertEquals(tx.readSimpleField(id1, 12, false), new Date(1234));
+        tx.writeSimpleField(id1, 13, new int[] { 1, 2, 3 }, false);
+        ((int[])tx.readSimpleField(id1, 13, false))[0] = 99;
+        Assert.assertEquals(((int[])tx.readSimpleField(id1, 13, false))[0], 1);
+
+        // Delete and re-create
+        tx.delete(id1);
+        try {
+            tx.readSimpleField(id1, 11, false);
+            assert false;
+        } catch (DeletedObjectException e) {
+            // expected
+        }
+        tx.create(id1);
+        Assert.assertNull(tx.readSimpleField(id1, 11, false));
+
+        // Copy onto existing object
+        final ObjId id2 = tx.create(10);
+        tx.writeSimpleField(id2, 11, "copied", false);
+        tx.copy(id2, id1, tx, false, false, null);
+        Assert.assertEquals(tx.readSimpleField(id1, 11, false), "copied");
+
+        // Snapshot reset
+        final SnapshotTransaction stx = tx.createSnapshotTransaction();
+        tx.copy(id1, id1, stx, false, false, null);
+        Assert.assertEquals(stx.readSimpleField(id1, 11, false), "copied");
+        stx.reset();
+        stx.create(id1);
+        Assert.assertNull(stx.readSimpleField(id1, 11, false));
+
+        tx.rollback();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLoadObjects() throws Exception {
+
+        final SimpleKVDatabase kvstore = new SimpleKVDatabase();
+        final Database db = new Database(kvstore);
+        db.setFieldValueCaching(true);
+
+        final SchemaModel schema1 = SchemaModel.fromXML(new ByteArrayInputStream((
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+          + "<Schema formatVersion=\"1\">\n"
+          + "  <ObjectType name=\"Foo\" storageId=\"10\">\n"
+          + "    <SimpleField name=\"i\" type=\"int\" storageId=\"11\"/>\n"
+          + "    <SetField name=\"set\" storageId=\"12\">\n"
+          + "      <SimpleField type=\"int\" storageId=\"13\"/>\n"
+          + "    </SetField>\n"
+          + "    <SimpleField name=\"s\" type=\"java.lang.String\" storageId=\"14\"/>\n"
+          + "    <CounterField name=\"c\" storageId=\"15\"/>\n"
+          + "  </ObjectType>\n"
+          + "</Schema>\n"
+          ).getBytes("UTF-8")));
+
+        Transaction tx = db.createTransaction(schema1, 1, true);
+        final ObjId id1 = tx.create(10);
+        final ObjId id2 = tx.create(10);
+        final ObjId id3 = new ObjId(10);
+        tx.writeSimpleField(id1, 11, 123, false);
+        tx.writeSimpleField(id1, 14, "foo", false);
+        ((NavigableSet<Integer>)tx.readSetField(id1, 12, false)).add(456);
+        tx.adjustCounterField(id1, 15, 7, false);
+        tx.commit();
+
+        tx = db.createTransaction(schema1, 1, true);
+        Assert.assertEquals(tx.loadObjects(Arrays.asList(id1, id2, id3, id1)), 2);
+        Assert.assertFalse(tx.loadObject(id3));
+
+        // Change the underlying data behind the transaction's back; cached values should be returned
+        tx.getKVTransaction().remove(tx.getKey(id1, 11));
+        Assert.assertEquals(tx.readSimpleField(id1, 11, false), 123);
+        Assert.assertEquals(tx.readSimpleField(id1, 14, false), "foo");
+        Assert.assertEquals(tx.readSimpleField(id2, 11, false), 0);
+        Assert.assertNull(tx.readSimpleField(id2, 14, false));
+        Assert.assertEquals(tx.readSetField(id1, 12, false), Collections.singleton(456));
+        Assert.assertEquals(tx.readCounterField(id1, 15, false), 7L);
+
+        // Writes invalidate
+        tx.writeSimpleField(id1, 11, 789, false);
+        Assert.assertEquals(tx.readSimpleField(id1, 11, false), 789);
+        tx.rollback();
+
+        // Load more objects than the object info cache can hold
+        tx = db.createTransaction(schema1, 1, true);
+        final ArrayList<ObjId> ids = new ArrayList<>();
+        for (int i = 0; i < 1500; i++)
+            ids.add(tx.create(10));
+        tx.commit();
+        tx = db.createTransaction(schema1, 1, true);
+        Assert.assertEquals(tx.loadObjects(ids), ids.size());
+        tx.rollback();
+
+        // Without field value caching, only meta-data is loaded
+        db.setFieldValueCaching(false);
+        tx = db.createTransaction(schema1, 1, true);
+        Assert.assertTrue(tx.loadObject(id1));
+        tx.getKVTransaction().remove(tx.getKey(id1, 11));
+        Assert.assertEquals(tx.readSimpleField(id1, 11, false), 0);
+        Assert.assertEquals(tx.readSimpleField(id1, 14, false), "foo");
+        tx.rollback();
+    }
+}
@@ -0,0 +1,111 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.core;
+
+import java.io.ByteArrayInputStream;
+import java.util.NavigableSet;
+
+import org.jsimpledb.kv.simple.SimpleKVDatabase;
+import org.jsimpledb.schema.SchemaModel;
+import org.jsimpledb.util.CardinalityEstimating;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class IndexStatisticsTest extends CoreAPITestSupport {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testIndexStatistics() throws Exception {
+
+        final SimpleKVDatabase kvstore = new SimpleKVDatabase();
+        final Database db = new Database(kvstore);
+        db.setIndexStatistics(true);
+        db.setIndexHistograms(true);
+
+        final SchemaModel schema1 = SchemaModel.fromXML(new ByteArrayInputStream((
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+          + "<Schema formatVersion=\"1\">\n"
+          + "  <ObjectType name=\"Foo\" storageId=\"10\">\n"
+          + "    <SimpleField name=\"i\" type=\"int\" storageId=\"11\" indexed=\"true\"/>\n"
+          + "    <ReferenceField name=\"r\" storageId=\"12\"/>\n"
+          + "    <SetField name=\"set\" storageId=\"13\">\n"
+          + "      <SimpleField type=\"int\" storageId=\"14\" indexed=\"true\"/>\n"
+          + "    </SetField>\n"
+          + "    <CompositeIndex storageId=\"20\" name=\"ir\">\n"
+          + "      <IndexedField storageId=\"11\"/>\n"
+          + "      <IndexedField storageId=\"12\"/>\n"
+          + "    </CompositeIndex>\n"
+          + "  </ObjectType>\n"
+          + "</Schema>\n"
+          ).getBytes("UTF-8")));
+
+        Transaction tx = db.createTransaction(schema1, 1, true);
+
+        // No statistics until rebuilt
+        Assert.assertEquals(tx.estimateIndexSize(11), -1);
+
+        final ObjId id1 = tx.create(10);
+        final ObjId id2 = tx.create(10);
+
+        tx.rebuildIndexStatistics();
+        Assert.assertEquals(tx.estimateIndexSize(11), 2);
+        Assert.assertEquals(tx.estimateIndexSize(14), 0);
+        Assert.assertEquals(tx.estimateIndexSize(20), 2);
+
+        // Creates and deletes
+        final ObjId id3 = tx.create(10);
+        Assert.assertEquals(tx.estimateIndexSize(11), 3);
+        Assert.assertEquals(tx.estimateIndexSize(20), 3);
+        tx.delete(id2);
+        Assert.assertEquals(tx.estimateIndexSize(11), 2);
+        Assert.assertEquals(tx.estimateIndexSize(20), 2);
+
+        // Field changes do not change totals
+        tx.writeSimpleField(id1, 11, 123, true);
+        tx.writeSimpleField(id3, 12, id1, true);
+        Assert.assertEquals(tx.estimateIndexSize(11), 2);
+        Assert.assertEquals(tx.estimateIndexSize(20), 2);
+
+        // Complex sub-field indexes
+        final NavigableSet<Integer> set = (NavigableSet<Integer>)tx.readSetField(id1, 13, true);
+        set.add(1);
+        set.add(2);
+        set.add(3);
+        Assert.assertEquals(tx.estimateIndexSize(14), 3);
+        set.remove(2);
+        Assert.assertEquals(tx.estimateIndexSize(14), 2);
+        set.clear();
+        Assert.assertEquals(tx.estimateIndexSize(14), 0);
+
+        // Index views
+        final CoreIndex<Integer, ObjId> index = (CoreIndex<Integer, ObjId>)tx.queryIndex(11);
+        Assert.assertEquals(index.estimateSize(), 2);
+        final NavigableSet<ObjId> ids = index.asMap().get(123);
+        Assert.assertEquals(((CardinalityEstimating)ids).estimateCardinality(), 1);
+
+        // Rebuild gives the same results
+        tx.rebuildIndexStatistics();
+        Assert.assertEquals(tx.estimateIndexSize(11), 2);
+        Assert.assertEquals(tx.estimateIndexSize(14), 0);
+        Assert.assertEquals(tx.estimateIndexSize(20), 2);
+        Assert.assertEquals(((CardinalityEstimating)index.asMap().get(123)).estimateCardinality(), 1);
+
+        tx.commit();
+
+        // Disabled
+        db.setIndexStatistics(false);
+        tx = db.createTransaction(schema1, 1, true);
+        Assert.assertEquals(((CoreIndex<?, ?>)tx.queryIndex(11)).estimateSize(), -1);
+        Assert.assertEquals(tx.estimateIndexSize(11), -1);
+        tx.rollback();
+
+        // Re-enabled: previously recorded statistics are visible again
+        db.setIndexStatistics(true);
+        tx = db.createTransaction(schema1, 1, true);
+        Assert.assertEquals(tx.estimateIndexSize(11), 2);
+        tx.rollback();
+    }
+}
@@ -450,5 +450,78 @@ public class OnDeleteTest extends CoreAPITestSupport {
 
         tx.commit();
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBulkDelete() throws Exception {
+
+        final SimpleKVDatabase kvstore = new SimpleKVDatabase();
+        final Database db = new Database(kvstore);
+
+        for (DeleteAction onDelete : DeleteAction.values()) {
+            final String xml = XML_TEMPLATE.replaceAll("@ONDELETE@", onDelete.name());
+            final SchemaModel schema = SchemaModel.fromXML(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+
+            // Create a chain of references: ids[0] -> ids[1] -> ... -> ids[9]
+            final Transaction tx = db.createTransaction(schema, 1, true);
+            final ObjId[] ids = new ObjId[10];
+            for (int i = 0; i < ids.length; i++)
+                ids[i] = tx.create(1);
+            for (int i = 0; i < ids.length - 1; i++) {
+                tx.writeSimpleField(ids[i], 2, ids[i + 1], true);
+                ((NavigableSet<ObjId>)tx.readSetField(ids[i], 10, true)).add(ids[i + 1]);
+            }
+
+            // Delete from the middle of the chain
+            int count = -1;
+            try {
+                count = tx.delete(Arrays.asList(ids[3], ids[4], ids[7], ids[7]));
+                Assert.assertNotEquals(onDelete, DeleteAction.EXCEPTION);
+            } catch (ReferencedObjectException e) {
+                Assert.assertEquals(onDelete, DeleteAction.EXCEPTION);
+            }
+            switch (onDelete) {
+            case NOTHING:
+                Assert.assertEquals(count, 3);
+                for (int i = 0; i < ids.length; i++)
+                    Assert.assertEquals(tx.exists(ids[i]), i != 3 && i != 4 && i != 7);
+                Assert.assertEquals(tx.readSimpleField(ids[2], 2, true), ids[3]);
+                Assert.assertEquals(tx.readSimpleField(ids[6], 2, true), ids[7]);
+                break;
+            case EXCEPTION:
+
+                // Deleting an entire reference chain at once is allowed
+                for (int i = 0; i < ids.length; i++)
+                    Assert.assertTrue(tx.exists(ids[i]));
+                Assert.assertEquals(tx.delete(Arrays.asList(ids)), ids.length);
+                for (int i = 0; i < ids.length; i++)
+                    Assert.assertFalse(tx.exists(ids[i]));
+                break;
+            case UNREFERENCE:
+                Assert.assertEquals(count, 3);
+                for (int i = 0; i < ids.length; i++)
+                    Assert.assertEquals(tx.exists(ids[i]), i != 3 && i != 4 && i != 7);
+                Assert.assertEquals(tx.readSimpleField(ids[2], 2, true), null);
+                Assert.assertEquals(tx.readSimpleField(ids[5], 2, true), ids[6]);
+                Assert.assertEquals(tx.readSimpleField(ids[6], 2, true), null);
+                TestSupport.checkSet((NavigableSet<ObjId>)tx.readSetField(ids[2], 10, true), buildSet());
+                TestSupport.checkSet((NavigableSet<ObjId>)tx.readSetField(ids[5], 10, true), buildSet(ids[6]));
+                break;
+            case DELETE:
+                Assert.assertEquals(count, 3);
+                for (int i = 0; i < ids.length; i++)
+                    Assert.assertEquals(tx.exists(ids[i]), i >= 8);
+                TestSupport.checkMap(tx.queryIndex(2).asMap(), buildMap(
+                  ids[9], buildSet(ids[8]),
+                  null, buildSet(ids[9])));
+                break;
+            default:
+                assert false;
+                break;
+            }
+
+            tx.rollback();
+        }
+    }
 }
 
@@ -0,0 +1,99 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.core;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.TreeMap;
+
+import org.jsimpledb.kv.KVTransaction;
+import org.jsimpledb.kv.simple.SimpleKVDatabase;
+import org.jsimpledb.schema.SchemaModel;
+import org.jsimpledb.util.ByteUtil;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SchemaFingerprintTest extends CoreAPITestSupport {
+
+    private static final byte[] FINGERPRINT_KEY = new byte[] { 0x00, 0x02 };
+
+    @Test
+    public void testSchemaFingerprint() throws Exception {
+
+        final SimpleKVDatabase kvstore = new SimpleKVDatabase();
+        final Database db1 = new Database(kvstore);
+        final Database db2 = new Database(kvstore);
+
+        final SchemaModel schema1 = this.buildSchema(11);
+        final SchemaModel schema2 = this.buildSchema(12);
+        final SchemaModel schema3 = this.buildSchema(13);
+
+        // Initialize database
+        Transaction tx = db1.createTransaction(schema1, 1, true);
+        final Schemas schemas = tx.getSchemas();
+        final byte[] fingerprint1 = this.checkFingerprint(tx);
+        tx.commit();
+
+        // Unchanged schemas are reused
+        tx = db1.createTransaction(schema1, 1, false);
+        Assert.assertSame(tx.getSchemas(), schemas);
+        tx.rollback();
+
+        // Add schema version 2 via a different Database instance
+        tx = db2.createTransaction(schema2, 2, true);
+        final byte[] fingerprint2 = this.checkFingerprint(tx);
+        Assert.assertFalse(Arrays.equals(fingerprint1, fingerprint2));
+        tx.commit();
+
+        // Fingerprint mismatch is detected
+        tx = db1.createTransaction(null, 0, false);
+        Assert.assertEquals(tx.getSchema().getVersionNumber(), 2);
+        Assert.assertEquals(new ArrayList<Integer>(tx.getSchemas().getVersions().keySet()), Arrays.asList(1, 2));
+        tx.rollback();
+
+        // Rolled back deletes do not affect later transactions
+        tx = db1.createTransaction(schema2, 2, false);
+        Assert.assertTrue(tx.deleteSchemaVersion(1));
+        this.checkFingerprint(tx);
+        tx.rollback();
+        tx = db1.createTransaction(schema1, 1, false);
+        Assert.assertEquals(new ArrayList<Integer>(tx.getSchemas().getVersions().keySet()), Arrays.asList(1, 2));
+        tx.rollback();
+
+        // Committed deletes are seen
+        tx = db1.createTransaction(schema3, 3, true);
+        Assert.assertTrue(tx.deleteSchemaVersion(1));
+        this.checkFingerprint(tx);
+        tx.commit();
+        tx = db2.createTransaction(null, 0, false);
+        Assert.assertEquals(tx.getSchema().getVersionNumber(), 3);
+        Assert.assertEquals(new ArrayList<Integer>(tx.getSchemas().getVersions().keySet()), Arrays.asList(2, 3));
+        tx.rollback();
+    }
+
+    private byte[] checkFingerprint(Transaction tx) {
+        final KVTransaction kvt = tx.getKVTransaction();
+        final byte[] fingerprint = kvt.get(FINGERPRINT_KEY);
+        Assert.assertNotNull(fingerprint);
+        final TreeMap<Integer, byte[]> bytesMap = new TreeMap<>();
+        for (Schema schema : tx.getSchemas().getVersions().values())
+            bytesMap.put(schema.getVersionNumber(), schema.encodedXML);
+        Assert.assertEquals(ByteUtil.toString(fingerprint), ByteUtil.toString(Database.encodeSchemaFingerprint(bytesMap)));
+        return fingerprint;
+    }
+
+    private SchemaModel buildSchema(int fieldStorageId) throws Exception {
+        return SchemaModel.fromXML(new ByteArrayInputStream((
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+          + "<Schema formatVersion=\"1\">\n"
+          + "  <ObjectType name=\"Foo\" storageId=\"10\">\n"
+          + "    <SimpleField name=\"i" + fieldStorageId + "\" type=\"int\" storageId=\"" + fieldStorageId + "\"/>\n"
+          + "  </ObjectType>\n"
+          + "</Schema>\n"
+          ).getBytes("UTF-8")));
+    }
+}
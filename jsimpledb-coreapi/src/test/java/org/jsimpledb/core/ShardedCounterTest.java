@@ -0,0 +1,135 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Iterator;
+
+import org.jsimpledb.kv.KVPair;
+import org.jsimpledb.kv.KVTransaction;
+import org.jsimpledb.kv.simple.SimpleKVDatabase;
+import org.jsimpledb.schema.CounterSchemaField;
+import org.jsimpledb.schema.SchemaModel;
+import org.jsimpledb.util.ByteUtil;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ShardedCounterTest extends CoreAPITestSupport {
+
+    @Test
+    public void testShardedCounter() throws Exception {
+
+        final SimpleKVDatabase kvstore = new SimpleKVDatabase();
+        final Database db = new Database(kvstore);
+
+        final SchemaModel schema1 = this.buildSchema(true, 4);
+        Assert.assertEquals(((CounterSchemaField)schema1.getSchemaObjectTypes().get(1).getSchemaFields().get(10)).getShards(), 4);
+
+        // Verify XML round trip
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        schema1.toXML(buf, true);
+        Assert.assertEquals(SchemaModel.fromXML(new ByteArrayInputStream(buf.toByteArray())), schema1);
+
+        // Create object and adjust counter from multiple threads
+        Transaction tx = db.createTransaction(schema1, 1, true);
+        final ObjId id = tx.create(1);
+        Assert.assertEquals(this.countKeys(tx, id, 10), 4);
+        Assert.assertEquals(tx.readCounterField(id, 10, false), 0L);
+        final Transaction tx1 = tx;
+        final Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 100; j++)
+                        tx1.adjustCounterField(id, 10, 1, false);
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+        Assert.assertEquals(tx.readCounterField(id, 10, false), 800L);
+        tx.adjustCounterField(id, 10, -50, false);
+        Assert.assertEquals(tx.readCounterField(id, 10, false), 750L);
+        Assert.assertEquals(this.countKeys(tx, id, 10), 4);
+
+        // Set value
+        tx.writeCounterField(id, 10, 123, false);
+        Assert.assertEquals(tx.readCounterField(id, 10, false), 123L);
+        tx.adjustCounterField(id, 10, 7, false);
+        Assert.assertEquals(tx.readCounterField(id, 10, false), 130L);
+        Assert.assertEquals(this.countKeys(tx, id, 10), 4);
+
+        // Copy to snapshot
+        final SnapshotTransaction stx = tx.createSnapshotTransaction();
+        tx.copy(id, id, stx, false, false);
+        Assert.assertEquals(stx.readCounterField(id, 10, false), 130L);
+        tx.commit();
+
+        // Remove counter field in schema version 2; all shards should go away
+        tx = db.createTransaction(this.buildSchema(false, 4), 2, true);
+        Assert.assertEquals(this.countKeys(tx, id, 10), 4);
+        tx.updateSchemaVersion(id);
+        Assert.assertEquals(this.countKeys(tx, id, 10), 0);
+        tx.rollback();
+
+        // Number of shards can't change for the same storage ID
+        try {
+            db.createTransaction(this.buildSchema(true, 2), 2, true);
+            assert false;
+        } catch (InvalidSchemaException e) {
+            this.log.info("got expected " + e);
+        }
+    }
+
+    @Test
+    public void testCounterAddedBySchemaChange() throws Exception {
+        for (int shards : new int[] { 1, 4 }) {
+
+            final SimpleKVDatabase kvstore = new SimpleKVDatabase();
+            final Database db = new Database(kvstore);
+
+            // Create object without the counter field
+            Transaction tx = db.createTransaction(this.buildSchema(false, shards), 1, true);
+            final ObjId id = tx.create(1);
+            tx.commit();
+
+            // Add the counter field in schema version 2; it should be initialized and adjustable
+            tx = db.createTransaction(this.buildSchema(true, shards), 2, true);
+            tx.updateSchemaVersion(id);
+            Assert.assertEquals(this.countKeys(tx, id, 10), shards);
+            Assert.assertEquals(tx.readCounterField(id, 10, false), 0L);
+            tx.adjustCounterField(id, 10, 5, false);
+            Assert.assertEquals(tx.readCounterField(id, 10, false), 5L);
+            tx.commit();
+        }
+    }
+
+    private int countKeys(Transaction tx, ObjId id, int storageId) {
+        final KVTransaction kvt = tx.getKVTransaction();
+        final byte[] prefix = Field.buildKey(id, storageId);
+        int count = 0;
+        for (Iterator<KVPair> i = kvt.getRange(prefix, ByteUtil.getKeyAfterPrefix(prefix), false); i.hasNext(); ) {
+            i.next();
+            count++;
+        }
+        return count;
+    }
+
+    private SchemaModel buildSchema(boolean counter, int shards) throws Exception {
+        return SchemaModel.fromXML(new ByteArrayInputStream((
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+          + "<Schema formatVersion=\"2\">\n"
+          + "  <ObjectType name=\"Foo\" storageId=\"1\">\n"
+          + (counter ? "    <CounterField name=\"counter\" storageId=\"10\" shards=\"" + shards + "\"/>\n" : "")
+          + "    <SimpleField name=\"i\" type=\"int\" storageId=\"11\"/>\n"
+          + "  </ObjectType>\n"
+          + "</Schema>\n"
+          ).getBytes("UTF-8")));
+    }
+}
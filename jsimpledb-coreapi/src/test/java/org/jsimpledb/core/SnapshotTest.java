@@ -145,6 +145,72 @@ public class SnapshotTest extends CoreAPITestSupport {
           Lists.<KVPair>newArrayList(kvstore1.getRange(null, null, false)));
     }
 
+    @Test
+    public void testMutableSnapshot() throws Exception {
+
+        // Setup database
+        final Database db = new Database(new SimpleKVDatabase());
+
+        final SchemaModel schema = SchemaModel.fromXML(new ByteArrayInputStream((
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+          + "<Schema formatVersion=\"1\">\n"
+          + "  <ObjectType name=\"Foo\" storageId=\"1\">\n"
+          + "    <SimpleField name=\"bar\" type=\"int\" storageId=\"2\" indexed=\"true\"/>\n"
+          + "  </ObjectType>\n"
+          + "</Schema>\n"
+          ).getBytes("UTF-8")));
+
+        Transaction tx = db.createTransaction(schema, 1, true);
+        final ObjId id1 = tx.create(1);
+        tx.writeSimpleField(id1, 2, 123, true);
+        tx.commit();
+
+        // Create snapshot, including uncommitted changes
+        tx = db.createTransaction(schema, 1, true);
+        final ObjId id2 = tx.create(1);
+        tx.writeSimpleField(id2, 2, 456, true);
+        final SnapshotTransaction stx = tx.createMutableSnapshotTransaction();
+        tx.writeSimpleField(id1, 2, 789, true);
+        tx.commit();
+
+        // Verify snapshot content is independent
+        TestSupport.checkSet(stx.getAll(1), buildSet(id1, id2));
+        Assert.assertEquals(stx.readSimpleField(id1, 2, true), 123);
+        Assert.assertEquals(stx.readSimpleField(id2, 2, true), 456);
+        TestSupport.checkMap(stx.queryIndex(2).asMap(), buildMap(123, buildSet(id1), 456, buildSet(id2)));
+        stx.writeSimpleField(id2, 2, 321, true);
+        stx.delete(id1);
+        TestSupport.checkMap(stx.queryIndex(2).asMap(), buildMap(321, buildSet(id2)));
+
+        tx = db.createTransaction(schema, 1, true);
+        Assert.assertEquals(tx.readSimpleField(id1, 2, true), 789);
+        Assert.assertEquals(tx.readSimpleField(id2, 2, true), 456);
+
+        // Rollback closes snapshot
+        final SnapshotTransaction stx2 = tx.createMutableSnapshotTransaction();
+        Assert.assertTrue(stx2.isValid());
+        tx.rollback();
+        Assert.assertFalse(stx2.isValid());
+        try {
+            stx2.getAll(1);
+            assert false;
+        } catch (StaleTransactionException e) {
+            // expected
+        }
+
+        // Close
+        stx.close();
+        Assert.assertFalse(stx.isValid());
+        stx.close();
+
+        // Regular snapshots are not affected by close()
+        tx = db.createTransaction(schema, 1, true);
+        final SnapshotTransaction stx3 = tx.createSnapshotTransaction();
+        stx3.close();
+        Assert.assertTrue(stx3.isValid());
+        tx.rollback();
+    }
+
     @Test
     public void testSnapshotConflict() throws Exception {
 
@@ -0,0 +1,286 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+
+import org.jsimpledb.kv.simple.SimpleKVDatabase;
+import org.jsimpledb.schema.ListSchemaField;
+import org.jsimpledb.schema.SchemaModel;
+import org.jsimpledb.tuple.Tuple3;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SparseListTest extends CoreAPITestSupport {
+
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+      + "<Schema formatVersion=\"2\">\n"
+      + "  <ObjectType name=\"Foo\" storageId=\"1\">\n"
+      + "    <ListField name=\"list\" storageId=\"20\" sparse=\"@SPARSE@\">\n"
+      + "      <SimpleField type=\"int\" storageId=\"21\" indexed=\"true\"/>\n"
+      + "    </ListField>\n"
+      + "    <ListField name=\"refs\" storageId=\"30\" sparse=\"true\">\n"
+      + "      <ReferenceField storageId=\"31\" onDelete=\"UNREFERENCE\"/>\n"
+      + "    </ListField>\n"
+      + "  </ObjectType>\n"
+      + "</Schema>\n";
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testSparseList() throws Exception {
+
+        final SimpleKVDatabase kvstore = new SimpleKVDatabase();
+        final Database db = new Database(kvstore);
+
+        final SchemaModel schema = this.buildSchema(true);
+        Assert.assertTrue(((ListSchemaField)schema.getSchemaObjectTypes().get(1).getSchemaFields().get(20)).isSparse());
+
+        // Verify XML round trip
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        schema.toXML(buf, true);
+        Assert.assertEquals(SchemaModel.fromXML(new ByteArrayInputStream(buf.toByteArray())), schema);
+
+        final Transaction tx0 = db.createTransaction(schema, 1, true);
+        final Transaction tx = tx0.createSnapshotTransaction();
+        final ObjId id = tx.create(1);
+        final List<Integer> list = (List<Integer>)tx.readListField(id, 20, false);
+        final ArrayList<Integer> expected = new ArrayList<>();
+        Assert.assertTrue(((ListField<?>)tx.getSchema().getObjType(1).getField(20)).isSparse());
+
+        // Randomly modify list
+        for (int i = 0; i < 500; i++) {
+            final int size = expected.size();
+            final int value = this.random.nextInt(50);
+            switch (this.random.nextInt(size > 0 ? 8 : 2)) {
+            case 0:
+                list.add(value);
+                expected.add(value);
+                break;
+            case 1:
+            {
+                final int index = this.random.nextInt(size + 1);
+                list.add(index, value);
+                expected.add(index, value);
+                break;
+            }
+            case 2:
+            {
+                final int index = this.random.nextInt(size + 1);
+                final List<Integer> values = Arrays.asList(value, value + 1, value + 2);
+                list.addAll(index, values);
+                expected.addAll(index, values);
+                break;
+            }
+            case 3:
+            {
+                final int index = this.random.nextInt(size);
+                Assert.assertEquals(list.remove(index), expected.remove(index));
+                break;
+            }
+            case 4:
+            {
+                final int min = this.random.nextInt(size);
+                final int max = min + this.random.nextInt(size - min + 1);
+                list.subList(min, max).clear();
+                expected.subList(min, max).clear();
+                break;
+            }
+            case 5:
+            {
+                final int index = this.random.nextInt(size);
+                Assert.assertEquals(list.set(index, value), expected.set(index, value));
+                break;
+            }
+            case 6:
+            {
+                final Iterator<Integer> i1 = list.iterator();
+                final Iterator<Integer> i2 = expected.iterator();
+                while (i1.hasNext()) {
+                    Assert.assertEquals(i1.next(), i2.next());
+                    if (this.random.nextInt(10) == 0) {
+                        i1.remove();
+                        i2.remove();
+                    }
+                }
+                break;
+            }
+            default:
+            {
+                // Repeatedly insert at the same spot to force rebalancing
+                final int index = this.random.nextInt(size + 1);
+                for (int j = 0; j < 20; j++) {
+                    list.add(index, value + j);
+                    expected.add(index, value + j);
+                }
+                break;
+            }
+            }
+            this.verify(tx, id, list, expected);
+        }
+
+        // Verify unreference on delete
+        final ObjId target = tx.create(1);
+        final ObjId other = tx.create(1);
+        final List<ObjId> refs = (List<ObjId>)tx.readListField(id, 30, false);
+        refs.addAll(Arrays.asList(target, other, target, other, target));
+        refs.add(2, target);
+        tx.delete(target);
+        Assert.assertEquals(refs, Arrays.asList(other, other));
+
+        tx0.commit();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testSparseListNotifications() throws Exception {
+
+        final SimpleKVDatabase kvstore = new SimpleKVDatabase();
+        final Database db = new Database(kvstore);
+
+        final Transaction tx = db.createTransaction(this.buildSchema(true), 1, true);
+        final ObjId id = tx.create(1);
+        final List<Integer> list = (List<Integer>)tx.readListField(id, 20, false);
+        final ArrayList<Integer> expected = new ArrayList<>();
+
+        // Replay notifications onto a mirror list, which verifies the reported indexes
+        final ArrayList<Integer> mirror = new ArrayList<>();
+        tx.addListFieldChangeListener(20, new int[0], null, new ListFieldChangeListener() {
+            @Override
+            public <E> void onListFieldAdd(Transaction tx, ObjId id, ListField<E> field,
+              int[] path, NavigableSet<ObjId> referrers, int index, E value) {
+                mirror.add(index, (Integer)value);
+            }
+            @Override
+            public <E> void onListFieldRemove(Transaction tx, ObjId id, ListField<E> field,
+              int[] path, NavigableSet<ObjId> referrers, int index, E value) {
+                Assert.assertEquals(mirror.remove(index), value);
+            }
+            @Override
+            public <E> void onListFieldReplace(Transaction tx, ObjId id, ListField<E> field,
+              int[] path, NavigableSet<ObjId> referrers, int index, E oldValue, E newValue) {
+                Assert.assertEquals(mirror.set(index, (Integer)newValue), oldValue);
+            }
+            @Override
+            public void onListFieldClear(Transaction tx, ObjId id, ListField<?> field, int[] path, NavigableSet<ObjId> referrers) {
+                mirror.clear();
+            }
+        });
+
+        // Randomly modify list
+        for (int i = 0; i < 200; i++) {
+            final int size = expected.size();
+            final int value = this.random.nextInt(50);
+            switch (this.random.nextInt(size > 0 ? 5 : 2)) {
+            case 0:
+                list.addAll(Arrays.asList(value, value + 1));
+                expected.addAll(Arrays.asList(value, value + 1));
+                break;
+            case 1:
+            {
+                final int index = this.random.nextInt(size + 1);
+                list.add(index, value);
+                expected.add(index, value);
+                break;
+            }
+            case 2:
+            {
+                final int index = this.random.nextInt(size);
+                Assert.assertEquals(list.remove(index), expected.remove(index));
+                break;
+            }
+            case 3:
+            {
+                final int index = this.random.nextInt(size);
+                list.subList(index, index + 1).clear();
+                expected.subList(index, index + 1).clear();
+                break;
+            }
+            default:
+            {
+                final Iterator<Integer> i1 = list.iterator();
+                final Iterator<Integer> i2 = expected.iterator();
+                while (i1.hasNext()) {
+                    Assert.assertEquals(i1.next(), i2.next());
+                    if (this.random.nextInt(3) == 0) {
+                        i1.remove();
+                        i2.remove();
+                    }
+                }
+                break;
+            }
+            }
+            Assert.assertEquals(list, expected);
+            Assert.assertEquals(mirror, expected);
+        }
+
+        tx.commit();
+    }
+
+    @Test
+    public void testSparseIncompatible() throws Exception {
+
+        final SimpleKVDatabase kvstore = new SimpleKVDatabase();
+        final Database db = new Database(kvstore);
+
+        final Transaction tx = db.createTransaction(this.buildSchema(true), 1, true);
+        tx.commit();
+
+        // Sparse setting can't change for the same storage ID
+        try {
+            db.createTransaction(this.buildSchema(false), 2, true);
+            assert false;
+        } catch (InvalidSchemaException e) {
+            this.log.info("got expected " + e);
+        }
+    }
+
+    private void verify(Transaction tx, ObjId id, List<Integer> list, List<Integer> expected) {
+        Assert.assertEquals(list.size(), expected.size());
+        Assert.assertEquals(list, expected);
+        Assert.assertEquals(new ArrayList<Integer>(list), expected);
+        if (!expected.isEmpty()) {
+            final int index = this.random.nextInt(expected.size());
+            Assert.assertEquals(list.get(index), expected.get(index));
+            Assert.assertEquals(list.indexOf(expected.get(index)), expected.indexOf(expected.get(index)));
+        }
+
+        // Verify index entries match list elements in order of position
+        final ArrayList<Integer> indexed = new ArrayList<>();
+        int prevPosition = -1;
+        for (Tuple3<?, ObjId, Integer> entry : this.sortByPosition(tx.queryListElementIndex(20).asSet())) {
+            Assert.assertEquals(entry.getValue2(), id);
+            Assert.assertTrue(entry.getValue3() > prevPosition);
+            prevPosition = entry.getValue3();
+            indexed.add((Integer)entry.getValue1());
+        }
+        Assert.assertEquals(indexed, expected);
+    }
+
+    private List<Tuple3<?, ObjId, Integer>> sortByPosition(Iterable<? extends Tuple3<?, ObjId, Integer>> entries) {
+        final ArrayList<Tuple3<?, ObjId, Integer>> list = new ArrayList<>();
+        for (Tuple3<?, ObjId, Integer> entry : entries)
+            list.add(entry);
+        Collections.sort(list, new Comparator<Tuple3<?, ObjId, Integer>>() {
+            @Override
+            public int compare(Tuple3<?, ObjId, Integer> t1, Tuple3<?, ObjId, Integer> t2) {
+                return Integer.compare(t1.getValue3(), t2.getValue3());
+            }
+        });
+        return list;
+    }
+
+    private SchemaModel buildSchema(boolean sparse) throws Exception {
+        return SchemaModel.fromXML(new ByteArrayInputStream(XML.replaceAll("@SPARSE@", "" + sparse).getBytes("UTF-8")));
+    }
+}
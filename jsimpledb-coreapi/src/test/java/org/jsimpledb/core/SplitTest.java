@@ -0,0 +1,88 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.core;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+
+import org.jsimpledb.kv.simple.SimpleKVDatabase;
+import org.jsimpledb.kv.util.AbstractKVNavigableMap;
+import org.jsimpledb.kv.util.AbstractKVNavigableSet;
+import org.jsimpledb.schema.SchemaModel;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SplitTest extends CoreAPITestSupport {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSplit() throws Exception {
+
+        final SimpleKVDatabase kvstore = new SimpleKVDatabase();
+        final Database db = new Database(kvstore);
+
+        final SchemaModel schema1 = SchemaModel.fromXML(new ByteArrayInputStream((
+            "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+          + "<Schema formatVersion=\"1\">\n"
+          + "  <ObjectType name=\"Foo\" storageId=\"10\">\n"
+          + "    <SimpleField name=\"i\" type=\"int\" storageId=\"11\" indexed=\"true\"/>\n"
+          + "  </ObjectType>\n"
+          + "  <ObjectType name=\"Bar\" storageId=\"20\"/>\n"
+          + "</Schema>\n"
+          ).getBytes("UTF-8")));
+
+        final Transaction tx = db.createTransaction(schema1, 1, true);
+
+        // Empty set
+        Assert.assertEquals(((AbstractKVNavigableSet<ObjId>)tx.getAll(10)).split(4).size(), 1);
+
+        // Populate
+        for (int i = 0; i < 100; i++) {
+            final ObjId id = tx.create(10);
+            tx.writeSimpleField(id, 11, i % 10, true);
+            tx.create(20);
+        }
+
+        // Object sets
+        final AbstractKVNavigableSet<ObjId> all = (AbstractKVNavigableSet<ObjId>)tx.getAll();
+        this.checkSplit(all, 4);
+        this.checkSplit(all, 1);
+        this.checkSplit((AbstractKVNavigableSet<ObjId>)all.descendingSet(), 3);
+        this.checkSplit((AbstractKVNavigableSet<ObjId>)tx.getAll(10), 8);
+        this.checkSplit((AbstractKVNavigableSet<ObjId>)tx.getAll(10), 1000);
+
+        // Index map
+        final AbstractKVNavigableMap<Integer, NavigableSet<ObjId>> map
+          = (AbstractKVNavigableMap<Integer, NavigableSet<ObjId>>)tx.queryIndex(11).asMap();
+        final List<NavigableMap<Integer, NavigableSet<ObjId>>> parts = map.split(4);
+        Assert.assertTrue(parts.size() > 1 && parts.size() <= 4);
+        final ArrayList<Integer> keys = new ArrayList<>();
+        for (NavigableMap<Integer, NavigableSet<ObjId>> part : parts) {
+            Assert.assertFalse(part.isEmpty());
+            for (Integer key : part.keySet()) {
+                Assert.assertEquals(part.get(key), map.get(key));
+                keys.add(key);
+            }
+        }
+        Assert.assertEquals(keys, new ArrayList<Integer>(map.keySet()));
+
+        tx.rollback();
+    }
+
+    private void checkSplit(AbstractKVNavigableSet<ObjId> set, int maxParts) {
+        final List<NavigableSet<ObjId>> parts = set.split(maxParts);
+        Assert.assertTrue(parts.size() >= 1 && parts.size() <= maxParts);
+        final ArrayList<ObjId> ids = new ArrayList<>();
+        for (NavigableSet<ObjId> part : parts) {
+            Assert.assertFalse(part.isEmpty());
+            ids.addAll(part);
+        }
+        Assert.assertEquals(ids, new ArrayList<ObjId>(set));
+    }
+}
@@ -0,0 +1,228 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.kv.array;
+
+import com.google.common.base.Preconditions;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+
+import net.jcip.annotations.GuardedBy;
+import net.jcip.annotations.ThreadSafe;
+
+import org.jsimpledb.kv.AbstractKVStore;
+import org.jsimpledb.kv.KVPair;
+import org.jsimpledb.kv.mvcc.MutableView;
+import org.jsimpledb.kv.mvcc.Writes;
+
+/**
+ * A compact, in-memory {@link org.jsimpledb.kv.KVStore} based on an {@link ArrayKVStore}.
+ *
+ * <p>
+ * Instances store their data in a prefix-compressed sorted array (see {@link ArrayKVStore}), which requires only a small
+ * fraction of the memory used by a {@link org.jsimpledb.kv.util.NavigableMapKVStore} holding the same data. Modifications
+ * are recorded in a {@link MutableView} and periodically compacted into a new array once the number of outstanding
+ * modifications exceeds a fixed fraction of the array size, so the amortized cost of each modification remains constant.
+ * Writes in ascending key order, such as when copying objects into a snapshot transaction, are the most efficient.
+ *
+ * <p>
+ * The array data may optionally be stored off-heap using direct {@link ByteBuffer}s.
+ *
+ * <p>
+ * Instances are well suited for use as the {@link org.jsimpledb.kv.KVStore} underlying large, long-lived snapshot
+ * transactions, e.g., via {@code Transaction.createSnapshotTransaction(KVStore)}.
+ *
+ * <p>
+ * Key and value data must not exceed 2GB (each separately).
+ */
+@ThreadSafe
+public class MemoryArrayKVStore extends AbstractKVStore {
+
+    /**
+     * Default minimum number of outstanding modifications before compaction ({@value #DEFAULT_MIN_COMPACTION}).
+     */
+    public static final int DEFAULT_MIN_COMPACTION = 1000;
+
+    // Compact when the number of outstanding modifications exceeds this fraction of the array size
+    private static final int COMPACTION_DIVISOR = 4;
+
+    private final boolean direct;
+    private final int minCompaction;
+
+    @GuardedBy("this")
+    private ArrayKVStore array;
+    @GuardedBy("this")
+    private int arraySize;
+    @GuardedBy("this")
+    private MutableView mods;
+
+    /**
+     * Default constructor.
+     *
+     * <p>
+     * Array data is stored on the heap and {@link #DEFAULT_MIN_COMPACTION} is used.
+     */
+    public MemoryArrayKVStore() {
+        this(false, DEFAULT_MIN_COMPACTION);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param direct true to store array data off-heap in direct {@link ByteBuffer}s, false to store it on the heap
+     * @param minCompaction minimum number of outstanding modifications before compaction
+     * @throws IllegalArgumentException if {@code minCompaction} is not positive
+     */
+    public MemoryArrayKVStore(boolean direct, int minCompaction) {
+        Preconditions.checkArgument(minCompaction > 0, "minCompaction <= 0");
+        this.direct = direct;
+        this.minCompaction = minCompaction;
+        this.array = new ArrayKVStore(ByteBuffer.allocate(0), ByteBuffer.allocate(0), ByteBuffer.allocate(0));
+        this.mods = new MutableView(this.array, null, new Writes());
+    }
+
+    /**
+     * Compact any outstanding modifications into a new array.
+     *
+     * <p>
+     * This happens automatically as needed, but may be invoked explicitly, e.g., after populating this instance,
+     * to minimize memory usage.
+     */
+    public synchronized void compact() {
+
+        // Anything to do?
+        final Writes writes = this.mods.getWrites();
+        if (writes.isEmpty())
+            return;
+
+        // Merge the array with the outstanding modifications
+        final ByteArrayOutputStream indxBuf = new ByteArrayOutputStream();
+        final ByteArrayOutputStream keysBuf = new ByteArrayOutputStream();
+        final ByteArrayOutputStream valsBuf = new ByteArrayOutputStream();
+        try (final ArrayKVWriter writer = new ArrayKVWriter(indxBuf, keysBuf, valsBuf)) {
+            writer.writeMerged(this.array, this.array.getRange(null, null, false), writes);
+        } catch (IOException e) {
+            throw new ArrayKVException("unexpected exception", e);
+        }
+
+        // Replace the array and reset outstanding modifications
+        this.array = new ArrayKVStore(this.toBuffer(indxBuf), this.toBuffer(keysBuf), this.toBuffer(valsBuf));
+        this.arraySize = indxBuf.size() / 8;
+        this.mods = new MutableView(this.array, null, new Writes());
+    }
+
+    private ByteBuffer toBuffer(ByteArrayOutputStream buf) {
+        final byte[] bytes = buf.toByteArray();
+        if (!this.direct)
+            return ByteBuffer.wrap(bytes);
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        return buffer;
+    }
+
+    // Compact if there are enough outstanding modifications
+    private void checkCompaction() {
+        assert Thread.holdsLock(this);
+        final Writes writes = this.mods.getWrites();
+        final long numMods = (long)writes.getPuts().size() + writes.getAdjusts().size() + writes.getRemoves().size();
+        if (numMods >= Math.max(this.minCompaction, this.arraySize / COMPACTION_DIVISOR))
+            this.compact();
+    }
+
+// KVStore
+
+    @Override
+    public synchronized byte[] get(byte[] key) {
+        return this.mods.get(key);
+    }
+
+    @Override
+    public synchronized KVPair getAtLeast(byte[] minKey) {
+        return this.mods.getAtLeast(minKey);
+    }
+
+    @Override
+    public synchronized KVPair getAtMost(byte[] maxKey) {
+        return this.mods.getAtMost(maxKey);
+    }
+
+    @Override
+    public synchronized Iterator<KVPair> getRange(byte[] minKey, byte[] maxKey, boolean reverse) {
+        return new RangeIterator(this.mods.getRange(minKey, maxKey, reverse));
+    }
+
+    @Override
+    public synchronized void put(byte[] key, byte[] value) {
+        this.mods.put(key, value);
+        this.checkCompaction();
+    }
+
+    @Override
+    public synchronized void remove(byte[] key) {
+        this.mods.remove(key);
+        this.checkCompaction();
+    }
+
+    @Override
+    public synchronized void removeRange(byte[] minKey, byte[] maxKey) {
+        this.mods.removeRange(minKey, maxKey);
+        this.checkCompaction();
+    }
+
+    @Override
+    public synchronized void adjustCounter(byte[] key, long amount) {
+        this.mods.adjustCounter(key, amount);
+        this.checkCompaction();
+    }
+
+// RangeIterator
+
+    // Wraps an iterator from a MutableView that may be replaced by compaction; removals go to the current view
+    private class RangeIterator implements Iterator<KVPair>, Closeable {
+
+        private final Iterator<KVPair> iterator;
+
+        private byte[] removeKey;
+
+        RangeIterator(Iterator<KVPair> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.iterator.hasNext();
+        }
+
+        @Override
+        public KVPair next() {
+            final KVPair pair = this.iterator.next();
+            this.removeKey = pair.getKey();
+            return pair;
+        }
+
+        @Override
+        public void remove() {
+            Preconditions.checkState(this.removeKey != null);
+            MemoryArrayKVStore.this.remove(this.removeKey);
+            this.removeKey = null;
+        }
+
+        @Override
+        public void close() {
+            if (this.iterator instanceof Closeable) {
+                try {
+                    ((Closeable)this.iterator).close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+}
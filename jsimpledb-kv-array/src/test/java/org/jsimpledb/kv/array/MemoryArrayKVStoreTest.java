@@ -0,0 +1,114 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.kv.array;
+
+import com.google.common.collect.Lists;
+
+import java.util.Iterator;
+
+import org.jsimpledb.kv.KVPair;
+import org.jsimpledb.kv.KVStore;
+import org.jsimpledb.kv.util.NavigableMapKVStore;
+import org.jsimpledb.test.TestSupport;
+import org.jsimpledb.util.ByteUtil;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class MemoryArrayKVStoreTest extends TestSupport {
+
+    @Test(dataProvider = "direct")
+    public void testMemoryArrayKVStore(boolean direct) throws Exception {
+        final MemoryArrayKVStore kvstore = new MemoryArrayKVStore(direct, 10);
+        final NavigableMapKVStore expected = new NavigableMapKVStore();
+        for (int i = 0; i < 5000; i++) {
+            final byte[] key = this.randomKey();
+            switch (this.random.nextInt(10)) {
+            case 0:
+                kvstore.remove(key);
+                expected.remove(key);
+                break;
+            case 1:
+            {
+                final byte[] maxKey = this.random.nextInt(5) != 0 ? this.randomKey() : null;
+                if (maxKey != null && ByteUtil.compare(key, maxKey) > 0)
+                    break;
+                kvstore.removeRange(key, maxKey);
+                expected.removeRange(key, maxKey);
+                break;
+            }
+            case 2:
+            {
+                final byte[] value = expected.get(key);
+                if (value != null && value.length != 8)
+                    break;
+                if (value == null) {
+                    kvstore.put(key, kvstore.encodeCounter(0));
+                    expected.put(key, expected.encodeCounter(0));
+                }
+                final long amount = this.random.nextInt(100) - 50;
+                kvstore.adjustCounter(key, amount);
+                expected.adjustCounter(key, amount);
+                break;
+            }
+            case 3:
+                if (this.random.nextInt(20) == 0)
+                    kvstore.compact();
+                break;
+            default:
+                final byte[] value = new byte[this.random.nextInt(10)];
+                this.random.nextBytes(value);
+                kvstore.put(key, value);
+                expected.put(key, value);
+                break;
+            }
+            if (i % 100 == 0)
+                this.verify(kvstore, expected);
+        }
+        this.verify(kvstore, expected);
+        kvstore.compact();
+        this.verify(kvstore, expected);
+
+        // Remove every other key via iterator, forcing compactions along the way
+        boolean remove = false;
+        for (Iterator<KVPair> i = kvstore.getRange(null, null, false); i.hasNext(); ) {
+            final KVPair pair = i.next();
+            if ((remove = !remove)) {
+                i.remove();
+                expected.remove(pair.getKey());
+            }
+        }
+        this.verify(kvstore, expected);
+    }
+
+    private void verify(KVStore actual, KVStore expected) {
+        Assert.assertEquals(
+          Lists.newArrayList(actual.getRange(null, null, false)).toString(),
+          Lists.newArrayList(expected.getRange(null, null, false)).toString());
+        Assert.assertEquals(
+          Lists.newArrayList(actual.getRange(null, null, true)).toString(),
+          Lists.newArrayList(expected.getRange(null, null, true)).toString());
+        for (int i = 0; i < 20; i++) {
+            final byte[] key = this.randomKey();
+            Assert.assertEquals(String.valueOf(actual.getAtLeast(key)), String.valueOf(expected.getAtLeast(key)));
+            Assert.assertEquals(String.valueOf(actual.getAtMost(key)), String.valueOf(expected.getAtMost(key)));
+        }
+    }
+
+    private byte[] randomKey() {
+        final byte[] key = new byte[this.random.nextInt(4)];
+        this.random.nextBytes(key);
+        return key;
+    }
+
+    @DataProvider(name = "direct")
+    public Object[][] genDirect() {
+        return new Object[][] {
+            { false },
+            { true },
+        };
+    }
+}
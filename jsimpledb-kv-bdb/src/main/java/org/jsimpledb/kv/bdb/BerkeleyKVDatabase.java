@@ -6,9 +6,11 @@
 package org.jsimpledb.kv.bdb;
 
 import com.google.common.base.Preconditions;
+import com.sleepycat.je.CheckpointConfig;
 import com.sleepycat.je.Database;
 import com.sleepycat.je.DatabaseConfig;
 import com.sleepycat.je.DatabaseException;
+import com.sleepycat.je.Durability;
 import com.sleepycat.je.Environment;
 import com.sleepycat.je.EnvironmentConfig;
 import com.sleepycat.je.Transaction;
@@ -35,6 +37,13 @@ import org.slf4j.LoggerFactory;
  * {@link Environment}, {@link Database}, and {@link Transaction}s may all be configured.
  * Instances may be stopped and (re)started multiple times.
  *
+ * <p>
+ * The isolation level of individual transactions may be specified via the {@link #OPTION_ISOLATION} transaction option;
+ * read-only transactions that scan large ranges may benefit from {@code READ_COMMITTED} or {@code READ_UNCOMMITTED}.
+ *
+ * <p>
+ * For initial imports, instances support a {@linkplain #setBulkLoad bulk-load mode} in which durability is relaxed.
+ *
  * @see <a href="http://www.oracle.com/technetwork/database/database-technologies/berkeleydb/overview/index-093405.html"
  *  >Oracle Berkeley DB Java Edition</a>
  */
@@ -49,6 +58,15 @@ public class BerkeleyKVDatabase implements KVDatabase {
      */
     public static final String DEFAULT_DATABASE_NAME = "JSimpleDB";
 
+    /**
+     * Option key for {@link #createTransaction(Map)}. Value should be one of the {@link String}s
+     * {@code "READ_UNCOMMITTED"}, {@code "READ_COMMITTED"}, {@code "REPEATABLE_READ"}, or {@code "SERIALIZABLE"}.
+     *
+     * <p>
+     * The Spring {@code org.springframework.transaction.annotation.Isolation} option is also recognized.
+     */
+    public static final String OPTION_ISOLATION = "isolation";
+
     private static final ThreadLocal<TransactionConfig> NEXT_TX_CONFIG = new ThreadLocal<>();
 
     private final Logger log = LoggerFactory.getLogger(this.getClass());
@@ -63,6 +81,7 @@ public class BerkeleyKVDatabase implements KVDatabase {
     private TransactionConfig defaultTransactionConfig = TransactionConfig.DEFAULT;
     private File directory;
     private String databaseName = DEFAULT_DATABASE_NAME;
+    private boolean bulkLoad;
 
     private Environment environment;
     private Database database;
@@ -190,6 +209,47 @@ public class BerkeleyKVDatabase implements KVDatabase {
         NEXT_TX_CONFIG.set(config);
     }
 
+    /**
+     * Determine whether this instance is in bulk-load mode.
+     *
+     * @return true if in bulk-load mode
+     */
+    public synchronized boolean isBulkLoad() {
+        return this.bulkLoad;
+    }
+
+    /**
+     * Configure whether this instance is in bulk-load mode.
+     *
+     * <p>
+     * Bulk-load mode is intended for the initial import of large amounts of data. While in bulk-load mode,
+     * transactions commit with {@link Durability#COMMIT_NO_SYNC} durability, and the background checkpointer is disabled.
+     * When bulk-load mode is disabled (or the database is {@linkplain #stop stopped}), the log is flushed to disk
+     * and a checkpoint is forced. A crash during bulk-load mode may lose recently committed transactions,
+     * but will not leave the database in an inconsistent state.
+     *
+     * <p>
+     * This property may be changed at any time; the new durability setting applies to transactions
+     * created afterward. Default is false.
+     *
+     * @param bulkLoad true for bulk-load mode
+     */
+    public synchronized void setBulkLoad(boolean bulkLoad) {
+        if (bulkLoad == this.bulkLoad)
+            return;
+        this.bulkLoad = bulkLoad;
+        if (this.environment != null) {
+            try {
+                if (bulkLoad)
+                    this.beginBulkLoad();
+                else
+                    this.endBulkLoad();
+            } catch (DatabaseException e) {
+                throw new KVDatabaseException(this, e);
+            }
+        }
+    }
+
     /**
      * Get the {@link DatabaseConfig} to be used by this instance.
      *
@@ -264,11 +324,15 @@ public class BerkeleyKVDatabase implements KVDatabase {
 
     @Override
     public BerkeleyKVTransaction createTransaction(Map<String, ?> options) {
-        return this.createTransaction();                                            // no options supported yet
+        return this.createTransaction(options != null ? this.getIsolation(options) : null);
     }
 
     @Override
-    public synchronized BerkeleyKVTransaction createTransaction() {
+    public BerkeleyKVTransaction createTransaction() {
+        return this.createTransaction((String)null);
+    }
+
+    private synchronized BerkeleyKVTransaction createTransaction(String isolation) {
 
         // Check open
         Preconditions.checkState(this.environment != null, "not started");
@@ -281,6 +345,31 @@ public class BerkeleyKVDatabase implements KVDatabase {
         else
             NEXT_TX_CONFIG.remove();
 
+        // Apply isolation and bulk-load overrides, if any
+        if (isolation != null || this.bulkLoad) {
+            config = config.clone();
+            if (isolation != null) {
+                config.setReadUncommitted(false)
+                  .setReadCommitted(false)
+                  .setSerializableIsolation(false);
+                switch (isolation) {
+                case "READ_UNCOMMITTED":
+                    config.setReadUncommitted(true);
+                    break;
+                case "READ_COMMITTED":
+                    config.setReadCommitted(true);
+                    break;
+                case "SERIALIZABLE":
+                    config.setSerializableIsolation(true);
+                    break;
+                default:
+                    break;
+                }
+            }
+            if (this.bulkLoad)
+                config.setDurability(Durability.COMMIT_NO_SYNC);
+        }
+
         // Create the transaction
         final Transaction bdbTx;
         try {
@@ -297,6 +386,39 @@ public class BerkeleyKVDatabase implements KVDatabase {
         return tx;
     }
 
+    /**
+     * Extract the isolation level, if any, from the transaction options.
+     *
+     * <p>
+     * The implementation in {@link BerkeleyKVDatabase} supports the isolation level names listed for {@link #OPTION_ISOLATION}
+     * under that key; also, the isolation level may be configured by the Spring
+     * {@code JSimpleDBTransactionManager}, for example, using the {@code @Transactional} annotation.
+     *
+     * @param options transaction options
+     * @return isolation level name, or null to use the configured {@link TransactionConfig}
+     */
+    protected String getIsolation(Map<String, ?> options) {
+
+        // Look for OPTION_ISOLATION option, then Spring's option
+        Object isolation = options.get(OPTION_ISOLATION);
+        if (isolation == null)
+            isolation = options.get("org.springframework.transaction.annotation.Isolation");
+        if (isolation instanceof Enum)
+            isolation = ((Enum<?>)isolation).name();
+        if (!(isolation instanceof String))
+            return null;
+        switch ((String)isolation) {
+        case "READ_UNCOMMITTED":
+        case "READ_COMMITTED":
+        case "REPEATABLE_READ":
+        case "SERIALIZABLE":
+            return (String)isolation;
+        default:
+            this.log.debug("ignoring unsupported isolation level `" + isolation + "'");
+            return null;
+        }
+    }
+
     /**
      * Remove a transaction that is now closed.
      */
@@ -317,6 +439,8 @@ public class BerkeleyKVDatabase implements KVDatabase {
         try {
             this.environment = new Environment(this.directory, this.environmentConfig);
             this.database = this.environment.openDatabase(null, this.databaseName, this.databaseConfig);
+            if (this.bulkLoad)
+                this.beginBulkLoad();
             success = true;
         } finally {
             if (!success) {
@@ -346,11 +470,13 @@ public class BerkeleyKVDatabase implements KVDatabase {
         final Environment oldEnvironment;
         final Database oldDatabase;
         final ArrayList<BerkeleyKVTransaction> oldTransactions;
+        final boolean oldBulkLoad;
         synchronized (this) {
             assert (this.environment == null) == (this.database == null);
             oldEnvironment = this.environment;
             oldDatabase = this.database;
             oldTransactions = new ArrayList<BerkeleyKVTransaction>(this.openTransactions);
+            oldBulkLoad = this.bulkLoad;
             this.environment = null;
             this.database = null;
             this.openTransactions.clear();
@@ -369,6 +495,15 @@ public class BerkeleyKVDatabase implements KVDatabase {
             }
         }
 
+        // Flush any writes committed without sync during bulk-load mode
+        if (oldBulkLoad) {
+            try {
+                oldEnvironment.flushLog(true);
+            } catch (Throwable e) {
+                this.log.error("caught exception flushing log during shutdown (ignoring)", e);
+            }
+        }
+
         // Shut down database
         try {
             oldDatabase.close();
@@ -383,5 +518,23 @@ public class BerkeleyKVDatabase implements KVDatabase {
             this.log.error("caught exception closing environment during shutdown (ignoring)", e);
         }
     }
-}
 
+// Internal methods
+
+    private void beginBulkLoad() {
+        assert Thread.holdsLock(this);
+        assert this.environment != null;
+        this.environment.setMutableConfig(this.environment.getMutableConfig()
+          .setConfigParam(EnvironmentConfig.ENV_RUN_CHECKPOINTER, "false"));
+    }
+
+    private void endBulkLoad() {
+        assert Thread.holdsLock(this);
+        assert this.environment != null;
+        this.environment.flushLog(true);
+        this.environment.checkpoint(new CheckpointConfig().setForce(true));
+        final String runCheckpointer = this.environmentConfig.getConfigParam(EnvironmentConfig.ENV_RUN_CHECKPOINTER);
+        this.environment.setMutableConfig(this.environment.getMutableConfig()
+          .setConfigParam(EnvironmentConfig.ENV_RUN_CHECKPOINTER, runCheckpointer));
+    }
+}
@@ -21,6 +21,8 @@ public class BerkeleyKVImplementation extends KVImplementation {
               "Use Berkeley DB Java Edition key/value database in specified directory" },
             { "--bdb-database name",
               "Specify Berkeley DB database name (default `" + BerkeleyKVDatabase.DEFAULT_DATABASE_NAME + "')" },
+            { "--bdb-bulk-load",
+              "Open Berkeley DB database in bulk-load mode (faster imports; durability relaxed until shutdown)" },
         };
     }
 
@@ -33,6 +35,7 @@ public class BerkeleyKVImplementation extends KVImplementation {
         final String dbname = this.parseCommandLineOption(options, "--bdb-database");
         if (dbname != null)
             config.setDatabaseName(dbname);
+        config.setBulkLoad(this.parseCommandLineFlag(options, "--bdb-bulk-load"));
         return config;
     }
 
@@ -42,6 +45,7 @@ public class BerkeleyKVImplementation extends KVImplementation {
         final BerkeleyKVDatabase bdb = new BerkeleyKVDatabase();
         bdb.setDirectory(config.getDirectory());
         bdb.setDatabaseName(config.getDatabaseName());
+        bdb.setBulkLoad(config.isBulkLoad());
         return bdb;
     }
 
@@ -56,6 +60,7 @@ public class BerkeleyKVImplementation extends KVImplementation {
 
         private File dir;
         private String databaseName = BerkeleyKVDatabase.DEFAULT_DATABASE_NAME;
+        private boolean bulkLoad;
 
         Config(File dir) {
             if (dir == null)
@@ -74,5 +79,13 @@ public class BerkeleyKVImplementation extends KVImplementation {
         public void setDatabaseName(String databaseName) {
             this.databaseName = databaseName;
         }
+
+        public boolean isBulkLoad() {
+            return this.bulkLoad;
+        }
+
+        public void setBulkLoad(boolean bulkLoad) {
+            this.bulkLoad = bulkLoad;
+        }
     }
 }
@@ -15,6 +15,7 @@ import com.sleepycat.je.OperationStatus;
 import com.sleepycat.je.Transaction;
 
 import java.io.Closeable;
+import java.util.ArrayDeque;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.concurrent.Future;
@@ -41,12 +42,14 @@ public class BerkeleyKVTransaction extends AbstractKVStore implements KVTransact
 
     private static final byte[] MIN_KEY = ByteUtil.EMPTY;                   // minimum possible key (inclusive)
     private static final byte[] MAX_KEY = new byte[] { (byte)0xff };        // maximum possible key (exclusive)
+    static final int MAX_IDLE_CURSORS = 4;                                  // maximum number of idle cursors kept for reuse
 
     private final Logger log = LoggerFactory.getLogger(this.getClass());
     private final BerkeleyKVDatabase store;
     private final Transaction tx;
     private final CursorConfig cursorConfig = new CursorConfig().setNonSticky(true);
     private final CloseableTracker cursorTracker = new CloseableTracker();  // unclosed Cursors are tracked here
+    private final ArrayDeque<Cursor> idleCursors = new ArrayDeque<>();      // closed iterators' cursors, available for reuse
 
     private boolean closed;
 
@@ -141,11 +144,13 @@ public class BerkeleyKVTransaction extends AbstractKVStore implements KVTransact
         if (this.closed)
             throw new StaleTransactionException(this);
         this.cursorTracker.poll();
-        final Cursor cursor;
-        try {
-            cursor = this.store.getDatabase().openCursor(this.tx, this.cursorConfig);
-        } catch (DatabaseException e) {
-            throw this.wrapException(e);
+        Cursor cursor = this.idleCursors.pollFirst();
+        if (cursor == null) {
+            try {
+                cursor = this.store.getDatabase().openCursor(this.tx, this.cursorConfig);
+            } catch (DatabaseException e) {
+                throw this.wrapException(e);
+            }
         }
         return new CursorIterator(cursor, minKey, maxKey, reverse);
     }
@@ -229,6 +234,8 @@ public class BerkeleyKVTransaction extends AbstractKVStore implements KVTransact
 
         // Close all unclosed cursors
         this.cursorTracker.close();
+        while (!this.idleCursors.isEmpty())
+            this.closeCursor(this.idleCursors.removeFirst());
 
         // Remove this transction from database
         this.store.removeTransaction(this);
@@ -262,6 +269,31 @@ public class BerkeleyKVTransaction extends AbstractKVStore implements KVTransact
         return new KVTransactionException(this, e);
     }
 
+    /**
+     * Return the cursor of a closed {@link CursorIterator} for reuse by a subsequent {@link #getRange getRange()},
+     * or close it if this transaction is closed or enough idle cursors are already available.
+     */
+    private synchronized void releaseCursor(Cursor cursor) {
+        if (this.closed || this.idleCursors.size() >= MAX_IDLE_CURSORS) {
+            this.closeCursor(cursor);
+            return;
+        }
+        this.idleCursors.addLast(cursor);
+    }
+
+    // Get the number of idle cursors available for reuse (for unit tests)
+    synchronized int getIdleCursorCount() {
+        return this.idleCursors.size();
+    }
+
+    private void closeCursor(Cursor cursor) {
+        try {
+            cursor.close();
+        } catch (Throwable e) {
+            this.log.debug("caught exception closing cursor (ignoring)", e);
+        }
+    }
+
     private KVTransactionException weirdStatus(OperationStatus status, String methodName) {
         return new KVTransactionException(BerkeleyKVTransaction.this, "unexpected status " + status + " from " + methodName + "()");
     }
@@ -272,11 +304,13 @@ public class BerkeleyKVTransaction extends AbstractKVStore implements KVTransact
      * {@link Iterator} implementation used by {@link BerkeleyKVTransaction#getRange BerkeleyKVTransaction.getRange()}.
      *
      * <p>
-     * Instances implement {@link Closeable}.
+     * Instances implement {@link Closeable}. Closing an instance allows its underlying {@link Cursor} to be reused
+     * by subsequent range queries in the same transaction, so callers should close iterators when done.
      */
     public final class CursorIterator implements Iterator<KVPair>, Closeable {
 
         private final Cursor cursor;
+        private final CursorLease lease;
         private final byte[] minKey;
         private final byte[] maxKey;
         private final boolean reverse;
@@ -293,12 +327,13 @@ public class BerkeleyKVTransaction extends AbstractKVStore implements KVTransact
             Preconditions.checkArgument(minKey == null || maxKey == null || ByteUtil.compare(minKey, maxKey) <= 0,
               "minKey > maxKey");
             this.cursor = cursor;
+            this.lease = new CursorLease(cursor);
             this.minKey = minKey != null ? ByteUtil.min(minKey, BerkeleyKVTransaction.MAX_KEY) : BerkeleyKVTransaction.MIN_KEY;
             this.maxKey = maxKey != null ? ByteUtil.min(maxKey, BerkeleyKVTransaction.MAX_KEY) : BerkeleyKVTransaction.MAX_KEY;
             this.reverse = reverse;
 
-            // Make sure we eventually close the BDB cursor
-            BerkeleyKVTransaction.this.cursorTracker.add(this, this.cursor);
+            // Make sure we eventually close the BDB cursor, even if this instance is never closed
+            BerkeleyKVTransaction.this.cursorTracker.add(this, this.lease);
         }
 
     // Iterator
@@ -326,6 +361,7 @@ public class BerkeleyKVTransaction extends AbstractKVStore implements KVTransact
                 throw new StaleTransactionException(BerkeleyKVTransaction.this);
             if (this.removeKey == null)
                 throw new IllegalStateException();
+            Preconditions.checkState(!this.lease.isReleased(), "iterator closed");
             try {
                 final OperationStatus status = this.canRemoveWithCursor ? this.cursor.delete() :
                   this.cursor.getDatabase().delete(BerkeleyKVTransaction.this.tx, new DatabaseEntry(this.removeKey));
@@ -346,11 +382,8 @@ public class BerkeleyKVTransaction extends AbstractKVStore implements KVTransact
 
         @Override
         public void close() {
-            try {
-                this.cursor.close();
-            } catch (Throwable e) {
-                BerkeleyKVTransaction.this.log.debug("caught exception closing iterator cursor (ignoring)", e);
-            }
+            if (this.lease.release())
+                BerkeleyKVTransaction.this.releaseCursor(this.cursor);
         }
 
     // Internal methods
@@ -360,6 +393,7 @@ public class BerkeleyKVTransaction extends AbstractKVStore implements KVTransact
             assert Thread.holdsLock(this);
             if (BerkeleyKVTransaction.this.closed)
                 throw new StaleTransactionException(BerkeleyKVTransaction.this);
+            Preconditions.checkState(!this.lease.isReleased(), "iterator closed");
             if (!this.initialized)
                 this.initialize();
             assert this.initialized;
@@ -392,55 +426,109 @@ public class BerkeleyKVTransaction extends AbstractKVStore implements KVTransact
             }
         }
 
-        // We initialize on demand from findNext()
+        // We initialize on demand from findNext(). Because the cursor may have been previously used, we must
+        // always explicitly position it here, rather than relying on getNext()/getPrev() from an unpositioned cursor.
         @SuppressWarnings("fallthrough")
         private /*synchronized*/ void initialize() {
             assert Thread.holdsLock(this);
             assert !this.initialized;
             assert !this.completed;
             assert this.nextPair == null;
-            if (reverse) {
-
-                // Search for maxKey; thereafter, a call to getPrev() will return the first element in the reverse iteration.
-                // We don't care whether maxKey is found or not, we are just positioning the cursor.
-                try {
-                    final OperationStatus status = this.cursor.getSearchKey(
-                      new DatabaseEntry(this.maxKey), new DatabaseEntry(), null);
+            final DatabaseEntry key = new DatabaseEntry();
+            final DatabaseEntry value = new DatabaseEntry();
+            String methodName;
+            try {
+                OperationStatus status;
+                if (this.reverse) {
+
+                    // Find the first key >= maxKey; the element prior to that is the first element in the reverse iteration.
+                    // If there is no such key, then the first element in the reverse iteration is the last key in the database.
+                    key.setData(this.maxKey);
+                    methodName = "getSearchKeyRange";
+                    status = this.cursor.getSearchKeyRange(key, new DatabaseEntry(), null);
                     switch (status) {
                     case SUCCESS:
+                        methodName = "getPrev";
+                        status = this.cursor.getPrev(key, value, null);
+                        break;
                     case NOTFOUND:
+                        methodName = "getLast";
+                        status = this.cursor.getLast(key, value, null);
                         break;
                     default:
-                        throw BerkeleyKVTransaction.this.weirdStatus(status, "getSearchKey");
+                        break;
                     }
-                } catch (DatabaseException e) {
-                    throw BerkeleyKVTransaction.this.wrapException(e);
+                } else if (this.minKey.length > 0) {
+                    key.setData(this.minKey);
+                    methodName = "getSearchKeyRange";
+                    status = this.cursor.getSearchKeyRange(key, value, null);
+                } else {
+                    methodName = "getFirst";
+                    status = this.cursor.getFirst(key, value, null);
                 }
-            } else if (this.minKey.length > 0) {    // if minKey has zero length, no need to initialize (getNext() will just work)
-                final DatabaseEntry key = new DatabaseEntry(this.minKey);
-                final DatabaseEntry value = new DatabaseEntry();
-                try {
-                    final OperationStatus status = this.cursor.getSearchKeyRange(key, value, null);
-                    switch (status) {
-                    case SUCCESS:
-                        final byte[] keyData = key.getData();
-                        if (ByteUtil.compare(keyData, this.maxKey) < 0) {
-                            this.nextPair = new KVPair(keyData, value.getData());
-                            break;
-                        }
-                        // FALLTHROUGH
-                    case NOTFOUND:
-                        this.completed = true;
+                switch (status) {
+                case SUCCESS:
+                    final byte[] keyData = key.getData();
+                    if (this.reverse ? ByteUtil.compare(keyData, this.minKey) >= 0 : ByteUtil.compare(keyData, this.maxKey) < 0) {
+                        this.nextPair = new KVPair(keyData, value.getData());
                         break;
-                    default:
-                        throw BerkeleyKVTransaction.this.weirdStatus(status, "getSearchKeyRange");
                     }
-                } catch (DatabaseException e) {
-                    throw BerkeleyKVTransaction.this.wrapException(e);
+                    // FALLTHROUGH
+                case NOTFOUND:
+                    this.completed = true;
+                    break;
+                default:
+                    throw BerkeleyKVTransaction.this.weirdStatus(status, methodName);
                 }
+            } catch (DatabaseException e) {
+                throw BerkeleyKVTransaction.this.wrapException(e);
             }
             this.initialized = true;
         }
     }
+
+// CursorLease
+
+    /**
+     * Tracks ownership of a {@link Cursor} by a {@link CursorIterator}.
+     *
+     * <p>
+     * If the iterator is closed, the cursor is released for reuse; if the iterator is instead garbage collected
+     * without being closed, the {@link CloseableTracker} closes the cursor via this instance.
+     */
+    private static final class CursorLease implements Closeable {
+
+        private final Cursor cursor;
+
+        private boolean released;
+
+        CursorLease(Cursor cursor) {
+            this.cursor = cursor;
+        }
+
+        synchronized boolean isReleased() {
+            return this.released;
+        }
+
+        /**
+         * Release the cursor for reuse.
+         *
+         * @return true if successful, false if the cursor was already released or closed
+         */
+        synchronized boolean release() {
+            if (this.released)
+                return false;
+            this.released = true;
+            return true;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (this.released)
+                return;
+            this.released = true;
+            this.cursor.close();
+        }
+    }
 }
 
@@ -7,13 +7,18 @@ package org.jsimpledb.kv.bdb;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.jsimpledb.kv.KVDatabase;
+import org.jsimpledb.kv.KVPair;
+import org.jsimpledb.kv.StaleTransactionException;
 import org.jsimpledb.kv.test.KVDatabaseTest;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Optional;
 import org.testng.annotations.Parameters;
+import org.testng.annotations.Test;
 
 public class BerkeleyKVDatabaseTest extends KVDatabaseTest {
 
@@ -41,5 +46,165 @@ public class BerkeleyKVDatabaseTest extends KVDatabaseTest {
     protected KVDatabase getKVDatabase() {
         return this.bdbKV;
     }
+
+    @Test(dataProvider = "kvdbs")
+    public void testReverseSeek(KVDatabase store) throws Exception {
+        final BerkeleyKVTransaction tx = ((BerkeleyKVDatabase)store).createTransaction();
+        try {
+            tx.removeRange(null, null);
+
+            // Empty database
+            this.checkRange(tx, null, null, true);
+            this.checkRange(tx, null, b("10"), true);
+            Assert.assertNull(tx.getAtMost(b("10")));
+
+            tx.put(b("01"), b("aa"));
+            tx.put(b("03"), b("bb"));
+            tx.put(b("05"), b("cc"));
+
+            // Max key beyond the last record
+            this.checkRange(tx, null, null, true, "05", "03", "01");
+            this.checkRange(tx, null, b("10"), true, "05", "03", "01");
+            this.checkRange(tx, b("02"), b("10"), true, "05", "03");
+            Assert.assertEquals(tx.getAtMost(b("10")), new KVPair(b("05"), b("cc")));
+
+            // Max key exactly matching a record, which is excluded
+            this.checkRange(tx, null, b("03"), true, "01");
+            this.checkRange(tx, b("01"), b("05"), true, "03", "01");
+            Assert.assertEquals(tx.getAtMost(b("03")), new KVPair(b("01"), b("aa")));
+
+            // Max key between records
+            this.checkRange(tx, null, b("04"), true, "03", "01");
+            Assert.assertEquals(tx.getAtMost(b("04")), new KVPair(b("03"), b("bb")));
+
+            // Max key at or before the first record
+            this.checkRange(tx, null, b("01"), true);
+            this.checkRange(tx, null, b("00"), true);
+            Assert.assertNull(tx.getAtMost(b("01")));
+
+            // Empty ranges
+            this.checkRange(tx, b("03"), b("03"), true);
+            this.checkRange(tx, b("02"), b("03"), true);
+            this.checkRange(tx, b("06"), b("10"), true);
+            this.checkRange(tx, b("06"), null, true);
+            this.checkRange(tx, b("06"), null, false);
+        } finally {
+            tx.rollback();
+        }
+    }
+
+    @Test(dataProvider = "kvdbs")
+    public void testCursorPool(KVDatabase store) throws Exception {
+        final BerkeleyKVTransaction tx = ((BerkeleyKVDatabase)store).createTransaction();
+        try {
+            tx.removeRange(null, null);
+            Assert.assertEquals(tx.getIdleCursorCount(), 1);
+            for (int i = 0; i < 10; i++)
+                tx.put(new byte[] { (byte)i }, new byte[] { (byte)i });
+
+            // Open more iterators than the pool can hold, leaving their cursors in various positions
+            final ArrayList<BerkeleyKVTransaction.CursorIterator> iterators = new ArrayList<>();
+            for (int i = 0; i < BerkeleyKVTransaction.MAX_IDLE_CURSORS + 2; i++) {
+                final BerkeleyKVTransaction.CursorIterator iterator = tx.getRange(null, null, i % 2 == 1);
+                for (int j = 0; j < i * 3 && iterator.hasNext(); j++)
+                    iterator.next();
+                iterators.add(iterator);
+            }
+            Assert.assertEquals(tx.getIdleCursorCount(), 0);
+            for (BerkeleyKVTransaction.CursorIterator iterator : iterators)
+                iterator.close();
+            Assert.assertEquals(tx.getIdleCursorCount(), BerkeleyKVTransaction.MAX_IDLE_CURSORS);
+
+            // Closing an iterator again does not release its cursor again
+            iterators.get(0).close();
+            Assert.assertEquals(tx.getIdleCursorCount(), BerkeleyKVTransaction.MAX_IDLE_CURSORS);
+
+            // Closed iterators are no longer usable
+            try {
+                iterators.get(0).hasNext();
+                assert false;
+            } catch (IllegalStateException e) {
+                // expected
+            }
+
+            // Reused cursors must be positioned correctly regardless of where they were left
+            for (int i = 0; i < BerkeleyKVTransaction.MAX_IDLE_CURSORS * 2; i++) {
+                this.checkRange(tx, null, null, false, "00", "01", "02", "03", "04", "05", "06", "07", "08", "09");
+                this.checkRange(tx, null, null, true, "09", "08", "07", "06", "05", "04", "03", "02", "01", "00");
+                this.checkRange(tx, b("03"), b("07"), true, "06", "05", "04", "03");
+                this.checkRange(tx, b("07"), null, false, "07", "08", "09");
+                Assert.assertEquals(tx.getAtLeast(b("05")), new KVPair(b("05"), b("05")));
+                Assert.assertEquals(tx.getAtMost(b("05")), new KVPair(b("04"), b("04")));
+            }
+            Assert.assertEquals(tx.getIdleCursorCount(), BerkeleyKVTransaction.MAX_IDLE_CURSORS);
+
+            // Removal through a reused cursor
+            tx.removeRange(b("02"), b("04"));
+            this.checkRange(tx, null, null, false, "00", "01", "04", "05", "06", "07", "08", "09");
+        } finally {
+            tx.rollback();
+        }
+        Assert.assertEquals(tx.getIdleCursorCount(), 0);
+    }
+
+    @Test(dataProvider = "kvdbs")
+    public void testCursorReuseAfterClose(KVDatabase store) throws Exception {
+        final BerkeleyKVDatabase bdb = (BerkeleyKVDatabase)store;
+
+        // Commit with an unclosed iterator and an idle cursor
+        BerkeleyKVTransaction tx = bdb.createTransaction();
+        final BerkeleyKVTransaction.CursorIterator unclosed = tx.getRange(null, null, false);
+        unclosed.hasNext();
+        tx.getAtLeast(b("00"));
+        Assert.assertEquals(tx.getIdleCursorCount(), 1);
+        tx.commit();
+        Assert.assertEquals(tx.getIdleCursorCount(), 0);
+        try {
+            unclosed.hasNext();
+            assert false;
+        } catch (StaleTransactionException e) {
+            // expected
+        }
+        unclosed.close();
+        Assert.assertEquals(tx.getIdleCursorCount(), 0);
+        try {
+            tx.getRange(null, null, false);
+            assert false;
+        } catch (StaleTransactionException e) {
+            // expected
+        }
+
+        // Abort with an unclosed iterator and an idle cursor, then close the iterator
+        tx = bdb.createTransaction();
+        final BerkeleyKVTransaction.CursorIterator i1 = tx.getRange(null, null, true);
+        final BerkeleyKVTransaction.CursorIterator i2 = tx.getRange(null, null, false);
+        i2.hasNext();
+        i2.close();
+        Assert.assertEquals(tx.getIdleCursorCount(), 1);
+        tx.rollback();
+        Assert.assertEquals(tx.getIdleCursorCount(), 0);
+        i1.close();
+        Assert.assertEquals(tx.getIdleCursorCount(), 0);
+
+        // A new transaction works normally
+        tx = bdb.createTransaction();
+        try {
+            tx.put(b("01"), b("02"));
+            this.checkRange(tx, b("01"), b("02"), false, "01");
+            Assert.assertEquals(tx.getIdleCursorCount(), 1);
+        } finally {
+            tx.rollback();
+        }
+    }
+
+    private void checkRange(BerkeleyKVTransaction tx, byte[] minKey, byte[] maxKey, boolean reverse, String... keys) {
+        final ArrayList<String> actual = new ArrayList<>();
+        try (BerkeleyKVTransaction.CursorIterator i = tx.getRange(minKey, maxKey, reverse)) {
+            while (i.hasNext())
+                actual.add(s(i.next().getKey()));
+        }
+        Assert.assertEquals(actual, Arrays.asList(keys),
+          "wrong keys for range [" + s(minKey) + ", " + s(maxKey) + ") reverse=" + reverse);
+    }
 }
 
@@ -60,6 +60,27 @@ public class CockroachKVDatabase extends SQLKVDatabase {
           + ", " + this.quote(this.valueColumnName) + ") VALUES (?, ?)";
     }
 
+    /**
+     * Returns false; the put statement has no third parameter.
+     */
+    @Override
+    public boolean isPutValueRepeated() {
+        return false;
+    }
+
+    /**
+     * Creates a multi-row {@code UPSERT} statement.
+     */
+    @Override
+    public String createBatchPutStatement(int numRows) {
+        final StringBuilder buf = new StringBuilder();
+        buf.append("UPSERT INTO ").append(this.quote(this.tableName)).append(" (").append(this.quote(this.keyColumnName))
+          .append(", ").append(this.quote(this.valueColumnName)).append(") VALUES ");
+        for (int i = 0; i < numRows; i++)
+            buf.append(i > 0 ? ", (?, ?)" : "(?, ?)");
+        return buf.toString();
+    }
+
     /**
      * Encloses the given {@code name} in backticks.
      */
@@ -76,6 +97,14 @@ public class CockroachKVDatabase extends SQLKVDatabase {
         return sql + " LIMIT 1";
     }
 
+    /**
+     * Appends {@code LIMIT limit} to the statement.
+     */
+    @Override
+    public String limitRows(String sql, int limit) {
+        return sql + " LIMIT " + limit;
+    }
+
     @Override
     public KVTransactionException wrapException(SQLKVTransaction tx, SQLException e) {
         final String state = e.getSQLState();
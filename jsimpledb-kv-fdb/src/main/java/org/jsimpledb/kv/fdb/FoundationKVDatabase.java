@@ -19,6 +19,8 @@ import javax.annotation.PreDestroy;
 
 import org.jsimpledb.kv.KVDatabase;
 import org.jsimpledb.kv.KVDatabaseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * FoundationDB {@link KVDatabase} implementation.
@@ -26,6 +28,10 @@ import org.jsimpledb.kv.KVDatabaseException;
  * <p>
  * Allows specifying a {@linkplain #setKeyPrefix key prefix} for all keys, allowing multiple independent databases.
  * {@linkplain FoundationKVTransaction#watchKey Key watches} are supported.
+ *
+ * <p>
+ * The {@link ReadConflictMode} for new transactions may be specified via the {@link #OPTION_READ_CONFLICT_MODE}
+ * transaction option.
  */
 public class FoundationKVDatabase implements KVDatabase {
 
@@ -34,6 +40,14 @@ public class FoundationKVDatabase implements KVDatabase {
      */
     public static final int API_VERSION = 300;
 
+    /**
+     * Option key for {@link #createTransaction(Map)}. Value should be a {@link ReadConflictMode} instance,
+     * or the {@link ReadConflictMode#name name()} thereof.
+     */
+    public static final String OPTION_READ_CONFLICT_MODE = "readConflictMode";
+
+    private final Logger log = LoggerFactory.getLogger(this.getClass());
+
     private final FDB fdb = FDB.selectAPIVersion(API_VERSION);
     private final NetworkOptions options = this.fdb.options();
 
@@ -162,7 +176,19 @@ public class FoundationKVDatabase implements KVDatabase {
 
     @Override
     public FoundationKVTransaction createTransaction(Map<String, ?> options) {
-        return this.createTransaction();                                            // no options supported yet
+        final FoundationKVTransaction tx = this.createTransaction();
+        if (options != null) {
+            final Object value = options.get(OPTION_READ_CONFLICT_MODE);
+            try {
+                if (value instanceof ReadConflictMode)
+                    tx.setReadConflictMode((ReadConflictMode)value);
+                else if (value instanceof String)
+                    tx.setReadConflictMode(ReadConflictMode.valueOf((String)value));
+            } catch (IllegalArgumentException e) {
+                this.log.debug("ignoring unsupported read conflict mode `" + value + "'");
+            }
+        }
+        return tx;
     }
 
     @Override
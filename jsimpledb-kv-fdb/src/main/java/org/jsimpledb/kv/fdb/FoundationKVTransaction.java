@@ -17,7 +17,9 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterators;
 import com.google.common.primitives.Bytes;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.Future;
 
 import org.jsimpledb.kv.CloseableKVStore;
@@ -33,6 +35,11 @@ import org.jsimpledb.util.ByteWriter;
 
 /**
  * FoundationDB transaction.
+ *
+ * <p>
+ * By default all reads are serializable. To reduce conflicts, reads may instead be performed as snapshot reads
+ * having narrower (or no) read conflict ranges; see {@link #setReadConflictMode setReadConflictMode()}.
+ * Read conflict ranges may also be added explicitly via {@link #addReadConflictRange addReadConflictRange()}.
  */
 public class FoundationKVTransaction implements KVTransaction {
 
@@ -45,6 +52,7 @@ public class FoundationKVTransaction implements KVTransaction {
 
     private volatile boolean stale;
     private volatile boolean canceled;
+    private volatile ReadConflictMode readConflictMode = ReadConflictMode.SERIALIZABLE;
 
     /**
      * Constructor.
@@ -72,6 +80,60 @@ public class FoundationKVTransaction implements KVTransaction {
         return this.tx;
     }
 
+    /**
+     * Get the {@link ReadConflictMode} currently in effect for reads in this transaction.
+     *
+     * @return current read conflict mode
+     */
+    public ReadConflictMode getReadConflictMode() {
+        return this.readConflictMode;
+    }
+
+    /**
+     * Configure how subsequent reads in this transaction generate read conflict ranges.
+     *
+     * <p>
+     * The mode may be changed at any time; it applies to reads performed (including range iterators created) after
+     * the change. For example, a transaction may switch to {@link ReadConflictMode#RETURNED_KEYS} just for a scan of a
+     * frequently modified index, and then switch back to {@link ReadConflictMode#SERIALIZABLE}.
+     *
+     * @param readConflictMode read conflict mode
+     * @throws IllegalArgumentException if {@code readConflictMode} is null
+     */
+    public void setReadConflictMode(ReadConflictMode readConflictMode) {
+        Preconditions.checkArgument(readConflictMode != null, "null readConflictMode");
+        this.readConflictMode = readConflictMode;
+    }
+
+    /**
+     * Add a read conflict range to this transaction.
+     *
+     * <p>
+     * This transaction will fail to commit if any key in the range is modified by another transaction that commits first.
+     * This is useful when reads are performed in {@link ReadConflictMode#SNAPSHOT} or {@link ReadConflictMode#RETURNED_KEYS}
+     * mode but the application knows that some additional range must be protected.
+     *
+     * @param minKey minimum key (inclusive), or null for no minimum
+     * @param maxKey maximum key (exclusive), or null for no maximum
+     * @throws StaleTransactionException if this transaction is no longer usable
+     * @throws IllegalArgumentException if {@code minKey > maxKey}
+     */
+    public void addReadConflictRange(byte[] minKey, byte[] maxKey) {
+        if (this.stale)
+            throw new StaleTransactionException(this);
+        if (minKey != null && minKey.length > 0 && minKey[0] == (byte)0xff)
+            return;
+        if (maxKey != null && maxKey.length > 0 && maxKey[0] == (byte)0xff)
+            maxKey = null;
+        Preconditions.checkArgument(minKey == null || maxKey == null || ByteUtil.compare(minKey, maxKey) <= 0, "minKey > maxKey");
+        final Range range = this.addPrefix(minKey, maxKey);
+        try {
+            this.tx.addReadConflictRange(range.begin, range.end);
+        } catch (FDBException e) {
+            throw this.wrapException(e);
+        }
+    }
+
     @Override
     public void setTimeout(long timeout) {
         Preconditions.checkArgument(timeout >= 0, "timeout < 0");
@@ -95,8 +157,52 @@ public class FoundationKVTransaction implements KVTransaction {
         if (this.stale)
             throw new StaleTransactionException(this);
         Preconditions.checkArgument(key.length == 0 || key[0] != (byte)0xff, "key starts with 0xff");
+        final ReadConflictMode mode = this.readConflictMode;
+        final byte[] prefixedKey = this.addPrefix(key);
+        try {
+            final byte[] value = this.reader(mode).get(prefixedKey).get();
+            if (mode == ReadConflictMode.RETURNED_KEYS)
+                this.addReadConflictKey(prefixedKey);
+            return value;
+        } catch (FDBException e) {
+            throw this.wrapException(e);
+        }
+    }
+
+    /**
+     * Get the values associated with multiple keys.
+     *
+     * <p>
+     * The implementation in {@link FoundationKVTransaction} issues all of the reads before waiting on any of them,
+     * so they proceed concurrently.
+     *
+     * @param keys {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws StaleTransactionException {@inheritDoc}
+     * @throws RetryTransactionException {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     * @throws NullPointerException {@inheritDoc}
+     */
+    @Override
+    public List<byte[]> getAll(List<byte[]> keys) {
+        if (this.stale)
+            throw new StaleTransactionException(this);
+        for (byte[] key : keys)
+            Preconditions.checkArgument(key.length == 0 || key[0] != (byte)0xff, "key starts with 0xff");
+        final ReadConflictMode mode = this.readConflictMode;
+        final ReadTransaction reader = this.reader(mode);
         try {
-            return this.tx.get(this.addPrefix(key)).get();
+            final ArrayList<com.foundationdb.async.Future<byte[]>> futures = new ArrayList<>(keys.size());
+            for (byte[] key : keys) {
+                final byte[] prefixedKey = this.addPrefix(key);
+                futures.add(reader.get(prefixedKey));
+                if (mode == ReadConflictMode.RETURNED_KEYS)
+                    this.addReadConflictKey(prefixedKey);
+            }
+            final ArrayList<byte[]> values = new ArrayList<>(futures.size());
+            for (com.foundationdb.async.Future<byte[]> future : futures)
+                values.add(future.get());
+            return values;
         } catch (FDBException e) {
             throw this.wrapException(e);
         }
@@ -129,11 +235,18 @@ public class FoundationKVTransaction implements KVTransaction {
         if (maxKey != null && maxKey.length > 0 && maxKey[0] == (byte)0xff)
             maxKey = null;
         Preconditions.checkArgument(minKey == null || maxKey == null || ByteUtil.compare(minKey, maxKey) <= 0, "minKey > maxKey");
+        final ReadConflictMode mode = this.readConflictMode;
         try {
-            return Iterators.transform(this.tx.getRange(this.addPrefix(minKey, maxKey),
+            return Iterators.transform(this.reader(mode).getRange(this.addPrefix(minKey, maxKey),
               ReadTransaction.ROW_LIMIT_UNLIMITED, reverse).iterator(), new Function<KeyValue, KVPair>() {
                 @Override
                 public KVPair apply(KeyValue kv) {
+                    try {
+                        if (mode == ReadConflictMode.RETURNED_KEYS)
+                            FoundationKVTransaction.this.addReadConflictKey(kv.getKey());
+                    } catch (FDBException e) {
+                        throw FoundationKVTransaction.this.wrapException(e);
+                    }
                     return new KVPair(FoundationKVTransaction.this.removePrefix(kv.getKey()), kv.getValue());
                 }
             });
@@ -143,12 +256,15 @@ public class FoundationKVTransaction implements KVTransaction {
     }
 
     private KVPair getFirstInRange(byte[] minKey, byte[] maxKey, boolean reverse) {
+        final ReadConflictMode mode = this.readConflictMode;
         try {
-            final AsyncIterator<KeyValue> i = this.tx.getRange(this.addPrefix(minKey, maxKey),
+            final AsyncIterator<KeyValue> i = this.reader(mode).getRange(this.addPrefix(minKey, maxKey),
               ReadTransaction.ROW_LIMIT_UNLIMITED, reverse).iterator();
             if (!i.hasNext())
                 return null;
             final KeyValue kv = i.next();
+            if (mode == ReadConflictMode.RETURNED_KEYS)
+                this.addReadConflictKey(kv.getKey());
             return new KVPair(this.removePrefix(kv.getKey()), kv.getValue());
         } catch (FDBException e) {
             throw this.wrapException(e);
@@ -222,6 +338,16 @@ public class FoundationKVTransaction implements KVTransaction {
         throw new UnsupportedOperationException();
     }
 
+    // Get the object to read from for the given mode
+    private ReadTransaction reader(ReadConflictMode mode) {
+        return mode == ReadConflictMode.SERIALIZABLE ? this.tx : this.tx.snapshot();
+    }
+
+    // Add a read conflict range containing only the given (already prefixed) key
+    private void addReadConflictKey(byte[] prefixedKey) {
+        this.tx.addReadConflictRange(prefixedKey, ByteUtil.getNextKey(prefixedKey));
+    }
+
     private void cancel() {
         if (this.canceled)
             return;
@@ -0,0 +1,48 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.kv.fdb;
+
+/**
+ * Determines how reads in a {@link FoundationKVTransaction} generate read conflict ranges.
+ *
+ * <p>
+ * A FoundationDB transaction fails to commit if any key in one of its read conflict ranges was modified
+ * by another transaction that committed after it started.
+ *
+ * @see FoundationKVTransaction#setReadConflictMode FoundationKVTransaction.setReadConflictMode()
+ * @see FoundationKVDatabase#OPTION_READ_CONFLICT_MODE
+ */
+public enum ReadConflictMode {
+
+    /**
+     * Normal serializable reads. Every read adds a conflict range covering everything that was read,
+     * including the entire key range scanned by a range read.
+     *
+     * <p>
+     * This is the default.
+     */
+    SERIALIZABLE,
+
+    /**
+     * Snapshot reads, plus a single-key conflict range for each key actually returned (or, for a point read,
+     * the key requested).
+     *
+     * <p>
+     * Range reads do not conflict with keys added to the scanned range by other transactions, so for example
+     * a scan of an index that stops early will not be invalidated by concurrent insertions elsewhere in the index.
+     * The transaction is no longer strictly serializable with respect to such "phantom" keys.
+     */
+    RETURNED_KEYS,
+
+    /**
+     * Snapshot reads that add no read conflict ranges at all.
+     *
+     * <p>
+     * Conflict ranges may still be added explicitly via
+     * {@link FoundationKVTransaction#addReadConflictRange FoundationKVTransaction.addReadConflictRange()}.
+     */
+    SNAPSHOT;
+}
@@ -89,6 +89,21 @@ public class MySQLKVDatabase extends SQLKVDatabase {
         return new MySQLKVTransaction(this, connection);
     }
 
+    /**
+     * Creates a multi-row {@code INSERT ... ON DUPLICATE KEY UPDATE} statement.
+     */
+    @Override
+    public String createBatchPutStatement(int numRows) {
+        final StringBuilder buf = new StringBuilder();
+        buf.append("INSERT INTO ").append(this.quote(this.tableName)).append(" (").append(this.quote(this.keyColumnName))
+          .append(", ").append(this.quote(this.valueColumnName)).append(") VALUES ");
+        for (int i = 0; i < numRows; i++)
+            buf.append(i > 0 ? ", (?, ?)" : "(?, ?)");
+        buf.append(" ON DUPLICATE KEY UPDATE ").append(this.quote(this.valueColumnName))
+          .append(" = VALUES(").append(this.quote(this.valueColumnName)).append(")");
+        return buf.toString();
+    }
+
     /**
      * Encloses the given {@code name} in backticks.
      */
@@ -105,6 +120,14 @@ public class MySQLKVDatabase extends SQLKVDatabase {
         return sql + " LIMIT 1";
     }
 
+    /**
+     * Appends {@code LIMIT limit} to the statement.
+     */
+    @Override
+    public String limitRows(String sql, int limit) {
+        return sql + " LIMIT " + limit;
+    }
+
     @Override
     public KVTransactionException wrapException(SQLKVTransaction tx, SQLException e) {
         switch (e.getErrorCode()) {
@@ -11,6 +11,7 @@ import com.google.common.util.concurrent.SettableFuture;
 
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 import net.jcip.annotations.GuardedBy;
@@ -393,6 +394,16 @@ public class RaftKVTransaction implements KVTransaction {
         return this.view.get(key);
     }
 
+    @Override
+    public List<byte[]> getAll(List<byte[]> keys) {
+        synchronized (this.raft) {
+            if (!this.state.equals(TxState.EXECUTING))
+                throw new StaleTransactionException(this);
+            this.throwExceptionIfAny();
+        }
+        return this.view.getAll(keys);
+    }
+
     @Override
     public KVPair getAtLeast(byte[] minKey) {
         synchronized (this.raft) {
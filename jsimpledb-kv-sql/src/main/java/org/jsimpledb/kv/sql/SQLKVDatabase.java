@@ -53,6 +53,24 @@ public class SQLKVDatabase implements KVDatabase {
      */
     public static final String OPTION_ISOLATION = "isolation";
 
+    /**
+     * Option key for {@link #createTransaction(Map)}. Value should be a {@link Boolean} instance,
+     * or the {@link Boolean#toString String form} thereof.
+     *
+     * @see #setWriteBatching setWriteBatching()
+     */
+    public static final String OPTION_WRITE_BATCHING = "writeBatching";
+
+    /**
+     * Default maximum number of rows in a single batched insertion ({@value #DEFAULT_BATCH_PUT_ROWS}).
+     */
+    public static final int DEFAULT_BATCH_PUT_ROWS = 100;
+
+    /**
+     * Default maximum number of rows in any chunk of a chunked range read ({@value #DEFAULT_MAX_RANGE_CHUNK_SIZE}).
+     */
+    public static final int DEFAULT_MAX_RANGE_CHUNK_SIZE = 4096;
+
     protected DataSource dataSource;
 
     /**
@@ -75,6 +93,33 @@ public class SQLKVDatabase implements KVDatabase {
      */
     protected IsolationLevel isolationLevel = IsolationLevel.SERIALIZABLE;
 
+    /**
+     * Whether transactions buffer mutations by default. Default is false.
+     */
+    protected boolean writeBatching;
+
+    /**
+     * The maximum number of rows in a single batched insertion. Default is {@value #DEFAULT_BATCH_PUT_ROWS}.
+     */
+    protected int batchPutRows = DEFAULT_BATCH_PUT_ROWS;
+
+    /**
+     * The number of rows in the first chunk of a chunked range read, or zero to disable chunking. Default is zero.
+     */
+    protected int rangeChunkSize;
+
+    /**
+     * The maximum number of rows in any chunk of a chunked range read. Default is {@value #DEFAULT_MAX_RANGE_CHUNK_SIZE}.
+     */
+    protected int maxRangeChunkSize = DEFAULT_MAX_RANGE_CHUNK_SIZE;
+
+    /**
+     * The JDBC fetch size for queries, or zero for the driver default. Default is zero.
+     */
+    protected int fetchSize;
+
+    private volatile Boolean limitRowsSupported;                    // computed lazily, null until then
+
     protected final Logger log = LoggerFactory.getLogger(this.getClass());
 
     /**
@@ -193,6 +238,173 @@ public class SQLKVDatabase implements KVDatabase {
         this.isolationLevel = isolationLevel;
     }
 
+    /**
+     * Get whether transactions buffer mutations by default.
+     *
+     * <p>
+     * This may be overridden on a per-transaction basis; see {@link #getWriteBatching(Map)}.
+     *
+     * <p>
+     * Default value is false.
+     *
+     * @return true if write batching is enabled by default
+     */
+    public boolean isWriteBatching() {
+        return this.writeBatching;
+    }
+
+    /**
+     * Configure whether transactions buffer mutations by default.
+     *
+     * <p>
+     * When write batching is enabled, {@link SQLKVTransaction#put put()}, {@link SQLKVTransaction#remove remove()},
+     * {@link SQLKVTransaction#removeRange removeRange()}, and {@link SQLKVTransaction#adjustCounter adjustCounter()}
+     * do not issue any SQL statements; instead, the mutations are consolidated in memory and written out in batches
+     * just prior to commit, or just prior to any read that overlaps them. This greatly reduces the number of round trips
+     * for write-heavy transactions, at the cost of memory and deferring any SQL errors caused by the writes.
+     *
+     * @param writeBatching true to buffer mutations by default
+     * @see SQLKVTransaction#setWriteBatching SQLKVTransaction.setWriteBatching()
+     */
+    public void setWriteBatching(boolean writeBatching) {
+        this.writeBatching = writeBatching;
+    }
+
+    /**
+     * Get the maximum number of rows to write in a single batched insertion statement.
+     *
+     * <p>
+     * Default value is {@value #DEFAULT_BATCH_PUT_ROWS}.
+     *
+     * @return maximum rows per batched insertion
+     * @see #createBatchPutStatement createBatchPutStatement()
+     */
+    public int getBatchPutRows() {
+        return this.batchPutRows;
+    }
+
+    /**
+     * Configure the maximum number of rows to write in a single batched insertion statement.
+     *
+     * @param batchPutRows maximum rows per batched insertion
+     * @throws IllegalArgumentException if {@code batchPutRows} is not positive
+     */
+    public void setBatchPutRows(int batchPutRows) {
+        Preconditions.checkArgument(batchPutRows > 0, "batchPutRows <= 0");
+        this.batchPutRows = batchPutRows;
+    }
+
+    /**
+     * Get the number of rows in the first chunk of a chunked range read.
+     *
+     * <p>
+     * Default value is zero, meaning chunking is disabled.
+     *
+     * @return initial range read chunk size, or zero if chunking is disabled
+     * @see #setRangeChunkSize setRangeChunkSize()
+     */
+    public int getRangeChunkSize() {
+        return this.rangeChunkSize;
+    }
+
+    /**
+     * Configure the number of rows in the first chunk of a chunked range read.
+     *
+     * <p>
+     * When chunking is enabled and supported by {@link #limitRows limitRows()}, {@link SQLKVTransaction#getRange getRange()}
+     * reads the range using a sequence of queries, each limited to some maximum number of rows. The first query is limited
+     * to this many rows; each subsequent query continues just after the last key returned by the previous query, and
+     * doubles the limit, up to the {@linkplain #setMaxRangeChunkSize maximum chunk size}. This avoids having the JDBC driver
+     * materialize large result sets when only the first few rows of a range are actually consumed.
+     *
+     * <p>
+     * Because each chunk is read by a separate query, a chunked range read only sees a consistent view of the range
+     * when the transaction's isolation level guarantees that rows read by one query are not changed by other transactions
+     * before the next query. Therefore, chunking is only used by transactions having isolation level
+     * {@link IsolationLevel#SERIALIZABLE}; transactions with weaker isolation levels read each range with a single query.
+     *
+     * @param rangeChunkSize initial range read chunk size, or zero to disable chunking
+     * @throws IllegalArgumentException if {@code rangeChunkSize} is negative
+     */
+    public void setRangeChunkSize(int rangeChunkSize) {
+        Preconditions.checkArgument(rangeChunkSize >= 0, "rangeChunkSize < 0");
+        this.rangeChunkSize = rangeChunkSize;
+    }
+
+    /**
+     * Get the maximum number of rows in any chunk of a chunked range read.
+     *
+     * <p>
+     * Default value is {@value #DEFAULT_MAX_RANGE_CHUNK_SIZE}.
+     *
+     * @return maximum range read chunk size
+     * @see #setRangeChunkSize setRangeChunkSize()
+     */
+    public int getMaxRangeChunkSize() {
+        return this.maxRangeChunkSize;
+    }
+
+    /**
+     * Configure the maximum number of rows in any chunk of a chunked range read.
+     *
+     * @param maxRangeChunkSize maximum range read chunk size
+     * @throws IllegalArgumentException if {@code maxRangeChunkSize} is not positive
+     * @see #setRangeChunkSize setRangeChunkSize()
+     */
+    public void setMaxRangeChunkSize(int maxRangeChunkSize) {
+        Preconditions.checkArgument(maxRangeChunkSize > 0, "maxRangeChunkSize <= 0");
+        this.maxRangeChunkSize = maxRangeChunkSize;
+    }
+
+    /**
+     * Determine whether range reads are performed in chunks.
+     *
+     * <p>
+     * This requires a non-zero {@linkplain #setRangeChunkSize range chunk size} and support for {@link #limitRows limitRows()}.
+     * Whether {@link #limitRows limitRows()} is supported is determined once and then remembered.
+     *
+     * <p>
+     * Even when this method returns true, chunking is only used by transactions having isolation level
+     * {@link IsolationLevel#SERIALIZABLE}; see {@link #setRangeChunkSize setRangeChunkSize()}.
+     *
+     * @return true if {@link SQLKVTransaction#getRange SQLKVTransaction.getRange()} reads ranges in chunks
+     */
+    public boolean isRangeChunkingEnabled() {
+        if (this.rangeChunkSize == 0)
+            return false;
+        Boolean supported = this.limitRowsSupported;
+        if (supported == null) {
+            supported = this.limitRows(this.createGetAllStatement(false), 1) != null;
+            this.limitRowsSupported = supported;
+        }
+        return supported;
+    }
+
+    /**
+     * Get the JDBC fetch size used for queries.
+     *
+     * <p>
+     * Default value is zero, meaning use the JDBC driver's default.
+     *
+     * @return JDBC fetch size, or zero for the driver default
+     */
+    public int getFetchSize() {
+        return this.fetchSize;
+    }
+
+    /**
+     * Configure the JDBC fetch size used for queries.
+     *
+     * <p>
+     * This value is passed to {@link java.sql.Statement#setFetchSize Statement.setFetchSize()} for every query.
+     * How (or whether) it is honored depends on the JDBC driver.
+     *
+     * @param fetchSize JDBC fetch size, or zero for the driver default
+     */
+    public void setFetchSize(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
     @Override
     public void start() {
         try (final Connection connection = this.createTransactionConnection()) {
@@ -232,7 +444,8 @@ public class SQLKVDatabase implements KVDatabase {
      *  <li>{@link #postBeginTransaction postBeginTransaction()}</li>
      *  <li>{@link #createSQLKVTransaction createSQLKVTransaction()}</li>
      *  </ol>
-     * and returns the result.
+     * and returns the result, after configuring {@linkplain SQLKVTransaction#setWriteBatching write batching}
+     * according to {@link #getWriteBatching(Map)}.
      *
      * @throws KVDatabaseException if an unexpected error occurs
      * @throws IllegalStateException if no {@link DataSource} is {@linkplain #setDataSource configured}
@@ -246,6 +459,9 @@ public class SQLKVDatabase implements KVDatabase {
         // Get isolation level
         final IsolationLevel txIsolationLevel = options != null ? this.getIsolationLevel(options) : this.isolationLevel;
 
+        // Get write batching
+        final boolean txWriteBatching = options != null ? this.getWriteBatching(options) : this.writeBatching;
+
         // Get connection and transaction
         final SQLKVTransaction tx;
         try {
@@ -255,6 +471,8 @@ public class SQLKVDatabase implements KVDatabase {
             this.beginTransaction(connection);
             this.postBeginTransaction(connection);
             tx = this.createSQLKVTransaction(connection);
+            tx.setWriteBatching(txWriteBatching);
+            tx.rangeChunking = txIsolationLevel == IsolationLevel.SERIALIZABLE && this.isRangeChunkingEnabled();
         } catch (SQLException e) {
             throw new KVDatabaseException(this, e);
         }
@@ -324,6 +542,25 @@ public class SQLKVDatabase implements KVDatabase {
         return txIsolationLevel;
     }
 
+    /**
+     * Determine whether write batching is enabled from the transaction options.
+     *
+     * <p>
+     * The implementation in {@link SQLKVDatabase} supports a {@link Boolean} under the key {@link #OPTION_WRITE_BATCHING};
+     * if not present, the {@linkplain #isWriteBatching configured default} is returned.
+     *
+     * @param options transaction options
+     * @return true to enable write batching
+     */
+    protected boolean getWriteBatching(Map<String, ?> options) {
+        final Object value = options.get(OPTION_WRITE_BATCHING);
+        if (value instanceof Boolean)
+            return (Boolean)value;
+        if (value instanceof String)
+            return Boolean.valueOf((String)value);
+        return this.writeBatching;
+    }
+
     /**
      * Create a {@link Connection} for a new transaction.
      *
@@ -479,6 +716,9 @@ public class SQLKVDatabase implements KVDatabase {
      * <code>&#63;2</code> (if syntax requires it, the value may be updated to <code>&#63;3</code> instead;
      * <code>&#63;3</code>, if it exists, will be set to the same value as <code>&#63;2</code>).
      *
+     * <p>
+     * Subclasses that override this method should also override {@link #isPutValueRepeated} if necessary.
+     *
      * @return SQL insertion statement
      */
     public String createPutStatement() {
@@ -487,6 +727,44 @@ public class SQLKVDatabase implements KVDatabase {
           + this.quote(this.valueColumnName) + " = ?";
     }
 
+    /**
+     * Determine whether the statement returned by {@link #createPutStatement} has a third parameter
+     * <code>&#63;3</code> that repeats the value.
+     *
+     * <p>
+     * This is used when putting key/value pairs as a JDBC batch, where the parameter count is not
+     * otherwise known without a round trip for statement metadata.
+     *
+     * <p>
+     * The implementation in {@link SQLKVDatabase} returns true.
+     *
+     * @return true if the put statement has parameter <code>&#63;3</code>
+     */
+    public boolean isPutValueRepeated() {
+        return true;
+    }
+
+    /**
+     * Create an SQL statement that inserts or updates {@code numRows} key/value pairs in a single statement.
+     *
+     * <p>
+     * The statement must have exactly {@code 2 * numRows} parameters: for each row, the key followed by the value.
+     * Rows with an existing key should have their value updated.
+     *
+     * <p>
+     * This is an optional method. When null is returned, batched writes fall back to executing the statement
+     * returned by {@link #createPutStatement} as a JDBC batch.
+     *
+     * <p>
+     * The implementation in {@link SQLKVDatabase} returns null.
+     *
+     * @param numRows number of key/value pairs
+     * @return SQL insertion statement, or null if multi-row insertion is not supported
+     */
+    public String createBatchPutStatement(int numRows) {
+        return null;
+    }
+
     /**
      * Create an SQL statement that deletes the row associated with key <code>&#63;1</code>, if any.
      * Note that the key may or may not exist prior to this method being invoked.
@@ -552,6 +830,25 @@ public class SQLKVDatabase implements KVDatabase {
         return sql;
     }
 
+    /**
+     * Modify the given SQL statement so that at most {@code limit} rows are returned.
+     *
+     * <p>
+     * This is an optional method used to implement {@linkplain #setRangeChunkSize chunked range reads}.
+     * Subclasses that don't support limiting the number of rows should return null, in which case range
+     * reads are performed using a single, unbounded query.
+     *
+     * <p>
+     * The implementation in {@link SQLKVDatabase} returns null.
+     *
+     * @param sql SQL statement
+     * @param limit maximum number of rows
+     * @return SQL statement, or null if not supported
+     */
+    public String limitRows(String sql, int limit) {
+        return null;
+    }
+
     /**
      * Enquote a table or column name as necessary.
      *
@@ -12,8 +12,14 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.NoSuchElementException;
+import java.util.TreeMap;
 import java.util.concurrent.Future;
 
 import org.jsimpledb.kv.AbstractKVStore;
@@ -21,13 +27,20 @@ import org.jsimpledb.kv.CloseableKVStore;
 import org.jsimpledb.kv.KVPair;
 import org.jsimpledb.kv.KVTransaction;
 import org.jsimpledb.kv.KVTransactionException;
+import org.jsimpledb.kv.KeyRange;
 import org.jsimpledb.kv.StaleTransactionException;
+import org.jsimpledb.kv.mvcc.MutableView;
+import org.jsimpledb.kv.mvcc.Writes;
 import org.jsimpledb.util.ByteUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * {@link SQLKVDatabase} transaction.
+ *
+ * <p>
+ * If {@linkplain #setWriteBatching write batching} is enabled, mutations are recorded in memory and written out
+ * in batches just prior to commit, or just prior to any read that overlaps them.
  */
 public class SQLKVTransaction extends AbstractKVStore implements KVTransaction {
 
@@ -39,6 +52,8 @@ public class SQLKVTransaction extends AbstractKVStore implements KVTransaction {
     private long timeout;
     private boolean closed;
     private boolean stale;
+    private MutableView writeBuffer;                    // null unless write batching is enabled
+    boolean rangeChunking;                              // set by SQLKVDatabase.createTransaction()
 
     /**
      * Constructor.
@@ -65,6 +80,78 @@ public class SQLKVTransaction extends AbstractKVStore implements KVTransaction {
         this.timeout = timeout;
     }
 
+    /**
+     * Get whether this transaction is buffering mutations.
+     *
+     * @return true if write batching is enabled
+     * @see SQLKVDatabase#setWriteBatching SQLKVDatabase.setWriteBatching()
+     */
+    public synchronized boolean isWriteBatching() {
+        return this.writeBuffer != null;
+    }
+
+    /**
+     * Configure whether this transaction buffers mutations.
+     *
+     * <p>
+     * When write batching is enabled, mutations are consolidated in memory and written out in batches
+     * just prior to commit, or just prior to any read that overlaps them. Disabling write batching
+     * first {@linkplain #flushWrites flushes} any buffered mutations.
+     *
+     * @param writeBatching true to buffer mutations
+     * @throws StaleTransactionException if this transaction is no longer usable
+     * @see SQLKVDatabase#setWriteBatching SQLKVDatabase.setWriteBatching()
+     */
+    public synchronized void setWriteBatching(boolean writeBatching) {
+        if (this.stale)
+            throw new StaleTransactionException(this);
+        if (writeBatching == (this.writeBuffer != null))
+            return;
+        if (writeBatching)
+            this.writeBuffer = new MutableView(this, null, new Writes());
+        else {
+            this.flushWrites();
+            this.writeBuffer = null;
+        }
+    }
+
+    /**
+     * Write out any mutations buffered due to {@linkplain #setWriteBatching write batching}.
+     *
+     * <p>
+     * Removals are written first, followed by puts and counter adjustments. Single key removals are sent as a JDBC batch.
+     * Adjusted counters are read using a single prepared statement, and their new values are then written together
+     * with the puts, using multi-row insertions when the database {@linkplain SQLKVDatabase#createBatchPutStatement supports them}
+     * or else a JDBC batch.
+     *
+     * <p>
+     * Does nothing if write batching is not enabled or there are no buffered mutations.
+     *
+     * @throws StaleTransactionException if this transaction is no longer usable
+     */
+    public synchronized void flushWrites() {
+        if (this.stale)
+            throw new StaleTransactionException(this);
+        if (this.writeBuffer == null)
+            return;
+        final Writes writes = this.writeBuffer.getWrites();
+        if (writes.isEmpty())
+            return;
+        this.writeBuffer = new MutableView(this, null, new Writes());
+        try {
+            this.batchRemove(writes);
+            final NavigableMap<byte[], byte[]> puts = writes.getPuts();
+            if (!writes.getAdjusts().isEmpty()) {
+                final TreeMap<byte[], byte[]> allPuts = new TreeMap<>(puts);      // adjusted keys are never also put
+                this.readAdjustedCounters(writes.getAdjusts(), allPuts);
+                this.batchPut(allPuts);
+            } else
+                this.batchPut(puts);
+        } catch (SQLException e) {
+            throw this.handleException(e);
+        }
+    }
+
     /**
      * Watch a key to monitor for changes in its value.
      *
@@ -90,6 +177,7 @@ public class SQLKVTransaction extends AbstractKVStore implements KVTransaction {
         if (this.stale)
             throw new StaleTransactionException(this);
         Preconditions.checkArgument(key != null, "null key");
+        this.flushWritesIfOverlap(key, ByteUtil.getNextKey(key));
         return this.queryBytes(StmtType.GET, key);
     }
 
@@ -97,6 +185,7 @@ public class SQLKVTransaction extends AbstractKVStore implements KVTransaction {
     public synchronized KVPair getAtLeast(byte[] minKey) {
         if (this.stale)
             throw new StaleTransactionException(this);
+        this.flushWritesIfOverlap(minKey, null);
         return minKey != null ?
           this.queryKVPair(StmtType.GET_AT_LEAST_SINGLE, minKey) : this.queryKVPair(StmtType.GET_FIRST);
     }
@@ -105,6 +194,7 @@ public class SQLKVTransaction extends AbstractKVStore implements KVTransaction {
     public synchronized KVPair getAtMost(byte[] maxKey) {
         if (this.stale)
             throw new StaleTransactionException(this);
+        this.flushWritesIfOverlap(null, maxKey);
         return maxKey != null ?
           this.queryKVPair(StmtType.GET_AT_MOST_SINGLE, maxKey) : this.queryKVPair(StmtType.GET_LAST);
     }
@@ -115,6 +205,9 @@ public class SQLKVTransaction extends AbstractKVStore implements KVTransaction {
             throw new StaleTransactionException(this);
         if (minKey != null && minKey.length == 0)
             minKey = null;
+        this.flushWritesIfOverlap(minKey, maxKey);
+        if (this.rangeChunking)
+            return new ChunkedRangeIterator(minKey, maxKey, reverse);
         if (minKey == null && maxKey == null)
             return this.queryIterator(reverse ? StmtType.GET_ALL_REVERSE : StmtType.GET_ALL_FORWARD);
         if (minKey == null)
@@ -131,6 +224,10 @@ public class SQLKVTransaction extends AbstractKVStore implements KVTransaction {
         Preconditions.checkArgument(value != null, "null value");
         if (this.stale)
             throw new StaleTransactionException(this);
+        if (this.writeBuffer != null) {
+            this.writeBuffer.put(key, value);
+            return;
+        }
         this.update(StmtType.PUT, key, value, value);
     }
 
@@ -139,6 +236,10 @@ public class SQLKVTransaction extends AbstractKVStore implements KVTransaction {
         Preconditions.checkArgument(key != null, "null key");
         if (this.stale)
             throw new StaleTransactionException(this);
+        if (this.writeBuffer != null) {
+            this.writeBuffer.remove(key);
+            return;
+        }
         this.update(StmtType.REMOVE, key);
     }
 
@@ -146,20 +247,30 @@ public class SQLKVTransaction extends AbstractKVStore implements KVTransaction {
     public synchronized void removeRange(byte[] minKey, byte[] maxKey) {
         if (this.stale)
             throw new StaleTransactionException(this);
-        if (minKey == null && maxKey == null)
-            this.update(StmtType.REMOVE_ALL);
-        else if (minKey == null)
-            this.update(StmtType.REMOVE_AT_MOST, maxKey);
-        else if (maxKey == null)
-            this.update(StmtType.REMOVE_AT_LEAST, minKey);
-        else
-            this.update(StmtType.REMOVE_RANGE, minKey, maxKey);
+        if (this.writeBuffer != null) {
+            this.writeBuffer.removeRange(minKey, maxKey);
+            return;
+        }
+        this.doRemoveRange(minKey, maxKey);
+    }
+
+    @Override
+    public synchronized void adjustCounter(byte[] key, long amount) {
+        Preconditions.checkArgument(key != null, "null key");
+        if (this.stale)
+            throw new StaleTransactionException(this);
+        if (this.writeBuffer != null) {
+            this.writeBuffer.adjustCounter(key, amount);
+            return;
+        }
+        super.adjustCounter(key, amount);
     }
 
     @Override
     public synchronized void commit() {
         if (this.stale)
             throw new StaleTransactionException(this);
+        this.flushWrites();
         this.stale = true;
         try {
             this.connection.commit();
@@ -175,6 +286,7 @@ public class SQLKVTransaction extends AbstractKVStore implements KVTransaction {
         if (this.stale)
             return;
         this.stale = true;
+        this.writeBuffer = null;
         try {
             this.connection.rollback();
         } catch (SQLException e) {
@@ -257,6 +369,18 @@ public class SQLKVTransaction extends AbstractKVStore implements KVTransaction {
         }, true, params);
     }
 
+    private List<KVPair> queryList(StmtType stmtType, byte[]... params) {
+        return this.query(stmtType, new ResultSetFunction<List<KVPair>>() {
+            @Override
+            public List<KVPair> apply(PreparedStatement preparedStatement, ResultSet resultSet) throws SQLException {
+                final ArrayList<KVPair> list = new ArrayList<>();
+                while (resultSet.next())
+                    list.add(new KVPair(resultSet.getBytes(1), resultSet.getBytes(2)));
+                return list;
+            }
+        }, true, params);
+    }
+
     private Iterator<KVPair> queryIterator(StmtType stmtType, byte[]... params) {
         return this.query(stmtType, new ResultSetFunction<Iterator<KVPair>>() {
             @Override
@@ -266,6 +390,153 @@ public class SQLKVTransaction extends AbstractKVStore implements KVTransaction {
         }, false, params);
     }
 
+    private void doRemoveRange(byte[] minKey, byte[] maxKey) {
+        if (minKey != null && minKey.length == 0)
+            minKey = null;
+        if (minKey == null && maxKey == null)
+            this.update(StmtType.REMOVE_ALL);
+        else if (minKey == null)
+            this.update(StmtType.REMOVE_AT_MOST, maxKey);
+        else if (maxKey == null)
+            this.update(StmtType.REMOVE_AT_LEAST, minKey);
+        else
+            this.update(StmtType.REMOVE_RANGE, minKey, maxKey);
+    }
+
+    private void flushWritesIfOverlap(byte[] minKey, byte[] maxKey) {
+        if (this.writeBuffer == null)
+            return;
+        final Writes writes = this.writeBuffer.getWrites();
+        if (writes.isEmpty())
+            return;
+        if (minKey == null)
+            minKey = ByteUtil.EMPTY;
+        if (writes.getRemoves().intersects(new KeyRange(minKey, maxKey))
+          || !SQLKVTransaction.subMap(writes.getPuts(), minKey, maxKey).isEmpty()
+          || !SQLKVTransaction.subMap(writes.getAdjusts(), minKey, maxKey).isEmpty())
+            this.flushWrites();
+    }
+
+    private static <V> NavigableMap<byte[], V> subMap(NavigableMap<byte[], V> map, byte[] minKey, byte[] maxKey) {
+        return maxKey != null ? map.subMap(minKey, true, maxKey, false) : map.tailMap(minKey, true);
+    }
+
+    private void batchRemove(Writes writes) throws SQLException {
+        final ArrayList<byte[]> keys = new ArrayList<>();
+        for (KeyRange range : writes.getRemoves()) {
+            if (range.isSingleKey())
+                keys.add(range.getMin());
+            else
+                this.doRemoveRange(range.getMin(), range.getMax());
+        }
+        if (keys.isEmpty())
+            return;
+        try (final PreparedStatement preparedStatement = StmtType.REMOVE.create(this.database, this.connection, this.log)) {
+            for (byte[] key : keys) {
+                preparedStatement.setBytes(1, key);
+                preparedStatement.addBatch();
+            }
+            this.executeBatch(preparedStatement, keys.size());
+        }
+    }
+
+    private void readAdjustedCounters(Map<byte[], Long> adjusts, Map<byte[], byte[]> puts) throws SQLException {
+        if (this.log.isTraceEnabled())
+            this.log.trace("reading " + adjusts.size() + " adjusted counter(s) in " + this);
+        try (final PreparedStatement preparedStatement = StmtType.GET.create(this.database, this.connection, this.log)) {
+            preparedStatement.setQueryTimeout((int)((this.timeout + 999) / 1000));
+            for (Map.Entry<byte[], Long> entry : adjusts.entrySet()) {
+                final byte[] key = entry.getKey();
+                preparedStatement.setBytes(1, key);
+                final byte[] value;
+                try (final ResultSet resultSet = preparedStatement.executeQuery()) {
+                    value = resultSet.next() ? resultSet.getBytes(1) : null;
+                }
+                if (value == null)
+                    continue;
+                final long counter;
+                try {
+                    counter = this.decodeCounter(value);
+                } catch (IllegalArgumentException e) {
+                    continue;                                   // value was not decodable, so ignore this adjustment
+                }
+                puts.put(key, this.encodeCounter(counter + entry.getValue()));
+            }
+        }
+    }
+
+    private void batchPut(NavigableMap<byte[], byte[]> puts) throws SQLException {
+
+        // Anything to do?
+        if (puts.isEmpty())
+            return;
+
+        // If multi-row insertions are not supported, batch individual put statements
+        final int maxRows = Math.min(this.database.getBatchPutRows(), puts.size());
+        final String batchSQL = this.database.createBatchPutStatement(maxRows);
+        if (batchSQL == null) {
+            if (this.log.isTraceEnabled())
+                this.log.trace("writing " + puts.size() + " put(s) as a JDBC batch in " + this);
+            final boolean repeatValue = this.database.isPutValueRepeated();
+            try (final PreparedStatement preparedStatement = StmtType.PUT.create(this.database, this.connection, this.log)) {
+                for (Map.Entry<byte[], byte[]> entry : puts.entrySet()) {
+                    preparedStatement.setBytes(1, entry.getKey());
+                    preparedStatement.setBytes(2, entry.getValue());
+                    if (repeatValue)
+                        preparedStatement.setBytes(3, entry.getValue());
+                    preparedStatement.addBatch();
+                }
+                this.executeBatch(preparedStatement, puts.size());
+            }
+            return;
+        }
+
+        // Write all full chunks of rows as a batch of multi-row insertions, then write any remainder
+        if (this.log.isTraceEnabled())
+            this.log.trace("writing " + puts.size() + " put(s) as multi-row insertions of up to " + maxRows + " row(s) in " + this);
+        final Iterator<Map.Entry<byte[], byte[]>> i = puts.entrySet().iterator();
+        final int numFullChunks = puts.size() / maxRows;
+        try (final PreparedStatement preparedStatement = this.prepareBatchPut(batchSQL)) {
+            for (int chunk = 0; chunk < numFullChunks; chunk++) {
+                this.setBatchPutParameters(preparedStatement, i, maxRows);
+                preparedStatement.addBatch();
+            }
+            this.executeBatch(preparedStatement, numFullChunks);
+        }
+        final int remainder = puts.size() % maxRows;
+        if (remainder > 0) {
+            try (final PreparedStatement preparedStatement
+              = this.prepareBatchPut(this.database.createBatchPutStatement(remainder))) {
+                this.setBatchPutParameters(preparedStatement, i, remainder);
+                this.executeBatch(preparedStatement, 1);
+            }
+        }
+        assert !i.hasNext();
+    }
+
+    private PreparedStatement prepareBatchPut(String sql) throws SQLException {
+        if (this.log.isTraceEnabled())
+            this.log.trace("preparing SQL statement: " + sql);
+        return this.connection.prepareStatement(sql);
+    }
+
+    private void setBatchPutParameters(PreparedStatement preparedStatement,
+      Iterator<Map.Entry<byte[], byte[]>> i, int numRows) throws SQLException {
+        int index = 1;
+        for (int row = 0; row < numRows; row++) {
+            final Map.Entry<byte[], byte[]> entry = i.next();
+            preparedStatement.setBytes(index++, entry.getKey());
+            preparedStatement.setBytes(index++, entry.getValue());
+        }
+    }
+
+    private void executeBatch(PreparedStatement preparedStatement, int count) throws SQLException {
+        preparedStatement.setQueryTimeout((int)((this.timeout + 999) / 1000));
+        if (this.log.isTraceEnabled())
+            this.log.trace("executing SQL batch of " + count + " statement(s): " + preparedStatement + " in " + this);
+        preparedStatement.executeBatch();
+    }
+
     private <T> T query(StmtType stmtType, ResultSetFunction<T> resultSetFunction, boolean close, byte[]... params) {
         try {
             final PreparedStatement preparedStatement = stmtType.create(this.database, this.connection, this.log);
@@ -276,6 +547,8 @@ public class SQLKVTransaction extends AbstractKVStore implements KVTransaction {
                 preparedStatement.setBytes(i + 1, params[i]);
             }
             preparedStatement.setQueryTimeout((int)((this.timeout + 999) / 1000));
+            if (this.database.getFetchSize() != 0)
+                preparedStatement.setFetchSize(this.database.getFetchSize());
             if (this.log.isTraceEnabled())
                 this.log.trace("executing SQL query: " + preparedStatement + " in " + this);
             final ResultSet resultSet = preparedStatement.executeQuery();
@@ -406,6 +679,93 @@ public class SQLKVTransaction extends AbstractKVStore implements KVTransaction {
         }
     }
 
+// ChunkedRangeIterator
+
+    private class ChunkedRangeIterator implements Iterator<KVPair> {
+
+        private final boolean reverse;
+
+        private byte[] minKey;                          // remaining range minimum (inclusive), or null for none
+        private byte[] maxKey;                          // remaining range maximum (exclusive), or null for none
+        private int chunkSize;
+        private Iterator<KVPair> chunk = Collections.<KVPair>emptyIterator();
+        private boolean exhausted;                      // no rows remain past the current chunk
+        private byte[] removeKey;
+
+        ChunkedRangeIterator(byte[] minKey, byte[] maxKey, boolean reverse) {
+            this.minKey = minKey;
+            this.maxKey = maxKey;
+            this.reverse = reverse;
+            this.chunkSize = Math.max(1, Math.min(SQLKVTransaction.this.database.getRangeChunkSize(),
+              SQLKVTransaction.this.database.getMaxRangeChunkSize()));        // chunk size may have changed since tx creation
+        }
+
+    // Iterator
+
+        @Override
+        public synchronized boolean hasNext() {
+            while (!this.chunk.hasNext()) {
+                if (this.exhausted)
+                    return false;
+                this.readChunk();
+            }
+            return true;
+        }
+
+        @Override
+        public synchronized KVPair next() {
+            if (!this.hasNext())
+                throw new NoSuchElementException();
+            final KVPair pair = this.chunk.next();
+            this.removeKey = pair.getKey().clone();
+            return pair;
+        }
+
+        @Override
+        public synchronized void remove() {
+            if (this.removeKey == null)
+                throw new IllegalStateException();
+            SQLKVTransaction.this.remove(this.removeKey);
+            this.removeKey = null;
+        }
+
+    // Internal methods
+
+        private void readChunk() {
+
+            // Query the next chunk of rows
+            final List<KVPair> rows;
+            synchronized (SQLKVTransaction.this) {
+                if (SQLKVTransaction.this.stale)
+                    throw new StaleTransactionException(SQLKVTransaction.this);
+                SQLKVTransaction.this.flushWritesIfOverlap(this.minKey, this.maxKey);
+                final StmtType stmtType = new LimitedRangeStmtType(this.minKey != null,
+                  this.maxKey != null, this.reverse, this.chunkSize);
+                if (this.minKey != null && this.maxKey != null)
+                    rows = SQLKVTransaction.this.queryList(stmtType, this.minKey, this.maxKey);
+                else if (this.minKey != null)
+                    rows = SQLKVTransaction.this.queryList(stmtType, this.minKey);
+                else if (this.maxKey != null)
+                    rows = SQLKVTransaction.this.queryList(stmtType, this.maxKey);
+                else
+                    rows = SQLKVTransaction.this.queryList(stmtType);
+            }
+
+            // If we got a full chunk, continue just past the last key next time using a larger chunk
+            if (rows.size() < this.chunkSize)
+                this.exhausted = true;
+            else {
+                final byte[] lastKey = rows.get(rows.size() - 1).getKey();
+                if (this.reverse)
+                    this.maxKey = lastKey.clone();
+                else
+                    this.minKey = ByteUtil.getNextKey(lastKey);
+                this.chunkSize = (int)Math.min((long)this.chunkSize * 2, SQLKVTransaction.this.database.getMaxRangeChunkSize());
+            }
+            this.chunk = rows.iterator();
+        }
+    }
+
 // StmtType
 
     abstract static class StmtType {
@@ -533,5 +893,36 @@ public class SQLKVTransaction extends AbstractKVStore implements KVTransaction {
             return c.prepareStatement(sql);
         }
     }
+
+// LimitedRangeStmtType
+
+    static class LimitedRangeStmtType extends StmtType {
+
+        private final boolean hasMin;
+        private final boolean hasMax;
+        private final boolean reverse;
+        private final int limit;
+
+        LimitedRangeStmtType(boolean hasMin, boolean hasMax, boolean reverse, int limit) {
+            this.hasMin = hasMin;
+            this.hasMax = hasMax;
+            this.reverse = reverse;
+            this.limit = limit;
+        }
+
+        @Override
+        PreparedStatement create(SQLKVDatabase db, Connection c, Logger log) throws SQLException {
+            final String sql;
+            if (this.hasMin && this.hasMax)
+                sql = db.createGetRangeStatement(this.reverse);
+            else if (this.hasMin)
+                sql = db.createGetAtLeastStatement(this.reverse);
+            else if (this.hasMax)
+                sql = db.createGetAtMostStatement(this.reverse);
+            else
+                sql = db.createGetAllStatement(this.reverse);
+            return this.prepare(c, db.limitRows(sql, this.limit), log);
+        }
+    }
 }
 
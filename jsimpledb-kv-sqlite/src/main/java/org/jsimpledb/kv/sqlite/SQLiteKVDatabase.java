@@ -186,6 +186,14 @@ public class SQLiteKVDatabase extends SQLKVDatabase {
           + ", " + this.quote(this.getValueColumnName()) + ") VALUES (?, ?)";
     }
 
+    /**
+     * Returns false; the put statement has no third parameter.
+     */
+    @Override
+    public boolean isPutValueRepeated() {
+        return false;
+    }
+
     /**
      * Encloses the given {@code name} in double quotes.
      */
@@ -202,6 +210,14 @@ public class SQLiteKVDatabase extends SQLKVDatabase {
         return sql + " LIMIT 1";
     }
 
+    /**
+     * Appends {@code LIMIT limit} to the statement.
+     */
+    @Override
+    public String limitRows(String sql, int limit) {
+        return sql + " LIMIT " + limit;
+    }
+
     @Override
     public KVTransactionException wrapException(SQLKVTransaction tx, SQLException e) {
         switch (SQLiteErrorCode.getErrorCode(e.getErrorCode())) {
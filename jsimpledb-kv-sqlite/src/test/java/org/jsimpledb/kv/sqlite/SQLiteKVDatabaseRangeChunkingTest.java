@@ -0,0 +1,22 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.kv.sqlite;
+
+import org.testng.Assert;
+
+/**
+ * Runs the {@link SQLiteKVDatabaseTest} tests with {@linkplain SQLiteKVDatabase#setRangeChunkSize chunked range reads}
+ * enabled, using small chunks so that ranges span many chunks.
+ */
+public class SQLiteKVDatabaseRangeChunkingTest extends SQLiteKVDatabaseTest {
+
+    @Override
+    protected void configure(SQLiteKVDatabase kvdb) {
+        kvdb.setRangeChunkSize(1);
+        kvdb.setMaxRangeChunkSize(4);
+        Assert.assertTrue(kvdb.isRangeChunkingEnabled());
+    }
+}
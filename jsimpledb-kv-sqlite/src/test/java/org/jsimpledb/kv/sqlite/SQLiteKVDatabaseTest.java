@@ -36,9 +36,21 @@ public class SQLiteKVDatabaseTest extends KVDatabaseTest {
                     pragmaList.add(pragma);
                 this.kvdb.setPragmas(pragmaList);
             }
+            this.configure(this.kvdb);
         }
     }
 
+    /**
+     * Apply additional configuration to the database under test.
+     *
+     * <p>
+     * The implementation in {@link SQLiteKVDatabaseTest} does nothing.
+     *
+     * @param kvdb database to configure
+     */
+    protected void configure(SQLiteKVDatabase kvdb) {
+    }
+
     protected boolean allowBothTransactionsToFail() {
         return true;
     }
@@ -0,0 +1,17 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.kv.sqlite;
+
+/**
+ * Runs the {@link SQLiteKVDatabaseTest} tests with {@linkplain SQLiteKVDatabase#setWriteBatching write batching} enabled.
+ */
+public class SQLiteKVDatabaseWriteBatchingTest extends SQLiteKVDatabaseTest {
+
+    @Override
+    protected void configure(SQLiteKVDatabase kvdb) {
+        kvdb.setWriteBatching(true);
+    }
+}
@@ -11,6 +11,7 @@ import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.NavigableSet;
@@ -157,6 +158,11 @@ public abstract class KVDatabaseTest extends KVTestSupport {
                 final byte[] x = tx.get(b("01"));
                 Assert.assertEquals(x, b("03"));
                 tx.put(b("10"), b("01"));
+                final List<byte[]> values = tx.getAll(Arrays.asList(b("01"), b("02"), b("10")));
+                Assert.assertEquals(values.size(), 3);
+                Assert.assertEquals(values.get(0), b("03"));
+                Assert.assertNull(values.get(1));
+                Assert.assertEquals(values.get(2), b("01"));
                 return null;
             }
         });
@@ -7,8 +7,10 @@ package org.jsimpledb.kv;
 
 import com.google.common.base.Preconditions;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 
 import org.jsimpledb.util.ByteReader;
 import org.jsimpledb.util.ByteUtil;
@@ -21,6 +23,7 @@ import org.jsimpledb.util.ByteWriter;
  * This class provides a partial implementation via the following methods:
  * <ul>
  *  <li>A {@link #get get()} implementation based on {@link #getAtLeast getAtLeast()}</li>
+ *  <li>A {@link #getAll getAll()} implementation that invokes {@link #get get()} on each key in turn</li>
  *  <li>{@link #getAtLeast getAtLeast()} and {@link #getAtMost getAtMost()} implementations based on
  *      {@link #getRange getRange()}.</li>
  *  <li>A {@link #remove remove()} implementation that delegates to {@link #removeRange removeRange()}.</li>
@@ -48,6 +51,14 @@ public abstract class AbstractKVStore implements KVStore {
         return pair != null && Arrays.equals(pair.getKey(), key) ? pair.getValue() : null;
     }
 
+    @Override
+    public List<byte[]> getAll(List<byte[]> keys) {
+        final ArrayList<byte[]> values = new ArrayList<>(keys.size());
+        for (byte[] key : keys)
+            values.add(this.get(key));
+        return values;
+    }
+
     @Override
     public KVPair getAtLeast(byte[] minKey) {
         final Iterator<KVPair> i = this.getRange(minKey, null, false);
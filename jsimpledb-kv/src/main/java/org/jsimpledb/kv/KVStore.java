@@ -6,6 +6,7 @@
 package org.jsimpledb.kv;
 
 import java.util.Iterator;
+import java.util.List;
 
 /**
  * General API into a key/value store where the keys are sorted lexicographically as unsigned bytes.
@@ -52,6 +53,26 @@ public interface KVStore {
      */
     byte[] get(byte[] key);
 
+    /**
+     * Get the values associated with multiple keys.
+     *
+     * <p>
+     * The result is the same as invoking {@link #get get()} on each key in turn. However, implementations that
+     * access data over a network are encouraged to issue the reads concurrently, so that the overall latency
+     * approximates that of a single read, rather than the sum of all of them.
+     *
+     * <p>
+     * Modifications to the returned {@code byte[]} arrays do not affect this instance.
+     *
+     * @param keys keys
+     * @return list of values associated with {@code keys}, in the same order, with null entries for keys not found
+     * @throws IllegalArgumentException if any key starts with {@code 0xff} and such keys are not supported
+     * @throws StaleTransactionException if an underlying transaction is no longer usable
+     * @throws RetryTransactionException if an underlying transaction must be retried and is no longer usable
+     * @throws NullPointerException if {@code keys} or any key is null
+     */
+    List<byte[]> getAll(List<byte[]> keys);
+
     /**
      * Get the key/value pair having the smallest key greater than or equal to the given minimum, if any.
      *
@@ -8,8 +8,11 @@ package org.jsimpledb.kv;
 import com.google.common.base.Preconditions;
 import com.google.common.primitives.Bytes;
 
+import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 
 import org.jsimpledb.util.ByteUtil;
 import org.jsimpledb.util.SizeEstimating;
@@ -240,6 +243,51 @@ public class KeyRange implements SizeEstimating {
         return new KeyRange(prefixedMin, prefixedMax);
     }
 
+    /**
+     * Divide this range into contiguous sub-ranges of approximately equal size in key space.
+     *
+     * <p>
+     * Split points are chosen by interpolating between the minimum and maximum keys, with keys viewed as unsigned
+     * binary fractions; if there is no maximum key, {@code 0xff} is used instead. The resulting sub-ranges are
+     * equally sized in key space, which corresponds to equal numbers of actual keys only if the keys are uniformly
+     * distributed, e.g., randomly assigned object IDs. Fewer than {@code maxParts} sub-ranges are returned
+     * when this range is too narrow to split further.
+     *
+     * @param maxParts maximum number of sub-ranges
+     * @return non-empty list of at most {@code maxParts} disjoint, contiguous sub-ranges in sorted order
+     *  whose union is this range
+     * @throws IllegalArgumentException if {@code maxParts} is not positive
+     */
+    public List<KeyRange> split(int maxParts) {
+        Preconditions.checkArgument(maxParts > 0, "non-positive maxParts");
+        final byte[] upper = this.max != null ? this.max : new byte[] { (byte)0xff };
+        final int length = Math.max(this.min.length, upper.length) + 1;
+        final BigInteger lo = new BigInteger(1, Arrays.copyOf(this.min, length));
+        final BigInteger span = new BigInteger(1, Arrays.copyOf(upper, length)).subtract(lo);
+        final ArrayList<KeyRange> ranges = new ArrayList<>(maxParts);
+        byte[] prev = this.min;
+        for (int i = 1; i < maxParts; i++) {
+
+            // Interpolate and convert back to a key, discarding trailing zeroes
+            final byte[] bytes = lo.add(span.multiply(BigInteger.valueOf(i)).divide(BigInteger.valueOf(maxParts))).toByteArray();
+            final byte[] point = new byte[length];
+            final int copy = Math.min(bytes.length, length);
+            System.arraycopy(bytes, bytes.length - copy, point, length - copy, copy);
+            int pointLength = length;
+            while (pointLength > 0 && point[pointLength - 1] == 0)
+                pointLength--;
+            final byte[] key = Arrays.copyOf(point, pointLength);
+
+            // Add range
+            if (ByteUtil.compare(key, prev) <= 0 || KeyRange.compare(key, this.max) >= 0)
+                continue;
+            ranges.add(new KeyRange(prev, key));
+            prev = key;
+        }
+        ranges.add(new KeyRange(prev, this.max));
+        return ranges;
+    }
+
     /**
      * Determine if this range is left of, contains, or is right of the given key.
      *
@@ -7,6 +7,8 @@ package org.jsimpledb.kv.util;
 
 import com.google.common.base.Preconditions;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.Iterator;
 
 import org.jsimpledb.kv.KVPair;
@@ -59,12 +61,25 @@ import org.slf4j.LoggerFactory;
  * Therefore, in the former case, whether this iteration always reflects the current state of the underlying
  * {@link KVStore} depends on the behavior of {@link KVStore#getRange KVStore.getRange()}.
  *
+ * <p><b>Repositioning</b></p>
+ *
+ * <p>
+ * Instances may be repositioned via {@link #setNextTarget setNextTarget()}. When iterating via
+ * {@link KVStore#getRange KVStore.getRange()}, a target key that is only a short distance ahead is reached by
+ * advancing the existing range iterator; only more distant targets require a new {@link KVStore#getRange getRange()}.
+ *
  * @see AbstractKVNavigableMap
  * @see AbstractKVNavigableSet
  * @param <E> iteration element type
  */
 public abstract class AbstractKVIterator<E> implements java.util.Iterator<E> {
 
+    /**
+     * Maximum number of key/value pairs to advance through in {@link #setNextTarget setNextTarget()}
+     * before creating a new range iterator.
+     */
+    private static final int SEEK_SCAN_LIMIT = 8;
+
     /**
      * The underlying {@link KVStore}.
      */
@@ -81,7 +96,10 @@ public abstract class AbstractKVIterator<E> implements java.util.Iterator<E> {
     protected final boolean reversed;
 
     // Iteration state
-    private final Iterator<KVPair> pairIterator;
+    private final KeyRange keyRange;
+    private Iterator<KVPair> pairIterator;
+    private KVPair pendingPair;                 // pair read by setNextTarget() but not yet returned by next()
+    private byte[] lastKey;                     // key of most recent pair read from pairIterator, else its starting target
     private KVPair removePair;
     private E removeValue;
 
@@ -126,6 +144,7 @@ public abstract class AbstractKVIterator<E> implements java.util.Iterator<E> {
         this.kv = kv;
         this.prefixMode = prefixMode;
         this.reversed = reversed;
+        this.keyRange = keyRange;
 
         // If possible use a straight KVStore iterator which is more efficient than a KVPairIterator
         if (!this.prefixMode && keyFilter == null) {
@@ -138,16 +157,24 @@ public abstract class AbstractKVIterator<E> implements java.util.Iterator<E> {
 
 // Iterator
 
+    // Synchronized because pendingPair and pairIterator are modified by next() and setNextTarget()
     @Override
-    public boolean hasNext() {
-        return this.pairIterator.hasNext();
+    public synchronized boolean hasNext() {
+        return this.pendingPair != null || this.pairIterator.hasNext();
     }
 
     @Override
     public synchronized E next() {
 
         // Get next key/value pair
-        final KVPair pair = this.pairIterator.next();
+        final KVPair pair;
+        if (this.pendingPair != null) {
+            pair = this.pendingPair;
+            this.pendingPair = null;
+        } else {
+            pair = this.pairIterator.next();
+            this.lastKey = pair.getKey();
+        }
 
         // Decode key/value pair
         final ByteReader keyReader = new ByteReader(pair.getKey());
@@ -184,6 +211,82 @@ public abstract class AbstractKVIterator<E> implements java.util.Iterator<E> {
         this.doRemove(removeValueCopy, removePairCopy);
     }
 
+// Repositioning
+
+    /**
+     * Reposition this instance by setting the next "target" key.
+     *
+     * <p>
+     * In the forward case, the target key is an inclusive lower bound on the next key, while in the reverse case
+     * it is an exclusive upper bound on the next key. A null {@code targetKey} means to reposition this instance at
+     * the beginning of the iteration. This instance's configured {@link KeyRange} and {@link KeyFilter}, if any, still apply.
+     *
+     * <p>
+     * Invoking this method does not affect the behavior of {@link #remove}.
+     *
+     * @param targetKey next lower bound (inclusive) if going forward, or upper bound (exclusive) if going backward;
+     *  or null to restart this instance at the beginning of its iteration
+     * @see KVPairIterator#setNextTarget KVPairIterator.setNextTarget()
+     */
+    public synchronized void setNextTarget(byte[] targetKey) {
+
+        // Delegate to KVPairIterator, if using one
+        if (this.pairIterator instanceof KVPairIterator) {
+            ((KVPairIterator)this.pairIterator).setNextTarget(targetKey);
+            return;
+        }
+
+        // If target is ahead of our current position, try to reach it by advancing the current range iterator a little
+        if (targetKey != null && (this.lastKey == null || !this.isAtOrBeyond(this.lastKey, targetKey))) {
+            if (this.pendingPair != null) {
+                if (this.isAtOrBeyond(this.pendingPair.getKey(), targetKey))
+                    return;
+                this.pendingPair = null;
+            }
+            for (int i = 0; i < SEEK_SCAN_LIMIT; i++) {
+                if (!this.pairIterator.hasNext())
+                    return;
+                final KVPair pair = this.pairIterator.next();
+                this.lastKey = pair.getKey();
+                if (this.isAtOrBeyond(pair.getKey(), targetKey)) {
+                    this.pendingPair = pair;
+                    return;
+                }
+            }
+        }
+
+        // Create a new range iterator starting at the target
+        byte[] minKey = this.keyRange != null ? this.keyRange.getMin() : null;
+        byte[] maxKey = this.keyRange != null ? this.keyRange.getMax() : null;
+        if (targetKey != null) {
+            if (this.reversed) {
+                maxKey = maxKey != null ? ByteUtil.min(maxKey, targetKey) : targetKey;
+                if (minKey != null)
+                    maxKey = ByteUtil.max(maxKey, minKey);
+            } else {
+                minKey = minKey != null ? ByteUtil.max(minKey, targetKey) : targetKey;
+                if (maxKey != null)
+                    minKey = ByteUtil.min(minKey, maxKey);
+            }
+        }
+        final Iterator<KVPair> oldIterator = this.pairIterator;
+        this.pairIterator = this.kv.getRange(minKey, maxKey, this.reversed);
+        this.pendingPair = null;
+        this.lastKey = targetKey;
+        if (oldIterator instanceof Closeable) {
+            try {
+                ((Closeable)oldIterator).close();
+            } catch (IOException e) {
+                LoggerFactory.getLogger(this.getClass()).debug("caught exception closing range iterator (ignoring)", e);
+            }
+        }
+    }
+
+    // Determine whether the given key satisfies the given target in our iteration direction
+    private boolean isAtOrBeyond(byte[] key, byte[] targetKey) {
+        return this.reversed ? ByteUtil.compare(key, targetKey) < 0 : ByteUtil.compare(key, targetKey) >= 0;
+    }
+
 // Subclass methods
 
     /**
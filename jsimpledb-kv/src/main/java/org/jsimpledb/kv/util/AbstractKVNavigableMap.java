@@ -5,11 +5,15 @@
 
 package org.jsimpledb.kv.util;
 
+import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 
 import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.NavigableSet;
@@ -245,6 +249,38 @@ public abstract class AbstractKVNavigableMap<K, V> extends AbstractNavigableMap<
         return this.createSubMap(this.reversed, this.keyRange, keyFilter, this.bounds);
     }
 
+    /**
+     * Partition this instance into disjoint, contiguous views that together contain the same entries as this instance.
+     *
+     * <p>
+     * Each returned view may be iterated independently, e.g., by a separate thread. Partitions are chosen as described
+     * for {@link AbstractKVNavigableSet#split AbstractKVNavigableSet.split()}.
+     *
+     * <p>
+     * The returned views have the same ordering, {@link KeyFilter}, and bounds as this instance.
+     * If this instance is reversed, the returned list is also in reverse order.
+     *
+     * @param maxParts maximum number of partitions
+     * @return non-empty list of at most {@code maxParts} views of this instance
+     * @throws IllegalArgumentException if {@code maxParts} is not positive
+     */
+    public List<NavigableMap<K, V>> split(int maxParts) {
+        Preconditions.checkArgument(maxParts > 0, "non-positive maxParts");
+        final List<KeyRange> ranges = AbstractKVNavigableSet.splitKeyRange(this.kv,
+          this.keyRange, this.keyFilter, maxParts, this.prefixMode, new Function<ByteReader, K>() {
+            @Override
+            public K apply(ByteReader reader) {
+                return AbstractKVNavigableMap.this.decodeKey(reader);
+            }
+        });
+        final ArrayList<NavigableMap<K, V>> parts = new ArrayList<>(ranges.size());
+        for (KeyRange range : ranges)
+            parts.add(this.createSubMap(this.reversed, range, this.keyFilter, this.bounds));
+        if (this.reversed)
+            Collections.reverse(parts);
+        return parts;
+    }
+
     @Override
     protected boolean isWithinLowerBound(K key) {
         if (!super.isWithinLowerBound(key))
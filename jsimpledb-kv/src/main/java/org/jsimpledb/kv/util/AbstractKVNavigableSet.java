@@ -5,9 +5,13 @@
 
 package org.jsimpledb.kv.util;
 
+import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NavigableSet;
 
 import org.jsimpledb.kv.KVPair;
@@ -20,6 +24,7 @@ import org.jsimpledb.util.Bounds;
 import org.jsimpledb.util.ByteReader;
 import org.jsimpledb.util.ByteUtil;
 import org.jsimpledb.util.ByteWriter;
+import org.jsimpledb.util.SeekableIterator;
 
 /**
  * {@link java.util.NavigableSet} support superclass for sets backed by elements encoded as {@code byte[]}
@@ -49,6 +54,8 @@ import org.jsimpledb.util.ByteWriter;
  * <ul>
  *  <li>{@link #iterator} returns an {@link Iterator} whose {@link Iterator#remove Iterator.remove()} method delegates
  *      to this instance's {@link #remove remove()} method.
+ *  <li>{@link #iterator} returns a {@link SeekableIterator}, which is repositioned without starting a new iteration;
+ *      this makes {@linkplain org.jsimpledb.util.NavigableSets#intersection intersections} of these sets efficient.
  * </ul>
  *
  * <p><b>Prefix Mode</b></p>
@@ -188,18 +195,7 @@ public abstract class AbstractKVNavigableSet<E> extends AbstractNavigableSet<E>
 
     @Override
     public Iterator<E> iterator() {
-        return new AbstractKVIterator<E>(this.kv, this.prefixMode, this.reversed, this.keyRange, this.keyFilter) {
-
-            @Override
-            protected E decodePair(KVPair pair, ByteReader keyReader) {
-                return AbstractKVNavigableSet.this.decode(keyReader);
-            }
-
-            @Override
-            protected void doRemove(E value, KVPair pair) {
-                AbstractKVNavigableSet.this.remove(value);
-            }
-        };
+        return new SetIterator();
     }
 
     @Override
@@ -226,6 +222,137 @@ public abstract class AbstractKVNavigableSet<E> extends AbstractNavigableSet<E>
         return this.createSubSet(this.reversed, this.keyRange, keyFilter, this.bounds);
     }
 
+    /**
+     * Partition this instance into disjoint, contiguous views that together contain the same elements as this instance.
+     *
+     * <p>
+     * This is intended to support parallel processing: each returned view may be iterated independently,
+     * e.g., by a separate thread (subject to the thread safety of the underlying {@link KVStore}).
+     *
+     * <p>
+     * The partitions are determined by choosing evenly spaced split points between the first and last visible keys
+     * (see {@link KeyRange#split KeyRange.split()}), and then snapping each point to the next visible key present in the
+     * underlying {@link KVStore}, so that empty partitions are avoided. In prefix mode, a split point never falls in the
+     * middle of an element's keys. Partitions will be approximately balanced only if the keys are evenly distributed;
+     * fewer than {@code maxParts} partitions are returned when there are not enough distinct keys to split on.
+     *
+     * <p>
+     * The returned views have the same ordering, {@link KeyFilter}, and bounds as this instance.
+     * If this instance is reversed, the returned list is also in reverse order.
+     *
+     * @param maxParts maximum number of partitions
+     * @return non-empty list of at most {@code maxParts} views of this instance
+     * @throws IllegalArgumentException if {@code maxParts} is not positive
+     */
+    public List<NavigableSet<E>> split(int maxParts) {
+        Preconditions.checkArgument(maxParts > 0, "non-positive maxParts");
+        final List<KeyRange> ranges = AbstractKVNavigableSet.splitKeyRange(this.kv,
+          this.keyRange, this.keyFilter, maxParts, this.prefixMode, new Function<ByteReader, E>() {
+            @Override
+            public E apply(ByteReader reader) {
+                return AbstractKVNavigableSet.this.decode(reader);
+            }
+        });
+        final ArrayList<NavigableSet<E>> parts = new ArrayList<>(ranges.size());
+        for (KeyRange range : ranges)
+            parts.add(this.createSubSet(this.reversed, range, this.keyFilter, this.bounds));
+        if (this.reversed)
+            Collections.reverse(parts);
+        return parts;
+    }
+
+    /**
+     * Split a key range into contiguous sub-ranges using split points that are visible keys in the given {@link KVStore}.
+     *
+     * @param kv key/value store
+     * @param keyRange range to split, or null for the full range
+     * @param keyFilter key filter, or null for none
+     * @param maxParts maximum number of sub-ranges
+     * @param prefixMode true if elements may occupy multiple keys having a common prefix
+     * @param decoder decodes an element from a key; only used in prefix mode to determine the element's prefix
+     * @return non-empty list of sub-ranges in sorted order whose union is {@code keyRange}
+     */
+    static List<KeyRange> splitKeyRange(KVStore kv, KeyRange keyRange, KeyFilter keyFilter, int maxParts,
+      boolean prefixMode, Function<ByteReader, ?> decoder) {
+        if (keyRange == null)
+            keyRange = KeyRange.FULL;
+
+        // Choose split points only within the span of visible keys actually present
+        final byte[] first = AbstractKVNavigableSet.seekVisibleHigher(kv, keyRange, keyFilter, keyRange.getMin());
+        final byte[] last = first != null ? AbstractKVNavigableSet.seekVisibleLower(kv, keyRange, keyFilter) : null;
+        if (last == null || maxParts == 1)
+            return Collections.singletonList(keyRange);
+        final KeyRange splitRange = new KeyRange(first, ByteUtil.getNextKey(last));
+
+        // Choose split points
+        final ArrayList<KeyRange> ranges = new ArrayList<>(maxParts);
+        byte[] prev = keyRange.getMin();
+        for (KeyRange candidate : splitRange.split(maxParts)) {
+            final byte[] point = candidate.getMin();
+            if (ByteUtil.compare(point, first) <= 0)
+                continue;
+
+            // Snap split point to the next visible key
+            byte[] boundary = AbstractKVNavigableSet.seekVisibleHigher(kv, keyRange, keyFilter, point);
+            if (boundary == null)
+                break;
+
+            // In prefix mode, split at the start of an element; if the point falls within an element, use the next one
+            if (prefixMode) {
+                byte[] prefix = AbstractKVNavigableSet.decodePrefix(decoder, boundary);
+                if (ByteUtil.compare(prefix, point) < 0) {
+                    try {
+                        boundary = AbstractKVNavigableSet.seekVisibleHigher(kv,
+                          keyRange, keyFilter, ByteUtil.getKeyAfterPrefix(prefix));
+                    } catch (IllegalArgumentException e) {
+                        break;
+                    }
+                    if (boundary == null)
+                        break;
+                    prefix = AbstractKVNavigableSet.decodePrefix(decoder, boundary);
+                }
+                boundary = prefix;
+            }
+
+            // Add sub-range, avoiding empty sub-ranges
+            if (ByteUtil.compare(boundary, prev) <= 0 || ByteUtil.compare(boundary, first) <= 0)
+                continue;
+            if (ByteUtil.compare(boundary, last) > 0)
+                break;
+            ranges.add(new KeyRange(prev, boundary));
+            prev = boundary;
+        }
+        ranges.add(new KeyRange(prev, keyRange.getMax()));
+        return ranges;
+    }
+
+    // Get the prefix of the given key that encodes an element
+    private static byte[] decodePrefix(Function<ByteReader, ?> decoder, byte[] key) {
+        final ByteReader reader = new ByteReader(key);
+        decoder.apply(reader);
+        return reader.getBytes(0, reader.getOffset());
+    }
+
+    // Find the first visible key greater than or equal to the given key
+    private static byte[] seekVisibleHigher(KVStore kv, KeyRange keyRange, KeyFilter keyFilter, byte[] key) {
+        KVPair pair = kv.getAtLeast(key);
+        while (pair != null && keyRange.contains(pair.getKey()) && keyFilter != null && !keyFilter.contains(pair.getKey())) {
+            final byte[] next = keyFilter.seekHigher(pair.getKey());
+            pair = next != null ? kv.getAtLeast(next) : null;
+        }
+        return pair != null && keyRange.contains(pair.getKey()) ? pair.getKey() : null;
+    }
+
+    // Find the last visible key
+    private static byte[] seekVisibleLower(KVStore kv, KeyRange keyRange, KeyFilter keyFilter) {
+        KVPair pair = kv.getAtMost(keyRange.getMax());
+        while (pair != null && keyRange.contains(pair.getKey()) && keyFilter != null && !keyFilter.contains(pair.getKey())) {
+            final byte[] next = keyFilter.seekLower(pair.getKey());
+            pair = next != null && next.length > 0 ? kv.getAtMost(next) : null;
+        }
+        return pair != null && keyRange.contains(pair.getKey()) ? pair.getKey() : null;
+    }
+
     @Override
     protected boolean isWithinLowerBound(E elem) {
         if (!super.isWithinLowerBound(elem))
@@ -392,5 +519,45 @@ public abstract class AbstractKVNavigableSet<E> extends AbstractNavigableSet<E>
         }
         return new KeyRange(newMinKey != null ? newMinKey : ByteUtil.EMPTY, newMaxKey);
     }
-}
 
+// SetIterator
+
+    private class SetIterator extends AbstractKVIterator<E> implements SeekableIterator<E> {
+
+        SetIterator() {
+            super(AbstractKVNavigableSet.this.kv, AbstractKVNavigableSet.this.prefixMode,
+              AbstractKVNavigableSet.this.reversed, AbstractKVNavigableSet.this.keyRange, AbstractKVNavigableSet.this.keyFilter);
+        }
+
+        @Override
+        public void seek(E target) {
+
+            // Encode target
+            final ByteWriter writer = new ByteWriter();
+            AbstractKVNavigableSet.this.encode(writer, target);
+            byte[] key = writer.getBytes();
+
+            // When reversed, we need an exclusive upper bound
+            if (this.reversed) {
+                try {
+                    key = this.prefixMode ? ByteUtil.getKeyAfterPrefix(key) : ByteUtil.getNextKey(key);
+                } catch (IllegalArgumentException e) {                  // key is all 0xff's, so there is no upper bound
+                    key = null;
+                }
+            }
+
+            // Reposition
+            this.setNextTarget(key);
+        }
+
+        @Override
+        protected E decodePair(KVPair pair, ByteReader keyReader) {
+            return AbstractKVNavigableSet.this.decode(keyReader);
+        }
+
+        @Override
+        protected void doRemove(E value, KVPair pair) {
+            AbstractKVNavigableSet.this.remove(value);
+        }
+    }
+}
@@ -6,6 +6,7 @@
 package org.jsimpledb.kv.util;
 
 import java.util.Iterator;
+import java.util.List;
 
 import org.jsimpledb.kv.KVPair;
 import org.jsimpledb.kv.KVStore;
@@ -29,6 +30,11 @@ public abstract class ForwardingKVStore implements KVStore {
         return this.delegate().get(key);
     }
 
+    @Override
+    public List<byte[]> getAll(List<byte[]> keys) {
+        return this.delegate().getAll(keys);
+    }
+
     @Override
     public KVPair getAtLeast(byte[] minKey) {
         return this.delegate().getAtLeast(minKey);
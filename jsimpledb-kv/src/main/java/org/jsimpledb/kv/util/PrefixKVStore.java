@@ -10,7 +10,9 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterators;
 import com.google.common.primitives.Bytes;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.jsimpledb.kv.KVPair;
 import org.jsimpledb.kv.KVStore;
@@ -70,6 +72,14 @@ public abstract class PrefixKVStore extends ForwardingKVStore {
         return this.delegate().get(this.addPrefix(key));
     }
 
+    @Override
+    public List<byte[]> getAll(List<byte[]> keys) {
+        final ArrayList<byte[]> prefixedKeys = new ArrayList<>(keys.size());
+        for (byte[] key : keys)
+            prefixedKeys.add(this.addPrefix(key));
+        return this.delegate().getAll(prefixedKeys);
+    }
+
     @Override
     public KVPair getAtLeast(byte[] minKey) {
         final KVPair pair = this.delegate().getAtLeast(this.addMinPrefix(minKey));
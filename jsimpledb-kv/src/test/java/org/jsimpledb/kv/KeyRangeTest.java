@@ -5,6 +5,10 @@
 
 package org.jsimpledb.kv;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -63,5 +67,32 @@ public class KeyRangeTest extends KeyRangeTestSupport {
         final KeyRange kr4 = new KeyRange(new byte[] { 0x01, 0x02 }, new byte[] { 0x02, 0x02, 0x00 });
         Assert.assertFalse(kr4.isSingleKey());
     }
+
+    @Test
+    public void testSplit() {
+        Assert.assertEquals(KeyRange.FULL.split(1), Collections.singletonList(KeyRange.FULL));
+        Assert.assertEquals(KeyRange.FULL.split(4), Arrays.asList(
+          kr(null, "3fc0"), kr("3fc0", "7f80"), kr("7f80", "bf40"), kr("bf40", null)));
+        Assert.assertEquals(kr("10", "11").split(2), Arrays.asList(kr("10", "1080"), kr("1080", "11")));
+        Assert.assertEquals(kr("10", "1000").split(4), Collections.singletonList(kr("10", "1000")));
+        try {
+            KeyRange.FULL.split(0);
+            assert false;
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        for (int i = 0; i < 100; i++) {
+            final KeyRange range = this.randomKeyRange();
+            final int maxParts = 1 + this.random.nextInt(10);
+            final List<KeyRange> parts = range.split(maxParts);
+            Assert.assertTrue(parts.size() >= 1 && parts.size() <= maxParts);
+            Assert.assertEquals(parts.get(0).getMin(), range.getMin());
+            Assert.assertEquals(parts.get(parts.size() - 1).getMax(), range.getMax());
+            for (int j = 1; j < parts.size(); j++) {
+                Assert.assertEquals(parts.get(j).getMin(), parts.get(j - 1).getMax());
+                Assert.assertFalse(parts.get(j).isEmpty());
+            }
+        }
+    }
 }
 
@@ -7,18 +7,27 @@ package org.jsimpledb;
 
 import com.google.common.base.Converter;
 import com.google.common.base.Preconditions;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
 import com.google.common.primitives.Ints;
+import com.google.common.reflect.TypeToken;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 
 import org.dellroad.stuff.java.Primitive;
 import org.jsimpledb.core.DatabaseException;
 import org.jsimpledb.core.ObjId;
 import org.jsimpledb.core.Transaction;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.FieldVisitor;
 import org.objectweb.asm.MethodVisitor;
@@ -47,6 +56,7 @@ class ClassGenerator<T> {
     static final String JFIELD_FIELD_PREFIX = "$f";
     static final String CACHED_FIELD_PREFIX = "$fc";
     static final String ENUM_CONVERTER_FIELD_PREFIX = "$ec";
+    static final String FINGERPRINT_FIELD_NAME = "$fingerprint";
 
     // JObject method handles
     static final Method JOBJECT_GET_OBJ_ID_METHOD;
@@ -162,6 +172,7 @@ class ClassGenerator<T> {
 
     private Class<? extends T> subclass;
     private Constructor<? extends T> constructor;
+    private String fingerprint;
 
     /**
      * Constructor for application classes.
@@ -229,6 +240,66 @@ class ClassGenerator<T> {
         return Type.getInternalName(this.modelClass);
     }
 
+    /**
+     * Get the fingerprint embedded in the generated class, which is used to detect stale pre-generated class files.
+     *
+     * <p>
+     * The fingerprint is a hash of the JSimpleDB version, the class files of the model class and its supertypes,
+     * and the storage IDs of the model class and its fields.
+     */
+    public synchronized String getFingerprint() {
+        if (this.fingerprint == null) {
+            final Hasher hasher = Hashing.sha1().newHasher();
+            hasher.putString(Version.JSIMPLEDB_VERSION, StandardCharsets.UTF_8);
+            for (Class<?> type : TypeToken.of(this.modelClass).getTypes().rawTypes()) {
+                hasher.putString(type.getName(), StandardCharsets.UTF_8);
+                final ClassLoader loader = type.getClassLoader();
+                if (loader == null)                                     // skip JDK classes
+                    continue;
+                try (InputStream input = loader.getResourceAsStream(Type.getInternalName(type) + ".class")) {
+                    if (input != null)
+                        hasher.putBytes(ByteStreams.toByteArray(input));
+                } catch (IOException e) {
+                    this.log.debug("can't read class file for " + type + " (ignoring): " + e);
+                }
+            }
+            if (this.jclass != null) {
+                hasher.putInt(this.jclass.storageId);
+                for (JField jfield : this.jclass.jfields.values()) {
+                    hasher.putString(jfield.name, StandardCharsets.UTF_8).putInt(jfield.storageId);
+                    if (jfield instanceof JComplexField) {
+                        for (JSimpleField subField : ((JComplexField)jfield).getSubFields())
+                            hasher.putString(subField.name, StandardCharsets.UTF_8).putInt(subField.storageId);
+                    }
+                }
+            }
+            this.fingerprint = hasher.hash().toString();
+        }
+        return this.fingerprint;
+    }
+
+    /**
+     * Read the fingerprint embedded in a generated class file.
+     *
+     * @return the fingerprint, or null if none is found or the class file is invalid
+     */
+    static String readFingerprint(byte[] classfile) {
+        final String[] fingerprint = new String[1];
+        try {
+            new ClassReader(classfile).accept(new ClassVisitor(Opcodes.ASM5) {
+                @Override
+                public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+                    if (name.equals(FINGERPRINT_FIELD_NAME) && value instanceof String)
+                        fingerprint[0] = (String)value;
+                    return null;
+                }
+            }, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return fingerprint[0];
+    }
+
 // Database class
 
     /**
@@ -256,6 +327,12 @@ class ClassGenerator<T> {
 
     private void outputFields(ClassWriter cw) {
 
+        // Output "$fingerprint" field
+        final FieldVisitor fingerprintField = cw.visitField(
+          Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL | Opcodes.ACC_SYNTHETIC,
+          FINGERPRINT_FIELD_NAME, Type.getDescriptor(String.class), null, this.getFingerprint());
+        fingerprintField.visitEnd();
+
         // Output "$tx" field
         final FieldVisitor fv = cw.visitField(Opcodes.ACC_PROTECTED | Opcodes.ACC_FINAL | Opcodes.ACC_TRANSIENT,
           TX_FIELD_NAME, Type.getDescriptor(JTransaction.class), null, null);
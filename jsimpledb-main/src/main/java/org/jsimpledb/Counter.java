@@ -20,6 +20,10 @@ import org.jsimpledb.core.Transaction;
  * Counter fields do not support indexing or change listeners.
  *
  * <p>
+ * Frequently adjusted counters may be spread across multiple shards to reduce contention;
+ * see {@link org.jsimpledb.annotation.JField#counterShards &#64;JField.counterShards()}.
+ *
+ * <p>
  * Note: during schema version change notification, counter field values appear as plain {@code long} values.
  */
 public class Counter {
@@ -22,6 +22,7 @@ import java.util.SortedMap;
 import java.util.TreeMap;
 
 import org.jsimpledb.annotation.JSimpleClass;
+import org.jsimpledb.core.CounterField;
 import org.jsimpledb.core.DeleteAction;
 import org.jsimpledb.core.FieldType;
 import org.jsimpledb.core.ListField;
@@ -169,9 +170,13 @@ public class JClass<T> extends JSchemaObject {
                     throw new IllegalArgumentException("invalid " + description + ": counter fields must not specify a type");
                 if (annotation.indexed())
                     throw new IllegalArgumentException("invalid " + description + ": counter fields cannot be indexed");
+                if (annotation.counterShards() < 1 || annotation.counterShards() > CounterField.MAX_SHARDS) {
+                    throw new IllegalArgumentException("invalid " + description + ": counterShards() must be in the range 1.."
+                      + CounterField.MAX_SHARDS);
+                }
 
                 // Create counter field
-                final JCounterField jfield = new JCounterField(this.jdb, fieldName, storageId,
+                final JCounterField jfield = new JCounterField(this.jdb, fieldName, storageId, annotation.counterShards(),
                   "counter field `" + fieldName + "' of object type `" + this.name + "'", getter);
                 jfield.parent = this;
 
@@ -273,7 +278,7 @@ public class JClass<T> extends JSchemaObject {
               "element field of list field `" + fieldName + "' in object type `" + this.name + "'");
 
             // Create list field
-            final JListField jfield = new JListField(this.jdb, fieldName, storageId, elementField,
+            final JListField jfield = new JListField(this.jdb, fieldName, storageId, elementField, annotation.sparse(),
               "list field `" + fieldName + "' in object type `" + this.name + "'", getter);
             elementField.parent = jfield;
 
@@ -607,6 +612,8 @@ public class JClass<T> extends JSchemaObject {
             throw new IllegalArgumentException("invalid " + description + ": onDelete() only allowed on reference fields");
         if (!isReferenceType && annotation.cascadeDelete())
             throw new IllegalArgumentException("invalid " + description + ": cascadeDelete() only allowed on reference fields");
+        if (annotation.counterShards() != 1)
+            throw new IllegalArgumentException("invalid " + description + ": counterShards() only allowed on counter fields");
         if (!isReferenceType && annotation.unique() && !annotation.indexed())
             throw new IllegalArgumentException("invalid " + description + ": unique() constraint requires field to be indexed");
         if (nonReferenceType != null && nonReferenceType.getTypeToken().isPrimitive() && annotation.uniqueExcludeNull()) {
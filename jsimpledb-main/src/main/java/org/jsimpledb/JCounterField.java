@@ -19,8 +19,21 @@ import org.objectweb.asm.ClassWriter;
  */
 public class JCounterField extends JField {
 
-    JCounterField(JSimpleDB jdb, String name, int storageId, String description, Method getter) {
+    final int shards;
+
+    JCounterField(JSimpleDB jdb, String name, int storageId, int shards, String description, Method getter) {
         super(jdb, name, storageId, description, getter);
+        this.shards = shards;
+    }
+
+    /**
+     * Get the number of shards across which this counter's value is spread.
+     *
+     * @return number of counter shards, or one if this counter is not sharded
+     * @see org.jsimpledb.annotation.JField#counterShards
+     */
+    public int getShards() {
+        return this.shards;
     }
 
     @Override
@@ -38,6 +51,7 @@ public class JCounterField extends JField {
     CounterSchemaField toSchemaItem(JSimpleDB jdb) {
         final CounterSchemaField schemaField = new CounterSchemaField();
         this.initialize(jdb, schemaField);
+        schemaField.setShards(this.shards);
         return schemaField;
     }
 
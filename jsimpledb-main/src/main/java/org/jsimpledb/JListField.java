@@ -17,8 +17,22 @@ import org.jsimpledb.schema.ListSchemaField;
  */
 public class JListField extends JCollectionField {
 
-    JListField(JSimpleDB jdb, String name, int storageId, JSimpleField elementField, String description, Method getter) {
+    final boolean sparse;
+
+    JListField(JSimpleDB jdb, String name, int storageId, JSimpleField elementField,
+      boolean sparse, String description, Method getter) {
         super(jdb, name, storageId, elementField, description, getter);
+        this.sparse = sparse;
+    }
+
+    /**
+     * Determine whether this list field uses sparse element storage.
+     *
+     * @return whether list elements are stored sparsely
+     * @see org.jsimpledb.annotation.JListField#sparse
+     */
+    public boolean isSparse() {
+        return this.sparse;
     }
 
     @Override
@@ -36,6 +50,7 @@ public class JListField extends JCollectionField {
     ListSchemaField toSchemaItem(JSimpleDB jdb) {
         final ListSchemaField schemaField = new ListSchemaField();
         super.initialize(jdb, schemaField);
+        schemaField.setSparse(this.sparse);
         return schemaField;
     }
 
@@ -11,10 +11,14 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Iterables;
+import com.google.common.io.ByteStreams;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.AnnotatedElement;
+import java.net.URL;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
@@ -26,6 +30,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.validation.Validation;
 import javax.validation.ValidatorFactory;
@@ -78,6 +83,7 @@ import org.slf4j.LoggerFactory;
  * User-provided Java model classes define database fields by declaring abstract Java bean property methods.
  * {@link JSimpleDB} generates concrete subclasses of the user-provided abstract model classes at runtime.
  * These runtime classes implement the abstract bean property methods, as well as the {@link JObject} interface.
+ * They may also be pre-generated at build time; see {@link #generateClassFiles}.
  * Java model class instances are always associated with a specific {@link JTransaction}, and all of their database
  * state derives from that the underlying key/value {@link org.jsimpledb.kv.KVTransaction}.
  *
@@ -134,6 +140,7 @@ public class JSimpleDB {
     final Transaction.ListenerSet[] listenerSets = new Transaction.ListenerSet[4];
 
     ValidatorFactory validatorFactory;
+    volatile ForkJoinPool validationPool;
 
     volatile int actualVersion;
 
@@ -623,6 +630,29 @@ public class JSimpleDB {
         return this.nameIndex;
     }
 
+// Generated Classes
+
+    /**
+     * Generate the class files for the Java model subclasses that this instance would otherwise generate at runtime.
+     *
+     * <p>
+     * This method is intended for build tools that pre-generate these subclasses. If a class file for a generated
+     * subclass (named by appending {@link #GENERATED_CLASS_NAME_SUFFIX} to the model class name) is found on the
+     * classpath, it is loaded directly instead of being generated. Each generated class embeds a fingerprint of its
+     * model class, and a pre-generated class file whose fingerprint does not match (e.g., because the model class
+     * changed without the class files being regenerated) is ignored and the class is generated at runtime instead.
+     *
+     * @return mapping from generated class name to class file contents
+     */
+    public SortedMap<String, byte[]> generateClassFiles() {
+        final TreeMap<String, byte[]> classFiles = new TreeMap<>();
+        for (JClass<?> jclass : this.jclasses.values()) {
+            final ClassGenerator<?> generator = jclass.getClassGenerator();
+            classFiles.put(generator.getClassName().replace('/', '.'), generator.generateBytecode());
+        }
+        return classFiles;
+    }
+
 // JClass access
 
     /**
@@ -806,6 +836,46 @@ public class JSimpleDB {
         return this.validatorFactory;
     }
 
+    /**
+     * Configure a {@link ForkJoinPool} to be used for parallel validation within transactions.
+     *
+     * <p>
+     * By default, {@link JTransaction#validate} validates the objects in the validation queue one at a time in the
+     * current thread. If a {@link ForkJoinPool} is configured here, the validation queue is instead partitioned
+     * across the pool's threads, which can significantly reduce commit latency for transactions that modify many objects.
+     *
+     * <p>
+     * Parallel validation is only appropriate when all JSR 303 validators and
+     * {@link org.jsimpledb.annotation.OnValidate &#64;OnValidate} methods are free of side effects and safe to invoke
+     * concurrently, and the underlying key/value transactions support concurrent access. Validation failures are
+     * reported deterministically: if any object fails validation, the {@link ValidationException} thrown is the one
+     * associated with the lowest {@link ObjId} that failed, and all objects following that one in {@link ObjId}
+     * order are left on the validation queue.
+     *
+     * <p>
+     * Validation threads share the transaction, so the speedup is limited by how much of the work actually happens
+     * in parallel. Unless the {@link org.jsimpledb.core.Transaction} is in {@linkplain
+     * org.jsimpledb.core.Transaction#setConcurrentReads concurrent read mode}, every core API read synchronizes on the
+     * transaction, so validators that mostly read fields will largely be serialized; the benefit is greatest when
+     * validators do expensive work other than reading. Concurrent read mode is not enabled automatically, because it
+     * disallows all modifications, including any made by {@link org.jsimpledb.annotation.OnValidate &#64;OnValidate}
+     * methods and automatic schema version updates.
+     *
+     * @param validationPool pool for parallel validation, or null to validate sequentially in the current thread
+     */
+    public void setValidationPool(ForkJoinPool validationPool) {
+        this.validationPool = validationPool;
+    }
+
+    /**
+     * Get the {@link ForkJoinPool} used for parallel validation, if any.
+     *
+     * @return pool for parallel validation, or null if validation is sequential
+     */
+    ForkJoinPool getValidationPool() {
+        return this.validationPool;
+    }
+
 // Misc utility
 
     /**
@@ -951,17 +1021,48 @@ public class JSimpleDB {
             super(Thread.currentThread().getContextClassLoader());
         }
 
-        // Find matching ClassGenerator, if any, otherwise defer to parent
+        // Define generated classes ourselves, using an up-to-date pre-generated class file if available, otherwise defer to parent
         @Override
-        protected Class<?> findClass(String name) throws ClassNotFoundException {
-            byte[] bytes = null;
-            for (ClassGenerator<?> generator : JSimpleDB.this.classGenerators) {
-                if (name.equals(generator.getClassName().replace('/', '.'))) {
-                    bytes = generator.generateBytecode();
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            ClassGenerator<?> generator = null;
+            for (ClassGenerator<?> classGenerator : JSimpleDB.this.classGenerators) {
+                if (name.equals(classGenerator.getClassName().replace('/', '.'))) {
+                    generator = classGenerator;
                     break;
                 }
             }
-            return bytes != null ? this.defineClass(name, bytes, 0, bytes.length) : super.findClass(name);
+            if (generator == null)
+                return super.loadClass(name, resolve);
+            synchronized (this.getClassLoadingLock(name)) {
+                Class<?> cl = this.findLoadedClass(name);
+                if (cl == null) {
+                    byte[] bytes = this.readClassFile(name);
+                    if (bytes != null && !generator.getFingerprint().equals(ClassGenerator.readFingerprint(bytes))) {
+                        JSimpleDB.this.log.warn("ignoring stale pre-generated class " + name
+                          + " (fingerprint mismatch); regenerating it instead");
+                        bytes = null;
+                    }
+                    if (bytes == null)
+                        bytes = generator.generateBytecode();
+                    cl = this.defineClass(name, bytes, 0, bytes.length);
+                }
+                if (resolve)
+                    this.resolveClass(cl);
+                return cl;
+            }
+        }
+
+        // Read pre-generated class file from the parent loader's classpath, if any
+        private byte[] readClassFile(String name) throws ClassNotFoundException {
+            final URL url = this.getResource(name.replace('.', '/') + ".class");
+            if (url == null)
+                return null;
+            JSimpleDB.this.log.debug("loading pre-generated class " + name + " from " + url);
+            try (InputStream input = url.openStream()) {
+                return ByteStreams.toByteArray(input);
+            } catch (IOException e) {
+                throw new ClassNotFoundException("error reading pre-generated class file " + url, e);
+            }
         }
     }
 
@@ -8,6 +8,7 @@ package org.jsimpledb;
 import com.google.common.base.Preconditions;
 
 import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.validation.ValidatorFactory;
 
@@ -30,6 +31,7 @@ public class JSimpleDBFactory {
     private StorageIdGenerator storageIdGenerator = new DefaultStorageIdGenerator();
     private Iterable<? extends Class<?>> modelClasses;
     private ValidatorFactory validatorFactory;
+    private ForkJoinPool validationPool;
 
     /**
      * Configure the Java model classes.
@@ -122,6 +124,21 @@ public class JSimpleDBFactory {
         return this;
     }
 
+    /**
+     * Configure a {@link ForkJoinPool} to be used for parallel validation within transactions.
+     *
+     * <p>
+     * By default, validation occurs sequentially in the current thread.
+     *
+     * @param validationPool pool for parallel validation, or null to validate sequentially
+     * @return this instance
+     * @see JSimpleDB#setValidationPool JSimpleDB.setValidationPool()
+     */
+    public JSimpleDBFactory setValidationPool(ForkJoinPool validationPool) {
+        this.validationPool = validationPool;
+        return this;
+    }
+
     /**
      * Construct a {@link JSimpleDB} instance using this instance's configuration.
      *
@@ -140,6 +157,7 @@ public class JSimpleDBFactory {
         final JSimpleDB jdb = new JSimpleDB(database1, schemaVersion1, this.storageIdGenerator, this.modelClasses);
         if (this.validatorFactory != null)
             jdb.setValidatorFactory(this.validatorFactory);
+        jdb.setValidationPool(this.validationPool);
         return jdb;
     }
 }
@@ -19,12 +19,17 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.NavigableSet;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
@@ -36,6 +41,7 @@ import net.jcip.annotations.ThreadSafe;
 
 import org.dellroad.stuff.validation.ValidationContext;
 import org.dellroad.stuff.validation.ValidationUtil;
+import org.jsimpledb.change.SimpleFieldChange;
 import org.jsimpledb.core.CoreIndex;
 import org.jsimpledb.core.CoreIndex2;
 import org.jsimpledb.core.CoreIndex3;
@@ -60,13 +66,20 @@ import org.jsimpledb.core.TypeNotInSchemaVersionException;
 import org.jsimpledb.core.UnknownFieldException;
 import org.jsimpledb.core.VersionChangeListener;
 import org.jsimpledb.core.util.ObjIdMap;
+import org.jsimpledb.core.util.ObjIdSet;
 import org.jsimpledb.index.Index;
 import org.jsimpledb.index.Index2;
 import org.jsimpledb.index.Index3;
 import org.jsimpledb.index.Index4;
 import org.jsimpledb.kv.KVDatabaseException;
+import org.jsimpledb.kv.KVStore;
+import org.jsimpledb.kv.KeyRange;
 import org.jsimpledb.kv.KeyRanges;
 import org.jsimpledb.kv.util.AbstractKVNavigableSet;
+import org.jsimpledb.tuple.Tuple2;
+import org.jsimpledb.tuple.Tuple3;
+import org.jsimpledb.tuple.Tuple4;
+import org.jsimpledb.tuple.Tuple5;
 import org.jsimpledb.util.ConvertedNavigableMap;
 import org.jsimpledb.util.ConvertedNavigableSet;
 import org.slf4j.Logger;
@@ -127,6 +140,8 @@ import org.slf4j.LoggerFactory;
  *  <li>{@link #queryCompositeIndex(Class, String, Class, Class, Class, Class) queryCompositeIndex()}
  *      - Access a composite index defined on four fields</li>
  *  <!-- COMPOSITE-INDEX -->
+ *  <li>{@link #queryIndexEntries queryIndexEntries()}, {@link #queryCompositeIndexEntries(Class, String, Class, Class)
+ *      queryCompositeIndexEntries()} - Get index entries as tuples without accessing the indexed objects</li>
  *  <li>{@link #queryVersion queryVersion()} - Get database objects grouped according to their schema versions</li>
  * </ul>
  *
@@ -143,6 +158,8 @@ import org.slf4j.LoggerFactory;
  *  <li>{@link #getSnapshotTransaction getSnapshotTransaction()} - Get the default in-memory snapshot transaction
  *      associated with this transaction</li>
  *  <li>{@link #createSnapshotTransaction createSnapshotTransaction()} - Create a new in-memory snapshot transaction</li>
+ *  <li>{@link #createMutableSnapshotTransaction createMutableSnapshotTransaction()} - Create a copy-on-write
+ *      snapshot transaction containing all of this transaction's content</li>
  *  <li>{@link #isSnapshot} - Determine whether this transaction is a snapshot transaction</li>
  *  <li>{@link #copyTo(JTransaction, JObject, ObjId, CopyState, String[]) copyTo()}
  *      - Copy an object into another transaction</li>
@@ -193,6 +210,8 @@ public class JTransaction {
     private static final Class<?>[] DEFAULT_CLASS_ARRAY = { Default.class };
     private static final Class<?>[] DEFAULT_AND_UNIQUENESS_CLASS_ARRAY = { Default.class, UniquenessConstraints.class };
     private static final int MAX_UNIQUE_CONFLICTORS = 5;
+    private static final int PARALLEL_VALIDATION_BATCH_SIZE = 100;
+    private static final Object NOT_UNIQUE = new Object();
 
     final Logger log = LoggerFactory.getLogger(this.getClass());
 
@@ -200,8 +219,10 @@ public class JTransaction {
     final Transaction tx;
 
     private final ValidationMode validationMode;
-    @GuardedBy("this")
+    @GuardedBy("validationQueue")
     private final ObjIdMap<Class<?>[]> validationQueue = new ObjIdMap<>();  // maps object -> groups for pending validation
+    @GuardedBy("deferredChanges")
+    private final LinkedHashMap<List<Object>, DeferredChange> deferredChanges = new LinkedHashMap<>();
     private final JObjectCache jobjectCache = new JObjectCache(this);
     private final ReferenceConverter<JObject> referenceConverter = new ReferenceConverter<>(this, JObject.class);
 
@@ -359,6 +380,68 @@ public class JTransaction {
         return new ConvertedNavigableSet<T, ObjId>(ids, new ReferenceConverter<T>(this, type));
     }
 
+    /**
+     * Get all instances of the given type, partitioned into disjoint views suitable for parallel processing.
+     *
+     * <p>
+     * The union of the returned sets equals {@link #getAll getAll(type)}, and each returned set may be iterated
+     * independently, e.g., by a separate thread; see {@link org.jsimpledb.core.Transaction#setConcurrentReads
+     * Transaction.setConcurrentReads()} regarding concurrent access.
+     *
+     * <p>
+     * Object IDs consist of the object type's storage ID followed by random bytes, so they are uniformly distributed
+     * within each object type, but not across object types. Therefore, when {@code type} matches a single object type,
+     * the partitions are contiguous and are chosen by splitting that type's object ID key space, so they will be
+     * approximately balanced. When {@code type} matches several object types, each object type's key space is split
+     * separately and each partition contains a corresponding piece from every object type; this keeps the partitions
+     * approximately balanced regardless of how many instances of each object type exist, but some partitions may be
+     * empty when there are very few instances.
+     *
+     * @param type any Java type; use {@link Object Object.class} to return all database objects
+     * @param maxParts maximum number of partitions
+     * @param <T> containing Java type
+     * @return non-empty list of at most {@code maxParts} live views of instances of {@code type}
+     * @throws IllegalArgumentException if {@code type} is null
+     * @throws IllegalArgumentException if {@code maxParts} is not positive
+     * @throws StaleTransactionException if this transaction is no longer usable
+     * @see AbstractKVNavigableSet#split AbstractKVNavigableSet.split()
+     * @see KeyRange#split KeyRange.split()
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<NavigableSet<T>> partitionAll(Class<T> type, int maxParts) {
+        Preconditions.checkArgument(type != null, "null type");
+        Preconditions.checkArgument(maxParts > 0, "non-positive maxParts");
+        AbstractKVNavigableSet<ObjId> ids = (AbstractKVNavigableSet<ObjId>)this.tx.getAll();
+        final ArrayList<NavigableSet<T>> parts = new ArrayList<>(maxParts);
+
+        // Split each object type's key range separately; the i'th partition gets the i'th piece of every type
+        final List<? extends JClass<?>> jclasses = this.jdb.getJClasses(type);
+        if (jclasses.size() > 1) {
+            final ArrayList<ArrayList<KeyRange>> pieces = new ArrayList<>(maxParts);
+            for (JClass<?> jclass : jclasses) {
+                final List<KeyRange> typePieces = ObjId.getKeyRange(jclass.storageId).split(maxParts);
+                for (int i = 0; i < typePieces.size(); i++) {
+                    if (i == pieces.size())
+                        pieces.add(new ArrayList<KeyRange>(jclasses.size()));
+                    pieces.get(i).add(typePieces.get(i));
+                }
+            }
+            for (ArrayList<KeyRange> partRanges : pieces) {
+                parts.add(new ConvertedNavigableSet<T, ObjId>(ids.filterKeys(new KeyRanges(partRanges)),
+                  new ReferenceConverter<T>(this, type)));
+            }
+            return parts;
+        }
+
+        // Split a single object type's key range (or, for UntypedJObject, the remaining key space) contiguously
+        final KeyRanges keyRanges = this.jdb.keyRangesFor(type);
+        if (!keyRanges.isFull())
+            ids = (AbstractKVNavigableSet<ObjId>)ids.filterKeys(keyRanges);
+        for (NavigableSet<ObjId> part : ids.split(maxParts))
+            parts.add(new ConvertedNavigableSet<T, ObjId>(part, new ReferenceConverter<T>(this, type)));
+        return parts;
+    }
+
     /**
      * Get all instances of the given type, grouped according to schema version.
      *
@@ -471,6 +554,49 @@ public class JTransaction {
         return new SnapshotJTransaction(this.jdb, this.tx.createSnapshotTransaction(), validationMode);
     }
 
+    /**
+     * Create an empty snapshot transaction based on this instance and the given key/value store.
+     *
+     * <p>
+     * This method is the same as {@link #createSnapshotTransaction(ValidationMode)}, except that the snapshot transaction's
+     * data is stored in {@code kvstore}, which must be empty. This allows, for example, large snapshots to be stored
+     * in a more compact in-memory {@link KVStore} implementation.
+     *
+     * @param kvstore empty key/value store
+     * @param validationMode the {@link ValidationMode} to use for the new transaction
+     * @return newly created snapshot transaction
+     * @throws IllegalArgumentException if {@code kvstore} or {@code validationMode} is null
+     * @throws org.jsimpledb.core.StaleTransactionException if this instance is no longer usable
+     * @see org.jsimpledb.core.Transaction#createSnapshotTransaction(KVStore)
+     */
+    public SnapshotJTransaction createSnapshotTransaction(KVStore kvstore, ValidationMode validationMode) {
+        return new SnapshotJTransaction(this.jdb, this.tx.createSnapshotTransaction(kvstore), validationMode);
+    }
+
+    /**
+     * Create a snapshot transaction containing a copy-on-write copy of this transaction's entire database content.
+     *
+     * <p>
+     * No data is copied up front; instead, objects are read lazily from a key/value store snapshot, and any changes are
+     * kept privately in memory. This is useful when a consistent, detached, mutable view of some (possibly large) set of
+     * objects is needed after this transaction ends. The returned transaction should be {@linkplain SnapshotJTransaction#close
+     * closed} when no longer needed; it is closed automatically if this transaction does not commit.
+     *
+     * <p>
+     * This requires that the underlying key/value store support {@link org.jsimpledb.kv.KVTransaction#mutableSnapshot}.
+     *
+     * @param validationMode the {@link ValidationMode} to use for the new transaction
+     * @return snapshot transaction containing this transaction's content
+     * @throws IllegalArgumentException if {@code validationMode} is null
+     * @throws UnsupportedOperationException if the underlying key/value store does not support mutable snapshots
+     * @throws org.jsimpledb.core.StaleTransactionException if this instance is no longer usable
+     * @see org.jsimpledb.core.Transaction#createMutableSnapshotTransaction
+     */
+    public SnapshotJTransaction createMutableSnapshotTransaction(ValidationMode validationMode) {
+        Preconditions.checkArgument(validationMode != null, "null validationMode");
+        return new SnapshotJTransaction(this.jdb, this.tx.createMutableSnapshotTransaction(), validationMode);
+    }
+
     /**
      * Copy the specified object, and any other objects referneced through the specified reference paths,
      * into the specified destination transaction.
@@ -628,6 +754,10 @@ public class JTransaction {
      * applies instead). Otherwise, a {@link DeletedObjectException} is thrown and it is indeterminate which objects were copied.
      *
      * <p>
+     * The objects are copied in bulk: they are first gathered, then copied in sorted order in as few core API
+     * operations as possible. This minimizes per-object overhead when copying large numbers of objects.
+     *
+     * <p>
      * Note: if two threads attempt to copy objects between the same two transactions at the same time but in opposite directions,
      * deadlock could result.
      *
@@ -653,7 +783,9 @@ public class JTransaction {
         // Reset deleted assignments
         copyState.deletedAssignments.clear();
 
-        // Copy objects
+        // Gather objects not already copied, separating those that require listener notifications
+        final ObjIdSet notifyIds = new ObjIdSet();
+        final ObjIdSet suppressIds = new ObjIdSet();
         for (JObject jobj : jobjs) {
 
             // Get next object
@@ -663,9 +795,36 @@ public class JTransaction {
             // Handle possible re-entrant object cache load
             JTransaction.registerJObject(jobj);
 
-            // Copy object
+            // Mark object copied
             final ObjId id = jobj.getObjId();
-            this.copyTo(copyState, dest, id, id, true, 0, new int[0]);
+            if (!copyState.markCopied(id))
+                continue;
+            if (this.isDisableListenerNotifications(copyState, dest, id))
+                suppressIds.add(id);
+            else
+                notifyIds.add(id);
+
+            // Reset any cached fields in the destination object
+            final JObject dstObject = dest.jobjectCache.getIfExists(id);
+            if (dstObject != null)
+                dstObject.resetCachedFieldValues();
+        }
+
+        // Copy objects in bulk at the core API level
+        final ObjIdMap<ReferenceField> coreDeletedAssignments = new ObjIdMap<>();
+        final ObjIdMap<ObjId> coreDeletedAssignmentReferrers = new ObjIdMap<>();
+        if (!suppressIds.isEmpty())
+            this.tx.copy(suppressIds, dest.tx, true, false, coreDeletedAssignments, coreDeletedAssignmentReferrers);
+        if (!notifyIds.isEmpty())
+            this.tx.copy(notifyIds, dest.tx, true, true, coreDeletedAssignments, coreDeletedAssignmentReferrers);
+
+        // Add any deleted assignments not satisfied by either bulk copy
+        for (Map.Entry<ObjId, ReferenceField> entry : coreDeletedAssignments.entrySet()) {
+            final ObjId targetId = entry.getKey();
+            if (dest.tx.exists(targetId))
+                continue;
+            final ObjId referrer = coreDeletedAssignmentReferrers.get(targetId);
+            copyState.deletedAssignments.put(targetId, new DeletedAssignment(referrer, entry.getValue()));
         }
 
         // Check for any remining deleted assignments
@@ -678,12 +837,7 @@ public class JTransaction {
         if (copyState.markCopied(dstId)) {
 
             // See if we can disable listener notifications
-            boolean disableListenerNotifications = copyState.isSuppressNotifications();
-            if (!disableListenerNotifications && dest.isSnapshot()) {
-                final JClass<?> jclass = this.jdb.jclasses.get(dstId.getStorageId());
-                if (jclass != null)
-                    disableListenerNotifications = !jclass.hasSnapshotCreateOrChangeMethods;
-            }
+            final boolean disableListenerNotifications = this.isDisableListenerNotifications(copyState, dest, dstId);
 
             // Reset any cached fields in the destination object
             final JObject dstObject = dest.jobjectCache.getIfExists(dstId);
@@ -736,6 +890,16 @@ public class JTransaction {
         }
     }
 
+    // Determine whether we can disable listener notifications when copying the specified object into dest
+    private boolean isDisableListenerNotifications(CopyState copyState, JTransaction dest, ObjId dstId) {
+        if (copyState.isSuppressNotifications())
+            return true;
+        if (!dest.isSnapshot())
+            return false;
+        final JClass<?> jclass = this.jdb.jclasses.get(dstId.getStorageId());
+        return jclass != null && !jclass.hasSnapshotCreateOrChangeMethods;
+    }
+
 // Object/Field Access
 
     /**
@@ -863,7 +1027,7 @@ public class JTransaction {
 
         // Remove object from validation queue if enqueued
         if (deleted) {
-            synchronized (this) {
+            synchronized (this.validationQueue) {
                 this.validationQueue.remove(id);
             }
         }
@@ -876,6 +1040,56 @@ public class JTransaction {
         return deleted;
     }
 
+    /**
+     * Delete multiple objects in this transaction.
+     *
+     * <p>
+     * This is more efficient than deleting the objects one at a time when there are many objects.
+     * See {@link org.jsimpledb.core.Transaction#delete(Iterable) Transaction.delete()} for details on how
+     * batches of objects and their secondary deletions are processed.
+     *
+     * @param jobjs the objects to delete
+     * @return the number of objects in {@code jobjs} that were found and deleted
+     * @throws org.jsimpledb.core.ReferencedObjectException if an object is referenced by some other object
+     *  through a reference field configured for {@link org.jsimpledb.core.DeleteAction#EXCEPTION}
+     * @throws StaleTransactionException if this transaction is no longer usable
+     * @throws IllegalArgumentException if {@code jobjs} is null
+     * @throws NullPointerException if {@code jobjs} contains a null element
+     */
+    public int delete(Iterable<? extends JObject> jobjs) {
+
+        // Sanity check
+        Preconditions.checkArgument(jobjs != null, "null jobjs");
+
+        // Handle possible re-entrant object cache load
+        final ArrayList<JObject> jobjList = new ArrayList<>();
+        final ArrayList<ObjId> ids = new ArrayList<>();
+        for (JObject jobj : jobjs) {
+            JTransaction.registerJObject(jobj);
+            jobjList.add(jobj);
+            ids.add(jobj.getObjId());
+        }
+
+        // Delete objects
+        final int count = this.tx.delete(ids);
+        if (count == 0)
+            return 0;
+
+        // Remove deleted objects from validation queue and reset their cached field values
+        for (JObject jobj : jobjList) {
+            final ObjId id = jobj.getObjId();
+            if (this.tx.exists(id))
+                continue;
+            synchronized (this.validationQueue) {
+                this.validationQueue.remove(id);
+            }
+            jobj.resetCachedFieldValues();
+        }
+
+        // Done
+        return count;
+    }
+
     /**
      * Determine whether the object with the given object ID exists in this transaction.
      *
@@ -891,6 +1105,28 @@ public class JTransaction {
         return this.tx.exists(id);
     }
 
+    /**
+     * Prefetch the given objects' simple field values into this transaction's caches.
+     *
+     * <p>
+     * This is an optimization for key/value stores that access data over a network, where each individual field
+     * read would otherwise require a separate round trip. For example, invoking this method on a page of query results
+     * before displaying them replaces one read per object per field with a few range reads per object.
+     * Field values are only prefetched if {@linkplain org.jsimpledb.core.Database#setFieldValueCaching field value caching}
+     * is enabled. See {@link Transaction#loadObjects Transaction.loadObjects()} for details.
+     *
+     * @param jobjs the objects to prefetch
+     * @return the number of objects found and loaded
+     * @throws StaleTransactionException if this transaction is no longer usable
+     * @throws NullPointerException if {@code jobjs} or any element is null
+     */
+    public int prefetch(Iterable<? extends JObject> jobjs) {
+        final ArrayList<ObjId> ids = new ArrayList<>();
+        for (JObject jobj : jobjs)
+            ids.add(jobj.getObjId());
+        return this.tx.loadObjects(ids);
+    }
+
     /**
      * Recreate the given instance in this transaction.
      *
@@ -935,13 +1171,16 @@ public class JTransaction {
      * @throws StaleTransactionException if this transaction is no longer usable
      * @throws IllegalStateException if transaction commit is already in progress
      */
-    public synchronized void resetValidationQueue() {
+    public void resetValidationQueue() {
         if (!this.tx.isValid())
             throw new StaleTransactionException(this.tx);
-        this.validationQueue.clear();
+        synchronized (this.validationQueue) {
+            this.validationQueue.clear();
+        }
     }
 
-    private synchronized void revalidate(Collection<? extends ObjId> ids, Class<?>... groups) {
+    // Not synchronized on this instance, because validation threads may get here via schema version change notifications
+    private void revalidate(Collection<? extends ObjId> ids, Class<?>... groups) {
 
         // Sanity checks
         if (!this.tx.isValid())
@@ -957,17 +1196,19 @@ public class JTransaction {
             groups = DEFAULT_CLASS_ARRAY;
 
         // Add to queue
-        for (ObjId id : ids) {
-            final Class<?>[] existingGroups = this.validationQueue.get(id);
-            if (existingGroups == null) {
-                this.validationQueue.put(id, groups);
-                continue;
+        synchronized (this.validationQueue) {
+            for (ObjId id : ids) {
+                final Class<?>[] existingGroups = this.validationQueue.get(id);
+                if (existingGroups == null) {
+                    this.validationQueue.put(id, groups);
+                    continue;
+                }
+                if (existingGroups == groups)                                   // i.e., both are DEFAULT_CLASS_ARRAY
+                    continue;
+                final HashSet<Class<?>> newGroups = new HashSet<>(Arrays.asList(existingGroups));
+                newGroups.addAll(Arrays.asList(groups));
+                this.validationQueue.put(id, newGroups.toArray(new Class<?>[newGroups.size()]));
             }
-            if (existingGroups == groups)                                       // i.e., both are DEFAULT_CLASS_ARRAY
-                continue;
-            final HashSet<Class<?>> newGroups = new HashSet<>(Arrays.asList(existingGroups));
-            newGroups.addAll(Arrays.asList(groups));
-            this.validationQueue.put(id, newGroups.toArray(new Class<?>[newGroups.size()]));
         }
     }
 
@@ -1231,6 +1472,10 @@ public class JTransaction {
     /**
      * Get the composite index on a list field that includes list indicies.
      *
+     * <p>
+     * For {@linkplain org.jsimpledb.annotation.JListField#sparse sparse} list fields, the list indicies are element positions,
+     * which have the same ordering as list indicies but are not consecutive.
+     *
      * @param targetType type containing the indexed field; may also be any super-type (e.g., an interface type),
      *  as long as {@code fieldName} is not ambiguous among all sub-types
      * @param fieldName name of the indexed field; must include {@code "element"} sub-field name (e.g., {@code "mylist.element"})
@@ -1451,6 +1696,143 @@ public class JTransaction {
             return new ConvertedIndex(this.tx.queryIndex(fieldInfo.storageId), valueConverter, this.referenceConverter);
     }
 
+    /**
+     * Get the approximate number of entries in the index on the specified simple field or composite index
+     * without iterating the index.
+     *
+     * <p>
+     * Requires {@linkplain org.jsimpledb.core.Database#setIndexStatistics index statistics} to be enabled
+     * on the underlying {@link org.jsimpledb.core.Database}; see
+     * {@link org.jsimpledb.core.Transaction#estimateIndexSize Transaction.estimateIndexSize()} for details.
+     *
+     * @param storageId indexed simple field or composite index storage ID
+     * @return approximate number of index entries, or -1 if no statistics are recorded for the index
+     * @throws StaleTransactionException if this transaction is no longer usable
+     */
+    public long estimateIndexSize(int storageId) {
+        return this.tx.estimateIndexSize(storageId);
+    }
+
+    /**
+     * Get the entries of the index on a simple field as ({@code value}, {@link ObjId}) tuples, decoded directly
+     * from the index without accessing the indexed objects.
+     *
+     * <p>
+     * This is equivalent to {@link #queryIndex(Class, String, Class) queryIndex()}{@code .asSet()}, except that
+     * target objects are identified by {@link ObjId} rather than by Java model object, so iterating the returned set
+     * does not require any {@link JObject} instances.
+     *
+     * @param targetType Java type containing the indexed field; may also be any super-type (e.g., an interface type),
+     *  as long as {@code fieldName} is not ambiguous among all sub-types
+     * @param fieldName name of the indexed field; for complex fields,
+     *  must include the sub-field name (e.g., {@code "mylist.element"}, {@code "mymap.key"})
+     * @param valueType the Java type corresponding to the field value
+     * @param <V> Java type corresponding to the indexed field
+     * @return read-only, real-time view of the index entries
+     * @throws IllegalArgumentException if any parameter is null, or invalid
+     * @throws StaleTransactionException if this transaction is no longer usable
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public <V> NavigableSet<Tuple2<V, ObjId>> queryIndexEntries(Class<?> targetType, String fieldName, Class<V> valueType) {
+        final IndexInfo info = this.jdb.getIndexInfo(new IndexInfoKey(fieldName, false, targetType, valueType));
+        final CoreIndex<?, ObjId> index = info.applyFilters(this.tx.queryIndex(info.fieldInfo.storageId));
+        final Converter<?, ?> valueConverter = this.getReverseConverter(info.fieldInfo);
+        return new ConvertedIndex(index, valueConverter, Converter.<ObjId>identity()).asSet();
+    }
+
+    /**
+     * Get the entries of a composite index on two fields as ({@code value1}, {@code value2}, {@link ObjId}) tuples,
+     * decoded directly from the index without accessing the indexed objects.
+     *
+     * <p>
+     * All of the indexed field values are encoded in each index entry, so queries that only need those values
+     * (e.g., reports) can be answered from the index alone, instead of following each object ID and re-reading
+     * the same fields. This is equivalent to
+     * {@link #queryCompositeIndex(Class, String, Class, Class) queryCompositeIndex()}{@code .asSet()}, except that
+     * target objects are identified by {@link ObjId} rather than by Java model object.
+     *
+     * @param targetType type containing the indexed fields; may also be any super-type (e.g., an interface type)
+     * @param indexName the name of the composite index
+     * @param value1Type the Java type corresponding to the first field value
+     * @param value2Type the Java type corresponding to the second field value
+     * @param <V1> Java type corresponding to the first indexed field
+     * @param <V2> Java type corresponding to the second indexed field
+     * @return read-only, real-time view of the index entries
+     * @throws IllegalArgumentException if any parameter is null, or invalid
+     * @throws StaleTransactionException if this transaction is no longer usable
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public <V1, V2> NavigableSet<Tuple3<V1, V2, ObjId>> queryCompositeIndexEntries(Class<?> targetType,
+      String indexName, Class<V1> value1Type, Class<V2> value2Type) {
+        final IndexInfo info = this.jdb.getIndexInfo(new IndexInfoKey(indexName, true, targetType, value1Type, value2Type));
+        final CoreIndex2<?, ?, ObjId> index = info.applyFilters(this.tx.queryCompositeIndex2(info.indexInfo.storageId));
+        final Converter<?, ?> value1Converter = this.getReverseConverter(info.indexInfo.jfieldInfos.get(0));
+        final Converter<?, ?> value2Converter = this.getReverseConverter(info.indexInfo.jfieldInfos.get(1));
+        return new ConvertedIndex2(index, value1Converter, value2Converter, Converter.<ObjId>identity()).asSet();
+    }
+
+    /**
+     * Get the entries of a composite index on three fields as tuples, decoded directly from the index
+     * without accessing the indexed objects.
+     *
+     * @param targetType type containing the indexed fields; may also be any super-type (e.g., an interface type)
+     * @param indexName the name of the composite index
+     * @param value1Type the Java type corresponding to the first field value
+     * @param value2Type the Java type corresponding to the second field value
+     * @param value3Type the Java type corresponding to the third field value
+     * @param <V1> Java type corresponding to the first indexed field
+     * @param <V2> Java type corresponding to the second indexed field
+     * @param <V3> Java type corresponding to the third indexed field
+     * @return read-only, real-time view of the index entries
+     * @throws IllegalArgumentException if any parameter is null, or invalid
+     * @throws StaleTransactionException if this transaction is no longer usable
+     * @see #queryCompositeIndexEntries(Class, String, Class, Class)
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public <V1, V2, V3> NavigableSet<Tuple4<V1, V2, V3, ObjId>> queryCompositeIndexEntries(Class<?> targetType,
+      String indexName, Class<V1> value1Type, Class<V2> value2Type, Class<V3> value3Type) {
+        final IndexInfo info = this.jdb.getIndexInfo(new IndexInfoKey(indexName,
+          true, targetType, value1Type, value2Type, value3Type));
+        final CoreIndex3<?, ?, ?, ObjId> index = info.applyFilters(this.tx.queryCompositeIndex3(info.indexInfo.storageId));
+        final Converter<?, ?> value1Converter = this.getReverseConverter(info.indexInfo.jfieldInfos.get(0));
+        final Converter<?, ?> value2Converter = this.getReverseConverter(info.indexInfo.jfieldInfos.get(1));
+        final Converter<?, ?> value3Converter = this.getReverseConverter(info.indexInfo.jfieldInfos.get(2));
+        return new ConvertedIndex3(index, value1Converter, value2Converter, value3Converter, Converter.<ObjId>identity()).asSet();
+    }
+
+    /**
+     * Get the entries of a composite index on four fields as tuples, decoded directly from the index
+     * without accessing the indexed objects.
+     *
+     * @param targetType type containing the indexed fields; may also be any super-type (e.g., an interface type)
+     * @param indexName the name of the composite index
+     * @param value1Type the Java type corresponding to the first field value
+     * @param value2Type the Java type corresponding to the second field value
+     * @param value3Type the Java type corresponding to the third field value
+     * @param value4Type the Java type corresponding to the fourth field value
+     * @param <V1> Java type corresponding to the first indexed field
+     * @param <V2> Java type corresponding to the second indexed field
+     * @param <V3> Java type corresponding to the third indexed field
+     * @param <V4> Java type corresponding to the fourth indexed field
+     * @return read-only, real-time view of the index entries
+     * @throws IllegalArgumentException if any parameter is null, or invalid
+     * @throws StaleTransactionException if this transaction is no longer usable
+     * @see #queryCompositeIndexEntries(Class, String, Class, Class)
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public <V1, V2, V3, V4> NavigableSet<Tuple5<V1, V2, V3, V4, ObjId>> queryCompositeIndexEntries(Class<?> targetType,
+      String indexName, Class<V1> value1Type, Class<V2> value2Type, Class<V3> value3Type, Class<V4> value4Type) {
+        final IndexInfo info = this.jdb.getIndexInfo(
+          new IndexInfoKey(indexName, true, targetType, value1Type, value2Type, value3Type, value4Type));
+        final CoreIndex4<?, ?, ?, ?, ObjId> index = info.applyFilters(this.tx.queryCompositeIndex4(info.indexInfo.storageId));
+        final Converter<?, ?> value1Converter = this.getReverseConverter(info.indexInfo.jfieldInfos.get(0));
+        final Converter<?, ?> value2Converter = this.getReverseConverter(info.indexInfo.jfieldInfos.get(1));
+        final Converter<?, ?> value3Converter = this.getReverseConverter(info.indexInfo.jfieldInfos.get(2));
+        final Converter<?, ?> value4Converter = this.getReverseConverter(info.indexInfo.jfieldInfos.get(3));
+        return new ConvertedIndex4(index, value1Converter, value2Converter,
+          value3Converter, value4Converter, Converter.<ObjId>identity()).asSet();
+    }
+
     private Converter<?, ?> getReverseConverter(JSimpleFieldInfo fieldInfo) {
         final Converter<?, ?> converter = fieldInfo.getConverter(this);
         return converter != null ? converter.reverse() : Converter.identity();
@@ -1462,8 +1844,11 @@ public class JTransaction {
      * Commit this transaction.
      *
      * <p>
-     * Prior to actual commit, if this transaction was created with a validation mode other than {@link ValidationMode#DISABLED},
-     * {@linkplain #validate validation} of outstanding objects in the validation queue is performed.
+     * Prior to actual commit, any {@linkplain #deliverDeferredChanges deferred change notifications} are delivered, and then
+     * if this transaction was created with a validation mode other than {@link ValidationMode#DISABLED},
+     * {@linkplain #validate validation} of outstanding objects in the validation queue is performed. Because validation
+     * may itself generate deferred change notifications, and delivering them may enqueue more objects for validation,
+     * these two steps are repeated until there is nothing left to deliver or validate.
      *
      * <p>
      * If a {@link ValidationException} is thrown, the transaction is no longer usable. To perform validation and leave
@@ -1474,7 +1859,7 @@ public class JTransaction {
      * @throws ValidationException if a validation error is detected
      * @throws IllegalStateException if this method is invoked re-entrantly from within a validation check
      */
-    public synchronized void commit() {
+    public void commit() {
 
         // Sanity check
         if (!this.tx.isValid())
@@ -1485,9 +1870,12 @@ public class JTransaction {
             this.commitInvoked = true;
         }
 
-        // Do validation
+        // Deliver deferred @OnChange notifications and do validation, until neither has anything left to do
         try {
-            this.validate();
+            do {
+                this.deliverDeferredChanges();
+                this.validate();
+            } while (this.isCommitWorkPending());
         } catch (ValidationException e) {
             this.tx.rollback();
             throw e;
@@ -1497,6 +1885,19 @@ public class JTransaction {
         this.tx.commit();
     }
 
+    // Determine whether there are any undelivered deferred notifications or objects awaiting validation
+    private boolean isCommitWorkPending() {
+        synchronized (this.deferredChanges) {
+            if (!this.deferredChanges.isEmpty())
+                return true;
+        }
+        if (this.validationMode == ValidationMode.DISABLED)
+            return false;
+        synchronized (this.validationQueue) {
+            return !this.validationQueue.isEmpty();
+        }
+    }
+
     /**
      * Roll back this transaction.
      *
@@ -1505,6 +1906,9 @@ public class JTransaction {
      * {@link #commit} or {@link #rollback}, in which case the invocation will be ignored.
      */
     public void rollback() {
+        synchronized (this.deferredChanges) {
+            this.deferredChanges.clear();
+        }
         this.tx.rollback();
     }
 
@@ -1524,8 +1928,12 @@ public class JTransaction {
      * process and clear the queue of validatable objects.
      *
      * <p>
+     * Objects are validated in {@link ObjId} order, or in parallel if a {@linkplain JSimpleDB#setValidationPool validation pool}
+     * is configured. Uniqueness constraints are verified in batches, one pass over each unique field's index.
+     *
+     * <p>
      * If validation fails, validation stops, all remaining unvalidated objects are left on the validation queue,
-     * and a {@link ValidationException} is thrown. The transaction will remain usable.
+     * and a {@link ValidationException} is thrown for the lowest failing {@link ObjId}. The transaction will remain usable.
      *
      * <p>
      * <b>Note:</b> if the this transaction was created with {@link ValidationMode#DISABLED}, then this method does nothing.
@@ -1556,6 +1964,72 @@ public class JTransaction {
         });
     }
 
+    /**
+     * Deliver all pending notifications for {@link org.jsimpledb.annotation.OnChange &#64;OnChange} methods
+     * having {@link org.jsimpledb.annotation.OnChange#deferred deferred()} set.
+     *
+     * <p>
+     * Notifications are delivered in the order in which they first occurred. Any further deferred notifications
+     * generated during delivery are also delivered before this method returns.
+     *
+     * <p>
+     * This method is invoked automatically by {@link #commit}, prior to validation.
+     *
+     * @throws StaleTransactionException if this transaction is no longer usable
+     */
+    public void deliverDeferredChanges() {
+        if (!this.tx.isValid())
+            throw new StaleTransactionException(this.tx);
+        while (true) {
+
+            // Get the next pending notification
+            final DeferredChange deferredChange;
+            synchronized (this.deferredChanges) {
+                final Iterator<DeferredChange> i = this.deferredChanges.values().iterator();
+                if (!i.hasNext())
+                    return;
+                deferredChange = i.next();
+                i.remove();
+            }
+
+            // Deliver it, unless the recipient has been deleted or nothing actually changed
+            if (deferredChange.target != null && !deferredChange.target.exists())
+                continue;
+            final SimpleFieldChange<JObject, Object> change = deferredChange.change;
+            if (change != null && Objects.equals(change.getOldValue(), change.getNewValue()))
+                continue;
+            deferredChange.info.deliver(deferredChange.target, change);
+        }
+    }
+
+    /**
+     * Add or coalesce a deferred {@link org.jsimpledb.annotation.OnChange &#64;OnChange} notification.
+     *
+     * @param info method info
+     * @param target recipient object, or null for static methods
+     * @param change the change, or null for methods taking zero parameters
+     */
+    void addDeferredChange(OnChangeScanner<?>.ChangeMethodInfo info,
+      JObject target, SimpleFieldChange<JObject, Object> change) {
+
+        // Build coalescing key
+        final List<Object> key = change != null ?
+          Arrays.<Object>asList(info, target, change.getObject(), change.getStorageId()) : Arrays.<Object>asList(info, target);
+
+        // Add new notification or coalesce with the existing one
+        synchronized (this.deferredChanges) {
+            final DeferredChange previous = this.deferredChanges.get(key);
+            if (previous == null) {
+                this.deferredChanges.put(key, new DeferredChange(info, target, change));
+                return;
+            }
+            if (change != null) {
+                previous.change = new SimpleFieldChange<JObject, Object>(change.getObject(),
+                  change.getStorageId(), change.getFieldName(), previous.change.getOldValue(), change.getNewValue());
+            }
+        }
+    }
+
     /**
      * Invoke the given {@link Runnable} with this instance as the {@linkplain #getCurrent current transaction}.
      *
@@ -1579,97 +2053,312 @@ public class JTransaction {
 
 // Internal methods
 
-    @SuppressWarnings("unchecked")
     private void doValidate() {
         final ValidatorFactory validatorFactory = this.jdb.getValidatorFactory();
         final Validator validator = validatorFactory != null ? validatorFactory.getValidator() : null;
+        final ForkJoinPool validationPool = this.jdb.getValidationPool();
         while (true) {
 
-            // Pop next object to validate off the queue
-            final ObjId id;
-            final Class<?>[] validationGroups;
-            synchronized (this) {
-                final Map.Entry<ObjId, Class<?>[]> entry = this.validationQueue.removeOne();
-                if (entry == null)
+            // Drain the queue and sort objects so that uniqueness checks can be batched and failures are deterministic
+            final ObjIdMap<Class<?>[]> queue;
+            synchronized (this.validationQueue) {
+                if (this.validationQueue.isEmpty())
                     return;
-                id = entry.getKey();
-                validationGroups = entry.getValue();
-                assert id != null;
-                assert validationGroups != null;
+                queue = this.validationQueue.clone();
+                this.validationQueue.clear();
             }
+            final ArrayList<ObjId> ids = new ArrayList<>(queue.keySet());
+            Collections.sort(ids);
 
-            // Does it still exist?
-            if (!this.tx.exists(id))
+            // Validate objects, either in parallel or sequentially in the current thread
+            final ValidationTask task = new ValidationTask(validator, ids, queue, 0, ids.size());
+            final ValidationFailure failure = validationPool != null ? validationPool.invoke(task) : task.validateRange();
+            if (failure == null)
                 continue;
 
-            // Get object and verify type exists in current schema (if not, the remaining validation is unneccessary)
-            final JObject jobj = this.get(id);
-            final JClass<?> jclass = this.jdb.jclasses.get(id.getStorageId());
-            if (jclass == null)
-                return;
+            // Put back objects following the failed object; they are considered not yet validated
+            for (ObjId id : ids.subList(failure.index + 1, ids.size()))
+                this.revalidate(Collections.singleton(id), queue.get(id));
+            throw failure.exception;
+        }
+    }
 
-            // Do JSR 303 validation if needed
-            if (validator != null) {
-                final Set<ConstraintViolation<JObject>> violations;
-                try {
-                    violations = new ValidationContext<JObject>(jobj, validationGroups).validate(validator);
-                } catch (RuntimeException e) {
-                    final Throwable rootCause = Throwables.getRootCause(e);
-                    if (rootCause instanceof KVDatabaseException)
-                        throw (KVDatabaseException)rootCause;
-                    throw e;
-                }
-                if (!violations.isEmpty()) {
-                    throw new ValidationException(jobj, violations, "validation error for object " + id + " of type `"
-                      + this.jdb.jclasses.get(id.getStorageId()).name + "':\n" + ValidationUtil.describe(violations));
-                }
+    // Do JSR 303 validation and invoke @OnValidate methods
+    private void validateObject(Validator validator, JObject jobj, JClass<?> jclass, Class<?>[] validationGroups) {
+
+        // Do JSR 303 validation if needed
+        if (validator != null) {
+            final Set<ConstraintViolation<JObject>> violations;
+            try {
+                violations = new ValidationContext<JObject>(jobj, validationGroups).validate(validator);
+            } catch (RuntimeException e) {
+                final Throwable rootCause = Throwables.getRootCause(e);
+                if (rootCause instanceof KVDatabaseException)
+                    throw (KVDatabaseException)rootCause;
+                throw e;
+            }
+            if (!violations.isEmpty()) {
+                throw new ValidationException(jobj, violations, "validation error for object " + jobj.getObjId() + " of type `"
+                  + jclass.name + "':\n" + ValidationUtil.describe(violations));
+            }
+        }
+
+        // Do @OnValidate method validation
+        for (OnValidateScanner<?>.MethodInfo info : jclass.onValidateMethods) {
+            Class<?>[] methodGroups = info.getAnnotation().groups();
+            if (methodGroups.length == 0)
+                methodGroups = DEFAULT_CLASS_ARRAY;
+            if (Util.isAnyGroupBeingValidated(methodGroups, validationGroups))
+                Util.invoke(info.getMethod(), jobj);
+        }
+    }
+
+    // Read the (core API) value of a unique field, or return NOT_UNIQUE if the value is excluded from the uniqueness constraint
+    @SuppressWarnings("unchecked")
+    private Object readUniqueValue(ObjId id, JSimpleField jfield) {
+        assert jfield.indexed;
+        assert jfield.unique;
+
+        // Get field's (core API) value
+        final Object value = this.tx.readSimpleField(id, jfield.storageId, false);
+
+        // Compare to excluded value list
+        if (jfield.uniqueExcludes != null
+          && Collections.binarySearch(jfield.uniqueExcludes, value, (Comparator<Object>)jfield.fieldType) >= 0)
+            return NOT_UNIQUE;
+        return value;
+    }
+
+    /**
+     * Verify the uniqueness constraint on a field for a batch of objects.
+     *
+     * <p>
+     * The values are sorted and then matched against the field's index using a single merged cursor,
+     * which steps forward when the next value is adjacent and seeks ahead otherwise, so index entries
+     * between widely separated values are skipped rather than read.
+     *
+     * @param jfield unique field
+     * @param checks checks to perform, sorted by object index
+     * @param failure failure found so far, or null; checks following this failure are skipped
+     * @return the earliest failure found, which may be {@code failure}
+     */
+    @SuppressWarnings("unchecked")
+    private ValidationFailure checkUnique(JSimpleField jfield, List<UniqueCheck> checks, ValidationFailure failure) {
+
+        // Omit checks following any failure already found
+        int limit = 0;
+        while (limit < checks.size() && (failure == null || failure.isAfter(checks.get(limit))))
+            limit++;
+        if (limit == 0)
+            return failure;
+
+        // Query core API index to find other objects with the same value in the field, but restrict the search to
+        // only include those types having the annotated method, not some other method with the same name/storage ID.
+        final IndexInfo info = this.jdb.getIndexInfo(new IndexInfoKey(jfield.name,
+          false, jfield.getter.getDeclaringClass(), jfield.typeToken.wrap().getRawType()));
+        final NavigableMap<Object, NavigableSet<ObjId>> indexMap
+          = (NavigableMap<Object, NavigableSet<ObjId>>)info.applyFilters(this.tx.queryIndex(jfield.storageId)).asMap();
+
+        // Sort checks by value
+        final Comparator<Object> comparator = (Comparator<Object>)jfield.fieldType;
+        final ArrayList<UniqueCheck> sortedChecks = new ArrayList<>(checks.subList(0, limit));
+        Collections.sort(sortedChecks, new Comparator<UniqueCheck>() {
+            @Override
+            public int compare(UniqueCheck check1, UniqueCheck check2) {
+                return comparator.compare(check1.value, check2.value);
+            }
+        });
+
+        // Walk the index over the range of checked values, merging with the sorted checks
+        final Object maxValue = sortedChecks.get(sortedChecks.size() - 1).value;
+        final NavigableMap<Object, NavigableSet<ObjId>> rangeMap = indexMap.headMap(maxValue, true);
+        Iterator<Map.Entry<Object, NavigableSet<ObjId>>> cursor = null;
+        Map.Entry<Object, NavigableSet<ObjId>> entry = null;
+        for (UniqueCheck check : sortedChecks) {
+
+            // Advance cursor to the checked value; try one step first, and if that's not enough, seek directly to it
+            if (cursor != null && comparator.compare(entry.getKey(), check.value) < 0) {
+                entry = cursor.hasNext() ? cursor.next() : null;
+                if (entry == null)
+                    break;
+            }
+            if (cursor == null || comparator.compare(entry.getKey(), check.value) < 0) {
+                cursor = rangeMap.tailMap(check.value, true).entrySet().iterator();
+                entry = cursor.hasNext() ? cursor.next() : null;
+                if (entry == null)
+                    break;
+            }
+            if (comparator.compare(entry.getKey(), check.value) > 0)
+                continue;
+
+            // Search for other objects with the same value in the field and report violation if any are found
+            final ObjId id = check.jobj.getObjId();
+            final ArrayList<ObjId> conflictors = new ArrayList<>(MAX_UNIQUE_CONFLICTORS);
+            for (ObjId conflictor : entry.getValue()) {
+                if (conflictor.equals(id))                          // ignore jobj's own index entry
+                    continue;
+                conflictors.add(conflictor);
+                if (conflictors.size() >= MAX_UNIQUE_CONFLICTORS)
+                    break;
+            }
+            if (!conflictors.isEmpty() && (failure == null || failure.isAfter(check))) {
+                failure = new ValidationFailure(check.index, check.fieldIndex, new ValidationException(check.jobj,
+                  "uniqueness constraint on " + jfield + " failed for object " + id + ": field value " + check.value
+                  + " is also shared by object(s) " + conflictors));
             }
+        }
+        return failure;
+    }
+
+// ValidationTask
+
+    // Validates a range of objects from the (sorted) drained validation queue, returning the first failure (if any)
+    @SuppressWarnings("serial")
+    private class ValidationTask extends RecursiveTask<ValidationFailure> {
+
+        private final Validator validator;
+        private final List<ObjId> ids;
+        private final ObjIdMap<Class<?>[]> groupsMap;
+        private final int min;
+        private final int max;
 
-            // Do @OnValidate method validation
-            for (OnValidateScanner<?>.MethodInfo info : jclass.onValidateMethods) {
-                Class<?>[] methodGroups = info.getAnnotation().groups();
-                if (methodGroups.length == 0)
-                    methodGroups = DEFAULT_CLASS_ARRAY;
-                if (Util.isAnyGroupBeingValidated(methodGroups, validationGroups))
-                    Util.invoke(info.getMethod(), jobj);
+        ValidationTask(Validator validator, List<ObjId> ids, ObjIdMap<Class<?>[]> groupsMap, int min, int max) {
+            this.validator = validator;
+            this.ids = ids;
+            this.groupsMap = groupsMap;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        protected ValidationFailure compute() {
+
+            // Split if too large
+            if (this.max - this.min > PARALLEL_VALIDATION_BATCH_SIZE) {
+                final int mid = (this.min + this.max) >>> 1;
+                final ValidationTask lower = new ValidationTask(this.validator, this.ids, this.groupsMap, this.min, mid);
+                final ValidationTask upper = new ValidationTask(this.validator, this.ids, this.groupsMap, mid, this.max);
+                upper.fork();
+                final ValidationFailure lowerFailure = lower.compute();
+                final ValidationFailure upperFailure = upper.join();
+                return lowerFailure != null ? lowerFailure : upperFailure;
             }
 
-            // Do uniqueness validation
-            if (!jclass.uniqueConstraintFields.isEmpty()
-              && Util.isAnyGroupBeingValidated(DEFAULT_AND_UNIQUENESS_CLASS_ARRAY, validationGroups)) {
-                for (JSimpleField jfield : jclass.uniqueConstraintFields) {
-                    assert jfield.indexed;
-                    assert jfield.unique;
+            // Validate this range in the context of our transaction
+            final ValidationFailure[] result = new ValidationFailure[1];
+            JTransaction.this.performAction(new Runnable() {
+                @Override
+                public void run() {
+                    result[0] = ValidationTask.this.validateRange();
+                }
+            });
+            return result[0];
+        }
+
+        ValidationFailure validateRange() {
+            final JTransaction jtx = JTransaction.this;
 
-                    // Get field's (core API) value
-                    final Object value = this.tx.readSimpleField(id, jfield.storageId, false);
+            // Do JSR 303 and @OnValidate method validation, collecting unique field values along the way
+            ValidationFailure failure = null;
+            final LinkedHashMap<JSimpleField, ArrayList<UniqueCheck>> uniqueChecks = new LinkedHashMap<>();
+            for (int i = this.min; i < this.max; i++) {
+                final ObjId id = this.ids.get(i);
+                final Class<?>[] validationGroups = this.groupsMap.get(id);
+                try {
 
-                    // Compare to excluded value list
-                    if (jfield.uniqueExcludes != null
-                      && Collections.binarySearch(jfield.uniqueExcludes, value, (Comparator<Object>)jfield.fieldType) >= 0)
+                    // Does it still exist and is its type in the current schema?
+                    if (!jtx.tx.exists(id))
+                        continue;
+                    final JObject jobj = jtx.get(id);
+                    final JClass<?> jclass = jtx.jdb.jclasses.get(id.getStorageId());
+                    if (jclass == null)
                         continue;
 
-                    // Query core API index to find other objects with the same value in the field, but restrict the search to
-                    // only include those types having the annotated method, not some other method with the same name/storage ID.
-                    final IndexInfo info = this.jdb.getIndexInfo(new IndexInfoKey(jfield.name,
-                      false, jfield.getter.getDeclaringClass(), jfield.typeToken.wrap().getRawType()));
-                    final CoreIndex<?, ObjId> index = info.applyFilters(this.tx.queryIndex(jfield.storageId));
-
-                    // Seach for other objects with the same value in the field and report violation if any are found
-                    final ArrayList<ObjId> conflictors = new ArrayList<>(MAX_UNIQUE_CONFLICTORS);
-                    for (ObjId conflictor : index.asMap().get(value)) {
-                        if (conflictor.equals(id))                          // ignore jobj's own index entry
-                            continue;
-                        conflictors.add(conflictor);
-                        if (conflictors.size() >= MAX_UNIQUE_CONFLICTORS)
-                            break;
-                    }
-                    if (!conflictors.isEmpty()) {
-                        throw new ValidationException(jobj, "uniqueness constraint on " + jfield + " failed for object "
-                          + id + ": field value " + value + " is also shared by object(s) " + conflictors);
+                    // Validate
+                    jtx.validateObject(this.validator, jobj, jclass, validationGroups);
+
+                    // Gather unique field values
+                    if (jclass.uniqueConstraintFields.isEmpty()
+                      || !Util.isAnyGroupBeingValidated(DEFAULT_AND_UNIQUENESS_CLASS_ARRAY, validationGroups))
+                        continue;
+                    int fieldIndex = 0;
+                    for (JSimpleField jfield : jclass.uniqueConstraintFields) {
+                        final Object value = jtx.readUniqueValue(id, jfield);
+                        if (value != NOT_UNIQUE) {
+                            ArrayList<UniqueCheck> checks = uniqueChecks.get(jfield);
+                            if (checks == null) {
+                                checks = new ArrayList<>();
+                                uniqueChecks.put(jfield, checks);
+                            }
+                            checks.add(new UniqueCheck(i, fieldIndex, jobj, value));
+                        }
+                        fieldIndex++;
                     }
+                } catch (RuntimeException e) {
+                    failure = new ValidationFailure(i, -1, e);
+                    break;
                 }
             }
+
+            // Do uniqueness validation, batched by field, for objects preceding any failure found so far
+            for (Map.Entry<JSimpleField, ArrayList<UniqueCheck>> entry : uniqueChecks.entrySet()) {
+                try {
+                    failure = jtx.checkUnique(entry.getKey(), entry.getValue(), failure);
+                } catch (RuntimeException e) {
+                    final UniqueCheck check = entry.getValue().get(0);
+                    if (failure == null || failure.isAfter(check))
+                        failure = new ValidationFailure(check.index, check.fieldIndex, e);
+                }
+            }
+            return failure;
+        }
+    }
+
+    // A pending deferred @OnChange notification
+    private static class DeferredChange {
+
+        final OnChangeScanner<?>.ChangeMethodInfo info;
+        final JObject target;
+        SimpleFieldChange<JObject, Object> change;
+
+        DeferredChange(OnChangeScanner<?>.ChangeMethodInfo info, JObject target, SimpleFieldChange<JObject, Object> change) {
+            this.info = info;
+            this.target = target;
+            this.change = change;
+        }
+    }
+
+    // A pending uniqueness check
+    private static class UniqueCheck {
+
+        final int index;
+        final int fieldIndex;
+        final JObject jobj;
+        final Object value;
+
+        UniqueCheck(int index, int fieldIndex, JObject jobj, Object value) {
+            this.index = index;
+            this.fieldIndex = fieldIndex;
+            this.jobj = jobj;
+            this.value = value;
+        }
+    }
+
+    // A validation failure, ordered by object and then by unique field (-1 for non-uniqueness failures)
+    private static class ValidationFailure {
+
+        final int index;
+        final int fieldIndex;
+        final RuntimeException exception;
+
+        ValidationFailure(int index, int fieldIndex, RuntimeException exception) {
+            this.index = index;
+            this.fieldIndex = fieldIndex;
+            this.exception = exception;
+        }
+
+        boolean isAfter(UniqueCheck check) {
+            return this.index != check.index ? this.index > check.index : this.fieldIndex > check.fieldIndex;
         }
     }
 
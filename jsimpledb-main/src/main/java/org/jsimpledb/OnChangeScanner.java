@@ -5,8 +5,11 @@
 
 package org.jsimpledb;
 
+import com.google.common.base.Throwables;
 import com.google.common.reflect.TypeToken;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
@@ -68,6 +71,9 @@ class OnChangeScanner<T> extends AnnotationScanner<T, OnChange> {
 
         final HashMap<ReferencePath, HashSet<Integer>> paths;
         final Class<?>[] genericTypes;      // derived from this.method, so there's no need to include it in equals() or hashCode()
+        final boolean isStatic;             // derived from this.method
+        final boolean deferred;             // derived from this.annotation
+        final MethodHandle handle;          // derived from this.method; type is (Object)void or (Object, Object)void
 
         ChangeMethodInfo(Method method, OnChange annotation) {
             super(method, annotation);
@@ -75,6 +81,27 @@ class OnChangeScanner<T> extends AnnotationScanner<T, OnChange> {
             // Get database
             final JSimpleDB jdb = OnChangeScanner.this.jclass.jdb;
 
+            // Deferred methods must take zero parameters or a SimpleFieldChange
+            this.deferred = annotation.deferred();
+            final Class<?>[] parameterTypes = method.getParameterTypes();
+            if (this.deferred && parameterTypes.length > 0 && !SimpleFieldChange.class.isAssignableFrom(parameterTypes[0])) {
+                throw new IllegalArgumentException(OnChangeScanner.this.getErrorPrefix(method)
+                  + "deferred methods must take either zero parameters or a SimpleFieldChange parameter");
+            }
+
+            // Create method handle for fast invocation; static methods get a dummy (ignored) target parameter
+            this.isStatic = (method.getModifiers() & Modifier.STATIC) != 0;
+            MethodHandle methodHandle;
+            try {
+                method.setAccessible(true);
+                methodHandle = MethodHandles.lookup().unreflect(method);
+            } catch (IllegalAccessException | SecurityException e) {
+                throw new IllegalArgumentException(OnChangeScanner.this.getErrorPrefix(method) + "method is not accessible", e);
+            }
+            if (this.isStatic)
+                methodHandle = MethodHandles.dropArguments(methodHandle, 0, Object.class);
+            this.handle = methodHandle.asType(methodHandle.type().generic().changeReturnType(void.class));
+
             // Get start type
             Class<?> startType = method.getDeclaringClass();
             if (annotation.startType() != void.class) {
@@ -514,17 +541,17 @@ class OnChangeScanner<T> extends AnnotationScanner<T, OnChange> {
 
         // Used when @OnChange method takes zero parameters
         private void invoke(JTransaction jtx, NavigableSet<ObjId> referrers) {
-            final Method method = this.getMethod();
-            if ((method.getModifiers() & Modifier.STATIC) != 0)
-                Util.invoke(method, null);
+            if (this.isStatic)
+                this.invokeOrDefer(jtx, null, null);
             else {
+                final Class<?> declaringClass = this.getMethod().getDeclaringClass();
                 for (ObjId id : referrers) {
                     final JObject target = jtx.get(id);             // type of 'id' should always be found
 
                     // Avoid invoking subclass's @OnChange method on superclass instance;
                     // this can happen when the field is in superclass but wildcard @OnChange is in the subclass
-                    if (method.getDeclaringClass().isInstance(target))
-                        Util.invoke(method, target);
+                    if (declaringClass.isInstance(target))
+                        this.invokeOrDefer(jtx, target, null);
                 }
             }
         }
@@ -532,20 +559,59 @@ class OnChangeScanner<T> extends AnnotationScanner<T, OnChange> {
         // Used when @OnChange method takes one parameter
         private void invoke(JTransaction jtx, NavigableSet<ObjId> referrers, FieldChange<JObject> change) {
             assert change != null;
-            final Method method = this.getMethod();
-            if ((method.getModifiers() & Modifier.STATIC) != 0)
-                Util.invoke(method, null, change);
+            if (this.isStatic)
+                this.invokeOrDefer(jtx, null, change);
             else {
+                final Class<?> declaringClass = this.getMethod().getDeclaringClass();
                 for (ObjId id : referrers) {
                     final JObject target = jtx.get(id);             // type of 'id' should always be found
 
                     // Avoid invoking subclass's @OnChange method on superclass instance;
                     // this can happen when the field is in superclass but wildcard @OnChange is in the subclass
-                    if (method.getDeclaringClass().isInstance(target))
-                        Util.invoke(method, target, change);
+                    if (declaringClass.isInstance(target))
+                        this.invokeOrDefer(jtx, target, change);
                 }
             }
         }
+
+        // Invoke method now or, if deferred, add a pending notification; change is null for zero-parameter methods
+        @SuppressWarnings("unchecked")
+        private void invokeOrDefer(JTransaction jtx, JObject target, FieldChange<JObject> change) {
+            if (this.deferred)
+                jtx.addDeferredChange(this, target, (SimpleFieldChange<JObject, Object>)change);
+            else
+                this.deliver(target, change);
+        }
+
+        // Invoke method; change is null for zero-parameter methods
+        void deliver(JObject target, FieldChange<JObject> change) {
+            if (change != null)
+                this.invokeHandle(target, change);
+            else
+                this.invokeHandle(target);
+        }
+
+        private void invokeHandle(Object target) {
+            try {
+                this.handle.invokeExact(target);
+            } catch (Throwable t) {
+                throw this.wrapException(target, t);
+            }
+        }
+
+        private void invokeHandle(Object target, Object change) {
+            try {
+                this.handle.invokeExact(target, change);
+            } catch (Throwable t) {
+                throw this.wrapException(target, t);
+            }
+        }
+
+        // Same behavior as Util.invoke(): propagate unchecked exceptions and wrap checked exceptions
+        private RuntimeException wrapException(Object target, Throwable t) {
+            Throwables.propagateIfPossible(t);
+            return new JSimpleDBException("unexpected error invoking method " + this.getMethod() + " on " + target, t);
+        }
     }
 }
 
@@ -5,6 +5,8 @@
 
 package org.jsimpledb;
 
+import java.io.Closeable;
+
 import org.jsimpledb.core.SnapshotTransaction;
 
 /**
@@ -25,13 +27,15 @@ import org.jsimpledb.core.SnapshotTransaction;
  * <p>
  * More general usage is possible via {@link JTransaction#createSnapshotTransaction JTransaction.createSnapshotTransaction()}.
  * For example, for {@link org.jsimpledb.kv.KVDatabase}s that support it, using the key/value store snapshot returned by
- * {@link org.jsimpledb.kv.KVTransaction#mutableSnapshot} allows an efficient copying of the entire database.
+ * {@link org.jsimpledb.kv.KVTransaction#mutableSnapshot} allows an efficient copying of the entire database;
+ * see {@link JTransaction#createMutableSnapshotTransaction JTransaction.createMutableSnapshotTransaction()}.
+ * Such instances should be {@linkplain #close closed} when no longer needed.
  *
  * @see JTransaction#createSnapshotTransaction Transaction.createSnapshotTransaction()
  * @see JSimpleDB#createSnapshotTransaction JSimpleDB.createSnapshotTransaction()
  * @see org.jsimpledb.core.SnapshotTransaction
  */
-public class SnapshotJTransaction extends JTransaction {
+public class SnapshotJTransaction extends JTransaction implements Closeable {
 
     SnapshotJTransaction(JSimpleDB jdb, SnapshotTransaction tx, ValidationMode validationMode) {
         super(jdb, tx, validationMode);
@@ -63,6 +67,21 @@ public class SnapshotJTransaction extends JTransaction {
         ((SnapshotTransaction)this.tx).reset();
     }
 
+    /**
+     * Close this snapshot transaction.
+     *
+     * <p>
+     * If this instance was created via {@link JTransaction#createMutableSnapshotTransaction
+     * JTransaction.createMutableSnapshotTransaction()}, the underlying key/value store snapshot is released
+     * and this instance becomes unusable. Otherwise, this method does nothing.
+     *
+     * @see SnapshotTransaction#close
+     */
+    @Override
+    public void close() {
+        ((SnapshotTransaction)this.tx).close();
+    }
+
     /**
      * Commit this transaction.
      *
@@ -93,13 +112,13 @@ public class SnapshotJTransaction extends JTransaction {
      * Determine whether this transaction is still valid.
      *
      * <p>
-     * {@link SnapshotJTransaction}s are always valid.
+     * {@link SnapshotJTransaction}s are always valid unless {@linkplain #close closed}.
      *
-     * @return true always
+     * @return true unless this instance has been closed
      */
     @Override
     public boolean isValid() {
-        return true;
+        return this.tx.isValid();
     }
 }
 
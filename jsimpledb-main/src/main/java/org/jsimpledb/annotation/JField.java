@@ -290,5 +290,26 @@ public @interface JField {
      * @see JSimpleClass#autogenAllowDeletedSnapshot
      */
     boolean allowDeletedSnapshot() default true;
+
+    /**
+     * For {@link org.jsimpledb.Counter} fields, the number of shards across which the counter's value is spread.
+     *
+     * <p>
+     * Each {@linkplain org.jsimpledb.Counter#adjust adjustment} of a sharded counter only modifies one shard, chosen
+     * at random, while {@linkplain org.jsimpledb.Counter#get reading} the counter sums all shards.
+     * This reduces contention for frequently adjusted counters on key/value stores where adjusting a counter
+     * requires locking or rewriting its key. The default value of one means the counter is not sharded.
+     *
+     * <p>
+     * This setting affects how the counter is stored, so it cannot be changed for an existing field
+     * without also changing its storage ID.
+     *
+     * <p>
+     * For non-counter fields, this property must be equal to its default value.
+     *
+     * @return number of counter shards, from 1 to {@link org.jsimpledb.core.CounterField#MAX_SHARDS}
+     * @see org.jsimpledb.core.CounterField#getShards
+     */
+    int counterShards() default 1;
 }
 
@@ -23,6 +23,11 @@ import java.lang.annotation.Target;
  * in the middle of the list requires shifting all subsequent values by one.
  *
  * <p>
+ * Alternately, setting {@link #sparse} to true stores list elements under gapped positions instead of consecutive
+ * list indexes. Then insertions and removals anywhere in the list only write the affected elements, but
+ * {@link java.util.List#get List.get()} and {@link java.util.List#size List.size()} become linear time.
+ *
+ * <p>
  * Note that both primitive types and their corresponding wrapper types are supported as elements. A list whose
  * elements have primitive type will throw an exception on an attempt to add a null value.
  * To specify a primitive element type, specify the primitive type name (e.g., {@code "int"})
@@ -58,5 +63,23 @@ public @interface JListField {
      * @return the list element field
      */
     JField element() default @JField();
+
+    /**
+     * Whether to store list elements sparsely.
+     *
+     * <p>
+     * Sparse lists are appropriate for long lists which are mostly accessed via iteration, but frequently have elements
+     * inserted or removed in the middle. Note that for sparse lists, the list index values returned by
+     * {@link org.jsimpledb.JTransaction#queryListElementIndex JTransaction.queryListElementIndex()} are internal element
+     * positions rather than list indexes; they are ordered the same way, but are not consecutive.
+     *
+     * <p>
+     * This setting affects how list elements are stored, so it cannot be changed for an existing field
+     * without also changing its storage ID.
+     *
+     * @return whether the list is sparse
+     * @see org.jsimpledb.core.ListField#isSparse
+     */
+    boolean sparse() default false;
 }
 
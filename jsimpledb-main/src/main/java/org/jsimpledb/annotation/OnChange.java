@@ -169,6 +169,12 @@ import java.lang.annotation.Target;
  * {@link OnChange &#64;OnChange} functions within a single transaction; it does not notify about changes that
  * may have occurred in a different transaction.
  *
+ * <p>
+ * Alternatively, delivery may be {@linkplain #deferred deferred} until the transaction is committed, or until
+ * {@link org.jsimpledb.JTransaction#deliverDeferredChanges JTransaction.deliverDeferredChanges()} is invoked.
+ * Deferred notifications are coalesced, so a method that would otherwise be notified many times during a bulk update
+ * is notified at most once per changed object and field.
+ *
  * <p><b>Other Notes</b></p>
  *
  * <p>
@@ -231,5 +237,34 @@ public @interface OnChange {
      * @see org.jsimpledb.SnapshotJTransaction
      */
     boolean snapshotTransactions() default false;
+
+    /**
+     * Determines whether notifications should be deferred and coalesced.
+     *
+     * <p>
+     * If set, notifications are not delivered when a change occurs; instead they are recorded and delivered later,
+     * either just prior to validation in {@link org.jsimpledb.JTransaction#commit JTransaction.commit()}, or when
+     * {@link org.jsimpledb.JTransaction#deliverDeferredChanges JTransaction.deliverDeferredChanges()} is invoked.
+     * Changes made during validation at commit time (e.g., by {@link org.jsimpledb.annotation.OnValidate &#64;OnValidate}
+     * methods) are also delivered, before the transaction actually commits.
+     * Pending notifications are discarded on rollback.
+     *
+     * <p>
+     * Deferred methods must take either zero parameters or a {@link org.jsimpledb.change.SimpleFieldChange} parameter.
+     * Notifications are coalesced as follows:
+     * <ul>
+     *  <li>A method taking zero parameters is invoked once per recipient object (or once, if static),
+     *      no matter how many changes occurred.</li>
+     *  <li>A method taking a {@link org.jsimpledb.change.SimpleFieldChange} is invoked once per recipient object,
+     *      changed object, and field, with a change from the field's original value to its final value;
+     *      if those values are equal, no notification is delivered.</li>
+     * </ul>
+     * Notifications are delivered in the order in which they first occurred. If the recipient object has
+     * been deleted by the time of delivery, the notification is dropped.
+     *
+     * @return whether notifications are deferred
+     * @see org.jsimpledb.JTransaction#deliverDeferredChanges
+     */
+    boolean deferred() default false;
 }
 
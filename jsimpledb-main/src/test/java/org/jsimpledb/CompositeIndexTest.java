@@ -15,6 +15,7 @@ import org.jsimpledb.annotation.JField;
 import org.jsimpledb.annotation.JSimpleClass;
 import org.jsimpledb.core.Database;
 import org.jsimpledb.core.DeleteAction;
+import org.jsimpledb.core.ObjId;
 import org.jsimpledb.kv.simple.SimpleKVDatabase;
 import org.jsimpledb.test.TestSupport;
 import org.jsimpledb.tuple.Tuple3;
@@ -94,6 +95,10 @@ public class CompositeIndexTest extends TestSupport {
                   this.buildIndex1(jtx, refType, startType));
                 Assert.assertEquals(jtx.queryCompositeIndex(startType, "index2", Integer.class, refType).asSet(),
                   this.buildIndex2(jtx, refType, startType));
+                Assert.assertEquals(jtx.queryCompositeIndexEntries(startType, "index1", refType, String.class),
+                  this.toEntries(this.buildIndex1(jtx, refType, startType)));
+                Assert.assertEquals(jtx.queryCompositeIndexEntries(startType, "index2", Integer.class, refType),
+                  this.toEntries(this.buildIndex2(jtx, refType, startType)));
             }
         }
     }
@@ -122,6 +127,13 @@ public class CompositeIndexTest extends TestSupport {
         return set;
     }
 
+    private <V1, V2> Set<Tuple3<V1, V2, ObjId>> toEntries(Set<? extends Tuple3<V1, V2, ?>> index) {
+        final HashSet<Tuple3<V1, V2, ObjId>> set = new HashSet<>();
+        for (Tuple3<V1, V2, ?> tuple : index)
+            set.add(new Tuple3<V1, V2, ObjId>(tuple.getValue1(), tuple.getValue2(), ((JObject)tuple.getValue3()).getObjId()));
+        return set;
+    }
+
     private ArrayList<Class<?>> getClasses() {
         final ArrayList<Class<?>> list = new ArrayList<>();
         list.add(Object.class);
@@ -51,6 +51,39 @@ public class CounterTest extends TestSupport {
         }
     }
 
+    @Test
+    public void testShardedCounter() {
+
+        final JSimpleDB jdb = BasicTest.getJSimpleDB(Person.class);
+        Assert.assertEquals(jdb.getJClass(Person.class).getJField(105, JCounterField.class).getShards(), 4);
+        final JTransaction tx = jdb.createTransaction(true, ValidationMode.AUTOMATIC);
+        JTransaction.setCurrent(tx);
+        try {
+
+            final Person p1 = tx.create(Person.class);
+
+            final Counter counter = p1.getShardedCounter();
+
+            Assert.assertEquals(counter.get(), 0);
+
+            for (int i = 0; i < 10; i++)
+                counter.adjust(i);
+
+            Assert.assertEquals(counter.get(), 45);
+
+            counter.set(123);
+
+            Assert.assertEquals(counter.get(), 123);
+
+            counter.adjust(-200);
+
+            Assert.assertEquals(counter.get(), -77);
+
+        } finally {
+            JTransaction.setCurrent(null);
+        }
+    }
+
 // Model Classes
 
     @JSimpleClass(storageId = 100)
@@ -59,6 +92,9 @@ public class CounterTest extends TestSupport {
         @JField(storageId = 104)
         public abstract Counter getCounter();
 
+        @JField(storageId = 105, counterShards = 4)
+        public abstract Counter getShardedCounter();
+
         @JMapField(storageId = 101, key = @JField(storageId = 102), value = @JField(storageId = 103, type = "float"))
         public abstract NavigableMap<Person, Float> getRatings();
     }
@@ -0,0 +1,124 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.SortedMap;
+
+import org.jsimpledb.annotation.JSimpleClass;
+import org.jsimpledb.test.TestSupport;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class GeneratedClassesTest extends TestSupport {
+
+    private static final String MARKER_FIELD_NAME = "$marker";
+
+    @Test
+    public void testPregeneratedClasses() throws Exception {
+
+        // Generate class files
+        final SortedMap<String, byte[]> classFiles = BasicTest.getJSimpleDB(Widget.class).generateClassFiles();
+        Assert.assertEquals(classFiles.keySet().iterator().next(), Widget.class.getName() + JSimpleDB.GENERATED_CLASS_NAME_SUFFIX);
+        Assert.assertEquals(classFiles.size(), 1);
+
+        final File dir = this.createTempDirectory();
+        try {
+
+            // Verify pre-generated classes are found and used
+            final File currentDir = new File(dir, "current");
+            this.writeClassFiles(currentDir, classFiles, null);
+            Assert.assertTrue(this.usesPregeneratedClass(currentDir));
+
+            // Verify stale pre-generated classes are ignored
+            final File staleDir = new File(dir, "stale");
+            this.writeClassFiles(staleDir, classFiles, "bogus");
+            Assert.assertFalse(this.usesPregeneratedClass(staleDir));
+        } finally {
+            this.deleteDirectoryHierarchy(dir);
+        }
+    }
+
+    // Write out class files with an added marker field, optionally replacing their fingerprints
+    private void writeClassFiles(File dir, SortedMap<String, byte[]> classFiles, String fingerprint) throws Exception {
+        for (Map.Entry<String, byte[]> entry : classFiles.entrySet()) {
+            final File file = new File(dir, entry.getKey().replace('.', '/') + ".class");
+            Files.createDirectories(file.getParentFile().toPath());
+            Files.write(file.toPath(), this.mark(entry.getValue(), fingerprint));
+        }
+    }
+
+    private byte[] mark(byte[] classfile, final String fingerprint) {
+        final ClassWriter cw = new ClassWriter(0);
+        new ClassReader(classfile).accept(new ClassVisitor(Opcodes.ASM5, cw) {
+            @Override
+            public FieldVisitor visitField(int access, String name, String desc, String signature, Object value) {
+                if (fingerprint != null && name.equals(ClassGenerator.FINGERPRINT_FIELD_NAME))
+                    value = fingerprint;
+                return super.visitField(access, name, desc, signature, value);
+            }
+            @Override
+            public void visitEnd() {
+                this.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL,
+                  MARKER_FIELD_NAME, Type.getDescriptor(boolean.class), null, 1).visitEnd();
+                super.visitEnd();
+            }
+        }, 0);
+        return cw.toByteArray();
+    }
+
+    // Create and use a Widget with the given directory on the classpath; return whether its class has the marker field
+    private boolean usesPregeneratedClass(File dir) throws Exception {
+        final ClassLoader previousLoader = Thread.currentThread().getContextClassLoader();
+        final URLClassLoader loader = new URLClassLoader(new URL[] { dir.toURI().toURL() }, previousLoader);
+        Thread.currentThread().setContextClassLoader(loader);
+        try {
+            Assert.assertNotNull(loader.getResource(Widget.class.getName().replace('.', '/')
+              + JSimpleDB.GENERATED_CLASS_NAME_SUFFIX + ".class"));
+            final JSimpleDB jdb = BasicTest.getJSimpleDB(Widget.class);
+            final JTransaction jtx = jdb.createTransaction(true, ValidationMode.AUTOMATIC);
+            JTransaction.setCurrent(jtx);
+            try {
+                final Widget widget = jtx.create(Widget.class);
+                widget.setValue(123);
+                Assert.assertEquals(widget.getValue(), 123);
+                Assert.assertEquals(widget.getClass().getName(), Widget.class.getName() + JSimpleDB.GENERATED_CLASS_NAME_SUFFIX);
+                Assert.assertSame(JSimpleDB.getModelClass(widget), Widget.class);
+                jtx.commit();
+                try {
+                    widget.getClass().getField(MARKER_FIELD_NAME);
+                    return true;
+                } catch (NoSuchFieldException e) {
+                    return false;
+                }
+            } finally {
+                JTransaction.setCurrent(null);
+            }
+        } finally {
+            Thread.currentThread().setContextClassLoader(previousLoader);
+            loader.close();
+        }
+    }
+
+// Model Classes
+
+    @JSimpleClass
+    public abstract static class Widget implements JObject {
+
+        public abstract int getValue();
+        public abstract void setValue(int value);
+    }
+}
@@ -0,0 +1,187 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NavigableSet;
+
+import org.jsimpledb.annotation.JField;
+import org.jsimpledb.annotation.JSetField;
+import org.jsimpledb.annotation.JSimpleClass;
+import org.jsimpledb.annotation.OnChange;
+import org.jsimpledb.annotation.OnValidate;
+import org.jsimpledb.change.SetFieldAdd;
+import org.jsimpledb.change.SimpleFieldChange;
+import org.jsimpledb.test.TestSupport;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class OnChangeDeferredTest extends TestSupport {
+
+    private static final ThreadLocal<ArrayList<Object>> EVENTS = new ThreadLocal<ArrayList<Object>>() {
+        @Override
+        protected ArrayList<Object> initialValue() {
+            return new ArrayList<Object>();
+        }
+    };
+
+    @Test
+    public void testDeferredOnChange() throws Exception {
+
+        final JSimpleDB jdb = BasicTest.getJSimpleDB(Widget.class);
+        JTransaction tx = jdb.createTransaction(true, ValidationMode.AUTOMATIC);
+        JTransaction.setCurrent(tx);
+        try {
+
+            final Widget w1 = tx.create(Widget.class);
+            final Widget w2 = tx.create(Widget.class);
+
+        // Repeated simple field changes are coalesced
+
+            for (int i = 1; i <= 1000; i++)
+                w1.setValue(i);
+            w2.setValue(-1);
+            this.verify();
+            tx.deliverDeferredChanges();
+            this.verify(
+              new SimpleFieldChange<Widget, Integer>(w1, 101, "value", 0, 1000),
+              new SimpleFieldChange<Widget, Integer>(w2, 101, "value", 0, -1));
+
+        // Changes that cancel out are not delivered
+
+            w1.setValue(5);
+            w1.setValue(1000);
+            tx.deliverDeferredChanges();
+            this.verify();
+
+        // Zero-parameter methods are notified once per recipient
+
+            for (int i = 0; i < 100; i++)
+                w1.getItems().add(tx.create(Widget.class));
+            this.verify();
+            tx.deliverDeferredChanges();
+            this.verify(w1);
+
+        // Notifications for deleted recipients are dropped
+
+            w2.setValue(7);
+            w2.delete();
+            tx.deliverDeferredChanges();
+            this.verify();
+
+        // Rollback discards pending notifications
+
+            w1.setValue(1);
+            tx.rollback();
+            this.verify();
+
+        } finally {
+            JTransaction.setCurrent(null);
+        }
+
+    // Commit delivers pending notifications
+
+        tx = jdb.createTransaction(true, ValidationMode.AUTOMATIC);
+        JTransaction.setCurrent(tx);
+        try {
+            final Widget w3 = tx.create(Widget.class);
+            w3.setValue(10);
+            w3.setValue(20);
+            this.verify();
+            tx.commit();
+            this.verify(new SimpleFieldChange<Widget, Integer>(w3, 101, "value", 0, 20));
+        } finally {
+            JTransaction.setCurrent(null);
+        }
+    }
+
+    @Test
+    public void testDeferredOnChangeDuringValidation() throws Exception {
+
+        final JSimpleDB jdb = BasicTest.getJSimpleDB(Gadget.class);
+        final JTransaction tx = jdb.createTransaction(true, ValidationMode.AUTOMATIC);
+        JTransaction.setCurrent(tx);
+        try {
+
+        // Changes made by @OnValidate methods during commit are delivered before the transaction commits
+
+            final Gadget g1 = tx.create(Gadget.class);
+            this.verify();
+            tx.commit();
+            this.verify(new SimpleFieldChange<Gadget, Boolean>(g1, 302, "validated", false, true));
+        } finally {
+            JTransaction.setCurrent(null);
+        }
+    }
+
+    @Test
+    public void testInvalidDeferredOnChange() throws Exception {
+        try {
+            BasicTest.getJSimpleDB(BadWidget.class);
+            assert false;
+        } catch (IllegalArgumentException e) {
+            this.log.info("got expected " + e);
+        }
+    }
+
+    private void verify(Object... expected) {
+        Assert.assertEquals(EVENTS.get(), Arrays.asList(expected));
+        EVENTS.get().clear();
+    }
+
+// Model Classes
+
+    @JSimpleClass(storageId = 100)
+    public abstract static class Widget implements JObject {
+
+        @JField(storageId = 101)
+        public abstract int getValue();
+        public abstract void setValue(int value);
+
+        @JSetField(storageId = 102, element = @JField(storageId = 103))
+        public abstract NavigableSet<Widget> getItems();
+
+        @OnChange(value = "value", deferred = true)
+        private void onValueChange(SimpleFieldChange<Widget, Integer> change) {
+            EVENTS.get().add(change);
+        }
+
+        @OnChange(value = "items", deferred = true)
+        private void onItemsChange() {
+            EVENTS.get().add(this);
+        }
+    }
+
+    @JSimpleClass(storageId = 300)
+    public abstract static class Gadget implements JObject {
+
+        @JField(storageId = 302)
+        public abstract boolean isValidated();
+        public abstract void setValidated(boolean validated);
+
+        @OnValidate
+        private void markValidated() {
+            this.setValidated(true);
+        }
+
+        @OnChange(value = "validated", deferred = true)
+        private void onValidatedChange(SimpleFieldChange<Gadget, Boolean> change) {
+            EVENTS.get().add(change);
+        }
+    }
+
+    @JSimpleClass(storageId = 200)
+    public abstract static class BadWidget implements JObject {
+
+        @JSetField(storageId = 201, element = @JField(storageId = 202))
+        public abstract NavigableSet<BadWidget> getItems();
+
+        @OnChange(value = "items", deferred = true)
+        private void onItemsChange(SetFieldAdd<BadWidget, BadWidget> change) {
+        }
+    }
+}
@@ -0,0 +1,210 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.validation.constraints.Min;
+
+import org.jsimpledb.annotation.JField;
+import org.jsimpledb.annotation.JSimpleClass;
+import org.jsimpledb.annotation.OnChange;
+import org.jsimpledb.annotation.OnValidate;
+import org.jsimpledb.change.SimpleFieldChange;
+import org.jsimpledb.test.TestSupport;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ParallelValidationTest extends TestSupport {
+
+    private static final AtomicInteger CHECKED_CHANGES = new AtomicInteger();
+
+    @Test
+    public void testParallelValidation() throws Exception {
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final JSimpleDB jdb = new JSimpleDBFactory()
+          .setModelClasses(Widget.class)
+          .setValidationPool(pool)
+          .newJSimpleDB();
+        final JTransaction jtx = jdb.createTransaction(true, ValidationMode.AUTOMATIC);
+        JTransaction.setCurrent(jtx);
+        try {
+
+        // Create objects with distinct names; they should all validate
+
+            final ArrayList<Widget> widgets = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                final Widget widget = jtx.create(Widget.class);
+                widget.setName("widget" + i);
+                widget.setValue(i % 10);
+                widgets.add(widget);
+            }
+            jtx.validate();
+
+        // JSR 303 failures: the lowest failing ObjId is reported first, the other remains queued
+
+            this.verifyFailures(jtx, widgets.get(700), widgets.get(300), new Runnable() {
+                @Override
+                public void run() {
+                    widgets.get(700).setValue(-1);
+                    widgets.get(300).setValue(-1);
+                }
+            });
+            widgets.get(700).setValue(1);
+            widgets.get(300).setValue(1);
+            jtx.validate();
+
+        // @OnValidate failures
+
+            this.verifyFailures(jtx, widgets.get(10), widgets.get(990), new Runnable() {
+                @Override
+                public void run() {
+                    widgets.get(10).setValue(13);
+                    widgets.get(990).setValue(13);
+                }
+            });
+            widgets.get(10).setValue(1);
+            widgets.get(990).setValue(1);
+            jtx.validate();
+
+        // Uniqueness failures: both objects conflict, so the lower one is always reported
+
+            widgets.get(100).setName("same");
+            widgets.get(900).setName("same");
+            final Widget expected = this.sort(widgets.get(100), widgets.get(900)).get(0);
+            try {
+                jtx.validate();
+                assert false;
+            } catch (ValidationException e) {
+                Assert.assertSame(e.getObject(), expected);
+            }
+            widgets.get(900).setName("different");
+            jtx.validate();
+
+            jtx.commit();
+        } finally {
+            JTransaction.setCurrent(null);
+            pool.shutdown();
+        }
+    }
+
+    // Validation threads must not block on the thread that invoked validate() or commit()
+    @Test(timeOut = 60000)
+    public void testParallelValidationCallbacks() throws Exception {
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final JSimpleDB jdb = new JSimpleDBFactory()
+          .setModelClasses(Gadget.class)
+          .setValidationPool(pool)
+          .newJSimpleDB();
+        final JTransaction jtx = jdb.createTransaction(true, ValidationMode.AUTOMATIC);
+        JTransaction.setCurrent(jtx);
+        try {
+
+        // Validators revalidate their objects and trigger deferred @OnChange notifications
+
+            final ArrayList<Gadget> gadgets = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                final Gadget gadget = jtx.create(Gadget.class);
+                gadget.revalidate();
+                gadgets.add(gadget);
+            }
+            CHECKED_CHANGES.set(0);
+            jtx.validate();
+            for (Gadget gadget : gadgets)
+                Assert.assertTrue(gadget.isChecked());
+            jtx.deliverDeferredChanges();
+            Assert.assertEquals(CHECKED_CHANGES.get(), gadgets.size());
+
+        // Same thing again, but via commit()
+
+            for (Gadget gadget : gadgets) {
+                gadget.setChecked(false);
+                gadget.revalidate();
+            }
+            jtx.commit();
+        } finally {
+            JTransaction.setCurrent(null);
+            pool.shutdown();
+        }
+    }
+
+    private void verifyFailures(JTransaction jtx, Widget widget1, Widget widget2, Runnable breaker) {
+        breaker.run();
+        final ArrayList<Widget> failures = this.sort(widget1, widget2);
+        try {
+            jtx.validate();
+            assert false;
+        } catch (ValidationException e) {
+            Assert.assertSame(e.getObject(), failures.get(0));
+        }
+        try {
+            jtx.validate();
+            assert false;
+        } catch (ValidationException e) {
+            Assert.assertSame(e.getObject(), failures.get(1));
+        }
+        jtx.validate();
+    }
+
+    private ArrayList<Widget> sort(Widget widget1, Widget widget2) {
+        final ArrayList<Widget> list = new ArrayList<>(2);
+        list.add(widget1);
+        list.add(widget2);
+        Collections.sort(list, new Comparator<Widget>() {
+            @Override
+            public int compare(Widget w1, Widget w2) {
+                return w1.getObjId().compareTo(w2.getObjId());
+            }
+        });
+        return list;
+    }
+
+// Model Classes
+
+    @JSimpleClass
+    public abstract static class Widget implements JObject {
+
+        @JField(indexed = true, unique = true)
+        public abstract String getName();
+        public abstract void setName(String name);
+
+        @Min(0)
+        public abstract int getValue();
+        public abstract void setValue(int value);
+
+        @OnValidate
+        private void checkValue() {
+            if (this.getValue() == 13)
+                throw new ValidationException(this, "unlucky value");
+        }
+    }
+
+    @JSimpleClass
+    public abstract static class Gadget implements JObject {
+
+        public abstract boolean isChecked();
+        public abstract void setChecked(boolean checked);
+
+        @OnValidate
+        private void check() {
+            if (!this.isChecked()) {
+                this.setChecked(true);
+                this.revalidate();
+            }
+        }
+
+        @OnChange(value = "checked", deferred = true)
+        private void onCheckedChange(SimpleFieldChange<Gadget, Boolean> change) {
+            CHECKED_CHANGES.incrementAndGet();
+        }
+    }
+}
@@ -5,11 +5,13 @@
 
 package org.jsimpledb;
 
+import java.util.ArrayList;
 import java.util.Date;
 
 import org.jsimpledb.annotation.JField;
 import org.jsimpledb.annotation.JSimpleClass;
 import org.jsimpledb.test.TestSupport;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 public class UniqueConstraintTest extends TestSupport {
@@ -157,6 +159,69 @@ public class UniqueConstraintTest extends TestSupport {
 
     }
 
+    @Test
+    public void testBatchedUniqueConstraint() throws Exception {
+
+        JSimpleDB jdb = BasicTest.getJSimpleDB(UniqueName.class, UniqueValue.class);
+        JTransaction jtx = jdb.createTransaction(true, ValidationMode.AUTOMATIC);
+
+        JTransaction.setCurrent(jtx);
+        try {
+
+        // Many objects with distinct and excluded values
+
+            final ArrayList<UniqueName> names = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                final UniqueName name = jtx.create(UniqueName.class);
+                name.setName(i % 5 == 0 ? "frob" : "name" + i);
+                names.add(name);
+                final UniqueValue value = jtx.create(UniqueValue.class);
+                value.setValue(i % 7 == 0 ? Float.NaN : (float)i);
+            }
+
+            jtx.validate();
+
+        // Create a duplicate; the object with the lower ObjId is reported
+
+            names.get(401).setName("name99");
+            final boolean lower = names.get(99).getObjId().compareTo(names.get(401).getObjId()) < 0;
+            final UniqueName expected = lower ? names.get(99) : names.get(401);
+            names.get(99).revalidate();
+
+            try {
+                jtx.validate();
+                assert false;
+            } catch (ValidationException e) {
+                Assert.assertSame(e.getObject(), expected);
+            }
+
+            names.get(401).setName("name401");
+
+            jtx.validate();
+
+        // Check widely separated values, so the index cursor must skip ahead to find the duplicate
+
+            names.get(3).setName("name3x");
+            names.get(8).setName("name97");
+
+            try {
+                jtx.validate();
+                assert false;
+            } catch (ValidationException e) {
+                Assert.assertSame(e.getObject(), names.get(8));
+            }
+
+            names.get(8).setName("name8");
+
+            jtx.validate();
+
+            jtx.commit();
+
+        } finally {
+            JTransaction.setCurrent(null);
+        }
+    }
+
     @Test
     public void testSameStorageIdUnique() throws Exception {
 
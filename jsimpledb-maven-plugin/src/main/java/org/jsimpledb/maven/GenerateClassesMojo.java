@@ -0,0 +1,53 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Map;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.jsimpledb.JSimpleDB;
+
+/**
+ * Pre-generates the JSimpleDB subclasses of the project's Java model classes at build time.
+ *
+ * <p>
+ * Normally JSimpleDB generates these subclasses at runtime. This goal generates them at build time instead and
+ * writes them into the project's output directory, so they are packaged along with the model classes.
+ * At runtime, {@link JSimpleDB} loads the pre-generated class files directly instead of generating them.
+ *
+ * <p>
+ * This goal should be run on every build (it is bound to the {@code process-classes} phase by default),
+ * because pre-generated classes must always match the model classes from which they were generated.
+ *
+ * @see JSimpleDB#generateClassFiles
+ */
+@Mojo(name = "generate-classes",
+  defaultPhase = LifecyclePhase.PROCESS_CLASSES,
+  requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME,
+  threadSafe = true)
+public class GenerateClassesMojo extends AbstractMainSchemaMojo {
+
+    @Override
+    protected void execute(JSimpleDB jdb) throws MojoExecutionException, MojoFailureException {
+        for (Map.Entry<String, byte[]> entry : jdb.generateClassFiles().entrySet()) {
+            final File file = new File(this.getClassOutputDirectory(), entry.getKey().replace('.', '/') + ".class");
+            this.getLog().info("writing JSimpleDB generated class " + entry.getKey() + " to `" + file + "'");
+            try {
+                Files.createDirectories(file.getParentFile().toPath());
+                Files.write(file.toPath(), entry.getValue());
+            } catch (IOException e) {
+                throw new MojoExecutionException("error writing generated class to `" + file + "': " + e, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.util;
+
+/**
+ * Implemented by collections that can cheaply estimate their number of elements, where computing
+ * the actual {@link java.util.Collection#size size()} would require a full iteration.
+ *
+ * <p>
+ * Estimates are used, for example, to order the sets in an {@linkplain NavigableSets#intersection intersection}
+ * so that the most selective sets drive the iteration.
+ */
+public interface CardinalityEstimating {
+
+    /**
+     * Estimate the number of elements in this collection.
+     *
+     * @return approximate number of elements, or -1 if no estimate is available
+     */
+    long estimateCardinality();
+}
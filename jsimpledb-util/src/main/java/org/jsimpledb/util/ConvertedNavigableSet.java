@@ -17,10 +17,14 @@ import java.util.NoSuchElementException;
 /**
  * Provides a transformed view of a wrapped {@link NavigableSet} using a strictly invertable {@link Converter}.
  *
+ * <p>
+ * If the wrapped set's iterator is a {@link SeekableIterator}, so is this set's, and if the wrapped set
+ * is {@link CardinalityEstimating}, its estimates are passed through.
+ *
  * @param <E> element type of this set
  * @param <W> element type of the wrapped set
  */
-public class ConvertedNavigableSet<E, W> extends AbstractNavigableSet<E> {
+public class ConvertedNavigableSet<E, W> extends AbstractNavigableSet<E> implements CardinalityEstimating {
 
     private final NavigableSet<W> set;
     private final Converter<E, W> converter;
@@ -76,7 +80,15 @@ public class ConvertedNavigableSet<E, W> extends AbstractNavigableSet<E> {
 
     @Override
     public Iterator<E> iterator() {
-        return Iterators.transform(this.set.iterator(), this.converter.reverse());
+        final Iterator<W> iterator = this.set.iterator();
+        if (iterator instanceof SeekableIterator)
+            return new ConvertedSeekableIterator((SeekableIterator<W>)iterator);
+        return Iterators.transform(iterator, this.converter.reverse());
+    }
+
+    @Override
+    public long estimateCardinality() {
+        return NavigableSets.estimateCardinality(this.set);
     }
 
     @Override
@@ -160,5 +172,35 @@ public class ConvertedNavigableSet<E, W> extends AbstractNavigableSet<E> {
             subSet = subSet.headSet(wupper, newBounds.getUpperBoundType().isInclusive());
         return new ConvertedNavigableSet<E, W>(subSet, this.converter, newBounds);
     }
-}
 
+// ConvertedSeekableIterator
+
+    private class ConvertedSeekableIterator implements SeekableIterator<E> {
+
+        private final SeekableIterator<W> iterator;
+
+        ConvertedSeekableIterator(SeekableIterator<W> iterator) {
+            this.iterator = iterator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.iterator.hasNext();
+        }
+
+        @Override
+        public E next() {
+            return ConvertedNavigableSet.this.converter.reverse().convert(this.iterator.next());
+        }
+
+        @Override
+        public void remove() {
+            this.iterator.remove();
+        }
+
+        @Override
+        public void seek(E target) {
+            this.iterator.seek(target != null ? ConvertedNavigableSet.this.converter.convert(target) : null);
+        }
+    }
+}
@@ -5,7 +5,10 @@
 
 package org.jsimpledb.util;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.NavigableSet;
 import java.util.NoSuchElementException;
@@ -14,8 +17,14 @@ import java.util.NoSuchElementException;
  * Provides a read-only view of the intersection of two or more {@link NavigableSet}s.
  * A complete iteration takes <i>O(N * M)</i> queries, where <i>N</i> is the number of
  * elements in the smallest set and <i>M</i> is the number of sets.
+ *
+ * <p>
+ * Iteration is performed by leapfrogging: each set is iterated by a {@link SeekableIterator}, and the current candidate
+ * element is passed from set to set, each iterator seeking forward to the candidate (or beyond it, in which case
+ * the candidate advances). The sets are visited in order of increasing {@linkplain CardinalityEstimating estimated size},
+ * so the most selective set proposes candidates.
  */
-class IntersectionNavigableSet<E> extends AbstractMultiNavigableSet<E> {
+class IntersectionNavigableSet<E> extends AbstractMultiNavigableSet<E> implements CardinalityEstimating {
 
     /**
      * Constructor.
@@ -55,21 +64,69 @@ class IntersectionNavigableSet<E> extends AbstractMultiNavigableSet<E> {
     }
 
     @Override
-    public java.util.Iterator<E> iterator() {
+    public SeekableIterator<E> iterator() {
         return new Iterator();
     }
 
+// CardinalityEstimating
+
+    /**
+     * Estimate the number of elements in this intersection.
+     *
+     * <p>
+     * The implementation in {@link IntersectionNavigableSet} returns the smallest estimate from any of the intersected sets.
+     *
+     * @return upper bound estimate of this set's size, or -1 if no intersected set has an estimate
+     */
+    @Override
+    public long estimateCardinality() {
+        long result = -1;
+        for (NavigableSet<E> set : this.list) {
+            final long estimate = NavigableSets.estimateCardinality(set);
+            if (estimate >= 0 && (result < 0 || estimate < result))
+                result = estimate;
+        }
+        return result;
+    }
+
+// Internal methods
+
+    /**
+     * Get the intersected sets, ordered by increasing estimated size. Sets with no estimate go last.
+     */
+    private List<NavigableSet<E>> getSetsBySelectivity() {
+        final ArrayList<NavigableSet<E>> sets = new ArrayList<NavigableSet<E>>(this.list);
+        final IdentityHashMap<NavigableSet<E>, Long> estimates = new IdentityHashMap<>(sets.size());
+        for (NavigableSet<E> set : sets) {
+            final long estimate = NavigableSets.estimateCardinality(set);
+            estimates.put(set, estimate >= 0 ? estimate : Long.MAX_VALUE);
+        }
+        Collections.sort(sets, new Comparator<NavigableSet<E>>() {
+            @Override
+            public int compare(NavigableSet<E> set1, NavigableSet<E> set2) {
+                return Long.compare(estimates.get(set1), estimates.get(set2));
+            }
+        });
+        return sets;
+    }
+
 // Iterator
 
-    private class Iterator implements java.util.Iterator<E> {
+    private class Iterator implements SeekableIterator<E> {
 
         private final Comparator<? super E> comparator = IntersectionNavigableSet.this.getComparator(false);
+        private final ArrayList<SeekableIterator<E>> iterators = new ArrayList<>();
 
-        private boolean firstTime = true;
-        private boolean finished = IntersectionNavigableSet.this.list.isEmpty();
+        private boolean finished;
         private boolean haveNext;
         private E next;
 
+        Iterator() {
+            for (NavigableSet<E> set : IntersectionNavigableSet.this.getSetsBySelectivity())
+                this.iterators.add(NavigableSets.seekableIterator(set));
+            this.finished = this.iterators.isEmpty();
+        }
+
         @Override
         public boolean hasNext() {
             return this.haveNext || this.advance();
@@ -88,6 +145,13 @@ class IntersectionNavigableSet<E> extends AbstractMultiNavigableSet<E> {
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public void seek(E target) {
+            this.iterators.get(0).seek(target);
+            this.finished = false;
+            this.haveNext = false;
+        }
+
         private boolean advance() {
 
             // Finished?
@@ -95,36 +159,27 @@ class IntersectionNavigableSet<E> extends AbstractMultiNavigableSet<E> {
                 return false;
             assert !this.haveNext;
 
-            // Get initial candidate for the next iteration element
-            E candidate;
-            final NavigableSet<E> firstSet = IntersectionNavigableSet.this.list.get(0);
-            if (this.firstTime) {
-                this.firstTime = false;
-                try {
-                    candidate = firstSet.first();
-                } catch (NoSuchElementException e) {
-                    this.finished = true;
-                    return false;
-                }
-            } else if ((candidate = firstSet.higher(this.next)) == null && !this.hasNullInTailSet(firstSet, this.next, false)) {
+            // Get initial candidate for the next iteration element from the most selective set
+            final SeekableIterator<E> firstIterator = this.iterators.get(0);
+            if (!firstIterator.hasNext()) {
                 this.finished = true;
                 return false;
             }
+            E candidate = firstIterator.next();
 
             // Cycle through the sets until we have found the candidate in every set, moving candidate forward as we go
-            final int maxMatches = IntersectionNavigableSet.this.list.size();
+            final int maxMatches = this.iterators.size();
             int numMatches = 1;
             for (int i = 1; numMatches < maxMatches; i = (i + 1) % maxMatches) {
-                final NavigableSet<E> set = IntersectionNavigableSet.this.list.get(i);
+                final SeekableIterator<E> iterator = this.iterators.get(i);
 
                 // Look for candidate in the next set, or else something higher
-                final E ceiling = set.ceiling(candidate);
-
-                // Distinguish between a normal but null element, and a null value meaning "no more elements"
-                if (ceiling == null && !this.hasNullInTailSet(set, candidate, true)) {
+                iterator.seek(candidate);
+                if (!iterator.hasNext()) {
                     this.finished = true;
                     return false;
                 }
+                final E ceiling = iterator.next();
 
                 // Did we get the same candidate element back, or some higher element?
                 final int diff = this.comparator.compare(ceiling, candidate);
@@ -141,7 +196,7 @@ class IntersectionNavigableSet<E> extends AbstractMultiNavigableSet<E> {
                 }
 
                 // Oops, sets are not ordered properly
-                throw new IllegalStateException("internal error: NavigableSet.ceiling() returned a mis-ordered element "
+                throw new IllegalStateException("internal error: SeekableIterator.seek() returned a mis-ordered element "
                   + ceiling + " < " + candidate);
             }
 
@@ -150,16 +205,5 @@ class IntersectionNavigableSet<E> extends AbstractMultiNavigableSet<E> {
             this.haveNext = true;
             return true;
         }
-
-        private boolean hasNullInTailSet(NavigableSet<E> set, E elem, boolean inclusive) {
-            NavigableSet<E> tailSet;
-            try {
-                tailSet = set.tailSet(elem, inclusive);
-            } catch (IllegalArgumentException e) {              // "candidate" is out of set's range, so we're done
-                return false;
-            }
-            return !tailSet.isEmpty();
-        }
     }
 }
-
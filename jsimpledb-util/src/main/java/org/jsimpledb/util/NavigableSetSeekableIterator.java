@@ -0,0 +1,114 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.util;
+
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link SeekableIterator} implementation for an arbitrary {@link NavigableSet}.
+ *
+ * <p>
+ * Until the first {@link #seek seek()}, the set's normal iterator is used; thereafter, elements are found using
+ * {@link NavigableSet#ceiling ceiling()} and {@link NavigableSet#higher higher()} queries.
+ * Null elements are supported, but the set must support {@link NavigableSet#tailSet tailSet()} to distinguish
+ * between a null element and the end of the iteration.
+ */
+class NavigableSetSeekableIterator<E> implements SeekableIterator<E> {
+
+    private final NavigableSet<E> set;
+
+    private Iterator<E> iterator;                   // set's normal iterator, or null after first seek()
+    private boolean finished;
+    private boolean haveNext;
+    private E next;
+    private boolean haveRemove;
+    private E removeElem;
+
+    /**
+     * Constructor.
+     *
+     * @param set underlying set
+     * @param iterator iterator from {@code set}
+     */
+    NavigableSetSeekableIterator(NavigableSet<E> set, Iterator<E> iterator) {
+        this.set = set;
+        this.iterator = iterator;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.iterator != null)
+            return this.iterator.hasNext();
+        return this.haveNext || this.advance();
+    }
+
+    @Override
+    public E next() {
+        if (this.iterator != null) {
+            this.next = this.iterator.next();
+            return this.next;
+        }
+        if (!this.haveNext && !this.advance())
+            throw new NoSuchElementException();
+        this.haveNext = false;
+        this.removeElem = this.next;
+        this.haveRemove = true;
+        return this.next;
+    }
+
+    @Override
+    public void remove() {
+        if (this.iterator != null) {
+            this.iterator.remove();
+            return;
+        }
+        if (!this.haveRemove)
+            throw new IllegalStateException();
+        this.haveRemove = false;
+        this.set.remove(this.removeElem);
+    }
+
+    @Override
+    public void seek(E target) {
+        this.iterator = null;
+        this.haveRemove = false;
+        this.setNext(this.set.ceiling(target), target, true);
+    }
+
+    private boolean advance() {
+        assert this.iterator == null;
+        assert !this.haveNext;
+        if (this.finished)
+            return false;
+        return this.setNext(this.set.higher(this.next), this.next, false);
+    }
+
+    private boolean setNext(E elem, E from, boolean inclusive) {
+
+        // Distinguish between a normal but null element, and a null value meaning "no more elements"
+        if (elem == null && !this.hasNullInTailSet(from, inclusive)) {
+            this.finished = true;
+            this.haveNext = false;
+            return false;
+        }
+        this.next = elem;
+        this.finished = false;
+        this.haveNext = true;
+        return true;
+    }
+
+    private boolean hasNullInTailSet(E elem, boolean inclusive) {
+        final NavigableSet<E> tailSet;
+        try {
+            tailSet = this.set.tailSet(elem, inclusive);
+        } catch (IllegalArgumentException e) {              // "elem" is out of set's range, so we're done
+            return false;
+        }
+        return !tailSet.isEmpty();
+    }
+}
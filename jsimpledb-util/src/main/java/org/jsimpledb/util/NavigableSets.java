@@ -12,6 +12,7 @@ import com.google.common.collect.Iterables;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.NavigableSet;
 
 /**
@@ -29,7 +30,9 @@ public final class NavigableSets {
      *
      * <p>
      * The returned intersection iterates efficiently: a complete iteration requires <i>O(N * M)</i> queries, where
-     * <i>N</i> is the size of the smallest set, and <i>M</i> is the number of sets.
+     * <i>N</i> is the size of the smallest set, and <i>M</i> is the number of sets. Sets whose iterators are
+     * {@link SeekableIterator}s are iterated in a single pass, with each set's iteration repositioned (rather than
+     * restarted) as needed; sets that implement {@link CardinalityEstimating} are consulted first, smallest estimate first.
      *
      * @param sets the sets to intersect
      * @param <E> element type
@@ -52,6 +55,7 @@ public final class NavigableSets {
      * <p>
      * The returned intersection iterates efficiently: a complete iteration takes time <i>O(N * M)</i> where
      * <i>N</i> is the size of the smallest set, and <i>M</i> is the number of sets.
+     * See {@link #intersection(Iterable)} for details.
      *
      * @param sets the sets to intersect
      * @param <E> element type
@@ -195,6 +199,43 @@ public final class NavigableSets {
         return new EmptyNavigableSet<E>(comparator);
     }
 
+    /**
+     * Get a {@link SeekableIterator} over the given set.
+     *
+     * <p>
+     * If {@code set}'s {@link NavigableSet#iterator iterator()} already returns a {@link SeekableIterator}, that iterator is
+     * returned; otherwise, a {@link SeekableIterator} based on {@link NavigableSet#ceiling ceiling()} and
+     * {@link NavigableSet#higher higher()} queries is returned.
+     *
+     * @param set navigable set
+     * @param <E> element type
+     * @return seekable iterator over {@code set}
+     * @throws IllegalArgumentException if {@code set} is null
+     */
+    public static <E> SeekableIterator<E> seekableIterator(NavigableSet<E> set) {
+        Preconditions.checkArgument(set != null, "null set");
+        final Iterator<E> iterator = set.iterator();
+        if (iterator instanceof SeekableIterator)
+            return (SeekableIterator<E>)iterator;
+        return new NavigableSetSeekableIterator<E>(set, iterator);
+    }
+
+    /**
+     * Get a cheap estimate of the number of elements in the given set.
+     *
+     * @param set navigable set
+     * @return estimated number of elements, or -1 if unknown
+     */
+    static long estimateCardinality(NavigableSet<?> set) {
+        if (set instanceof CardinalityEstimating)
+            return ((CardinalityEstimating)set).estimateCardinality();
+        if (set instanceof EmptyNavigableSet)
+            return 0;
+        if (set instanceof SingletonNavigableSet)
+            return 1;
+        return -1;
+    }
+
     /**
      * Get a non-null {@link Comparator} that sorts consistently with, and optionally reversed from, the given {@link Comparator}.
      *
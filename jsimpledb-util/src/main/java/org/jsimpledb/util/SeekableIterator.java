@@ -0,0 +1,35 @@
+
+/*
+ * Copyright (C) 2015 Archie L. Cobbs. All rights reserved.
+ */
+
+package org.jsimpledb.util;
+
+import java.util.Iterator;
+
+/**
+ * An {@link Iterator} over the elements of a sorted collection that can be efficiently repositioned.
+ *
+ * <p>
+ * Instances are typically returned by {@link java.util.NavigableSet#iterator} for sets backed by some underlying
+ * sorted storage, where repositioning an existing iteration is cheaper than starting a new one via
+ * {@link java.util.NavigableSet#ceiling ceiling()} or {@link java.util.NavigableSet#tailSet tailSet()}.
+ *
+ * @param <E> element type
+ * @see NavigableSets#seekableIterator NavigableSets.seekableIterator()
+ */
+public interface SeekableIterator<E> extends Iterator<E> {
+
+    /**
+     * Reposition this instance so that the next element returned by {@link #next} will be the first element that is
+     * equal to or after {@code target} in this iteration's order. If there is no such element, this iteration ends.
+     *
+     * <p>
+     * Repositioning is not restricted to the forward direction, although implementations may be optimized for that case.
+     * Invoking this method may cause a previously returned element to no longer be {@link #remove}able.
+     *
+     * @param target target element
+     * @throws IllegalArgumentException if {@code target} is not of the correct type or is an illegal null value
+     */
+    void seek(E target);
+}
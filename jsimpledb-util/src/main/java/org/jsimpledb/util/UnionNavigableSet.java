@@ -5,19 +5,20 @@
 
 package org.jsimpledb.util;
 
-import com.google.common.base.Function;
-import com.google.common.collect.Iterators;
-import com.google.common.collect.Lists;
-
+import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.Iterator;
 import java.util.List;
 import java.util.NavigableSet;
+import java.util.NoSuchElementException;
 
 /**
  * Provides a read-only view of the union of two or more {@link NavigableSet}s.
+ *
+ * <p>
+ * Iteration merges the {@link SeekableIterator}s of the individual sets, and is itself seekable,
+ * so a union may efficiently participate in an {@linkplain NavigableSets#intersection intersection}.
  */
-class UnionNavigableSet<E> extends AbstractMultiNavigableSet<E> {
+class UnionNavigableSet<E> extends AbstractMultiNavigableSet<E> implements CardinalityEstimating {
 
     /**
      * Constructor.
@@ -56,15 +57,106 @@ class UnionNavigableSet<E> extends AbstractMultiNavigableSet<E> {
     }
 
     @Override
-    public Iterator<E> iterator() {
-        final Comparator<? super E> comparator = this.getComparator(false);
-        return new UniqueIterator<E>(Iterators.mergeSorted(Lists.transform(this.list,
-          new Function<NavigableSet<E>, Iterator<E>>() {
-            @Override
-            public Iterator<E> apply(NavigableSet<E> set) {
-                return set.iterator();
+    public SeekableIterator<E> iterator() {
+        return new Iterator();
+    }
+
+// CardinalityEstimating
+
+    /**
+     * Estimate the number of elements in this union.
+     *
+     * <p>
+     * The implementation in {@link UnionNavigableSet} returns the sum of the estimates of the individual sets.
+     *
+     * @return upper bound estimate of this set's size, or -1 if any set has no estimate
+     */
+    @Override
+    public long estimateCardinality() {
+        long result = 0;
+        for (NavigableSet<E> set : this.list) {
+            final long estimate = NavigableSets.estimateCardinality(set);
+            if (estimate < 0)
+                return -1;
+            result += estimate;
+        }
+        return result;
+    }
+
+// Iterator
+
+    private class Iterator implements SeekableIterator<E> {
+
+        private final Comparator<? super E> comparator = UnionNavigableSet.this.getComparator(false);
+        private final ArrayList<SeekableIterator<E>> iterators = new ArrayList<>();
+        private final ArrayList<E> heads = new ArrayList<>();     // next element from each iterator, if loaded
+        private final boolean[] loaded;                             // whether the corresponding head is loaded
+        private final boolean[] exhausted;                          // whether the corresponding iterator is exhausted
+
+        Iterator() {
+            for (NavigableSet<E> set : UnionNavigableSet.this.list) {
+                this.iterators.add(NavigableSets.seekableIterator(set));
+                this.heads.add(null);
             }
-        }), comparator), comparator);
+            this.loaded = new boolean[this.iterators.size()];
+            this.exhausted = new boolean[this.iterators.size()];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.findMin() != -1;
+        }
+
+        @Override
+        public E next() {
+
+            // Find the least head element
+            final int min = this.findMin();
+            if (min == -1)
+                throw new NoSuchElementException();
+            final E next = this.heads.get(min);
+
+            // Consume it, along with any duplicates from other sets
+            for (int i = 0; i < this.iterators.size(); i++) {
+                if (this.loaded[i] && (i == min || this.comparator.compare(this.heads.get(i), next) == 0)) {
+                    this.loaded[i] = false;
+                    this.heads.set(i, null);
+                }
+            }
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void seek(E target) {
+            for (int i = 0; i < this.iterators.size(); i++) {
+                this.iterators.get(i).seek(target);
+                this.loaded[i] = false;
+                this.exhausted[i] = false;
+                this.heads.set(i, null);
+            }
+        }
+
+        // Load all heads and return the index of the least one, or -1 if all iterators are exhausted
+        private int findMin() {
+            int min = -1;
+            for (int i = 0; i < this.iterators.size(); i++) {
+                if (!this.loaded[i] && !this.exhausted[i]) {
+                    final SeekableIterator<E> iterator = this.iterators.get(i);
+                    if (iterator.hasNext()) {
+                        this.heads.set(i, iterator.next());
+                        this.loaded[i] = true;
+                    } else
+                        this.exhausted[i] = true;
+                }
+                if (this.loaded[i] && (min == -1 || this.comparator.compare(this.heads.get(i), this.heads.get(min)) < 0))
+                    min = i;
+            }
+            return min;
+        }
     }
 }
-
@@ -8,6 +8,7 @@ package org.jsimpledb.util;
 import com.google.common.collect.Sets;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.NavigableSet;
 import java.util.TreeSet;
@@ -174,6 +175,42 @@ public class IntersectionNavigableSetTest extends TestSupport {
         TestSupport.checkSet(intersect4, buildSet(100, 200));
     }
 
+    @Test
+    public void testSeek() {
+
+        final NavigableSet<Integer> set1 = new TreeSet<>(Arrays.asList(10, 12, 14, 16, 18, 20, 22));
+        final NavigableSet<Integer> set2 = new TreeSet<>(Arrays.asList(12, 13, 16, 20, 21, 22));
+        final NavigableSet<Integer> set3 = new TreeSet<>(Arrays.asList(11, 12, 16, 17, 20, 22, 23));
+
+        // Intersection
+        final SeekableIterator<Integer> i = NavigableSets.seekableIterator(NavigableSets.intersection(set1, set2, set3));
+        Assert.assertEquals(i.next(), (Integer)12);
+        i.seek(17);
+        Assert.assertEquals(i.next(), (Integer)20);
+        i.seek(14);
+        Assert.assertEquals(i.next(), (Integer)16);
+        i.seek(21);
+        Assert.assertEquals(i.next(), (Integer)22);
+        Assert.assertFalse(i.hasNext());
+        i.seek(23);
+        Assert.assertFalse(i.hasNext());
+
+        // Union
+        final SeekableIterator<Integer> u = NavigableSets.seekableIterator(NavigableSets.union(set1, set2));
+        Assert.assertEquals(u.next(), (Integer)10);
+        u.seek(13);
+        Assert.assertEquals(u.next(), (Integer)13);
+        Assert.assertEquals(u.next(), (Integer)14);
+        u.seek(21);
+        Assert.assertEquals(u.next(), (Integer)21);
+        Assert.assertEquals(u.next(), (Integer)22);
+        Assert.assertFalse(u.hasNext());
+
+        // Intersection containing a union
+        final NavigableSet<Integer> mixed = NavigableSets.intersection(NavigableSets.union(set2, set3), set1);
+        TestSupport.checkSet(mixed, buildSet(12, 16, 20, 22));
+    }
+
     private void verifyIntersection(List<NavigableSet<Integer>> sets) {
         final NavigableSet<Integer> expected = this.calculateIntersection(sets);
         final IntersectionNavigableSet<Integer> actual = new IntersectionNavigableSet<Integer>(sets);